@@ -0,0 +1,45 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.benchmark;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+
+/**
+ * The first query of a fresh JVM, as a short lived function would make it: prints the microseconds
+ * the first {@link MoonPhaseFinder#findFullMoonFollowing(ZonedDateTime)} took, class loading and
+ * initialization included.  Run by {@link StartupBenchmark}.
+ */
+public final class FirstCall {
+
+    private FirstCall() {
+    }
+
+    /**
+     * @param args not used
+     */
+    public static void main(String[] args) {
+        ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        long start = System.nanoTime();
+        ZonedDateTime fullMoon = MoonPhaseFinder.findFullMoonFollowing(from);
+        long micros = (System.nanoTime() - start) / 1000;
+        if (fullMoon.getYear() != 2024) {
+            throw new IllegalStateException("unexpected full moon " + fullMoon);
+        }
+        System.out.println(micros);
+    }
+
+}
@@ -0,0 +1,130 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.benchmark;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.bradsbrain.simpleastronomy.EphemerisTier;
+import com.bradsbrain.simpleastronomy.JulianDate;
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+import com.bradsbrain.simpleastronomy.SunriseSunset;
+import com.bradsbrain.simpleastronomy.SunriseSunsetGrid;
+
+/**
+ * The static API and the shared caches as an application calls them, each thread with its own
+ * inputs.  Run it at increasing thread counts with {@link ScalingRunner} to see how it scales.
+ * <p>
+ * The inputs cycle through 1024 random instants of 1950-2050, so the phase searches hit the process
+ * wide lunation index once it has grown, as a long running service would.
+ */
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PublicApiBenchmark {
+
+    private static final int INPUTS = 1024;
+
+    /**
+     * What all the threads share.
+     */
+    @State(Scope.Benchmark)
+    public static class Shared {
+        final SunriseSunsetGrid grid = new SunriseSunsetGrid();
+        final SunriseSunset sunriseSunset = new SunriseSunset();
+    }
+
+    /**
+     * The inputs of one thread, different for each thread.
+     */
+    @State(Scope.Thread)
+    public static class Inputs {
+        final ZonedDateTime[] times = new ZonedDateTime[INPUTS];
+        final double[] latitudes = new double[INPUTS];
+        final double[] longitudes = new double[INPUTS];
+        final LocalDate date = LocalDate.of(2024, 5, 5);
+        int next;
+
+        @Setup
+        public void setUp() {
+            Random random = new Random(Thread.currentThread().getId());
+            ZonedDateTime start = ZonedDateTime.of(1950, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+            for (int i = 0; i < INPUTS; i++) {
+                times[i] = start.plusSeconds((long) (random.nextDouble() * 100 * 365.25 * 24 * 3600));
+                // users cluster around a few cities
+                latitudes[i] = 40 + 10 * random.nextDouble();
+                longitudes[i] = -75 + 80 * random.nextInt(2) + 5 * random.nextDouble();
+            }
+        }
+
+        int next() {
+            next = (next + 1) & (INPUTS - 1);
+            return next;
+        }
+    }
+
+    @Benchmark
+    public double visiblePercent(Inputs inputs) {
+        return MoonPhaseFinder.getMoonVisiblePercent(inputs.times[inputs.next()]);
+    }
+
+    @Benchmark
+    public double moonAngleHigh(Inputs inputs) {
+        return MoonPhaseFinder.getMoonAngle(inputs.times[inputs.next()], EphemerisTier.HIGH.getEphemeris());
+    }
+
+    @Benchmark
+    public MoonPhaseFinder.MoonPhase phaseAt(Inputs inputs) {
+        return MoonPhaseFinder.findMoonPhaseAt(inputs.times[inputs.next()]);
+    }
+
+    @Benchmark
+    public ZonedDateTime fullMoonFollowing(Inputs inputs) {
+        return MoonPhaseFinder.findFullMoonFollowing(inputs.times[inputs.next()]);
+    }
+
+    @Benchmark
+    public Double julianDate(Inputs inputs) {
+        return JulianDate.makeJulianDateUsingMyModified(inputs.times[inputs.next()]);
+    }
+
+    @Benchmark
+    public long sunriseExact(Shared shared, Inputs inputs) {
+        int i = inputs.next();
+        return shared.sunriseSunset.findSunrise(inputs.date, inputs.latitudes[i], inputs.longitudes[i]);
+    }
+
+    @Benchmark
+    public long sunriseGrid(Shared shared, Inputs inputs) {
+        int i = inputs.next();
+        return shared.grid.findSunrise(inputs.date, inputs.latitudes[i], inputs.longitudes[i]);
+    }
+
+}
@@ -0,0 +1,92 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.benchmark;
+
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.RunResult;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Runs {@link PublicApiBenchmark} at 1, 2, 4 ... threads up to the number of processors, with the GC
+ * profiler, and prints one CSV line per benchmark and thread count:
+ * <ul>
+ * <li>the throughput in operations per microsecond, all threads together</li>
+ * <li>the scaling, that throughput over the threads times the single thread throughput, 1 when it
+ * scales linearly</li>
+ * <li>the bytes allocated per operation, and the megabytes allocated per second by each thread</li>
+ * </ul>
+ * A flat throughput with a steady allocation per operation points at the allocation and the
+ * collector, one with a rising allocation or time per operation at contention.
+ * <p>
+ * Run with {@code gradle jmhScaling}, {@code -PmaxThreads=64} to go further than the processors of
+ * the machine and {@code -Pbenchmarks=phaseAt} to run only some of the benchmarks (a regular expression).
+ */
+public final class ScalingRunner {
+
+    private ScalingRunner() {
+    }
+
+    /**
+     * @param args the most threads, then optionally a regular expression for the benchmark methods
+     * @throws RunnerException if JMH fails
+     */
+    public static void main(String[] args) throws RunnerException {
+        int maxThreads = args.length > 0 ? Integer.parseInt(args[0]) : Runtime.getRuntime().availableProcessors();
+        String include = PublicApiBenchmark.class.getName() + "." + (args.length > 1 ? args[1] : ".*");
+
+        Map<String, Double> singleThread = new HashMap<>();
+        StringBuilder report = new StringBuilder(
+                "benchmark,threads,ops per us,scaling,bytes per op,MB per s per thread\n");
+        for (int threads = 1; ; threads = Math.min(2 * threads, maxThreads)) {
+            Options options = new OptionsBuilder()
+                    .include(include)
+                    .threads(threads)
+                    .addProfiler(GCProfiler.class)
+                    .build();
+            for (RunResult result : new Runner(options).run()) {
+                String benchmark = result.getParams().getBenchmark();
+                double score = result.getPrimaryResult().getScore();
+                singleThread.putIfAbsent(benchmark, score);
+                report.append(String.format(Locale.ROOT, "%s,%d,%.3f,%.2f,%.1f,%.1f%n",
+                        benchmark.substring(benchmark.lastIndexOf('.') + 1), threads, score,
+                        score / (threads * singleThread.get(benchmark)),
+                        secondary(result, "gc.alloc.rate.norm"), secondary(result, "gc.alloc.rate") / threads));
+            }
+            if (threads >= maxThreads) {
+                break;
+            }
+        }
+        System.out.print(report);
+    }
+
+    /**
+     * @return a result of the GC profiler, whose labels older JMH releases prefix with a dot
+     */
+    private static double secondary(RunResult result, String label) {
+        for (String key : result.getSecondaryResults().keySet()) {
+            if (key.equals(label) || key.equals("\u00b7" + label)) {
+                return result.getSecondaryResults().get(key).getScore();
+            }
+        }
+        return Double.NaN;
+    }
+
+}
@@ -0,0 +1,98 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.benchmark;
+
+import java.io.BufferedReader;
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Measures the cold start of the library: runs {@link FirstCall} in fresh JVMs and prints, for each
+ * way of starting them, the median time the whole process took and the median time of the first
+ * {@code findFullMoonFollowing} call, which the JVM's own startup doesn't count in:
+ * <ul>
+ * <li>{@code no-cds}, without class data sharing ({@code -Xshare:off})</li>
+ * <li>{@code jdk-cds}, with the JDK's own archive of its classes, the default since Java 12</li>
+ * <li>{@code app-cds}, with an archive of the library's classes too, if one is given, see the
+ * {@code cdsArchive} task</li>
+ * </ul>
+ * The JVMs are started one at a time, in turns, so that a busy machine affects all of them alike.
+ * Run with {@code gradle startupBenchmark}, {@code -PstartupRuns=50} for more runs than 20.
+ */
+public final class StartupBenchmark {
+
+    private StartupBenchmark() {
+    }
+
+    /**
+     * @param args the number of runs of each kind, the class path of the JVMs (which must start with
+     *             the jar the archive was made with), then optionally the archive
+     * @throws IOException if a JVM can't be started
+     * @throws InterruptedException if interrupted while waiting for one
+     */
+    public static void main(String[] args) throws IOException, InterruptedException {
+        if (args.length < 2) {
+            throw new IllegalArgumentException("usage: runs classpath [archive]");
+        }
+        int runs = Integer.parseInt(args[0]);
+        String classPath = args[1];
+        List<String[]> modes = new ArrayList<>();
+        modes.add(new String[]{"no-cds", "-Xshare:off"});
+        modes.add(new String[]{"jdk-cds", "-Xshare:auto"});
+        if (args.length > 2 && new File(args[2]).isFile()) {
+            modes.add(new String[]{"app-cds", "-XX:SharedArchiveFile=" + args[2]});
+        }
+        String java = System.getProperty("java.home") + File.separator + "bin" + File.separator + "java";
+
+        long[][] processMicros = new long[modes.size()][runs];
+        long[][] firstCallMicros = new long[modes.size()][runs];
+        for (int run = 0; run < runs; run++) {
+            for (int mode = 0; mode < modes.size(); mode++) {
+                ProcessBuilder builder = new ProcessBuilder(java, modes.get(mode)[1], "-cp", classPath,
+                        FirstCall.class.getName()).redirectErrorStream(true);
+                long start = System.nanoTime();
+                Process process = builder.start();
+                String output;
+                try (BufferedReader lines = new BufferedReader(
+                        new InputStreamReader(process.getInputStream(), StandardCharsets.UTF_8))) {
+                    output = lines.readLine();
+                }
+                if (process.waitFor() != 0 || output == null) {
+                    throw new IllegalStateException(modes.get(mode)[0] + " run failed: " + output);
+                }
+                processMicros[mode][run] = (System.nanoTime() - start) / 1000;
+                firstCallMicros[mode][run] = Long.parseLong(output.trim());
+            }
+        }
+
+        System.out.println("mode,runs,process ms,first call ms");
+        for (int mode = 0; mode < modes.size(); mode++) {
+            System.out.println(String.format(Locale.ROOT, "%s,%d,%.1f,%.2f", modes.get(mode)[0], runs,
+                    median(processMicros[mode]) / 1000.0, median(firstCallMicros[mode]) / 1000.0));
+        }
+    }
+
+    private static long median(long[] values) {
+        long[] sorted = values.clone();
+        Arrays.sort(sorted);
+        return sorted[sorted.length / 2];
+    }
+
+}
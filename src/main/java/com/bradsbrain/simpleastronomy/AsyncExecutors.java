@@ -0,0 +1,36 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * The executor used by {@link MoonPhaseFinderAsync} when the caller doesn't give one.
+ * <p>
+ * The jar carries a Java 21 version of this class which uses virtual threads.
+ */
+final class AsyncExecutors {
+
+    private AsyncExecutors() {
+    }
+
+    /**
+     * @return the common fork join pool
+     */
+    static Executor defaultExecutor() {
+        return ForkJoinPool.commonPool();
+    }
+
+}
@@ -39,7 +39,17 @@ public final class BaseUtils {
         return Math.cos(Math.toRadians(angleInDegrees));
     }
 
+    /**
+     * @param d the value to round
+     * @param precision the number of decimals to keep, up to {@value Precision#MAX_DECIMALS} without
+     *                  computing a power of ten
+     * @return the value rounded half up
+     * @see Precision
+     */
     public static double useLessPrecision(double d, int precision) {
+        if (precision >= 0 && precision <= Precision.MAX_DECIMALS) {
+            return Precision.decimals(precision).round(d);
+        }
         double digits = Math.pow(10, precision);
         return Math.round(d * digits) / digits;
     }
@@ -0,0 +1,361 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * Brent's methods for the root and for the minimum or maximum of a function of one variable, such
+ * as a quantity as a function of time in days.
+ * <p>
+ * Both start from two points and move outwards until the answer is bracketed: a sign change for a
+ * root, or a point lower (higher) than the points either side of it for a minimum (maximum).  Then
+ * they combine inverse interpolation, or parabolic interpolation for an extremum, with bisection or
+ * golden section steps, so they converge about as fast as the interpolation when the function is
+ * smooth and never slower than the bisection when it isn't.
+ * <p>
+ * A call evaluates the function at most {@value #MAX_EXPANSIONS} times while bracketing and
+ * {@code maxIterations} times after, and doesn't allocate.  When the iterations run out the best
+ * point found is returned and {@link #isConverged()} is false.
+ * <p>
+ * An extremum can only be located to about the square root of the double precision relative to
+ * its position, so pass the time as days since a start near the answer rather than as a julian
+ * date, which would limit it to about an hour.
+ * <p>
+ * A solver keeps counters, so it is not thread safe, use one per thread.
+ */
+public final class BrentSolver {
+
+    /**
+     * The default tolerance, a tenth of a second in days
+     */
+    public static final double DEFAULT_TOLERANCE = 0.1 / (24 * 3600);
+
+    public static final int DEFAULT_MAX_ITERATIONS = 100;
+
+    /**
+     * The most evaluations spent bracketing the answer
+     */
+    public static final int MAX_EXPANSIONS = 50;
+
+    private static final double GOLDEN_RATIO = 1.618033988749895;
+    // the golden section of an interval, (3 - sqrt(5)) / 2
+    private static final double GOLDEN_SECTION = 0.3819660112501051;
+    private static final double SQRT_EPSILON = Math.sqrt(Math.ulp(1.0));
+
+    private final double tolerance;
+    private final int maxIterations;
+
+    private long evaluations;
+    private int iterations;
+    private boolean converged;
+    private double value;
+
+    /**
+     * A solver with the default tolerance and iterations.
+     */
+    public BrentSolver() {
+        this(DEFAULT_TOLERANCE, DEFAULT_MAX_ITERATIONS);
+    }
+
+    /**
+     * @param tolerance how close to the answer the result must be, in the unit of the variable
+     * @param maxIterations the most evaluations after the answer is bracketed
+     */
+    public BrentSolver(double tolerance, int maxIterations) {
+        if (!(tolerance > 0)) {
+            throw new IllegalArgumentException("tolerance must be positive: " + tolerance);
+        }
+        if (maxIterations < 1) {
+            throw new IllegalArgumentException("maxIterations must be positive: " + maxIterations);
+        }
+        this.tolerance = tolerance;
+        this.maxIterations = maxIterations;
+    }
+
+    /**
+     * Finds where the function is zero, between the two points or beyond them.
+     *
+     * @param function the function
+     * @param a a first point
+     * @param b a second point, different from the first
+     * @return a point within the tolerance of a root
+     * @throws IllegalArgumentException if the function doesn't change sign as the points move apart
+     */
+    public double findRoot(DoubleUnaryOperator function, double a, double b) {
+        if (a == b) {
+            throw new IllegalArgumentException("points must differ: " + a);
+        }
+        iterations = 0;
+        converged = false;
+        double fa = evaluate(function, a);
+        double fb = evaluate(function, b);
+        for (int expansion = 0; Math.signum(fa) * Math.signum(fb) > 0; expansion++) {
+            if (expansion == MAX_EXPANSIONS) {
+                throw new IllegalArgumentException("no sign change between " + a + " and " + b);
+            }
+            if (Math.abs(fa) < Math.abs(fb)) {
+                a += GOLDEN_RATIO * (a - b);
+                fa = evaluate(function, a);
+            } else {
+                b += GOLDEN_RATIO * (b - a);
+                fb = evaluate(function, b);
+            }
+        }
+
+        // b is the best point, a the previous one and c the other side of the bracket
+        double c = b;
+        double fc = fb;
+        double step = b - a;
+        double previousStep = step;
+        while (true) {
+            if (Math.signum(fb) * Math.signum(fc) > 0) {
+                c = a;
+                fc = fa;
+                step = b - a;
+                previousStep = step;
+            }
+            if (Math.abs(fc) < Math.abs(fb)) {
+                a = b;
+                b = c;
+                c = a;
+                fa = fb;
+                fb = fc;
+                fc = fa;
+            }
+            double tolerance1 = 2 * Math.ulp(b) + 0.5 * tolerance;
+            double halfBracket = 0.5 * (c - b);
+            if (Math.abs(halfBracket) <= tolerance1 || fb == 0) {
+                converged = true;
+                break;
+            }
+            if (iterations == maxIterations) {
+                break;
+            }
+            if (Math.abs(previousStep) >= tolerance1 && Math.abs(fa) > Math.abs(fb)) {
+                // inverse quadratic interpolation, or the secant when there are only two points
+                double s = fb / fa;
+                double p;
+                double q;
+                if (a == c) {
+                    p = 2 * halfBracket * s;
+                    q = 1 - s;
+                } else {
+                    double r = fb / fc;
+                    q = fa / fc;
+                    p = s * (2 * halfBracket * q * (q - r) - (b - a) * (r - 1));
+                    q = (q - 1) * (r - 1) * (s - 1);
+                }
+                if (p > 0) {
+                    q = -q;
+                }
+                p = Math.abs(p);
+                if (2 * p < Math.min(3 * halfBracket * q - Math.abs(tolerance1 * q), Math.abs(previousStep * q))) {
+                    previousStep = step;
+                    step = p / q;
+                } else {
+                    step = halfBracket;
+                    previousStep = step;
+                }
+            } else {
+                step = halfBracket;
+                previousStep = step;
+            }
+            a = b;
+            fa = fb;
+            b += Math.abs(step) > tolerance1 ? step : Math.copySign(tolerance1, halfBracket);
+            fb = evaluate(function, b);
+            iterations++;
+        }
+        value = fb;
+        return b;
+    }
+
+    /**
+     * Finds a minimum of the function, going downhill from the two points.
+     *
+     * @param function the function
+     * @param a a first point
+     * @param b a second point, different from the first
+     * @return a point within the tolerance of a local minimum, see {@link #getValue()} for the minimum
+     * @throws IllegalArgumentException if no minimum is bracketed before the function stops decreasing
+     */
+    public double findMinimum(DoubleUnaryOperator function, double a, double b) {
+        return findExtremum(function, a, b, 1);
+    }
+
+    /**
+     * Finds a maximum of the function, going uphill from the two points.
+     *
+     * @param function the function
+     * @param a a first point
+     * @param b a second point, different from the first
+     * @return a point within the tolerance of a local maximum, see {@link #getValue()} for the maximum
+     * @throws IllegalArgumentException if no maximum is bracketed before the function stops increasing
+     */
+    public double findMaximum(DoubleUnaryOperator function, double a, double b) {
+        return findExtremum(function, a, b, -1);
+    }
+
+    /**
+     * Finds a minimum of the function times the sign.
+     */
+    private double findExtremum(DoubleUnaryOperator function, double a, double b, double sign) {
+        if (a == b) {
+            throw new IllegalArgumentException("points must differ: " + a);
+        }
+        iterations = 0;
+        converged = false;
+        double fa = sign * evaluate(function, a);
+        double fb = sign * evaluate(function, b);
+        if (fb > fa) {
+            double swap = a;
+            a = b;
+            b = swap;
+            swap = fa;
+            fa = fb;
+            fb = swap;
+        }
+        // downhill from a to b, until c is higher than b
+        double c = b + GOLDEN_RATIO * (b - a);
+        double fc = sign * evaluate(function, c);
+        for (int expansion = 0; fc < fb; expansion++) {
+            if (expansion == MAX_EXPANSIONS) {
+                throw new IllegalArgumentException("no extremum bracketed from " + a + " to " + c);
+            }
+            a = b;
+            b = c;
+            fb = fc;
+            c = b + GOLDEN_RATIO * (b - a);
+            fc = sign * evaluate(function, c);
+        }
+
+        double low = Math.min(a, c);
+        double high = Math.max(a, c);
+        // x is the best point, w the second best and v the previous w
+        double x = b;
+        double w = b;
+        double v = b;
+        double fx = fb;
+        double fw = fb;
+        double fv = fb;
+        double step = 0;
+        double previousStep = 0;
+        while (true) {
+            double middle = 0.5 * (low + high);
+            double tolerance1 = SQRT_EPSILON * Math.abs(x) + tolerance / 3;
+            double tolerance2 = 2 * tolerance1;
+            if (Math.abs(x - middle) <= tolerance2 - 0.5 * (high - low)) {
+                converged = true;
+                break;
+            }
+            if (iterations == maxIterations) {
+                break;
+            }
+            boolean golden = true;
+            if (Math.abs(previousStep) > tolerance1) {
+                // the vertex of the parabola through x, w and v
+                double r = (x - w) * (fx - fv);
+                double q = (x - v) * (fx - fw);
+                double p = (x - v) * q - (x - w) * r;
+                q = 2 * (q - r);
+                if (q > 0) {
+                    p = -p;
+                }
+                q = Math.abs(q);
+                double olderStep = previousStep;
+                previousStep = step;
+                if (Math.abs(p) < Math.abs(0.5 * q * olderStep) && p > q * (low - x) && p < q * (high - x)) {
+                    step = p / q;
+                    double u = x + step;
+                    if (u - low < tolerance2 || high - u < tolerance2) {
+                        step = Math.copySign(tolerance1, middle - x);
+                    }
+                    golden = false;
+                }
+            }
+            if (golden) {
+                previousStep = x >= middle ? low - x : high - x;
+                step = GOLDEN_SECTION * previousStep;
+            }
+            double u = Math.abs(step) >= tolerance1 ? x + step : x + Math.copySign(tolerance1, step);
+            double fu = sign * evaluate(function, u);
+            iterations++;
+            if (fu <= fx) {
+                if (u >= x) {
+                    low = x;
+                } else {
+                    high = x;
+                }
+                v = w;
+                fv = fw;
+                w = x;
+                fw = fx;
+                x = u;
+                fx = fu;
+            } else {
+                if (u < x) {
+                    low = u;
+                } else {
+                    high = u;
+                }
+                if (fu <= fw || w == x) {
+                    v = w;
+                    fv = fw;
+                    w = u;
+                    fw = fu;
+                } else if (fu <= fv || v == x || v == w) {
+                    v = u;
+                    fv = fu;
+                }
+            }
+        }
+        value = sign * fx;
+        return x;
+    }
+
+    private double evaluate(DoubleUnaryOperator function, double x) {
+        evaluations++;
+        return function.applyAsDouble(x);
+    }
+
+    /**
+     * @return the function at the point returned by the last search
+     */
+    public double getValue() {
+        return value;
+    }
+
+    /**
+     * @return the evaluations by all the searches so far, including the bracketing
+     */
+    public long getEvaluations() {
+        return evaluations;
+    }
+
+    /**
+     * @return the iterations of the last search after its answer was bracketed
+     */
+    public int getIterations() {
+        return iterations;
+    }
+
+    /**
+     * @return false if the last search ran out of iterations before reaching the tolerance
+     */
+    public boolean isConverged() {
+        return converged;
+    }
+
+}
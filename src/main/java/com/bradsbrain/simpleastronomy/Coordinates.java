@@ -0,0 +1,122 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static com.bradsbrain.simpleastronomy.BaseUtils.cosDegrees;
+import static com.bradsbrain.simpleastronomy.BaseUtils.sinDegrees;
+
+/**
+ * The epoch and units of the series, and the conversion from ecliptic to equatorial coordinates,
+ * shared by the trackers and finders.
+ */
+final class Coordinates {
+
+    /**
+     * The julian date of 2000 January 1.5, the epoch of the series of <i>Astronomical Algorithms</i>
+     */
+    static final double J2000 = 2451545.0;
+
+    static final double DAYS_PER_CENTURY = 36525;
+
+    /**
+     * Kilometres, the sun's mean distance from the earth
+     */
+    static final double ASTRONOMICAL_UNIT = 149597870.7;
+
+    private Coordinates() {
+    }
+
+    /**
+     * @param julianDate a julian date
+     * @return julian centuries since {@link #J2000}
+     */
+    static double centuriesSinceJ2000(double julianDate) {
+        return (julianDate - J2000) / DAYS_PER_CENTURY;
+    }
+
+    /**
+     * @param instant an instant
+     * @return julian centuries since {@link #J2000}
+     */
+    static double centuriesSinceJ2000(JulianInstant instant) {
+        return instant.daysSince(J2000) / DAYS_PER_CENTURY;
+    }
+
+    /**
+     * The angle between the ecliptic and the celestial equator, section 27 of the book.
+     *
+     * @param t julian centuries since J2000
+     */
+    static double meanObliquity(double t) {
+        return 23.439292 - (46.815 * t + 0.0006 * t * t - 0.00181 * t * t * t) / 3600;
+    }
+
+    /**
+     * @param longitude ecliptic longitude in degrees
+     * @param latitude ecliptic latitude in degrees
+     * @param sinObliquity the sine of the obliquity of the ecliptic
+     * @param cosObliquity its cosine
+     * @return the right ascension in degrees, 0 to 360
+     */
+    static double rightAscension(double longitude, double latitude, double sinObliquity, double cosObliquity) {
+        return BaseUtils.adjustTo360Range(Math.toDegrees(Math.atan2(
+                sinDegrees(longitude) * cosObliquity - Math.tan(Math.toRadians(latitude)) * sinObliquity,
+                cosDegrees(longitude))));
+    }
+
+    /**
+     * @param longitude ecliptic longitude in degrees
+     * @param latitude ecliptic latitude in degrees
+     * @param sinObliquity the sine of the obliquity of the ecliptic
+     * @param cosObliquity its cosine
+     * @return the declination in degrees
+     */
+    static double declination(double longitude, double latitude, double sinObliquity, double cosObliquity) {
+        return Math.toDegrees(Math.asin(sinDegrees(latitude) * cosObliquity
+                + cosDegrees(latitude) * sinObliquity * sinDegrees(longitude)));
+    }
+
+    /**
+     * Same as {@link #rightAscension} on the ecliptic, where the sun is.
+     *
+     * @param longitude ecliptic longitude in degrees
+     * @param cosObliquity the cosine of the obliquity of the ecliptic
+     * @return the right ascension in degrees, 0 to 360
+     */
+    static double sunRightAscension(double longitude, double cosObliquity) {
+        return BaseUtils.adjustTo360Range(Math.toDegrees(Math.atan2(sinDegrees(longitude) * cosObliquity,
+                cosDegrees(longitude))));
+    }
+
+    /**
+     * Same as {@link #declination} on the ecliptic, where the sun is.
+     *
+     * @param longitude ecliptic longitude in degrees
+     * @param sinObliquity the sine of the obliquity of the ecliptic
+     * @return the declination in degrees
+     */
+    static double sunDeclination(double longitude, double sinObliquity) {
+        return Math.toDegrees(Math.asin(sinSunDeclination(longitude, sinObliquity)));
+    }
+
+    /**
+     * @param longitude ecliptic longitude in degrees
+     * @param sinObliquity the sine of the obliquity of the ecliptic
+     * @return the sine of the declination of a point on the ecliptic
+     */
+    static double sinSunDeclination(double longitude, double sinObliquity) {
+        return sinObliquity * sinDegrees(longitude);
+    }
+
+}
@@ -0,0 +1,168 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * Delta T, the difference between dynamical time (TT), which the sun and moon theories run on, and
+ * universal time (UT), which clocks and calendars follow.  It was a few seconds around 1900, is about
+ * 69 seconds today, and was hours in antiquity.
+ * <p>
+ * The values come from the polynomials of Espenak and Meeus (NASA's <i>Five Millennium Canon of
+ * Solar Eclipses</i>).  Between {@value #FIRST_YEAR} and {@value #LAST_YEAR}, where they change
+ * pieces every few decades, they are sampled once a year into a table, so a lookup is an index and
+ * an interpolation; outside it the single polynomial of the period is evaluated.
+ * <p>
+ * The Meeus ephemerides apply it to their input unless the {@value #PROPERTY} system property is
+ * {@code false}, which makes them take universal time as dynamical time like they used to.  The
+ * Duffett-Smith ephemeris never does, its constants being fitted to universal time.
+ */
+public final class DeltaT {
+
+    /**
+     * The system property which turns the correction off when set to {@code false}
+     */
+    public static final String PROPERTY = "com.bradsbrain.simpleastronomy.deltaT";
+
+    private static final boolean ENABLED = !"false".equalsIgnoreCase(System.getProperty(PROPERTY));
+
+    static final int FIRST_YEAR = 1600;
+    static final int LAST_YEAR = 2150;
+
+    private static final double DAYS_PER_YEAR = 365.25;
+    private static final double SECONDS_PER_DAY = 24 * 3600;
+
+    /**
+     * Delta T in seconds at the start of each year from {@link #FIRST_YEAR} to {@link #LAST_YEAR}
+     */
+    private static final float[] TABLE = new float[LAST_YEAR - FIRST_YEAR + 1];
+
+    static {
+        for (int i = 0; i < TABLE.length; i++) {
+            TABLE[i] = (float) polynomial(FIRST_YEAR + i);
+        }
+    }
+
+    private DeltaT() {
+    }
+
+    /**
+     * @return false if the ephemerides take their input as dynamical time, see {@link #PROPERTY}
+     */
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    /**
+     * @param year a year with its fraction, e.g. 2016.5 for the middle of 2016
+     * @return TT - UT in seconds
+     */
+    public static double seconds(double year) {
+        double offset = year - FIRST_YEAR;
+        if (offset >= 0 && offset < LAST_YEAR - FIRST_YEAR) {
+            int index = (int) offset;
+            double fraction = offset - index;
+            return TABLE[index] + fraction * (TABLE[index + 1] - TABLE[index]);
+        }
+        return polynomial(year);
+    }
+
+    /**
+     * @param julianDate a julian date in universal time
+     * @return TT - UT in days, 0 if the correction is off
+     */
+    static double days(double julianDate) {
+        if (!ENABLED) {
+            return 0;
+        }
+        return seconds(2000 + (julianDate - Coordinates.J2000) / DAYS_PER_YEAR) / SECONDS_PER_DAY;
+    }
+
+    /**
+     * @param julianDate a julian date in universal time
+     * @return the same instant as a julian ephemeris date, unchanged if the correction is off
+     */
+    static double toDynamicalTime(double julianDate) {
+        return julianDate + days(julianDate);
+    }
+
+    /**
+     * The piecewise polynomials of Espenak and Meeus.
+     */
+    static double polynomial(double year) {
+        if (year < -500) {
+            return longTerm(year);
+        }
+        if (year < 500) {
+            double u = year / 100;
+            return 10583.6 + u * (-1014.41 + u * (33.78311 + u * (-5.952053 + u * (-0.1798452
+                    + u * (0.022174192 + u * 0.0090316521)))));
+        }
+        if (year < 1600) {
+            double u = (year - 1000) / 100;
+            return 1574.2 + u * (-556.01 + u * (71.23472 + u * (0.319781 + u * (-0.8503463
+                    + u * (-0.005050998 + u * 0.0083572073)))));
+        }
+        if (year < 1700) {
+            double t = year - 1600;
+            return 120 + t * (-0.9808 + t * (-0.01532 + t / 7129));
+        }
+        if (year < 1800) {
+            double t = year - 1700;
+            return 8.83 + t * (0.1603 + t * (-0.0059285 + t * (0.00013336 - t / 1174000)));
+        }
+        if (year < 1860) {
+            double t = year - 1800;
+            return 13.72 + t * (-0.332447 + t * (0.0068612 + t * (0.0041116 + t * (-0.00037436
+                    + t * (0.0000121272 + t * (-0.0000001699 + t * 0.000000000875))))));
+        }
+        if (year < 1900) {
+            double t = year - 1860;
+            return 7.62 + t * (0.5737 + t * (-0.251754 + t * (0.01680668 + t * (-0.0004473624 + t / 233174))));
+        }
+        if (year < 1920) {
+            double t = year - 1900;
+            return -2.79 + t * (1.494119 + t * (-0.0598939 + t * (0.0061966 - t * 0.000197)));
+        }
+        if (year < 1941) {
+            double t = year - 1920;
+            return 21.20 + t * (0.84493 + t * (-0.076100 + t * 0.0020936));
+        }
+        if (year < 1961) {
+            double t = year - 1950;
+            return 29.07 + t * (0.407 + t * (-1 / 233.0 + t / 2547));
+        }
+        if (year < 1986) {
+            double t = year - 1975;
+            return 45.45 + t * (1.067 + t * (-1 / 260.0 - t / 718));
+        }
+        if (year < 2005) {
+            double t = year - 2000;
+            return 63.86 + t * (0.3345 + t * (-0.060374 + t * (0.0017275 + t * (0.000651814 + t * 0.00002373599))));
+        }
+        if (year < 2050) {
+            double t = year - 2000;
+            return 62.92 + t * (0.32217 + t * 0.005589);
+        }
+        if (year < 2150) {
+            return longTerm(year) - 0.5628 * (2150 - year);
+        }
+        return longTerm(year);
+    }
+
+    private static double longTerm(double year) {
+        double u = (year - 1820) / 100;
+        return -20 + 32 * u * u;
+    }
+
+}
@@ -0,0 +1,75 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * The theory from <i>Practical Astronomy with your Calculator</i>, as implemented by
+ * {@link SunPosition} and {@link MoonPosition}.  This is the default, and the cheapest.
+ */
+public final class DuffettSmithEphemeris implements Ephemeris {
+
+    /** {@inheritDoc} */
+    public double getSunEclipticLongitude(double julianDate) {
+        return SunPosition.eclipticLongitude(julianDate);
+    }
+
+    /** {@inheritDoc} */
+    public double getMoonEclipticLongitude(double julianDate) {
+        return MoonPosition.trueLongitude(julianDate);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMoonAngle(double julianDate) {
+        return MoonPhaseFinder.moonAngle(julianDate);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getSunEclipticLongitude(JulianInstant instant) {
+        return SunPosition.eclipticLongitude(instant);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMoonEclipticLongitude(JulianInstant instant) {
+        return MoonPosition.trueLongitude(instant);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getSunEclipticLongitude(long epochSecond, long nanoAdjustment) {
+        return SunPosition.eclipticLongitudeFromDaysSince(
+                JulianInstant.daysSince(epochSecond, nanoAdjustment, SunPosition.EPOCH));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMoonAngle(long epochSecond, long nanoAdjustment) {
+        double daysSince = JulianInstant.daysSince(epochSecond, nanoAdjustment, SunPosition.EPOCH);
+        return BaseUtils.adjustTo360Range(MoonPosition.trueLongitudeFromDaysSince(daysSince)
+                - SunPosition.eclipticLongitudeFromDaysSince(daysSince));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof DuffettSmithEphemeris;
+    }
+
+    @Override
+    public int hashCode() {
+        return DuffettSmithEphemeris.class.hashCode();
+    }
+
+}
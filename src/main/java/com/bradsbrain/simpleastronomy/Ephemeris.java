@@ -0,0 +1,108 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * A theory of the sun and moon positions which the rest of the library can be run on.
+ * <p>
+ * Implementations are expected to be stateless, thread safe and allocation-free.
+ * <p>
+ * The phase searches keep an index of new moons for each ephemeris they are given, for the life of
+ * the process, so create an ephemeris once and reuse it, or give equal ephemerides {@code equals} and
+ * {@code hashCode}.  Only the first 32 distinct ephemerides get a shared index; the searches with any
+ * other are still answered, but each builds its own index, which is much slower.
+ *
+ * @see EphemerisTier
+ */
+public interface Ephemeris {
+
+    /**
+     * @param julianDate the input date as a julian date
+     * @return the geocentric ecliptic longitude of the sun, 0 to 360 degrees
+     */
+    double getSunEclipticLongitude(double julianDate);
+
+    /**
+     * @param julianDate the input date as a julian date
+     * @return the geocentric ecliptic longitude of the moon in degrees
+     */
+    double getMoonEclipticLongitude(double julianDate);
+
+    /**
+     * The moon angle, see {@link MoonPhaseFinder#getMoonAngle(java.time.ZonedDateTime)}.
+     *
+     * @param julianDate the input date as a julian date
+     * @return the angle of the moon in relation to the earth, 0 to 360 degrees
+     */
+    default double getMoonAngle(double julianDate) {
+        return BaseUtils.adjustTo360Range(getMoonEclipticLongitude(julianDate) - getSunEclipticLongitude(julianDate));
+    }
+
+    /**
+     * Same as {@link #getSunEclipticLongitude(double)}, implementations should override it to work
+     * from the exact day count rather than the rounded julian date.
+     *
+     * @param instant the input date
+     * @return the geocentric ecliptic longitude of the sun, 0 to 360 degrees
+     */
+    default double getSunEclipticLongitude(JulianInstant instant) {
+        return getSunEclipticLongitude(instant.toJulianDate());
+    }
+
+    /**
+     * Same as {@link #getMoonEclipticLongitude(double)}, implementations should override it to work
+     * from the exact day count rather than the rounded julian date.
+     *
+     * @param instant the input date
+     * @return the geocentric ecliptic longitude of the moon in degrees
+     */
+    default double getMoonEclipticLongitude(JulianInstant instant) {
+        return getMoonEclipticLongitude(instant.toJulianDate());
+    }
+
+    /**
+     * Same as {@link #getMoonAngle(double)} without rounding the input date.
+     *
+     * @param instant the input date
+     * @return the angle of the moon in relation to the earth, 0 to 360 degrees
+     */
+    default double getMoonAngle(JulianInstant instant) {
+        return BaseUtils.adjustTo360Range(getMoonEclipticLongitude(instant) - getSunEclipticLongitude(instant));
+    }
+
+    /**
+     * Same as {@link #getSunEclipticLongitude(JulianInstant)}, called at every step of the searches.
+     * Implementations should override it to work without creating the instant.
+     *
+     * @param epochSecond the input date, in seconds since the java epoch
+     * @param nanoAdjustment nanoseconds to add to it
+     * @return the geocentric ecliptic longitude of the sun, 0 to 360 degrees
+     */
+    default double getSunEclipticLongitude(long epochSecond, long nanoAdjustment) {
+        return getSunEclipticLongitude(JulianInstant.ofEpochSecond(epochSecond, nanoAdjustment));
+    }
+
+    /**
+     * Same as {@link #getMoonAngle(JulianInstant)}, called at every step of the searches.
+     * Implementations should override it to work without creating the instant.
+     *
+     * @param epochSecond the input date, in seconds since the java epoch
+     * @param nanoAdjustment nanoseconds to add to it
+     * @return the angle of the moon in relation to the earth, 0 to 360 degrees
+     */
+    default double getMoonAngle(long epochSecond, long nanoAdjustment) {
+        return getMoonAngle(JulianInstant.ofEpochSecond(epochSecond, nanoAdjustment));
+    }
+
+}
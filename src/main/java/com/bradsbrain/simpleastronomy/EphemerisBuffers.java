@@ -0,0 +1,133 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+
+/**
+ * Writes samples taken at a fixed interval straight into caller provided buffers, which may be on the
+ * heap, direct or memory mapped.  Nothing is allocated per sample with the built-in ephemerides, which
+ * are evaluated from the sample's epoch second (see {@link Ephemeris#getMoonAngle(long, long)}); an
+ * {@link Ephemeris} which doesn't override those methods is given a new {@link JulianInstant} for each
+ * sample.
+ * <p>
+ * {@link #writeRecords} fills a {@link ByteBuffer} with records of {@value #RECORD_BYTES} bytes, always
+ * little-endian whatever the order of the buffer:
+ * <pre>
+ * offset  type     value
+ *      0  int64    the instant, seconds since 1970-01-01T00:00Z
+ *      8  float64  the moon angle, 0 to 360 degrees
+ *     16  float64  the visible fraction of the moon, 0 to 1, not rounded
+ *     24  float64  the ecliptic longitude of the sun, 0 to 360 degrees
+ * </pre>
+ * The visible fractions are raw, see {@link Precision}.  The other methods write a single column into a
+ * {@link DoubleBuffer}, in that buffer's own order (a view made with
+ * {@code byteBuffer.order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer()} is little-endian).
+ * <p>
+ * Each call fills the buffer from its position to its limit, advances the position and returns the
+ * number of samples written.  A file larger than one mapping is filled window by window, starting
+ * each window {@code written * stepSeconds} after the previous one.
+ */
+public final class EphemerisBuffers {
+
+    /**
+     * The size of one record written by {@link #writeRecords}
+     */
+    public static final int RECORD_BYTES = 32;
+
+    private EphemerisBuffers() {
+    }
+
+    /**
+     * @param ephemeris the sun and moon theory to use
+     * @param startEpochSecond the first sample, in seconds since 1970-01-01T00:00Z
+     * @param stepSeconds the time between two samples, may be negative
+     * @param out receives as many whole records as fit
+     * @return the number of records written
+     */
+    public static int writeRecords(Ephemeris ephemeris, long startEpochSecond, long stepSeconds, ByteBuffer out) {
+        ByteOrder callerOrder = out.order();
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        try {
+            EventSearch.Angle moon = EventSearch.moonAngle(ephemeris);
+            EventSearch.Angle sun = EventSearch.sunLongitude(ephemeris);
+            int count = out.remaining() / RECORD_BYTES;
+            for (int i = 0; i < count; i++) {
+                long epochSecond = startEpochSecond + i * stepSeconds;
+                double moonAngle = moon.at(epochSecond, 0);
+                double sunLongitude = sun.at(epochSecond, 0);
+                out.putLong(epochSecond)
+                        .putDouble(moonAngle)
+                        .putDouble(MoonPhaseFinder.visibleFraction(moonAngle))
+                        .putDouble(sunLongitude);
+            }
+            return count;
+        } finally {
+            out.order(callerOrder);
+        }
+    }
+
+    /**
+     * @param ephemeris the sun and moon theory to use
+     * @param startEpochSecond the first sample, in seconds since 1970-01-01T00:00Z
+     * @param stepSeconds the time between two samples, may be negative
+     * @param out receives one moon angle per remaining slot, 0 to 360 degrees
+     * @return the number of values written
+     */
+    public static int writeMoonAngles(Ephemeris ephemeris, long startEpochSecond, long stepSeconds, DoubleBuffer out) {
+        EventSearch.Angle moon = EventSearch.moonAngle(ephemeris);
+        int count = out.remaining();
+        for (int i = 0; i < count; i++) {
+            out.put(moon.at(startEpochSecond + i * stepSeconds, 0));
+        }
+        return count;
+    }
+
+    /**
+     * @param ephemeris the sun and moon theory to use
+     * @param startEpochSecond the first sample, in seconds since 1970-01-01T00:00Z
+     * @param stepSeconds the time between two samples, may be negative
+     * @param out receives one visible fraction per remaining slot, as
+     *            {@link MoonPhaseFinder#getMoonVisiblePercent(java.time.ZonedDateTime, Ephemeris, Precision)}
+     *            with {@link Precision#RAW}
+     * @return the number of values written
+     */
+    public static int writeVisiblePercents(Ephemeris ephemeris, long startEpochSecond, long stepSeconds, DoubleBuffer out) {
+        EventSearch.Angle moon = EventSearch.moonAngle(ephemeris);
+        int count = out.remaining();
+        for (int i = 0; i < count; i++) {
+            out.put(MoonPhaseFinder.visibleFraction(moon.at(startEpochSecond + i * stepSeconds, 0)));
+        }
+        return count;
+    }
+
+    /**
+     * @param ephemeris the sun and moon theory to use
+     * @param startEpochSecond the first sample, in seconds since 1970-01-01T00:00Z
+     * @param stepSeconds the time between two samples, may be negative
+     * @param out receives one sun ecliptic longitude per remaining slot, 0 to 360 degrees
+     * @return the number of values written
+     */
+    public static int writeSunLongitudes(Ephemeris ephemeris, long startEpochSecond, long stepSeconds, DoubleBuffer out) {
+        EventSearch.Angle sun = EventSearch.sunLongitude(ephemeris);
+        int count = out.remaining();
+        for (int i = 0; i < count; i++) {
+            out.put(sun.at(startEpochSecond + i * stepSeconds, 0));
+        }
+        return count;
+    }
+
+}
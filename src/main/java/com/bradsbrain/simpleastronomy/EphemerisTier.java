@@ -0,0 +1,58 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * Ready made choices between speed and accuracy.  See the README for the cost and accuracy of each.
+ */
+public enum EphemerisTier {
+
+    /**
+     * The theory from <i>Practical Astronomy with your Calculator</i>, the library default
+     */
+    LOW,
+
+    /**
+     * The largest periodic terms of the Meeus lunar theory
+     */
+    MEDIUM,
+
+    /**
+     * All of the periodic terms of the Meeus lunar theory
+     */
+    HIGH;
+
+    // each ephemeris is built the first time its tier is asked for, so that using the default
+    // doesn't build the Meeus tables at startup
+    private static final class Low {
+        static final Ephemeris EPHEMERIS = new DuffettSmithEphemeris();
+    }
+
+    private static final class Medium {
+        static final Ephemeris EPHEMERIS = new MeeusEphemeris(30);
+    }
+
+    private static final class High {
+        static final Ephemeris EPHEMERIS = new MeeusEphemeris(MeeusEphemeris.MAX_TERMS);
+    }
+
+    public Ephemeris getEphemeris() {
+        // not a switch, which would load a class of its own
+        if (this == MEDIUM) {
+            return Medium.EPHEMERIS;
+        }
+        return this == HIGH ? High.EPHEMERIS : Low.EPHEMERIS;
+    }
+
+}
@@ -0,0 +1,190 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * Finds the second at which an angle which grows steadily with time, such as the moon angle or the
+ * sun's longitude, passes the angle of an event.
+ * <p>
+ * The angle grows almost linearly, so the secant method lands within a fraction of a second of the
+ * event in a few steps, and checking the seconds either side of it confirms the answer.  Finders
+ * without a known angle, or the rare case the check fails, fall back to a binary search over the
+ * whole window.
+ * <p>
+ * The angle is evaluated from seconds and nanoseconds rather than a {@link JulianInstant}, so an
+ * ephemeris which overrides {@link Ephemeris#getMoonAngle(long, long)}, as the built-in ones do, is
+ * searched without creating an instant per evaluation.
+ */
+final class EventSearch {
+
+    /**
+     * An angle which grows steadily with time, 0 to 360 degrees.
+     */
+    interface Angle {
+        /**
+         * @param epochSecond seconds since 1970-01-01T00:00Z
+         * @param nanoAdjustment nanoseconds to add, may be negative or more than a second
+         * @return the angle at that instant
+         */
+        double at(long epochSecond, long nanoAdjustment);
+    }
+
+    /**
+     * The secant search stops once a step is shorter than this many seconds
+     */
+    private static final double SECANT_TOLERANCE = 0.001;
+
+    private static final int MAX_SECANT_STEPS = 10;
+
+    private final Ephemeris ephemeris;
+
+    private final Angle angle;
+
+    private final double meanAnglePerSecond;
+
+    private final long halfWindow;
+
+    /**
+     * @param ephemeris the theory the angle comes from, only reported to {@link Instrumentation}
+     * @param angle the angle at an instant, 0 to 360 degrees
+     * @param meanAnglePerSecond how fast the angle grows on average, in degrees per second
+     * @param halfWindow an event is always well within this many seconds of its estimate
+     */
+    EventSearch(Ephemeris ephemeris, Angle angle, double meanAnglePerSecond,
+                long halfWindow) {
+        this.ephemeris = ephemeris;
+        this.angle = angle;
+        this.meanAnglePerSecond = meanAnglePerSecond;
+        this.halfWindow = halfWindow;
+    }
+
+    /**
+     * @param ephemeris the sun and moon theory to use
+     * @return the moon angle, see {@link MoonPhaseFinder#getMoonAngle(java.time.ZonedDateTime)}
+     */
+    static Angle moonAngle(Ephemeris ephemeris) {
+        return new EphemerisAngle(ephemeris, true);
+    }
+
+    /**
+     * @param ephemeris the sun theory to use
+     * @return the sun's geocentric ecliptic longitude
+     */
+    static Angle sunLongitude(Ephemeris ephemeris) {
+        return new EphemerisAngle(ephemeris, false);
+    }
+
+    /**
+     * Finds the first second, near the estimate, at which the given event has happened.
+     *
+     * @param estimate where the event roughly is, in seconds since the java epoch
+     * @param finder the test which tells if the event happened before a given angle
+     * @return the event, in seconds since the java epoch
+     */
+    long refine(long estimate, MoonFinder finder) {
+        Object search = Instrumentation.beginSearch();
+        double eventAngle = finder.getEventAngle();
+        if (!Double.isNaN(eventAngle)) {
+            double offset = secantOffset(estimate, eventAngle);
+            if (Math.abs(offset) < halfWindow) {
+                long candidate = estimate + (long) Math.ceil(offset);
+                if (hasHappened(candidate, finder) && !hasHappened(candidate - 1, finder)) {
+                    Instrumentation.endSearch(search, ephemeris, finder, estimate, candidate, true);
+                    return candidate;
+                }
+            }
+        }
+        long found = bisect(estimate - halfWindow, estimate + halfWindow, finder);
+        Instrumentation.endSearch(search, ephemeris, finder, estimate, found, false);
+        return found;
+    }
+
+    /**
+     * @return the seconds from the estimate to where the angle reaches the event angle, or NaN if the
+     * iterations don't settle
+     */
+    private double secantOffset(long estimate, double eventAngle) {
+        double previous = 0;
+        double previousDistance = angleDistance(estimate, 0, eventAngle);
+        double current = -previousDistance / meanAnglePerSecond;
+        for (int i = 0; i < MAX_SECANT_STEPS; i++) {
+            double distance = angleDistance(estimate, current, eventAngle);
+            if (distance == previousDistance) {
+                return current;
+            }
+            double next = current - distance * (current - previous) / (distance - previousDistance);
+            if (Math.abs(next - current) < SECANT_TOLERANCE) {
+                return next;
+            }
+            previous = current;
+            previousDistance = distance;
+            current = next;
+        }
+        return Double.NaN;
+    }
+
+    /**
+     * @return how many degrees the angle at the given offset is past the event angle, -180 to 180
+     */
+    private double angleDistance(long estimate, double offsetSeconds, double eventAngle) {
+        double distance = angle.at(estimate, Math.round(offsetSeconds * 1e9)) - eventAngle;
+        return distance - 360 * Math.floor((distance + 180) / 360);
+    }
+
+    /**
+     * Binary search for the first second at which the event has happened, given it hasn't at the
+     * first bound and has at the second.
+     */
+    private long bisect(long notYet, long happened, MoonFinder finder) {
+        while (happened - notYet > 1) {
+            long middle = notYet + (happened - notYet) / 2;
+            if (hasHappened(middle, finder)) {
+                happened = middle;
+            } else {
+                notYet = middle;
+            }
+        }
+        return happened;
+    }
+
+    /**
+     * The finder is given the angle as the moon angle, and the visible percentage the moon would have
+     * at that angle.
+     */
+    private boolean hasHappened(long epochSecond, MoonFinder finder) {
+        double value = angle.at(epochSecond, 0);
+        return finder.isMoonBefore(value, 50 * (1 - BaseUtils.cosDegrees(value)));
+    }
+
+    /**
+     * The moon angle or the sun's longitude of an ephemeris.  A class rather than a method reference,
+     * so that the first query of a fresh JVM doesn't also pay for bootstrapping lambdas, about 10 ms.
+     */
+    private static final class EphemerisAngle implements Angle {
+        private final Ephemeris ephemeris;
+        private final boolean moon;
+
+        EphemerisAngle(Ephemeris ephemeris, boolean moon) {
+            this.ephemeris = ephemeris;
+            this.moon = moon;
+        }
+
+        @Override
+        public double at(long epochSecond, long nanoAdjustment) {
+            return moon ? ephemeris.getMoonAngle(epochSecond, nanoAdjustment)
+                    : ephemeris.getSunEclipticLongitude(epochSecond, nanoAdjustment);
+        }
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.Instant;
+import java.time.ZonedDateTime;
+import java.util.function.DoubleUnaryOperator;
+
+/**
+ * The instants at which lunar and solar quantities peak, found with a {@link BrentSolver} on the
+ * unrounded quantity rather than by sampling a rounded one, whose peak is a plateau.
+ * <p>
+ * The moon's elongation, its angle from the sun counting its latitude, is greatest close to the full
+ * moon, which is also when the most of it is lit.  It is least close to the new moon, and only
+ * nears zero at a solar eclipse.  The equation of time, apparent minus mean solar time, has two
+ * maxima and two minima a year.
+ * <p>
+ * The methods accept a solver for its tolerance and to read its counters, by default a new one with
+ * a tolerance of a tenth of a second is used.
+ */
+public final class ExtremumFinder {
+
+    private static final double SECONDS_PER_DAY = 24 * 3600;
+
+    /**
+     * Days between the first points of the elongation search, which go downhill from the phase
+     */
+    private static final double ELONGATION_STEP = 0.05;
+
+    /**
+     * The equation of time has an extremum at least every 4 months
+     */
+    private static final int MAX_EQUATION_OF_TIME_DAYS = 125;
+
+    private static final Ephemeris defaultEphemeris = EphemerisTier.LOW.getEphemeris();
+
+    private ExtremumFinder() {
+    }
+
+    /**
+     * Same as {@link #findGreatestElongationFollowing(ZonedDateTime, Ephemeris, BrentSolver)} with the
+     * default ephemeris.
+     *
+     * @param cal the date to search from
+     * @return the instant to the second, in the time zone of the input date
+     */
+    public static ZonedDateTime findGreatestElongationFollowing(ZonedDateTime cal) {
+        return findGreatestElongationFollowing(cal, defaultEphemeris, new BrentSolver());
+    }
+
+    /**
+     * Finds the first greatest elongation of the moon, the most illuminated instant, after the date.
+     * It is within a few hours of a full moon, before or after it, so when the date falls between the
+     * two it is the one of the next full moon.
+     *
+     * @param cal the date to search from
+     * @param ephemeris the sun and moon theory to use
+     * @param solver the solver to use
+     * @return the instant to the second, in the time zone of the input date
+     */
+    public static ZonedDateTime findGreatestElongationFollowing(ZonedDateTime cal, Ephemeris ephemeris,
+                                                                BrentSolver solver) {
+        return findElongationExtremum(cal, ephemeris, solver, 2);
+    }
+
+    /**
+     * Same as {@link #findLeastElongationFollowing(ZonedDateTime, Ephemeris, BrentSolver)} with the
+     * default ephemeris.
+     *
+     * @param cal the date to search from
+     * @return the instant to the second, in the time zone of the input date
+     */
+    public static ZonedDateTime findLeastElongationFollowing(ZonedDateTime cal) {
+        return findLeastElongationFollowing(cal, defaultEphemeris, new BrentSolver());
+    }
+
+    /**
+     * Finds the first least elongation of the moon, the least illuminated instant, after the date.
+     * It is within a few hours of a new moon, before or after it, so when the date falls between the
+     * two it is the one of the next new moon.
+     *
+     * @param cal the date to search from
+     * @param ephemeris the sun and moon theory to use
+     * @param solver the solver to use
+     * @return the instant to the second, in the time zone of the input date
+     */
+    public static ZonedDateTime findLeastElongationFollowing(ZonedDateTime cal, Ephemeris ephemeris,
+                                                             BrentSolver solver) {
+        return findElongationExtremum(cal, ephemeris, solver, 0);
+    }
+
+    private static ZonedDateTime findElongationExtremum(ZonedDateTime cal, Ephemeris ephemeris, BrentSolver solver,
+                                                        int quarter) {
+        LunationIndex index = LunationIndex.getInstance(ephemeris);
+        MoonFinder moonFinder = MoonPhaseFinder.principalPhaseFinder(quarter, ephemeris);
+        long from = cal.toEpochSecond();
+        long phase = index.findEventFollowing(from, moonFinder, quarter / 4.0);
+        long extremum = findElongationExtremumNear(phase, ephemeris, solver, quarter);
+        if (extremum <= from) {
+            // it came before the phase, and the date falls between them
+            phase = index.findEventFollowing(phase, moonFinder, quarter / 4.0);
+            extremum = findElongationExtremumNear(phase, ephemeris, solver, quarter);
+        }
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(extremum), cal.getZone());
+    }
+
+    /**
+     * @return the extremum of the elongation nearest the new or full moon, in seconds since the java epoch
+     */
+    private static long findElongationExtremumNear(long phase, Ephemeris ephemeris, BrentSolver solver, int quarter) {
+        double start = JulianDate.fromEpochSecond(phase);
+        DoubleUnaryOperator cosElongation = days -> cosElongation(ephemeris, start + days);
+        double days = quarter == 0
+                ? solver.findMaximum(cosElongation, 0, ELONGATION_STEP)
+                : solver.findMinimum(cosElongation, 0, ELONGATION_STEP);
+        return phase + Math.round(days * SECONDS_PER_DAY);
+    }
+
+    /**
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @return the angle between the centres of the moon and the sun seen from the centre of the
+     * earth, 0 to 180 degrees
+     */
+    public static double getMoonElongation(ZonedDateTime cal, Ephemeris ephemeris) {
+        return Math.toDegrees(Math.acos(cosElongation(ephemeris, JulianInstant.of(cal).toJulianDate())));
+    }
+
+    /**
+     * The moon's ecliptic latitude comes from Duffett-Smith whatever the ephemeris, see {@link MoonTracker}.
+     */
+    private static double cosElongation(Ephemeris ephemeris, double julianDate) {
+        return BaseUtils.cosDegrees(MoonPosition.eclipticLatitude(julianDate)) * BaseUtils.cosDegrees(
+                ephemeris.getMoonEclipticLongitude(julianDate) - ephemeris.getSunEclipticLongitude(julianDate));
+    }
+
+    /**
+     * Same as {@link #findEquationOfTimeExtremumFollowing(ZonedDateTime, Ephemeris, BrentSolver)} with
+     * the default ephemeris.
+     *
+     * @param cal the date to search from
+     * @return the instant to the second, in the time zone of the input date
+     */
+    public static ZonedDateTime findEquationOfTimeExtremumFollowing(ZonedDateTime cal) {
+        return findEquationOfTimeExtremumFollowing(cal, defaultEphemeris, new BrentSolver());
+    }
+
+    /**
+     * Finds the first maximum or minimum of the equation of time after the date, around February 11
+     * (about -14 minutes), May 14 (+4), July 26 (-6) and November 3 (+16).  The days are stepped
+     * through until the equation turns, then the solver takes over.
+     *
+     * @param cal the date to search from
+     * @param ephemeris the sun theory to use
+     * @param solver the solver to use
+     * @return the instant to the second, in the time zone of the input date
+     */
+    public static ZonedDateTime findEquationOfTimeExtremumFollowing(ZonedDateTime cal, Ephemeris ephemeris,
+                                                                    BrentSolver solver) {
+        long from = cal.toEpochSecond();
+        double start = JulianDate.fromEpochSecond(from);
+        DoubleUnaryOperator equationOfTime = days -> equationOfTime(ephemeris, start + days);
+
+        double previous = equationOfTime.applyAsDouble(0);
+        double current = equationOfTime.applyAsDouble(1);
+        boolean rising = current > previous;
+        for (int day = 1; day < MAX_EQUATION_OF_TIME_DAYS; day++) {
+            double next = equationOfTime.applyAsDouble(day + 1);
+            if (next > current != rising) {
+                double days = rising
+                        ? solver.findMaximum(equationOfTime, day - 1, day)
+                        : solver.findMinimum(equationOfTime, day - 1, day);
+                return toDate(from, days, cal);
+            }
+            current = next;
+        }
+        throw new IllegalStateException("the equation of time didn't turn within "
+                + MAX_EQUATION_OF_TIME_DAYS + " days of " + cal);
+    }
+
+    /**
+     * @param cal the input date
+     * @param ephemeris the sun theory to use
+     * @return apparent minus mean solar time in minutes, -15 to 17
+     */
+    public static double getEquationOfTime(ZonedDateTime cal, Ephemeris ephemeris) {
+        return equationOfTime(ephemeris, JulianInstant.of(cal).toJulianDate());
+    }
+
+    /**
+     * Chapter 28 of <i>Astronomical Algorithms</i> without the nutation, the sun's mean longitude
+     * less its right ascension.
+     */
+    private static double equationOfTime(Ephemeris ephemeris, double julianDate) {
+        double t = Coordinates.centuriesSinceJ2000(julianDate);
+        double meanLongitude = 280.4664567 + 36000.76982779 * t + 0.0003032028 * t * t;
+        double sunLongitude = ephemeris.getSunEclipticLongitude(julianDate);
+        double rightAscension = Coordinates.sunRightAscension(sunLongitude,
+                BaseUtils.cosDegrees(Coordinates.meanObliquity(t)));
+        double degrees = BaseUtils.adjustTo360Range(meanLongitude - 0.0057183 - rightAscension + 180) - 180;
+        // the sun moves a degree of right ascension in 4 minutes
+        return 4 * degrees;
+    }
+
+    private static ZonedDateTime toDate(long start, double days, ZonedDateTime cal) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(start + Math.round(days * SECONDS_PER_DAY)), cal.getZone());
+    }
+
+}
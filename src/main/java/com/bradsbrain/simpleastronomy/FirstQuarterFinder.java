@@ -25,4 +25,9 @@ public class FirstQuarterFinder implements MoonFinder {
     public boolean isMoonBefore(double angle, double unused) {
         return angle > FIRST_QUARTER_ANGLE && angle <= LAST_QUARTER_ANGLE;
     }
+
+    /** {@inheritDoc} */
+    public double getEventAngle() {
+        return FIRST_QUARTER_ANGLE;
+    }
 }
@@ -29,11 +29,32 @@ public class FullMoonFinder implements MoonFinder {
     private static final double ROTATE_ANGLE = 179.95;
 
     private static final double FULL_MOON_HALF_ANGLE = _360/ 2;
+
+    private final double rotateAngle;
+
+    public FullMoonFinder() {
+        this(ROTATE_ANGLE);
+    }
+
+    /**
+     * The default rotate angle is tuned for {@link DuffettSmithEphemeris}, the other ephemerides
+     * want exactly 180.
+     *
+     * @param rotateAngle 360 minus the moon angle at which the moon is full
+     */
+    FullMoonFinder(double rotateAngle) {
+        this.rotateAngle = rotateAngle;
+    }
     
     /** {@inheritDoc} */
     public boolean isMoonBefore(double angle, double unused) {
-        double usefulAngle = (angle + ROTATE_ANGLE) % _360;     
+        double usefulAngle = (angle + rotateAngle) % _360;     
         return usefulAngle < FULL_MOON_HALF_ANGLE;
     }
 
+    /** {@inheritDoc} */
+    public double getEventAngle() {
+        return _360 - rotateAngle;
+    }
+
 }
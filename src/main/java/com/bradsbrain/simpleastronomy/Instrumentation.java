@@ -0,0 +1,48 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * Hooks for observing the library at run time, which do nothing here.  The jar carries a Java 17
+ * version which records them as JDK Flight Recorder events.
+ */
+final class Instrumentation {
+
+    private Instrumentation() {
+    }
+
+    /**
+     * Called when a search for a moon event starts.
+     *
+     * @return what {@link #endSearch} needs, null if nothing is recorded
+     */
+    static Object beginSearch() {
+        return null;
+    }
+
+    /**
+     * Called when a search for a moon event ends.
+     *
+     * @param search what {@link #beginSearch()} returned
+     * @param ephemeris the ephemeris searched
+     * @param moonFinder the event searched for
+     * @param estimate where the search started, in seconds since 1970-01-01T00:00Z
+     * @param found the first second at which the event has happened
+     * @param bySecant true if the secant search found it, false if it needed the binary search
+     */
+    static void endSearch(Object search, Ephemeris ephemeris, MoonFinder moonFinder, long estimate, long found,
+                          boolean bySecant) {
+    }
+
+}
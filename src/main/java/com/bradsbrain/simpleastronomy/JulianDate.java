@@ -23,6 +23,11 @@ public class JulianDate {
 
     private static final ZonedDateTime DAY_ZERO = ZonedDateTime.of(-4713, 11, 24, 12, 0, 0, 0, ZoneOffset.UTC);
 
+    /**
+     * Seconds between DAY_ZERO and the java epoch (1970-01-01T00:00Z)
+     */
+    static final long EPOCH_SECOND_OFFSET = -DAY_ZERO.toEpochSecond();
+
     /**
      * This method might not be accurate for older dates but works fine for nowadays
      *
@@ -33,4 +38,15 @@ public class JulianDate {
         return (double) ChronoUnit.SECONDS.between(DAY_ZERO, cal) / 24 / 3600;
     }
 
+    /**
+     * Same as {@link #makeJulianDateUsingMyModified(ZonedDateTime)} but for an instant given
+     * as seconds since the java epoch, so no date object is needed.
+     *
+     * @param epochSecond the input instant in seconds since 1970-01-01T00:00Z
+     * @return the julian date
+     */
+    static double fromEpochSecond(long epochSecond) {
+        return (double) (epochSecond + EPOCH_SECOND_OFFSET) / 24 / 3600;
+    }
+
 }
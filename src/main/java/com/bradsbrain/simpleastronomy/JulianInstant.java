@@ -0,0 +1,217 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZonedDateTime;
+
+/**
+ * A julian date kept as a whole day number and the nanoseconds since that day began (at noon), so
+ * nothing is lost to rounding.
+ * <p>
+ * A julian date as a single {@code double} is around 2.45e6 days, which leaves about 40 microseconds
+ * of resolution, and {@link JulianDate#makeJulianDateUsingMyModified(ZonedDateTime)} drops the
+ * fraction of a second altogether.  The calculations themselves want the (small) number of days since
+ * an epoch such as 1990 January 0.0, which {@link #daysSince(double)} computes from the exact parts.
+ * <p>
+ * Instances are immutable, and equal only when both parts are equal, so they make exact keys.
+ */
+public final class JulianInstant implements Comparable<JulianInstant> {
+
+    private static final long SECONDS_PER_DAY = 24 * 3600;
+    private static final long NANOS_PER_SECOND = 1000000000L;
+    private static final long NANOS_PER_DAY = SECONDS_PER_DAY * NANOS_PER_SECOND;
+
+    private final long day;
+    private final long nanoOfDay;
+
+    private JulianInstant(long day, long nanoOfDay) {
+        this.day = day;
+        this.nanoOfDay = nanoOfDay;
+    }
+
+    /**
+     * @param epochSecond seconds since 1970-01-01T00:00Z
+     * @param nanoAdjustment nanoseconds to add, may be negative or more than a second
+     * @return the instant as a julian date
+     */
+    public static JulianInstant ofEpochSecond(long epochSecond, long nanoAdjustment) {
+        long seconds = Math.addExact(Math.addExact(epochSecond, JulianDate.EPOCH_SECOND_OFFSET),
+                Math.floorDiv(nanoAdjustment, NANOS_PER_SECOND));
+        long nanos = Math.floorMod(nanoAdjustment, NANOS_PER_SECOND);
+        return new JulianInstant(Math.floorDiv(seconds, SECONDS_PER_DAY),
+                Math.floorMod(seconds, SECONDS_PER_DAY) * NANOS_PER_SECOND + nanos);
+    }
+
+    /**
+     * @param epochSecond seconds since 1970-01-01T00:00Z
+     * @return the instant as a julian date
+     */
+    public static JulianInstant ofEpochSecond(long epochSecond) {
+        return ofEpochSecond(epochSecond, 0);
+    }
+
+    /**
+     * @param cal the input date, including the fraction of a second
+     * @return the instant as a julian date
+     */
+    public static JulianInstant of(ZonedDateTime cal) {
+        return ofEpochSecond(cal.toEpochSecond(), cal.getNano());
+    }
+
+    /**
+     * @param instant the input instant, including the fraction of a second
+     * @return the instant as a julian date
+     */
+    public static JulianInstant of(Instant instant) {
+        return ofEpochSecond(instant.getEpochSecond(), instant.getNano());
+    }
+
+    /**
+     * @return the julian day number, the integer part of the julian date
+     */
+    public long getDay() {
+        return day;
+    }
+
+    /**
+     * @return nanoseconds since the start of the julian day, which is noon UTC
+     */
+    public long getNanoOfDay() {
+        return nanoOfDay;
+    }
+
+    /**
+     * @return the fraction of the julian day, 0 inclusive to 1 exclusive
+     */
+    public double getFraction() {
+        return nanoOfDay / (double) NANOS_PER_DAY;
+    }
+
+    /**
+     * @return the julian date as a single number, with the loss of precision that implies
+     */
+    public double toJulianDate() {
+        return day + getFraction();
+    }
+
+    /**
+     * The day count for an epoch, with the whole days subtracted exactly.
+     *
+     * @param epoch a julian date such as 2447891.5 (1990 January 0.0)
+     * @return days since the epoch, negative before it
+     */
+    public double daysSince(double epoch) {
+        return daysSinceFromParts(day, nanoOfDay, epoch);
+    }
+
+    /**
+     * Same as {@code ofEpochSecond(epochSecond, nanoAdjustment).daysSince(epoch)} without creating the
+     * instant, for searches which evaluate many instants.
+     *
+     * @param epochSecond seconds since 1970-01-01T00:00Z
+     * @param nanoAdjustment nanoseconds to add, may be negative or more than a second
+     * @param epoch a julian date such as 2447891.5 (1990 January 0.0)
+     * @return days since the epoch, negative before it
+     */
+    static double daysSince(long epochSecond, long nanoAdjustment, double epoch) {
+        long seconds = Math.addExact(Math.addExact(epochSecond, JulianDate.EPOCH_SECOND_OFFSET),
+                Math.floorDiv(nanoAdjustment, NANOS_PER_SECOND));
+        long nanoOfDay = Math.floorMod(seconds, SECONDS_PER_DAY) * NANOS_PER_SECOND
+                + Math.floorMod(nanoAdjustment, NANOS_PER_SECOND);
+        return daysSinceFromParts(Math.floorDiv(seconds, SECONDS_PER_DAY), nanoOfDay, epoch);
+    }
+
+    private static double daysSinceFromParts(long day, long nanoOfDay, double epoch) {
+        double epochDay = Math.floor(epoch);
+        return (day - (long) epochDay) + (nanoOfDay / (double) NANOS_PER_DAY - (epoch - epochDay));
+    }
+
+    /**
+     * Same as {@link #daysSince(double)} for an epoch in dynamical time, taking this instant as
+     * universal time: {@link DeltaT} is added, unless it is turned off.
+     *
+     * @param epoch a julian ephemeris date such as 2451545.0 (J2000)
+     * @return days since the epoch, negative before it
+     */
+    public double dynamicalDaysSince(double epoch) {
+        return daysSince(epoch) + DeltaT.days(day + getFraction());
+    }
+
+    /**
+     * Same as {@code ofEpochSecond(epochSecond, nanoAdjustment).dynamicalDaysSince(epoch)} without
+     * creating the instant.
+     *
+     * @param epochSecond seconds since 1970-01-01T00:00Z
+     * @param nanoAdjustment nanoseconds to add, may be negative or more than a second
+     * @param epoch a julian ephemeris date such as 2451545.0 (J2000)
+     * @return days since the epoch, negative before it
+     */
+    static double dynamicalDaysSince(long epochSecond, long nanoAdjustment, double epoch) {
+        double daysSince = daysSince(epochSecond, nanoAdjustment, epoch);
+        // the julian date is the days since day 0, whose fraction is 0
+        return daysSince + DeltaT.days(daysSince(epochSecond, nanoAdjustment, 0));
+    }
+
+    /**
+     * @param nanos nanoseconds to add, may be negative
+     * @return a later (or earlier) instant
+     */
+    public JulianInstant plusNanos(long nanos) {
+        long days = Math.floorDiv(nanos, NANOS_PER_DAY);
+        long total = nanoOfDay + Math.floorMod(nanos, NANOS_PER_DAY);
+        if (total >= NANOS_PER_DAY) {
+            total -= NANOS_PER_DAY;
+            days++;
+        }
+        return new JulianInstant(Math.addExact(day, days), total);
+    }
+
+    /**
+     * @return the same instant as seconds and nanoseconds since 1970-01-01T00:00Z
+     */
+    public Instant toInstant() {
+        long seconds = day * SECONDS_PER_DAY - JulianDate.EPOCH_SECOND_OFFSET;
+        return Instant.ofEpochSecond(seconds, nanoOfDay);
+    }
+
+    public int compareTo(JulianInstant other) {
+        int byDay = Long.compare(day, other.day);
+        return byDay != 0 ? byDay : Long.compare(nanoOfDay, other.nanoOfDay);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof JulianInstant)) {
+            return false;
+        }
+        JulianInstant that = (JulianInstant) other;
+        return day == that.day && nanoOfDay == that.nanoOfDay;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(day * 31 + nanoOfDay);
+    }
+
+    /**
+     * @return e.g. {@code JD 2457381 + PT23H11M}
+     */
+    @Override
+    public String toString() {
+        return "JD " + day + " + " + Duration.ofNanos(nanoOfDay);
+    }
+
+}
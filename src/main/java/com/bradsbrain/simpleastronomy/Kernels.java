@@ -0,0 +1,62 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * The inner loops of the ephemerides, kept apart so the jar can carry faster versions for newer
+ * Java releases (see {@code src/main/java17}).  Every version must give the same answers to within
+ * rounding.
+ */
+final class Kernels {
+
+    private Kernels() {
+    }
+
+    /**
+     * The sum of the first terms of a table of periodic terms such as table 47.A of <i>Astronomical
+     * Algorithms</i>, where each term is {@code coefficient * sin(d * D + m * M + mPrime * M' + f * F)},
+     * multiplied by E for each multiple of M.
+     *
+     * @param terms how many terms to add, from the first
+     * @param elongation D in radians
+     * @param sunAnomaly M in radians
+     * @param moonAnomaly M' in radians
+     * @param latitudeArgument F in radians
+     * @param eccentricity E
+     * @return the sum, in the unit of the coefficients
+     */
+    static double periodicSum(byte[] d, byte[] m, byte[] mPrime, byte[] f, int[] coefficients, int terms,
+                              double elongation, double sunAnomaly, double moonAnomaly,
+                              double latitudeArgument, double eccentricity) {
+        double eccentricitySquared = eccentricity * eccentricity;
+        double sum = 0;
+        for (int i = 0; i < terms; i++) {
+            double term = coefficients[i] * Math.sin(d[i] * elongation + m[i] * sunAnomaly
+                    + mPrime[i] * moonAnomaly + f[i] * latitudeArgument);
+            switch (m[i]) {
+                case 0:
+                    sum += term;
+                    break;
+                case 1:
+                case -1:
+                    sum += term * eccentricity;
+                    break;
+                default:
+                    sum += term * eccentricitySquared;
+            }
+        }
+        return sum;
+    }
+
+}
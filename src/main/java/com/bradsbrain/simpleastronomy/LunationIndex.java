@@ -0,0 +1,259 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.util.Arrays;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * A process-wide index of new moon instants, in seconds since the java epoch.
+ * <p>
+ * The index is a sorted array which is never modified once published. When a query falls outside
+ * of the range it covers a grown copy replaces it, so readers never lock. Each lunation costs
+ * 8 bytes, about 100 KB per thousand years. The other phases are found with a single binary search
+ * inside the lunation which contains them.
+ * <p>
+ * There is one index per {@link Ephemeris}, since each gives slightly different instants.  The shared
+ * indexes are kept for the life of the process, keyed by the ephemeris' {@code equals}, so only the
+ * first {@value #MAX_SHARED_INDEXES} distinct ephemerides get one; queries with any other ephemeris
+ * (most likely one created per query) are answered from a throw-away index.
+ */
+final class LunationIndex {
+
+    /**
+     * The mean synodic month, in seconds
+     */
+    static final double SYNODIC_MONTH_SECONDS = 29.530588853 * 24 * 3600;
+
+    /**
+     * A new moon (2000-01-06 18:14 UTC), only used to estimate where the first entry should go
+     */
+    private static final long REFERENCE_NEW_MOON = 947182440L;
+
+    /**
+     * A moon event is always well within this many seconds of its estimate
+     */
+    private static final long SEARCH_HALF_WINDOW = 36 * 3600;
+
+    /**
+     * How fast the moon angle grows on average, in degrees per second
+     */
+    private static final double MEAN_ANGLE_PER_SECOND = 360 / SYNODIC_MONTH_SECONDS;
+
+    /**
+     * Extra lunations computed whenever the index grows, so nearby queries don't grow it again
+     */
+    private static final int GROWTH_LUNATIONS = 12;
+
+    /**
+     * Queries further than this (roughly a thousand years) from the indexed range are answered
+     * without growing the index
+     */
+    private static final int MAX_GROWTH_LUNATIONS = 12 * 1000;
+
+    /**
+     * How many distinct ephemerides get a shared index, a bound on the memory a caller creating
+     * ephemerides per query can hold
+     */
+    static final int MAX_SHARED_INDEXES = 32;
+
+    private static final long[] EMPTY = new long[0];
+
+    private static final MoonFinder newMoonFinder = new NewMoonFinder();
+
+    private static final ConcurrentMap<Ephemeris, LunationIndex> INSTANCES = new ConcurrentHashMap<>();
+
+    private final EventSearch search;
+
+    private final AtomicReference<long[]> newMoons = new AtomicReference<>(EMPTY);
+
+    LunationIndex() {
+        this(EphemerisTier.LOW.getEphemeris());
+    }
+
+    LunationIndex(Ephemeris ephemeris) {
+        this.search = new EventSearch(ephemeris, EventSearch.moonAngle(ephemeris), MEAN_ANGLE_PER_SECOND, SEARCH_HALF_WINDOW);
+    }
+
+    /**
+     * @return the shared index of the default ephemeris
+     */
+    static LunationIndex getInstance() {
+        return getInstance(EphemerisTier.LOW.getEphemeris());
+    }
+
+    /**
+     * @param ephemeris the sun and moon theory the index is built with
+     * @return the shared index of that ephemeris, or a new one if there are already
+     * {@value #MAX_SHARED_INDEXES} shared indexes
+     */
+    static LunationIndex getInstance(Ephemeris ephemeris) {
+        LunationIndex index = INSTANCES.get(ephemeris);
+        if (index == null) {
+            LunationIndex created = new LunationIndex(ephemeris);
+            if (INSTANCES.size() >= MAX_SHARED_INDEXES) {
+                return created;
+            }
+            index = INSTANCES.putIfAbsent(ephemeris, created);
+            if (index == null) {
+                index = created;
+            }
+        }
+        return index;
+    }
+
+    /**
+     * Finds the first moon event strictly after the given instant.
+     *
+     * @param epochSecond the instant to search from
+     * @param moonFinder the test which tells if the event happened before a given angle
+     * @param lunationFraction where the event roughly is within a lunation, 0 for the new moon,
+     *                         0.5 for the full moon
+     * @return the event, in seconds since the java epoch
+     */
+    long findEventFollowing(long epochSecond, MoonFinder moonFinder, double lunationFraction) {
+        long[] lunations = lunationsAround(epochSecond);
+        int lunation = lunationContaining(lunations, epochSecond);
+        long event = findEventInLunation(lunations, lunation, moonFinder, lunationFraction);
+        if (event > epochSecond) {
+            return event;
+        }
+        return findEventInLunation(lunations, lunation + 1, moonFinder, lunationFraction);
+    }
+
+    /**
+     * Finds the moon event belonging to the lunation (new moon to new moon) which contains the given
+     * instant. The event may be before or after that instant.
+     *
+     * @param epochSecond the instant to search from
+     * @param moonFinder the test which tells if the event happened before a given angle
+     * @param lunationFraction where the event roughly is within a lunation, 0 for the new moon
+     *                         starting it and 1 for the new moon ending it
+     * @return the event, in seconds since the java epoch
+     */
+    long findEventInLunation(long epochSecond, MoonFinder moonFinder, double lunationFraction) {
+        long[] lunations = lunationsAround(epochSecond);
+        return findEventInLunation(lunations, lunationContaining(lunations, epochSecond), moonFinder, lunationFraction);
+    }
+
+    /**
+     * @param epochSecond an instant
+     * @return the new moon starting the lunation which contains it, in seconds since the java epoch
+     */
+    long lunationStart(long epochSecond) {
+        long[] lunations = lunationsAround(epochSecond);
+        return lunations[lunationContaining(lunations, epochSecond)];
+    }
+
+    /**
+     * @param epochSecond an instant
+     * @return the new moon ending the lunation which contains it, in seconds since the java epoch
+     */
+    long lunationEnd(long epochSecond) {
+        long[] lunations = lunationsAround(epochSecond);
+        return lunations[lunationContaining(lunations, epochSecond) + 1];
+    }
+
+    /**
+     * @return how many lunations are currently held by the index
+     */
+    int size() {
+        return Math.max(0, newMoons.get().length - 1);
+    }
+
+    private long findEventInLunation(long[] lunations, int lunation, MoonFinder moonFinder,
+                                     double lunationFraction) {
+        long start = lunations[lunation];
+        long end = lunations[lunation + 1];
+        if (lunationFraction == 0) {
+            return start;
+        }
+        if (lunationFraction == 1) {
+            return end;
+        }
+        return search.refine(start + Math.round((end - start) * lunationFraction), moonFinder);
+    }
+
+    private static int lunationContaining(long[] lunations, long epochSecond) {
+        int found = Arrays.binarySearch(lunations, epochSecond);
+        return found >= 0 ? found : -found - 2;
+    }
+
+    /**
+     * Returns a snapshot which has at least two complete lunations from the one containing the
+     * given instant, growing the shared index if needed.
+     */
+    private long[] lunationsAround(long epochSecond) {
+        long[] lunations = newMoons.get();
+        while (!covers(lunations, epochSecond)) {
+            long[] grown = grow(lunations, epochSecond);
+            if (grown == null) {
+                // too far away to be worth keeping, answer from a throw-away index
+                return grow(EMPTY, epochSecond);
+            }
+            newMoons.compareAndSet(lunations, grown);
+            lunations = newMoons.get();
+        }
+        return lunations;
+    }
+
+    private static boolean covers(long[] lunations, long epochSecond) {
+        return lunations.length >= 3
+                && lunations[0] <= epochSecond
+                && epochSecond < lunations[lunations.length - 2];
+    }
+
+    /**
+     * @return a copy of the given new moons extended to cover the given instant, or null if that
+     * would take more than {@link #MAX_GROWTH_LUNATIONS}
+     */
+    private long[] grow(long[] lunations, long epochSecond) {
+        if (lunations.length == 0) {
+            long estimate = REFERENCE_NEW_MOON
+                    + Math.round(Math.round((epochSecond - REFERENCE_NEW_MOON) / SYNODIC_MONTH_SECONDS) * SYNODIC_MONTH_SECONDS);
+            lunations = new long[] {search.refine(estimate, newMoonFinder)};
+        }
+        long first = lunations[0];
+        long last = lunations[lunations.length - 1];
+
+        int before = first > epochSecond ? lunationsNeeded(first - epochSecond) : 0;
+        int after = lunations.length < 2 || lunations[lunations.length - 2] <= epochSecond
+                ? lunationsNeeded(epochSecond - last) + 1 : 0;
+        if (before > MAX_GROWTH_LUNATIONS || after > MAX_GROWTH_LUNATIONS) {
+            return null;
+        }
+
+        long[] grown = new long[before + lunations.length + after];
+        System.arraycopy(lunations, 0, grown, before, lunations.length);
+        long previous = first;
+        for (int i = before - 1; i >= 0; i--) {
+            previous = search.refine(previous - Math.round(SYNODIC_MONTH_SECONDS), newMoonFinder);
+            grown[i] = previous;
+        }
+        long next = last;
+        for (int i = before + lunations.length; i < grown.length; i++) {
+            next = search.refine(next + Math.round(SYNODIC_MONTH_SECONDS), newMoonFinder);
+            grown[i] = next;
+        }
+        return grown;
+    }
+
+    private static int lunationsNeeded(long seconds) {
+        double lunations = Math.min(Math.max(0, seconds) / SYNODIC_MONTH_SECONDS, MAX_GROWTH_LUNATIONS);
+        return (int) lunations + 1 + GROWTH_LUNATIONS;
+    }
+
+}
@@ -0,0 +1,202 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * A truncated version of the ELP-2000/82 lunar theory as given in chapter 47 of <i>Astronomical
+ * Algorithms</i> by Jean Meeus, with the low accuracy sun of chapter 25.
+ * <p>
+ * The moon longitude is a sum of up to {@value #MAX_TERMS} periodic terms, largest first.  Using
+ * fewer terms is cheaper and less accurate, see {@link EphemerisTier}.
+ */
+public final class MeeusEphemeris implements Ephemeris {
+
+    /**
+     * The number of periodic terms for the moon longitude in the full table
+     */
+    public static final int MAX_TERMS = 59;
+
+    // table 47.A, multiples of D, M, M' and F for each argument
+    private static final byte[] D = {
+            0, 2, 2, 0, 0, 0, 2, 2, 2, 2,
+            0, 1, 0, 2, 0, 0, 4, 0, 4, 2,
+            2, 1, 1, 2, 2, 4, 2, 0, 2, 2,
+            1, 2, 0, 0, 2, 2, 2, 4, 0, 3,
+            2, 4, 0, 2, 2, 2, 4, 0, 4, 1,
+            2, 0, 1, 3, 4, 2, 0, 1, 2};
+    private static final byte[] M = {
+            0, 0, 0, 0, 1, 0, 0, -1, 0, -1,
+            1, 0, 1, 0, 0, 0, 0, 0, 0, 1,
+            1, 0, 1, -1, 0, 0, 0, 1, 0, -1,
+            0, -2, 1, 2, -2, 0, 0, -1, 0, 0,
+            1, -1, 2, 2, 1, -1, 0, 0, -1, 0,
+            1, 0, 1, 0, 0, -1, 2, 1, 0};
+    private static final byte[] M_PRIME = {
+            1, -1, 0, 2, 0, 0, -2, -1, 1, 0,
+            -1, 0, 1, 0, 1, 1, -1, 3, -2, -1,
+            0, -1, 0, 1, 2, 0, -3, -2, -1, -2,
+            1, 0, 2, 0, -1, 1, 0, -1, 2, -1,
+            1, -2, -1, -1, -2, 0, 1, 4, 0, -2,
+            0, 2, 1, -2, -3, 2, 1, -1, 3};
+    private static final byte[] F = {
+            0, 0, 0, 0, 0, 2, 0, 0, 0, 0,
+            0, 0, 0, -2, 2, -2, 0, 0, 0, 0,
+            0, 0, 0, 0, 0, 0, 0, 0, 2, 0,
+            0, 0, 0, 0, 0, -2, 2, 0, 2, 0,
+            0, 0, 0, 0, 0, -2, 0, 0, 0, 0,
+            -2, -2, 0, 0, 0, 0, 0, 0, 0};
+    /**
+     * Coefficients of the sine of each argument, in millionths of a degree
+     */
+    private static final int[] LONGITUDE = {
+            6288774, 1274027, 658314, 213618, -185116, -114332, 58793, 57066, 53322, 45758,
+            -40923, -34720, -30383, 15327, -12528, 10980, 10675, 10034, 8548, -7888,
+            -6766, -5163, 4987, 4036, 3994, 3861, 3665, -2689, -2602, 2390,
+            -2348, 2236, -2120, -2069, 2048, -1773, -1595, 1215, -1110, -892,
+            -810, 759, -713, -700, 691, 596, 549, 537, 520, -487,
+            -399, -381, 351, -340, 330, 327, -323, 299, 294};
+
+    private final int terms;
+
+    /**
+     * @param terms how many of the periodic terms to use, 0 to {@value #MAX_TERMS}
+     */
+    public MeeusEphemeris(int terms) {
+        if (terms < 0 || terms > MAX_TERMS) {
+            throw new IllegalArgumentException("terms must be between 0 and " + MAX_TERMS + ": " + terms);
+        }
+        this.terms = terms;
+    }
+
+    public int getTerms() {
+        return terms;
+    }
+
+    /**
+     * The apparent longitude, chapter 25 (low accuracy)
+     * <p>
+     * {@inheritDoc}
+     */
+    public double getSunEclipticLongitude(double julianDate) {
+        return sunLongitude(centuriesSinceJ2000(julianDate));
+    }
+
+    /**
+     * The apparent longitude, chapter 47
+     * <p>
+     * {@inheritDoc}
+     */
+    public double getMoonEclipticLongitude(double julianDate) {
+        return moonLongitude(centuriesSinceJ2000(julianDate));
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getSunEclipticLongitude(JulianInstant instant) {
+        return sunLongitude(instant.dynamicalDaysSince(Coordinates.J2000) / Coordinates.DAYS_PER_CENTURY);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMoonEclipticLongitude(JulianInstant instant) {
+        return moonLongitude(instant.dynamicalDaysSince(Coordinates.J2000) / Coordinates.DAYS_PER_CENTURY);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getSunEclipticLongitude(long epochSecond, long nanoAdjustment) {
+        return sunLongitude(JulianInstant.dynamicalDaysSince(epochSecond, nanoAdjustment, Coordinates.J2000)
+                / Coordinates.DAYS_PER_CENTURY);
+    }
+
+    /** {@inheritDoc} */
+    @Override
+    public double getMoonAngle(long epochSecond, long nanoAdjustment) {
+        double t = JulianInstant.dynamicalDaysSince(epochSecond, nanoAdjustment, Coordinates.J2000)
+                / Coordinates.DAYS_PER_CENTURY;
+        return BaseUtils.adjustTo360Range(moonLongitude(t) - sunLongitude(t));
+    }
+
+    /**
+     * @param t julian centuries since J2000
+     */
+    private static double sunLongitude(double t) {
+        double meanLongitude = 280.46646 + 36000.76983 * t + 0.0003032 * t * t;
+        double meanAnomaly = Math.toRadians(BaseUtils.adjustTo360Range(357.52911 + 35999.05029 * t - 0.0001537 * t * t));
+        double equationOfCentre = (1.914602 - 0.004817 * t - 0.000014 * t * t) * Math.sin(meanAnomaly)
+                + (0.019993 - 0.000101 * t) * Math.sin(2 * meanAnomaly)
+                + 0.000289 * Math.sin(3 * meanAnomaly);
+
+        return BaseUtils.adjustTo360Range(meanLongitude + equationOfCentre - 0.00569 + nutationInLongitude(t));
+    }
+
+    /**
+     * @param t julian centuries since J2000
+     */
+    private double moonLongitude(double t) {
+        double t2 = t * t;
+        double t3 = t2 * t;
+        double t4 = t3 * t;
+
+        // L'
+        double meanLongitude = 218.3164477 + 481267.88123421 * t - 0.0015786 * t2 + t3 / 538841 - t4 / 65194000;
+        // D
+        double elongation = 297.8501921 + 445267.1114034 * t - 0.0018819 * t2 + t3 / 545868 - t4 / 113065000;
+        // M
+        double sunAnomaly = 357.5291092 + 35999.0502909 * t - 0.0001536 * t2 + t3 / 24490000;
+        // M'
+        double moonAnomaly = 134.9633964 + 477198.8675055 * t + 0.0087414 * t2 + t3 / 69699 - t4 / 14712000;
+        // F
+        double latitudeArgument = 93.2720950 + 483202.0175233 * t - 0.0036539 * t2 - t3 / 3526000 + t4 / 863310000;
+        // E, decrease of the earth orbit eccentricity
+        double eccentricity = 1 - 0.002516 * t - 0.0000074 * t2;
+
+        // the sum of the first terms of table 47.A, in millionths of a degree
+        double sum = Kernels.periodicSum(D, M, M_PRIME, F, LONGITUDE, terms, toRadians(elongation),
+                toRadians(sunAnomaly), toRadians(moonAnomaly), toRadians(latitudeArgument), eccentricity);
+        // additive terms for the action of Venus (A1), Jupiter (A2) and the flattening of the earth
+        sum += 3958 * BaseUtils.sinDegrees(BaseUtils.adjustTo360Range(119.75 + 131.849 * t))
+                + 1962 * BaseUtils.sinDegrees(BaseUtils.adjustTo360Range(meanLongitude - latitudeArgument))
+                + 318 * BaseUtils.sinDegrees(BaseUtils.adjustTo360Range(53.09 + 479264.290 * t));
+
+        return BaseUtils.adjustTo360Range(meanLongitude + sum / 1000000 + nutationInLongitude(t));
+    }
+
+    /**
+     * Only the main term (in the longitude of the moon's ascending node), which is the same for
+     * the sun and the moon so it doesn't change the moon angle.
+     */
+    private static double nutationInLongitude(double t) {
+        return -0.00478 * BaseUtils.sinDegrees(BaseUtils.adjustTo360Range(125.04 - 1934.136 * t));
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        return other instanceof MeeusEphemeris && ((MeeusEphemeris) other).terms == terms;
+    }
+
+    @Override
+    public int hashCode() {
+        return terms;
+    }
+
+    private static double centuriesSinceJ2000(double julianDate) {
+        return (DeltaT.toDynamicalTime(julianDate) - Coordinates.J2000) / Coordinates.DAYS_PER_CENTURY;
+    }
+
+    private static double toRadians(double degrees) {
+        return Math.toRadians(BaseUtils.adjustTo360Range(degrees));
+    }
+
+}
@@ -0,0 +1,215 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Finds the moon's perigee and apogee, and the full moons which fall close to a perigee ("supermoons").
+ * <p>
+ * In the theory of {@link MoonPosition} the distance only depends on the true anomaly, so the nearest
+ * and furthest points are where the anomaly passes 0 and 180 degrees, which the same search as the
+ * moon phases finds in a few steps (see {@link EventSearch}).
+ */
+public class MoonApsides {
+
+    /**
+     * The mean anomalistic month, perigee to perigee, in seconds
+     */
+    static final double ANOMALISTIC_MONTH_SECONDS = 27.554550 * 24 * 3600;
+
+    /**
+     * How fast the anomaly grows on average, in degrees per second
+     */
+    private static final double MEAN_ANOMALY_PER_SECOND = 360 / ANOMALISTIC_MONTH_SECONDS;
+
+    /**
+     * The true anomaly is at most about 8 degrees, less than a day, from the mean one
+     */
+    private static final long SEARCH_HALF_WINDOW = 2 * 24 * 3600;
+
+    /**
+     * The window of {@link #findSupermoons} must be less than half an anomalistic month, so at most
+     * one perigee falls in it
+     */
+    private static final double MAX_HOURS_FROM_PERIGEE = 13 * 24;
+
+    private static final Ephemeris ephemeris = EphemerisTier.LOW.getEphemeris();
+
+    private static final MoonFinder fullMoonFinder = MoonPhaseFinder.principalPhaseFinder(2, ephemeris);
+
+    private static final EventSearch search = new EventSearch(ephemeris, new TrueAnomaly(),
+            MEAN_ANOMALY_PER_SECOND, SEARCH_HALF_WINDOW);
+
+    /**
+     * The moon's true anomaly.  A class rather than a lambda, so that the first query of a fresh JVM
+     * doesn't also pay for bootstrapping lambdas, like {@link EventSearch#moonAngle}.
+     */
+    private static final class TrueAnomaly implements EventSearch.Angle {
+        @Override
+        public double at(long epochSecond, long nanoAdjustment) {
+            return MoonPosition.trueAnomalyFromDaysSince(
+                    JulianInstant.daysSince(epochSecond, nanoAdjustment, MoonPosition.EPOCH));
+        }
+    }
+
+    /**
+     * The nearest and furthest points of the moon's orbit, as search predicates on the true anomaly
+     */
+    public enum Apsis implements MoonFinder {
+        PERIGEE(0),
+        APOGEE(180);
+
+        private final double trueAnomaly;
+
+        Apsis(double trueAnomaly) {
+            this.trueAnomaly = trueAnomaly;
+        }
+
+        /**
+         * @param angle the moon's true anomaly
+         * @param unused not meaningful for the anomaly
+         * @return true if the apsis is less than half an anomalistic month before that anomaly
+         */
+        public boolean isMoonBefore(double angle, double unused) {
+            return BaseUtils.adjustTo360Range(angle - trueAnomaly) < 180;
+        }
+
+        /** {@inheritDoc} */
+        public double getEventAngle() {
+            return trueAnomaly;
+        }
+    }
+
+    /**
+     * A full moon close to a perigee.
+     */
+    public static final class Supermoon {
+        private final ZonedDateTime fullMoon;
+        private final ZonedDateTime perigee;
+        private final double distance;
+
+        Supermoon(ZonedDateTime fullMoon, ZonedDateTime perigee, double distance) {
+            this.fullMoon = fullMoon;
+            this.perigee = perigee;
+            this.distance = distance;
+        }
+
+        /**
+         * @return the full moon, rounded to the minute
+         */
+        public ZonedDateTime getFullMoon() {
+            return fullMoon;
+        }
+
+        /**
+         * @return the perigee nearest to it, rounded to the minute
+         */
+        public ZonedDateTime getPerigee() {
+            return perigee;
+        }
+
+        /**
+         * @return the distance between the centres of the earth and the moon at the full moon, in kilometres
+         */
+        public double getDistance() {
+            return distance;
+        }
+
+        @Override
+        public String toString() {
+            return fullMoon + " (perigee " + perigee + ", " + Math.round(distance) + " km)";
+        }
+    }
+
+    public static ZonedDateTime findPerigeeFollowing(ZonedDateTime cal) {
+        return findApsisFollowing(cal, Apsis.PERIGEE);
+    }
+
+    public static ZonedDateTime findApogeeFollowing(ZonedDateTime cal) {
+        return findApsisFollowing(cal, Apsis.APOGEE);
+    }
+
+    /**
+     * @param cal the date to search from
+     * @param apsis the event to find
+     * @return the first such event strictly after the given date, rounded to the minute, in the time
+     * zone of the input date
+     */
+    public static ZonedDateTime findApsisFollowing(ZonedDateTime cal, Apsis apsis) {
+        return MoonPhaseFinder.toRoundedDate(findFollowing(cal.toEpochSecond(), apsis), cal.getZone());
+    }
+
+    /**
+     * @param cal the input date
+     * @return the distance between the centres of the earth and the moon, in kilometres
+     */
+    public static double getMoonDistance(ZonedDateTime cal) {
+        return MoonPosition.distance(MoonPosition.trueAnomaly(JulianInstant.of(cal)));
+    }
+
+    /**
+     * Finds the full moons within the given number of hours of a perigee.
+     * <p>
+     * The full moons and the perigees are both found in time order, and the two sequences are merged
+     * like a sorted join, so no distance is computed except for the full moons returned.  It costs a
+     * phase search per full moon and an anomaly search per perigee.
+     *
+     * @param from the first date a full moon may fall on
+     * @param to the date (excluded) the full moons must fall before
+     * @param hoursFromPerigee how close to a perigee a full moon must be, up to 312 hours
+     * @return the full moons, in time order and in the time zone of the first date
+     */
+    public static List<Supermoon> findSupermoons(ZonedDateTime from, ZonedDateTime to, double hoursFromPerigee) {
+        if (!(hoursFromPerigee >= 0 && hoursFromPerigee <= MAX_HOURS_FROM_PERIGEE)) {
+            throw new IllegalArgumentException("hours from perigee must be between 0 and "
+                    + MAX_HOURS_FROM_PERIGEE + ": " + hoursFromPerigee);
+        }
+        long window = Math.round(hoursFromPerigee * 3600);
+        long end = to.toEpochSecond();
+        LunationIndex index = LunationIndex.getInstance(ephemeris);
+
+        List<Supermoon> supermoons = new ArrayList<>();
+        long fullMoon = index.findEventFollowing(from.toEpochSecond() - 1, fullMoonFinder, 0.5);
+        long perigee = findFollowing(fullMoon - window - 1, Apsis.PERIGEE);
+        while (fullMoon < end) {
+            while (perigee < fullMoon - window) {
+                perigee = search.refine(perigee + Math.round(ANOMALISTIC_MONTH_SECONDS), Apsis.PERIGEE);
+            }
+            if (perigee <= fullMoon + window) {
+                double distance = MoonPosition.distance(MoonPosition.trueAnomaly(JulianInstant.ofEpochSecond(fullMoon)));
+                supermoons.add(new Supermoon(MoonPhaseFinder.toRoundedDate(fullMoon, from.getZone()),
+                        MoonPhaseFinder.toRoundedDate(perigee, from.getZone()), distance));
+            }
+            fullMoon = index.findEventFollowing(fullMoon, fullMoonFinder, 0.5);
+        }
+        return supermoons;
+    }
+
+    /**
+     * @return the first event strictly after the given instant, in seconds since the java epoch
+     */
+    private static long findFollowing(long epochSecond, Apsis apsis) {
+        double anomaly = MoonPosition.trueAnomaly(JulianInstant.ofEpochSecond(epochSecond));
+        double toGo = BaseUtils.adjustTo360Range(apsis.getEventAngle() - anomaly);
+        long event = search.refine(epochSecond + Math.round(toGo / MEAN_ANOMALY_PER_SECOND), apsis);
+        if (event > epochSecond) {
+            return event;
+        }
+        return search.refine(event + Math.round(ANOMALISTIC_MONTH_SECONDS), apsis);
+    }
+
+}
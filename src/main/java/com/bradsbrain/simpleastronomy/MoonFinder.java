@@ -29,4 +29,13 @@ public interface MoonFinder {
      */
     boolean isMoonBefore(double angle, double percent);
 
+    /**
+     * Tells where the event happens, so a search can converge faster than a binary search would.
+     *
+     * @return the moon angle at which the moon type happens, or NaN if not known
+     */
+    default double getEventAngle() {
+        return Double.NaN;
+    }
+
 }
@@ -0,0 +1,191 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.Duration;
+import java.time.ZonedDateTime;
+import java.util.NoSuchElementException;
+import java.util.PrimitiveIterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.DoubleStream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Samples {@link MoonPhaseFinder#getMoonVisiblePercent(ZonedDateTime)} at a fixed interval.
+ * <p>
+ * The mean longitudes and anomalies of the sun and moon grow linearly with time, so rather than
+ * computing them from the 1990 epoch for every sample they are advanced by a constant amount per
+ * step.  Only the periodic corrections are evaluated for each sample.  Every
+ * {@value #REANCHOR_INTERVAL} samples the mean elements are computed from the epoch again so rounding
+ * errors can't build up.  No objects are created per sample.
+ */
+public final class MoonIlluminationSeries {
+
+    /**
+     * Receives the samples of a series.
+     */
+    public interface Sink {
+
+        /**
+         * @param epochSecond the sample instant, in seconds since 1970-01-01T00:00Z
+         * @param visiblePercent the amount of moon visible, 0.00 to 1.00
+         */
+        void accept(long epochSecond, double visiblePercent);
+    }
+
+    private static final int REANCHOR_INTERVAL = 1024;
+
+    private static final double SECONDS_PER_DAY = 24 * 3600;
+
+    private final long startEpochSecond;
+    private final long stepSeconds;
+
+    private final double sunStep;
+    private final double moonLongitudeStep;
+    private final double moonAnomalyStep;
+
+    private final Precision precision;
+
+    /**
+     * Samples taken so far
+     */
+    private long sampleCount;
+
+    // N, l and M m of the next sample
+    private double sunN;
+    private double moonMeanLongitude;
+    private double moonMeanAnomaly;
+
+    /**
+     * A series rounded to 3 decimals like {@link MoonPhaseFinder#getMoonVisiblePercent(ZonedDateTime)}.
+     *
+     * @param start the first sample
+     * @param step the time between two samples, a whole number of seconds
+     */
+    public MoonIlluminationSeries(ZonedDateTime start, Duration step) {
+        this(start, step, Precision.PER_MILLE);
+    }
+
+    /**
+     * @param start the first sample
+     * @param step the time between two samples, a whole number of seconds
+     * @param precision how to round the samples, {@link Precision#RAW} for none
+     */
+    public MoonIlluminationSeries(ZonedDateTime start, Duration step, Precision precision) {
+        if (step.getNano() != 0 || step.getSeconds() <= 0) {
+            throw new IllegalArgumentException("step must be a positive whole number of seconds: " + step);
+        }
+        this.startEpochSecond = start.toEpochSecond();
+        this.stepSeconds = step.getSeconds();
+        this.precision = precision;
+
+        double stepDays = stepSeconds / SECONDS_PER_DAY;
+        this.sunStep = BaseUtils.adjustTo360Range(SunPosition.MEAN_DAILY_MOTION * stepDays);
+        this.moonLongitudeStep = BaseUtils.adjustTo360Range(MoonPosition.MEAN_DAILY_MOTION * stepDays);
+        this.moonAnomalyStep = BaseUtils.adjustTo360Range(
+                (MoonPosition.MEAN_DAILY_MOTION - MoonPosition.PERIGREE_DAILY_MOTION) * stepDays);
+        anchor();
+    }
+
+    /**
+     * @return the instant of the next sample, in seconds since 1970-01-01T00:00Z
+     */
+    public long nextEpochSecond() {
+        return startEpochSecond + sampleCount * stepSeconds;
+    }
+
+    /**
+     * Computes the next sample and moves on to the one after.
+     *
+     * @return the amount of moon visible at {@link #nextEpochSecond()}, 0.00 to 1.00
+     */
+    public double nextVisiblePercent() {
+        double sunMeanAnomaly = SunPosition.computeMeanAnomaly(sunN);
+        double sunLongitude = SunPosition.computeGeoEclipticLongitude(sunN, sunMeanAnomaly);
+        double moonLongitude = MoonPosition.trueLongitude(moonMeanLongitude, moonMeanAnomaly, sunLongitude, sunMeanAnomaly);
+        double visiblePercent = precision.round(
+                MoonPhaseFinder.visibleFraction(BaseUtils.adjustTo360Range(moonLongitude - sunLongitude)));
+
+        sampleCount++;
+        if (sampleCount % REANCHOR_INTERVAL == 0) {
+            anchor();
+        } else {
+            sunN = advance(sunN, sunStep);
+            moonMeanLongitude = advance(moonMeanLongitude, moonLongitudeStep);
+            moonMeanAnomaly = advance(moonMeanAnomaly, moonAnomalyStep);
+        }
+        return visiblePercent;
+    }
+
+    /**
+     * Sends {@code count} samples to the sink, in order.
+     *
+     * @param start the first sample
+     * @param step the time between two samples, a whole number of seconds
+     * @param count the number of samples
+     * @param sink receives the samples
+     */
+    public static void generate(ZonedDateTime start, Duration step, long count, Sink sink) {
+        MoonIlluminationSeries series = new MoonIlluminationSeries(start, step);
+        for (long i = 0; i < count; i++) {
+            long epochSecond = series.nextEpochSecond();
+            sink.accept(epochSecond, series.nextVisiblePercent());
+        }
+    }
+
+    /**
+     * @param start the first sample
+     * @param step the time between two samples, a whole number of seconds
+     * @param count the number of samples
+     * @return a sequential stream of {@code count} samples
+     */
+    public static DoubleStream stream(ZonedDateTime start, Duration step, long count) {
+        final MoonIlluminationSeries series = new MoonIlluminationSeries(start, step);
+        PrimitiveIterator.OfDouble samples = new PrimitiveIterator.OfDouble() {
+            private long remaining = count;
+
+            public boolean hasNext() {
+                return remaining > 0;
+            }
+
+            public double nextDouble() {
+                if (remaining <= 0) {
+                    throw new NoSuchElementException();
+                }
+                remaining--;
+                return series.nextVisiblePercent();
+            }
+        };
+        return StreamSupport.doubleStream(Spliterators.spliterator(samples, count,
+                Spliterator.ORDERED | Spliterator.IMMUTABLE | Spliterator.NONNULL), false);
+    }
+
+    /**
+     * Computes the mean elements of the next sample from the epoch.
+     */
+    private void anchor() {
+        double julianDate = JulianDate.fromEpochSecond(nextEpochSecond());
+        sunN = SunPosition.computeN(julianDate);
+        double daysSince = julianDate - MoonPosition.EPOCH;
+        moonMeanLongitude = MoonPosition.computeMeanLongitude(daysSince);
+        moonMeanAnomaly = MoonPosition.computeMeanAnomaly(daysSince, moonMeanLongitude);
+    }
+
+    private static double advance(double angle, double step) {
+        double advanced = angle + step;
+        return advanced >= 360 ? advanced - 360 : advanced;
+    }
+
+}
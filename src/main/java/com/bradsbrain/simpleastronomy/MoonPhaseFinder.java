@@ -15,8 +15,9 @@
  */
 package com.bradsbrain.simpleastronomy;
 
+import java.time.Instant;
+import java.time.ZoneId;
 import java.time.ZonedDateTime;
-import java.time.temporal.ChronoUnit;
 
 public class MoonPhaseFinder {
 
@@ -24,6 +25,8 @@ public class MoonPhaseFinder {
 
     private static final MoonFinder fullMoonFinder = new FullMoonFinder();
 
+    private static final MoonFinder exactFullMoonFinder = new FullMoonFinder(180);
+
     private static final MoonFinder firstQuarterFinder = new FirstQuarterFinder();
 
     private static final MoonFinder lastQuarterFinder = new LastQuarterFinder();
@@ -36,75 +39,168 @@ public class MoonPhaseFinder {
         FULL,
         WANINGGIBBOUS,
         LASTQUARTER,
-        WANINGCRESCENT;
+        WANINGCRESCENT
+    }
 
-        static MoonPhase finder(double percent) {
-            return FULL;
-        }
+    private static final Ephemeris defaultEphemeris = EphemerisTier.LOW.getEphemeris();
 
-        // TODO: consider an implementation, start reading at https://www.quia.com/jg/431146list.html
-        // TODO: dateandtime.com has new moon, first moon and third quarter values to make tests with
-    }
+    private static final long SECONDS_PER_DAY = 24 * 3600;
 
     /**
-     * Someday this will return a descriptive MoonPhase enum when handed a cal/date
+     * Returns the phase of the moon on the given date.  A principal phase (new, first quarter,
+     * full, last quarter) is returned for the whole calendar day on which it occurs, in the time zone
+     * of the input date.  Any other time is in one of the intermediate phases.
      *
      * @param cal the input date
      * @return a MoonPhase
      */
     public static MoonPhase findMoonPhaseAt(ZonedDateTime cal) {
-        return null;
+        return findMoonPhaseAt(cal, defaultEphemeris);
+    }
+
+    /**
+     * Same as {@link #findMoonPhaseAt(ZonedDateTime)} using the given ephemeris.
+     *
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @return a MoonPhase
+     */
+    public static MoonPhase findMoonPhaseAt(ZonedDateTime cal, Ephemeris ephemeris) {
+        return findMoonPhaseAt(cal, ephemeris, getMoonAngle(cal, ephemeris));
+    }
+
+    /**
+     * Same as {@link #findMoonPhaseAt(ZonedDateTime, Ephemeris)} for callers which already have the
+     * moon angle at that date, so it isn't computed again.
+     *
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @param angle the moon angle at the input date, {@link #getMoonAngle(ZonedDateTime, Ephemeris)}
+     * @return a MoonPhase
+     */
+    public static MoonPhase findMoonPhaseAt(ZonedDateTime cal, Ephemeris ephemeris, double angle) {
+        long epochSecond = cal.toEpochSecond();
+        // 0 to 4, from the new moon starting the lunation to the one ending it
+        int nearestPrincipalPhase = (int) Math.round(angle / 90);
+        long event = LunationIndex.getInstance(ephemeris).findEventInLunation(epochSecond,
+                principalPhaseFinder(nearestPrincipalPhase, ephemeris), nearestPrincipalPhase / 4.0);
+        if (localEpochDay(roundToMinute(event), cal.getZone()) == cal.toLocalDate().toEpochDay()) {
+            return MoonPhase.values()[(2 * nearestPrincipalPhase) % 8];
+        }
+        return MoonPhase.values()[2 * (int) (angle / 90) + 1];
     }
 
     public static ZonedDateTime findFullMoonFollowing(ZonedDateTime cal) {
-        return findDatePassingBounds(cal, fullMoonFinder);
+        return findFullMoonFollowing(cal, defaultEphemeris);
     }
 
     public static ZonedDateTime findLastQuarterFollowing(ZonedDateTime cal) {
-        return findDatePassingBounds(cal, lastQuarterFinder);
+        return findLastQuarterFollowing(cal, defaultEphemeris);
     }
 
     public static ZonedDateTime findNewMoonFollowing(ZonedDateTime cal) {
-        return findDatePassingBounds(cal, newMoonFinder);
+        return findNewMoonFollowing(cal, defaultEphemeris);
     }
 
     public static ZonedDateTime findFirsQuarterFollowing(ZonedDateTime cal) {
-        return findDatePassingBounds(cal, firstQuarterFinder);
+        return findFirsQuarterFollowing(cal, defaultEphemeris);
+    }
+
+    public static ZonedDateTime findFullMoonFollowing(ZonedDateTime cal, Ephemeris ephemeris) {
+        return findDateFollowing(cal, ephemeris, principalPhaseFinder(2, ephemeris), 0.5);
+    }
+
+    public static ZonedDateTime findLastQuarterFollowing(ZonedDateTime cal, Ephemeris ephemeris) {
+        return findDateFollowing(cal, ephemeris, lastQuarterFinder, 0.75);
     }
 
-    private static final long LONGEST_SYNODIC_MONTH_EVER = (29 * 24 + 20) * 3600000L;
+    public static ZonedDateTime findNewMoonFollowing(ZonedDateTime cal, Ephemeris ephemeris) {
+        return findDateFollowing(cal, ephemeris, newMoonFinder, 0);
+    }
+
+    public static ZonedDateTime findFirsQuarterFollowing(ZonedDateTime cal, Ephemeris ephemeris) {
+        return findDateFollowing(cal, ephemeris, firstQuarterFinder, 0.25);
+    }
 
-    private static ZonedDateTime findDatePassingBounds(ZonedDateTime cal, MoonFinder moonFinder) {
-        long start = 0;
-        long end = LONGEST_SYNODIC_MONTH_EVER;
+    private static ZonedDateTime findDateFollowing(ZonedDateTime cal, Ephemeris ephemeris, MoonFinder moonFinder,
+                                                   double lunationFraction) {
+        long event = LunationIndex.getInstance(ephemeris).findEventFollowing(cal.toEpochSecond(), moonFinder, lunationFraction);
+        return toRoundedDate(event, cal.getZone());
+    }
+
+    /**
+     * Same as {@link #findPrincipalPhases(ZonedDateTime, ZonedDateTime, Ephemeris)} with the default ephemeris.
+     *
+     * @param from the first date an event may fall on
+     * @param to the date (excluded) the events must fall before
+     * @return the events in time order
+     */
+    public static PhaseEventList findPrincipalPhases(ZonedDateTime from, ZonedDateTime to) {
+        return findPrincipalPhases(from, to, defaultEphemeris);
+    }
 
-        ZonedDateTime middleCal = cal;
-        while (500 < (end - start)) {
-            long middle = start + Math.round((end - start) / 2.125); //a bit less than the middle as shorter synodic months can be up to 13.5h shorter than the longest one
-            middleCal = cal.plus(middle, ChronoUnit.MILLIS);
+    /**
+     * Finds every new moon, first quarter, full moon and last quarter between two dates, to the second
+     * rather than rounded to the minute like the {@code find*Following} methods.  Each phase is found
+     * in turn and the four sequences are merged.
+     *
+     * @param from the first date an event may fall on
+     * @param to the date (excluded) the events must fall before
+     * @param ephemeris the sun and moon theory to use
+     * @return the events in time order
+     */
+    public static PhaseEventList findPrincipalPhases(ZonedDateTime from, ZonedDateTime to, Ephemeris ephemeris) {
+        long start = from.toEpochSecond();
+        long end = to.toEpochSecond();
+        LunationIndex index = LunationIndex.getInstance(ephemeris);
+        int capacity = (int) Math.max(0, (end - start) / LunationIndex.SYNODIC_MONTH_SECONDS) + 2;
 
-            double percent = 100 * MoonPhaseFinder.getMoonVisiblePercent(middleCal);
-            double angle = MoonPhaseFinder.getMoonAngle(middleCal);
-            if (moonFinder.isMoonBefore(angle, percent)) {
-                end = middle;
-            } else {
-                start = middle;
+        PhaseEventList[] quarters = new PhaseEventList[4];
+        for (int quarter = 0; quarter < 4; quarter++) {
+            quarters[quarter] = new PhaseEventList(capacity);
+            MoonFinder moonFinder = principalPhaseFinder(quarter, ephemeris);
+            MoonPhase phase = MoonPhase.values()[2 * quarter];
+            long event = index.findEventFollowing(start - 1, moonFinder, quarter / 4.0);
+            while (event < end) {
+                quarters[quarter].add(event, phase);
+                event = index.findEventFollowing(event, moonFinder, quarter / 4.0);
             }
         }
+        return PhaseEventList.merge(quarters);
+    }
 
-        ZonedDateTime result = roundToMinutes(middleCal);
-        if (start > 0) {
-            return result;
+    /**
+     * @param quarter 0 to 4, from the new moon starting a lunation to the one ending it
+     * @param ephemeris the sun and moon theory in use, the full moon finder is tuned for the default one
+     */
+    static MoonFinder principalPhaseFinder(int quarter, Ephemeris ephemeris) {
+        switch (quarter) {
+            case 1:
+                return firstQuarterFinder;
+            case 2:
+                return ephemeris instanceof DuffettSmithEphemeris ? fullMoonFinder : exactFullMoonFinder;
+            case 3:
+                return lastQuarterFinder;
+            default:
+                return newMoonFinder;
         }
-        return findDatePassingBounds(cal.plusDays(15), moonFinder);
     }
 
-    private static ZonedDateTime roundToMinutes(ZonedDateTime input) {
-        ZonedDateTime result = input.withSecond(0).withNano(0);
-        if (input.getSecond() * 1_000_000_000L + input.getNano() >= 30_000_000_000L) {
-            result = result.plusMinutes(1);
-        }
-        return result;
+    static ZonedDateTime toRoundedDate(long epochSecond, ZoneId zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(roundToMinute(epochSecond)), zone);
+    }
+
+    static long roundToMinute(long epochSecond) {
+        return Math.floorDiv(epochSecond + 30, 60) * 60;
+    }
+
+    /**
+     * The day an instant falls on in a time zone, without building the date, as this is called for
+     * every {@link #findMoonPhaseAt} query.
+     */
+    private static long localEpochDay(long epochSecond, ZoneId zone) {
+        int offset = zone.getRules().getOffset(Instant.ofEpochSecond(epochSecond)).getTotalSeconds();
+        return Math.floorDiv(epochSecond + offset, SECONDS_PER_DAY);
     }
 
     /**
@@ -115,8 +211,71 @@ public class MoonPhaseFinder {
      * @return percent of moon which is visible
      */
     public static double getMoonVisiblePercent(ZonedDateTime cal) {
-        double moonAngle = getMoonAngle(cal);
-        return BaseUtils.useLessPrecision(0.5 * (1 - BaseUtils.cosDegrees(moonAngle)), 3);
+        return getMoonVisiblePercent(cal, defaultEphemeris);
+    }
+
+    /**
+     * Same as {@link #getMoonVisiblePercent(ZonedDateTime)} using the given ephemeris.
+     *
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @return percent of moon which is visible
+     */
+    public static double getMoonVisiblePercent(ZonedDateTime cal, Ephemeris ephemeris) {
+        return visiblePercent(getMoonAngle(cal, ephemeris));
+    }
+
+    /**
+     * Same as {@link #getMoonVisiblePercent(ZonedDateTime, Ephemeris)} with the given number of decimals.
+     * With {@link Precision#RAW} the value changes smoothly with time, which is what a search or a
+     * batch computation wants.
+     *
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @param precision how to round the result
+     * @return percent of moon which is visible
+     */
+    public static double getMoonVisiblePercent(ZonedDateTime cal, Ephemeris ephemeris, Precision precision) {
+        return getMoonVisiblePercent(getMoonAngle(cal, ephemeris), precision);
+    }
+
+    /**
+     * Same as {@link #getMoonVisiblePercent(ZonedDateTime, Ephemeris, Precision)} for callers which
+     * already have the moon angle.
+     *
+     * @param moonAngle a moon angle, see {@link #getMoonAngle(ZonedDateTime, Ephemeris)}
+     * @param precision how to round the result
+     * @return percent of moon which is visible at that angle
+     */
+    public static double getMoonVisiblePercent(double moonAngle, Precision precision) {
+        return precision.round(visibleFraction(moonAngle));
+    }
+
+    /**
+     * The amount of moon visible in thousandths, 0 to 1000.
+     *
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @return per mille of moon which is visible
+     */
+    public static int getMoonVisiblePerMille(ZonedDateTime cal, Ephemeris ephemeris) {
+        return (int) Precision.PER_MILLE.toScaled(visibleFraction(getMoonAngle(cal, ephemeris)));
+    }
+
+    /**
+     * @param moonAngle a moon angle, see {@link #getMoonAngle(ZonedDateTime)}
+     * @return percent of moon which is visible at that angle, to 3 decimals
+     */
+    static double visiblePercent(double moonAngle) {
+        return Precision.PER_MILLE.round(visibleFraction(moonAngle));
+    }
+
+    /**
+     * @param moonAngle a moon angle, see {@link #getMoonAngle(ZonedDateTime)}
+     * @return the fraction of the moon which is visible at that angle, not rounded
+     */
+    static double visibleFraction(double moonAngle) {
+        return 0.5 * (1 - BaseUtils.cosDegrees(moonAngle));
     }
 
     /**
@@ -128,14 +287,29 @@ public class MoonPhaseFinder {
      * @return the angle of the moon in relation to the earth
      */
     public static double getMoonAngle(ZonedDateTime cal) {
-        SunPosition sunPos = new SunPosition(cal);
-        MoonPosition moonPos = new MoonPosition(cal);
+        return getMoonAngle(cal, defaultEphemeris);
+    }
 
-        double angleAge = moonPos.getTrueLongitude() - sunPos.getEclipticLongitude();
-        if (angleAge < 0) {
-            return 360 + angleAge;
-        }
-        return angleAge;
+    /**
+     * Same as {@link #getMoonAngle(ZonedDateTime)} using the given ephemeris.
+     *
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @return the angle of the moon in relation to the earth
+     */
+    public static double getMoonAngle(ZonedDateTime cal, Ephemeris ephemeris) {
+        return ephemeris.getMoonAngle(JulianInstant.of(cal));
+    }
+
+    /**
+     * Allocation-free equivalent of {@link #getMoonAngle(ZonedDateTime)}.
+     *
+     * @param julianDate the input date as a julian date
+     * @return the angle of the moon in relation to the earth
+     */
+    static double moonAngle(double julianDate) {
+        // the true longitude can be slightly outside 0 to 360, so a single +360 isn't always enough
+        return BaseUtils.adjustTo360Range(MoonPosition.trueLongitude(julianDate) - SunPosition.eclipticLongitude(julianDate));
     }
 
 }
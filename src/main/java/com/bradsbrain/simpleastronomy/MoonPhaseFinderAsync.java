@@ -0,0 +1,223 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * The {@link MoonPhaseFinder} queries, answered on an executor instead of the calling thread.
+ * <p>
+ * Queries which need a computation still in progress share its result rather than computing it
+ * again.  For the {@code find*Following} methods that is the search for the event of a lunation, so
+ * callers asking from different instants for the same upcoming full moon search for it once: each
+ * only looks up in the {@link LunationIndex} which lunation its instant falls in.  The other queries
+ * are shared when identical (same method, instant and time zone).  Each caller gets its own future,
+ * so cancelling or completing it doesn't affect the others.
+ */
+public final class MoonPhaseFinderAsync {
+
+    private enum Kind {
+        NEW_MOON, FIRST_QUARTER, FULL_MOON, LAST_QUARTER, PHASE, VISIBLE_PERCENT
+    }
+
+    private static final class Query {
+        private final Kind kind;
+        private final long epochSecond;
+        private final int nano;
+        private final ZoneId zone;
+
+        /**
+         * A query on an instant, in a time zone
+         */
+        Query(Kind kind, ZonedDateTime cal) {
+            this(kind, cal.toEpochSecond(), cal.getNano(), cal.getZone());
+        }
+
+        /**
+         * The search for the event of the lunation starting at the given new moon
+         */
+        Query(Kind kind, long lunationStart) {
+            this(kind, lunationStart, 0, null);
+        }
+
+        private Query(Kind kind, long epochSecond, int nano, ZoneId zone) {
+            this.kind = kind;
+            this.epochSecond = epochSecond;
+            this.nano = nano;
+            this.zone = zone;
+        }
+
+        @Override
+        public boolean equals(Object other) {
+            if (!(other instanceof Query)) {
+                return false;
+            }
+            Query that = (Query) other;
+            return kind == that.kind && epochSecond == that.epochSecond && nano == that.nano
+                    && Objects.equals(zone, that.zone);
+        }
+
+        @Override
+        public int hashCode() {
+            return (kind.hashCode() * 31 + Long.hashCode(epochSecond)) * 31 + nano + Objects.hashCode(zone);
+        }
+    }
+
+    private final Executor executor;
+    private final Ephemeris ephemeris;
+    private final LunationIndex index;
+    private final ConcurrentMap<Query, CompletableFuture<?>> inFlight = new ConcurrentHashMap<>();
+
+    /**
+     * Uses a virtual thread per query on Java 21 and later, the common fork join pool before, and
+     * the default ephemeris.
+     */
+    public MoonPhaseFinderAsync() {
+        this(AsyncExecutors.defaultExecutor());
+    }
+
+    /**
+     * @param executor runs the queries
+     */
+    public MoonPhaseFinderAsync(Executor executor) {
+        this(executor, EphemerisTier.LOW.getEphemeris());
+    }
+
+    /**
+     * @param executor runs the queries
+     * @param ephemeris the sun and moon theory to use
+     */
+    public MoonPhaseFinderAsync(Executor executor, Ephemeris ephemeris) {
+        this.executor = executor;
+        this.ephemeris = ephemeris;
+        this.index = LunationIndex.getInstance(ephemeris);
+    }
+
+    /**
+     * @param cal the input date
+     * @return see {@link MoonPhaseFinder#findMoonPhaseAt(ZonedDateTime)}
+     */
+    public CompletableFuture<MoonPhase> findMoonPhaseAt(ZonedDateTime cal) {
+        return copy(submit(new Query(Kind.PHASE, cal), () -> MoonPhaseFinder.findMoonPhaseAt(cal, ephemeris)));
+    }
+
+    /**
+     * @param cal the input date
+     * @return see {@link MoonPhaseFinder#getMoonVisiblePercent(ZonedDateTime)}
+     */
+    public CompletableFuture<Double> getMoonVisiblePercent(ZonedDateTime cal) {
+        return copy(submit(new Query(Kind.VISIBLE_PERCENT, cal), () -> MoonPhaseFinder.getMoonVisiblePercent(cal, ephemeris)));
+    }
+
+    public CompletableFuture<ZonedDateTime> findFullMoonFollowing(ZonedDateTime cal) {
+        return findEventFollowing(Kind.FULL_MOON, 2, cal);
+    }
+
+    public CompletableFuture<ZonedDateTime> findLastQuarterFollowing(ZonedDateTime cal) {
+        return findEventFollowing(Kind.LAST_QUARTER, 3, cal);
+    }
+
+    public CompletableFuture<ZonedDateTime> findNewMoonFollowing(ZonedDateTime cal) {
+        return findEventFollowing(Kind.NEW_MOON, 0, cal);
+    }
+
+    public CompletableFuture<ZonedDateTime> findFirsQuarterFollowing(ZonedDateTime cal) {
+        return findEventFollowing(Kind.FIRST_QUARTER, 1, cal);
+    }
+
+    /**
+     * @return how many distinct computations are in progress
+     */
+    int inFlightCount() {
+        return inFlight.size();
+    }
+
+    /**
+     * Same as {@link LunationIndex#findEventFollowing}: the event of the lunation containing the
+     * instant if it is after it, else the event of the next lunation, each searched for once
+     * whatever the number of callers waiting for it.
+     */
+    private CompletableFuture<ZonedDateTime> findEventFollowing(Kind kind, int quarter, ZonedDateTime cal) {
+        long epochSecond = cal.toEpochSecond();
+        MoonFinder moonFinder = MoonPhaseFinder.principalPhaseFinder(quarter, ephemeris);
+        return execute(new CompletableFuture<Long>(), () -> index.lunationStart(epochSecond))
+                .thenCompose(start -> findEventInLunation(kind, start, moonFinder, quarter / 4.0))
+                .thenCompose(event -> event > epochSecond ? CompletableFuture.completedFuture(event)
+                        : findEventInLunation(kind, index.lunationEnd(epochSecond), moonFinder, quarter / 4.0))
+                .thenApply(event -> MoonPhaseFinder.toRoundedDate(event, cal.getZone()));
+    }
+
+    private CompletableFuture<Long> findEventInLunation(Kind kind, long lunationStart, MoonFinder moonFinder,
+                                                        double lunationFraction) {
+        return submit(new Query(kind, lunationStart),
+                () -> index.findEventInLunation(lunationStart, moonFinder, lunationFraction));
+    }
+
+    /**
+     * @return the computation of the query already in progress, or a new one
+     */
+    @SuppressWarnings("unchecked")
+    private <T> CompletableFuture<T> submit(Query query, Supplier<T> compute) {
+        CompletableFuture<T> created = new CompletableFuture<>();
+        CompletableFuture<T> shared = (CompletableFuture<T>) inFlight.putIfAbsent(query, created);
+        if (shared != null) {
+            return shared;
+        }
+        execute(created, () -> {
+            try {
+                return compute.get();
+            } finally {
+                inFlight.remove(query, created);
+            }
+        });
+        if (created.isCompletedExceptionally()) {
+            // the task never ran if the executor rejected it
+            inFlight.remove(query, created);
+        }
+        return created;
+    }
+
+    private <T> CompletableFuture<T> execute(CompletableFuture<T> future, Supplier<T> compute) {
+        try {
+            executor.execute(() -> {
+                try {
+                    future.complete(compute.get());
+                } catch (Throwable t) {
+                    future.completeExceptionally(t);
+                }
+            });
+        } catch (RuntimeException e) {
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    /**
+     * @return a copy of a shared computation, so one caller cancelling doesn't cancel the others
+     */
+    private static <T> CompletableFuture<T> copy(CompletableFuture<T> shared) {
+        return shared.thenApply(Function.identity());
+    }
+
+}
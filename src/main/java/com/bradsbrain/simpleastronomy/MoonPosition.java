@@ -17,138 +17,281 @@ package com.bradsbrain.simpleastronomy;
 
 import java.time.ZonedDateTime;
 
+import static com.bradsbrain.simpleastronomy.BaseUtils.cosDegrees;
 import static com.bradsbrain.simpleastronomy.BaseUtils.sinDegrees;
 
 public class MoonPosition {
     // some handy constants
-    private static final double EPOCH = 2447891.5; // 1990 January 0.0
+    static final double EPOCH = 2447891.5; // 1990 January 0.0
     private static final double MEAN_LONGITUDE_AT_EPOCH = 318.351648;
     private static final double MEAN_LONGITUDE_OF_PERIGREE_AT_EPOCH = 36.340410;
+    /**
+     * Degrees per day travelled by the moon's mean longitude
+     */
+    static final double MEAN_DAILY_MOTION = 13.1763966;
+    /**
+     * Degrees per day travelled by the moon's perigee
+     */
+    static final double PERIGREE_DAILY_MOTION = 0.1114041;
+    private static final double ECCENTRICITY_OF_ORBIT = 0.054900;
+    private static final double MEAN_LONGITUDE_OF_NODE_AT_EPOCH = 318.510107;
+    /**
+     * Degrees per day travelled backwards by the ascending node
+     */
+    private static final double NODE_DAILY_MOTION = 0.0529539;
+    private static final double INCLINATION_OF_ORBIT = 5.145396;
+    /**
+     * Kilometres, the moon's mean distance from the earth
+     */
+    static final double SEMI_MAJOR_AXIS = 384401;
+    /**
+     * Degrees, the moon's angular diameter when it is at the mean distance
+     */
+    private static final double ANGULAR_DIAMETER_AT_SEMI_MAJOR_AXIS = 0.5181;
 
     /**
      * The True Longitude
      */
     private double trueOrbitalLongitude;
 
+    /**
+     * The true anomaly, the moon's angle from the perigee as seen from the earth
+     */
+    private double trueAnomaly;
+
     /**
      * This is from section 65, page 144
      *
      * @param cal the calendar date for which to compute the moon position
      */
     public MoonPosition(ZonedDateTime cal) {
-        double daysSince = BaseUtils.exactDaysSince(cal, EPOCH);
+        JulianInstant instant = JulianInstant.of(cal);
+        trueOrbitalLongitude = trueLongitude(instant);
+        trueAnomaly = trueAnomaly(instant);
+    }
+
+    public double getTrueLongitude() {
+        return trueOrbitalLongitude;
+    }
+
+    /**
+     * @return the true anomaly in degrees, 0 at the perigee and 180 at the apogee
+     */
+    public double getTrueAnomaly() {
+        return trueAnomaly;
+    }
 
+    /**
+     * From section 67.
+     *
+     * @return the distance between the centres of the earth and the moon, in kilometres
+     */
+    public double getDistance() {
+        return distance(trueAnomaly);
+    }
+
+    /**
+     * @return the moon's angular diameter in degrees, about half a degree
+     */
+    public double getAngularDiameter() {
+        return ANGULAR_DIAMETER_AT_SEMI_MAJOR_AXIS * SEMI_MAJOR_AXIS / distance(trueAnomaly);
+    }
+
+    /**
+     * The true longitude at a julian date without creating a {@code MoonPosition}, each correction
+     * term is evaluated exactly once.
+     *
+     * @param julianDate the input date as a julian date
+     * @return the true longitude in degrees
+     */
+    static double trueLongitude(double julianDate) {
+        return trueLongitudeFromDaysSince(julianDate - EPOCH, SunPosition.computeN(julianDate));
+    }
+
+    /**
+     * Same as {@link #trueLongitude(double)} without rounding the input date.
+     *
+     * @param instant the input date
+     * @return the true longitude in degrees
+     */
+    static double trueLongitude(JulianInstant instant) {
+        return trueLongitudeFromDaysSince(instant.daysSince(EPOCH));
+    }
+
+    /**
+     * @param daysSince days since {@link #EPOCH}
+     * @return the true longitude in degrees
+     */
+    static double trueLongitudeFromDaysSince(double daysSince) {
+        return trueLongitudeFromDaysSince(daysSince, SunPosition.computeNFromDaysSince(daysSince));
+    }
+
+    private static double trueLongitudeFromDaysSince(double daysSince, double sunN) {
         // l
         double moonMeanLongitude = computeMeanLongitude(daysSince);
         // M m
         double moonMeanAnomaly = computeMeanAnomaly(daysSince, moonMeanLongitude);
 
-        SunPosition sunPos = new SunPosition(cal);
+        double sunMeanAnomaly = SunPosition.computeMeanAnomaly(sunN);
+        return trueLongitude(moonMeanLongitude, moonMeanAnomaly,
+                SunPosition.computeGeoEclipticLongitude(sunN, sunMeanAnomaly), sunMeanAnomaly);
+    }
+
+    /**
+     * The true anomaly, which the moon's distance depends on.
+     *
+     * @param instant the input date
+     * @return the true anomaly in degrees, 0 to 360
+     */
+    static double trueAnomaly(JulianInstant instant) {
+        return trueAnomalyFromDaysSince(instant.daysSince(EPOCH));
+    }
+
+    /**
+     * @param daysSince days since {@link #EPOCH}
+     * @return the true anomaly in degrees, 0 to 360
+     */
+    static double trueAnomalyFromDaysSince(double daysSince) {
+        double sunN = SunPosition.computeNFromDaysSince(daysSince);
+        double moonMeanLongitude = computeMeanLongitude(daysSince);
+        double moonMeanAnomaly = computeMeanAnomaly(daysSince, moonMeanLongitude);
+        double sunMeanAnomaly = SunPosition.computeMeanAnomaly(sunN);
+        return trueAnomaly(moonMeanLongitude, moonMeanAnomaly,
+                SunPosition.computeGeoEclipticLongitude(sunN, sunMeanAnomaly), sunMeanAnomaly);
+    }
+
+    /**
+     * Same as {@link #trueAnomaly(JulianInstant)} for callers which already know the mean elements
+     * and the sun, see {@link #trueLongitude(double, double, double, double)}.
+     */
+    static double trueAnomaly(double moonMeanLongitude, double moonMeanAnomaly,
+                              double sunLongitude, double sunMeanAnomaly) {
+        // M' m
+        double moonCorrectedAnomaly = moonMeanAnomaly
+                + evictionCorrection(moonMeanLongitude, moonMeanAnomaly, sunLongitude)
+                - annualEquationCorrection(sunMeanAnomaly)
+                - unnamedThirdCorrection(sunMeanAnomaly);
+        return BaseUtils.adjustTo360Range(moonCorrectedAnomaly + correctionForEquationCentre(moonCorrectedAnomaly));
+    }
 
-        MoonCorrections corrections = new MoonCorrections(moonMeanLongitude, moonMeanAnomaly, sunPos.getEclipticLongitude(), sunPos.getMeanAnomaly());
-        trueOrbitalLongitude = corrections.getCorrectedLongitude() - corrections.getVariationCorrection();
+    /**
+     * From section 65, the moon's angle north or south of the ecliptic.
+     *
+     * @param instant the input date
+     * @return the ecliptic latitude in degrees, -5.2 to 5.2
+     */
+    static double eclipticLatitude(JulianInstant instant) {
+        double daysSince = instant.daysSince(EPOCH);
+        return eclipticLatitudeFromDaysSince(daysSince, trueLongitude(instant));
     }
 
-    public double getTrueLongitude() {
-        return trueOrbitalLongitude;
+    /**
+     * Same as {@link #eclipticLatitude(JulianInstant)} for a julian date.
+     *
+     * @param julianDate the input date as a julian date
+     * @return the ecliptic latitude in degrees, -5.2 to 5.2
+     */
+    static double eclipticLatitude(double julianDate) {
+        return eclipticLatitudeFromDaysSince(julianDate - EPOCH, trueLongitude(julianDate));
+    }
+
+    private static double eclipticLatitudeFromDaysSince(double daysSince, double trueLongitude) {
+        return eclipticLatitude(daysSince, trueLongitude,
+                SunPosition.computeMeanAnomaly(SunPosition.computeNFromDaysSince(daysSince)));
+    }
+
+    /**
+     * Same as {@link #eclipticLatitude(JulianInstant)} for callers which already know the true
+     * longitude and the sun's mean anomaly.
+     *
+     * @param daysSince days since {@link #EPOCH}
+     * @param trueLongitude the moon's true longitude in degrees
+     * @param sunMeanAnomaly the sun's mean anomaly in degrees
+     * @return the ecliptic latitude in degrees, -5.2 to 5.2
+     */
+    static double eclipticLatitude(double daysSince, double trueLongitude, double sunMeanAnomaly) {
+        // N'
+        double ascendingNode = MEAN_LONGITUDE_OF_NODE_AT_EPOCH - NODE_DAILY_MOTION * daysSince
+                - 0.16 * sinDegrees(sunMeanAnomaly);
+        return Math.toDegrees(Math.asin(sinDegrees(trueLongitude - ascendingNode) * sinDegrees(INCLINATION_OF_ORBIT)));
+    }
+
+    /**
+     * @param trueAnomaly the true anomaly in degrees
+     * @return the distance between the centres of the earth and the moon, in kilometres
+     */
+    static double distance(double trueAnomaly) {
+        return SEMI_MAJOR_AXIS * (1 - ECCENTRICITY_OF_ORBIT * ECCENTRICITY_OF_ORBIT)
+                / (1 + ECCENTRICITY_OF_ORBIT * cosDegrees(trueAnomaly));
+    }
+
+    /**
+     * Applies the periodic corrections to the mean elements, for callers which already know them.
+     *
+     * @param moonMeanLongitude the moon mean longitude  l
+     * @param moonMeanAnomaly the moon mean anomaly  M m
+     * @param sunLongitude the sun's ecliptic longitude
+     * @param sunMeanAnomaly the sun's mean anomaly
+     * @return the true longitude in degrees
+     */
+    static double trueLongitude(double moonMeanLongitude, double moonMeanAnomaly,
+                                double sunLongitude, double sunMeanAnomaly) {
+        // E v
+        double evictionCorrection = evictionCorrection(moonMeanLongitude, moonMeanAnomaly, sunLongitude);
+        // A e
+        double annualEquationCorrection = annualEquationCorrection(sunMeanAnomaly);
+        // A 3
+        double unnamedThirdCorrection = unnamedThirdCorrection(sunMeanAnomaly);
+        // M' m
+        double moonCorrectedAnomaly = moonMeanAnomaly + evictionCorrection - annualEquationCorrection - unnamedThirdCorrection;
+        // E c
+        double correctionForEquationCentre = correctionForEquationCentre(moonCorrectedAnomaly);
+        // A 4
+        double yetAnotherCorrectionTerm = 0.214 * sinDegrees(2 * moonCorrectedAnomaly);
+        // l'
+        double correctedLongitude = moonMeanLongitude
+                + evictionCorrection
+                + correctionForEquationCentre
+                - annualEquationCorrection
+                + yetAnotherCorrectionTerm;
+        // V
+        double variationCorrection = 0.6583 * sinDegrees(2 * (correctedLongitude - sunLongitude));
+
+        return correctedLongitude - variationCorrection;
+    }
+
+    private static double evictionCorrection(double moonMeanLongitude, double moonMeanAnomaly, double sunLongitude) {
+        return 1.2739 * sinDegrees(2.0 * (moonMeanLongitude - sunLongitude) - moonMeanAnomaly);
+    }
+
+    private static double annualEquationCorrection(double sunMeanAnomaly) {
+        return 0.1858 * sinDegrees(sunMeanAnomaly);
+    }
+
+    private static double unnamedThirdCorrection(double sunMeanAnomaly) {
+        return 0.37 * sinDegrees(sunMeanAnomaly);
+    }
+
+    private static double correctionForEquationCentre(double moonCorrectedAnomaly) {
+        return 6.2886 * sinDegrees(moonCorrectedAnomaly);
     }
 
     /**
      * Compute the Moon Mean Longitude  l
      */
-    private double computeMeanLongitude(double daysSince) {
-        double moonMeanLongitude = 13.1763966 * daysSince + MEAN_LONGITUDE_AT_EPOCH;
+    static double computeMeanLongitude(double daysSince) {
+        double moonMeanLongitude = MEAN_DAILY_MOTION * daysSince + MEAN_LONGITUDE_AT_EPOCH;
         return BaseUtils.adjustTo360Range(moonMeanLongitude);
     }
 
     /**
      * Compute the Moon Mean Anomaly    M m
      */
-    private double computeMeanAnomaly(double daysSince, double moonMeanLongitude) {
+    static double computeMeanAnomaly(double daysSince, double moonMeanLongitude) {
         double moonMeanAnomaly = moonMeanLongitude
-                - (0.1114041 * daysSince)
+                - (PERIGREE_DAILY_MOTION * daysSince)
                 - MEAN_LONGITUDE_OF_PERIGREE_AT_EPOCH;
         return BaseUtils.adjustTo360Range(moonMeanAnomaly);
     }
 
-    /**
-     * Private internal class used for lots of computations and corrections
-     */
-    private static class MoonCorrections {
-        private double moonMeanLongitude;
-        private double moonMeanAnomaly;
-        private double sunLongitude;
-        private double sunMeanAnomaly;
-
-        MoonCorrections(double moonMeanLongitude, double moonMeanAnomaly,
-                        double sunLongitude, double sunMeanAnomaly) {
-            this.moonMeanAnomaly = moonMeanAnomaly;
-            this.sunMeanAnomaly = sunMeanAnomaly;
-            this.moonMeanLongitude = moonMeanLongitude;
-            this.sunLongitude = sunLongitude;
-        }
-
-        /**
-         * V
-         */
-        public double getVariationCorrection() {
-            return 0.6583 * sinDegrees(2 * (getCorrectedLongitude() - sunLongitude));
-        }
-
-        /**
-         * l'
-         */
-        public double getCorrectedLongitude() {
-            return moonMeanLongitude
-                    + getEvictionCorrection()
-                    + getCorrectionForEquationCentre()
-                    - getAnnualEquationCorrection()
-                    + getYetAnotherCorrectionTerm();
-        }
-
-        /**
-         * A 4
-         */
-        private double getYetAnotherCorrectionTerm() {
-            return 0.214 * sinDegrees(2 * getMoonCorrectedAnomaly());
-        }
-
-        /**
-         * E c
-         */
-        private double getCorrectionForEquationCentre() {
-            return 6.2886 * sinDegrees(getMoonCorrectedAnomaly());
-        }
-
-        /**
-         * M' m
-         */
-        private double getMoonCorrectedAnomaly() {
-            return moonMeanAnomaly + getEvictionCorrection() - getAnnualEquationCorrection() - getUnnamedThirdCorrection();
-        }
-
-        /**
-         * E v
-         */
-        public double getEvictionCorrection() {
-            double C = moonMeanLongitude - sunLongitude;
-            return 1.2739 * sinDegrees(2.0 * C - moonMeanAnomaly);
-        }
-
-        /**
-         * A e
-         */
-        public double getAnnualEquationCorrection() {
-            return 0.1858 * sinDegrees(sunMeanAnomaly);
-        }
-
-        /**
-         * A 3
-         */
-        public double getUnnamedThirdCorrection() {
-            return 0.37 * sinDegrees(sunMeanAnomaly);
-        }
-    }
-
-
 }
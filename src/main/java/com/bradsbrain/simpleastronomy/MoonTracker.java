@@ -0,0 +1,273 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * The moon as seen from many sites at once: its altitude and azimuth corrected for parallax, the
+ * illuminated fraction of its disk and the position angle of its bright limb.
+ * <p>
+ * The moon is close enough for the observer's place on the earth to matter, by up to a degree in
+ * altitude and a few thousandths in illuminated fraction.  So each site is kept as its position
+ * relative to the centre of the earth ({@code rho sin phi'} and {@code rho cos phi'}, chapter 11 of
+ * <i>Astronomical Algorithms</i>), computed when the site is added.  For each instant the moon and
+ * the sun are placed once, in a frame turning with the earth, and each site only subtracts its own
+ * position from the moon's: a handful of multiplications, a square root and three {@code atan2}.
+ * <p>
+ * The longitudes come from the ephemeris, the moon's latitude and distance from section 65 of
+ * Duffett-Smith whatever the ephemeris, which keeps the distance to about 2% and the parallax to
+ * about an arcminute.  The altitude is that of the centre of the moon, without refraction.  The
+ * azimuth is measured from north towards east, and so is the position angle of the bright limb, from
+ * the north point of the disk: about 270 (west) while the moon waxes and 90 (east) while it wanes.
+ * <p>
+ * A tracker is not thread safe, use one per thread.
+ */
+public final class MoonTracker {
+
+    /**
+     * Kilometres, the equatorial radius of the earth
+     */
+    static final double EARTH_RADIUS = 6378.14;
+    /**
+     * The polar radius of the earth divided by the equatorial one
+     */
+    private static final double POLAR_RATIO = 0.99664719;
+
+    private final Ephemeris ephemeris;
+
+    private int siteCount;
+    private double[] sinLatitude = new double[16];
+    private double[] cosLatitude = new double[16];
+    private double[] sinLongitude = new double[16];
+    private double[] cosLongitude = new double[16];
+    private double[] rhoSinGeocentricLatitude = new double[16];
+    private double[] rhoCosGeocentricLatitude = new double[16];
+
+    // the moon at the last tracked instant, geocentric
+    private double rightAscension;
+    private double declination;
+    private double distance;
+
+    /**
+     * A tracker using the default ephemeris.
+     */
+    public MoonTracker() {
+        this(EphemerisTier.LOW.getEphemeris());
+    }
+
+    /**
+     * @param ephemeris the sun and moon theory to use for the longitudes
+     */
+    public MoonTracker(Ephemeris ephemeris) {
+        this.ephemeris = ephemeris;
+    }
+
+    /**
+     * Same as {@link #addSite(double, double, double)} at sea level.
+     *
+     * @param latitude degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @return the index of the site in the arrays filled by {@link #track(long, double[], double[], double[], double[])}
+     */
+    public int addSite(double latitude, double longitude) {
+        return addSite(latitude, longitude, 0);
+    }
+
+    /**
+     * @param latitude geographic degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @param height metres above sea level
+     * @return the index of the site in the arrays filled by {@link #track(long, double[], double[], double[], double[])}
+     */
+    public int addSite(double latitude, double longitude, double height) {
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("latitude must be between -90 and 90: " + latitude);
+        }
+        if (siteCount == sinLatitude.length) {
+            int capacity = siteCount * 2;
+            sinLatitude = Arrays.copyOf(sinLatitude, capacity);
+            cosLatitude = Arrays.copyOf(cosLatitude, capacity);
+            sinLongitude = Arrays.copyOf(sinLongitude, capacity);
+            cosLongitude = Arrays.copyOf(cosLongitude, capacity);
+            rhoSinGeocentricLatitude = Arrays.copyOf(rhoSinGeocentricLatitude, capacity);
+            rhoCosGeocentricLatitude = Arrays.copyOf(rhoCosGeocentricLatitude, capacity);
+        }
+        sinLatitude[siteCount] = BaseUtils.sinDegrees(latitude);
+        cosLatitude[siteCount] = BaseUtils.cosDegrees(latitude);
+        sinLongitude[siteCount] = BaseUtils.sinDegrees(longitude);
+        cosLongitude[siteCount] = BaseUtils.cosDegrees(longitude);
+
+        // chapter 11, u is the latitude on a sphere touching the ellipsoid at the poles
+        double u = Math.atan(POLAR_RATIO * Math.tan(Math.toRadians(latitude)));
+        double heightRatio = height / (EARTH_RADIUS * 1000);
+        rhoSinGeocentricLatitude[siteCount] = POLAR_RATIO * Math.sin(u) + heightRatio * sinLatitude[siteCount];
+        rhoCosGeocentricLatitude[siteCount] = Math.cos(u) + heightRatio * cosLatitude[siteCount];
+        return siteCount++;
+    }
+
+    public int getSiteCount() {
+        return siteCount;
+    }
+
+    /**
+     * @param site the index returned by {@code addSite}
+     * @return the angle between the equator and the site seen from the centre of the earth, in degrees
+     */
+    double getGeocentricLatitude(int site) {
+        return Math.toDegrees(Math.atan2(rhoSinGeocentricLatitude[site], rhoCosGeocentricLatitude[site]));
+    }
+
+    /**
+     * @param site the index returned by {@code addSite}
+     * @return {@code rho sin phi'}, in equatorial radii of the earth
+     */
+    double getRhoSinGeocentricLatitude(int site) {
+        return rhoSinGeocentricLatitude[site];
+    }
+
+    /**
+     * @param site the index returned by {@code addSite}
+     * @return {@code rho cos phi'}, in equatorial radii of the earth
+     */
+    double getRhoCosGeocentricLatitude(int site) {
+        return rhoCosGeocentricLatitude[site];
+    }
+
+    /**
+     * Computes the moon as seen from every site.  Each array must be at least {@link #getSiteCount()} long.
+     *
+     * @param cal the instant
+     * @param altitudes receives the altitude of the moon in degrees
+     * @param azimuths receives the azimuth of the moon in degrees, 0 to 360
+     * @param illuminatedFractions receives the illuminated fraction of the disk, 0 to 1
+     * @param brightLimbAngles receives the position angle of the bright limb in degrees, 0 to 360
+     */
+    public void track(ZonedDateTime cal, double[] altitudes, double[] azimuths, double[] illuminatedFractions,
+                      double[] brightLimbAngles) {
+        track(JulianInstant.of(cal), altitudes, azimuths, illuminatedFractions, brightLimbAngles);
+    }
+
+    /**
+     * Same as {@link #track(ZonedDateTime, double[], double[], double[], double[])} for seconds since
+     * the java epoch.
+     *
+     * @param epochSecond the instant in seconds since 1970-01-01T00:00Z
+     * @param altitudes receives the altitude of the moon in degrees
+     * @param azimuths receives the azimuth of the moon in degrees, 0 to 360
+     * @param illuminatedFractions receives the illuminated fraction of the disk, 0 to 1
+     * @param brightLimbAngles receives the position angle of the bright limb in degrees, 0 to 360
+     */
+    public void track(long epochSecond, double[] altitudes, double[] azimuths, double[] illuminatedFractions,
+                      double[] brightLimbAngles) {
+        track(JulianInstant.ofEpochSecond(epochSecond), altitudes, azimuths, illuminatedFractions, brightLimbAngles);
+    }
+
+    private void track(JulianInstant instant, double[] altitudes, double[] azimuths, double[] illuminatedFractions,
+                       double[] brightLimbAngles) {
+        if (altitudes.length < siteCount || azimuths.length < siteCount
+                || illuminatedFractions.length < siteCount || brightLimbAngles.length < siteCount) {
+            throw new IllegalArgumentException("need room for " + siteCount + " sites");
+        }
+        double obliquity = Coordinates.meanObliquity(Coordinates.centuriesSinceJ2000(instant));
+        double sinObliquity = BaseUtils.sinDegrees(obliquity);
+        double cosObliquity = BaseUtils.cosDegrees(obliquity);
+        double greenwichSiderealTime = SiderealTime.greenwichMeanSiderealTime(instant) * 15;
+
+        double moonLongitude = ephemeris.getMoonEclipticLongitude(instant);
+        double moonLatitude = MoonPosition.eclipticLatitude(instant);
+        distance = MoonPosition.distance(MoonPosition.trueAnomaly(instant));
+        rightAscension = Coordinates.rightAscension(moonLongitude, moonLatitude, sinObliquity, cosObliquity);
+        declination = Coordinates.declination(moonLongitude, moonLatitude, sinObliquity, cosObliquity);
+
+        // x towards longitude 0 on the equator, y towards 90 east, z towards the north pole, in km
+        double moonX = distance * BaseUtils.cosDegrees(declination) * BaseUtils.cosDegrees(rightAscension - greenwichSiderealTime);
+        double moonY = distance * BaseUtils.cosDegrees(declination) * BaseUtils.sinDegrees(rightAscension - greenwichSiderealTime);
+        double moonZ = distance * BaseUtils.sinDegrees(declination);
+
+        double sunLongitude = ephemeris.getSunEclipticLongitude(instant);
+        double sunRightAscension = Coordinates.sunRightAscension(sunLongitude, cosObliquity);
+        double sunDeclination = Coordinates.sunDeclination(sunLongitude, sinObliquity);
+        // at its mean distance, its variation doesn't change the phase measurably
+        double sunX = Coordinates.ASTRONOMICAL_UNIT * BaseUtils.cosDegrees(sunDeclination)
+                * BaseUtils.cosDegrees(sunRightAscension - greenwichSiderealTime);
+        double sunY = Coordinates.ASTRONOMICAL_UNIT * BaseUtils.cosDegrees(sunDeclination)
+                * BaseUtils.sinDegrees(sunRightAscension - greenwichSiderealTime);
+        double sunZ = Coordinates.ASTRONOMICAL_UNIT * BaseUtils.sinDegrees(sunDeclination);
+
+        for (int i = 0; i < siteCount; i++) {
+            // the moon seen from the site
+            double rhoCos = EARTH_RADIUS * rhoCosGeocentricLatitude[i];
+            double x = moonX - rhoCos * cosLongitude[i];
+            double y = moonY - rhoCos * sinLongitude[i];
+            double z = moonZ - EARTH_RADIUS * rhoSinGeocentricLatitude[i];
+
+            // turned to east, north and up at the site
+            double outwards = x * cosLongitude[i] + y * sinLongitude[i];
+            double east = y * cosLongitude[i] - x * sinLongitude[i];
+            double north = z * cosLatitude[i] - outwards * sinLatitude[i];
+            double up = outwards * cosLatitude[i] + z * sinLatitude[i];
+            altitudes[i] = Math.toDegrees(Math.atan2(up, Math.sqrt(east * east + north * north)));
+            double azimuth = Math.toDegrees(Math.atan2(east, north));
+            azimuths[i] = azimuth < 0 ? azimuth + 360 : azimuth;
+
+            // the phase angle is between the directions of the sun and of the site, seen from the moon
+            double toSunX = sunX - x;
+            double toSunY = sunY - y;
+            double toSunZ = sunZ - z;
+            double equatorialSquared = x * x + y * y;
+            double topocentricDistance = Math.sqrt(equatorialSquared + z * z);
+            double cosPhaseAngle = -(toSunX * x + toSunY * y + toSunZ * z)
+                    / (topocentricDistance * Math.sqrt(toSunX * toSunX + toSunY * toSunY + toSunZ * toSunZ));
+            illuminatedFractions[i] = 0.5 * (1 + cosPhaseAngle);
+
+            // the sun's direction on the sky around the moon, towards the east and towards the north
+            double sunEast = topocentricDistance * (x * sunY - y * sunX);
+            double sunNorth = equatorialSquared * sunZ - z * (x * sunX + y * sunY);
+            double brightLimb = Math.toDegrees(Math.atan2(sunEast, sunNorth));
+            brightLimbAngles[i] = brightLimb < 0 ? brightLimb + 360 : brightLimb;
+        }
+    }
+
+    /**
+     * @return the moon's geocentric right ascension at the last tracked instant, in degrees
+     */
+    public double getRightAscension() {
+        return rightAscension;
+    }
+
+    /**
+     * @return the moon's geocentric declination at the last tracked instant, in degrees
+     */
+    public double getDeclination() {
+        return declination;
+    }
+
+    /**
+     * @return the distance between the centres of the earth and the moon at the last tracked instant, in km
+     */
+    public double getDistance() {
+        return distance;
+    }
+
+    /**
+     * @return the equatorial horizontal parallax at the last tracked instant, the most the moon's
+     * altitude is lowered by, in degrees
+     */
+    public double getHorizontalParallax() {
+        return Math.toDegrees(Math.asin(EARTH_RADIUS / distance));
+    }
+
+}
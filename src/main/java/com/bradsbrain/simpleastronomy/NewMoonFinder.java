@@ -25,4 +25,9 @@ public class NewMoonFinder implements MoonFinder {
         return 180 >= angle;
     }
 
+    /** {@inheritDoc} */
+    public double getEventAngle() {
+        return 0;
+    }
+
 }
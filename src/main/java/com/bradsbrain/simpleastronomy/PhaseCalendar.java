@@ -0,0 +1,353 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+import com.bradsbrain.simpleastronomy.SeasonFinder.Season;
+
+/**
+ * The principal moon phases and the equinoxes and solstices between two dates, found once and kept
+ * as sorted arrays of seconds, for questions about many years at once: the months with two full
+ * moons, the seasons with four, the full moon nearest each equinox.
+ * <p>
+ * Building a calendar of 200 years takes some tens of milliseconds, a search per event.  Each query
+ * after that is a single merge of the sorted events with the sorted month starts, season starts or
+ * instants asked about, a few milliseconds for the 200 years, rather than a search per month.
+ * <p>
+ * Like {@link SeasonFinder.SeasonStart} and the {@code find*Following} methods of
+ * {@link MoonPhaseFinder}, the events are put in a month by their time rounded to the minute, the
+ * other answers are to the second.  A calendar is not modified once built and may be shared.
+ */
+public final class PhaseCalendar {
+
+    /**
+     * Returned for a season without the event asked for
+     */
+    public static final long NONE = Long.MIN_VALUE;
+
+    private static final MoonPhase[] PRINCIPAL_PHASES = {
+            MoonPhase.NEW, MoonPhase.FIRSTQUARTER, MoonPhase.FULL, MoonPhase.LASTQUARTER};
+
+    private final long from;
+    private final long to;
+    private final PhaseEventList events;
+    // the events of each principal phase, in the order of MoonPhase ordinal / 2
+    private final long[][] phaseEvents = new long[PRINCIPAL_PHASES.length][];
+    // every equinox and solstice of the calendar, each but the last also ending the season before it
+    private final long[] seasonStarts;
+    private final Season firstSeason;
+
+    /**
+     * Same as {@link #PhaseCalendar(ZonedDateTime, ZonedDateTime, Ephemeris)} with the default ephemeris.
+     *
+     * @param from the first instant covered
+     * @param to the instant (excluded) the calendar ends at
+     */
+    public PhaseCalendar(ZonedDateTime from, ZonedDateTime to) {
+        this(from, to, EphemerisTier.LOW.getEphemeris());
+    }
+
+    /**
+     * Finds every principal phase, equinox and solstice between two dates.
+     *
+     * @param from the first instant covered
+     * @param to the instant (excluded) the calendar ends at
+     * @param ephemeris the sun and moon theory to use
+     */
+    public PhaseCalendar(ZonedDateTime from, ZonedDateTime to, Ephemeris ephemeris) {
+        this.from = from.toEpochSecond();
+        this.to = to.toEpochSecond();
+        if (this.to < this.from) {
+            throw new IllegalArgumentException("the end must not be before the start: " + to + " " + from);
+        }
+        events = MoonPhaseFinder.findPrincipalPhases(from, to, ephemeris);
+        for (MoonPhase phase : PRINCIPAL_PHASES) {
+            phaseEvents[phase.ordinal() / 2] = events.epochSecondsOf(phase);
+        }
+
+        SeasonFinder.SeasonIterator seasons = new SeasonFinder.SeasonIterator(this.from - 1, from.getZone(),
+                ephemeris);
+        firstSeason = seasons.nextSeason();
+        long[] starts = new long[(int) ((this.to - this.from) / (SeasonFinder.TROPICAL_YEAR_SECONDS / 4)) + 2];
+        int count = 0;
+        for (long start = seasons.nextEpochSecond(); start < this.to; start = seasons.nextEpochSecond()) {
+            if (count == starts.length) {
+                starts = Arrays.copyOf(starts, count + 4);
+            }
+            starts[count++] = start;
+        }
+        seasonStarts = Arrays.copyOf(starts, count);
+    }
+
+    /**
+     * @return every principal phase of the calendar, in time order
+     */
+    public PhaseEventList getEvents() {
+        PhaseEventList copy = new PhaseEventList(events.size());
+        for (int i = 0; i < events.size(); i++) {
+            copy.add(events.getEpochSecond(i), events.getPhase(i));
+        }
+        return copy;
+    }
+
+    /**
+     * Counts the events of a phase in each calendar month, in the given time zone.
+     *
+     * @param phase a principal phase
+     * @param first the first month
+     * @param last the last month, included
+     * @param zone the time zone the months are in
+     * @return the counts, the first for the first month
+     * @throws IllegalArgumentException if the months aren't all within the calendar
+     */
+    public int[] countPerMonth(MoonPhase phase, YearMonth first, YearMonth last, ZoneId zone) {
+        long[] times = phaseEvents(phase);
+        long[] monthStarts = monthStarts(first, last, zone);
+        int[] counts = new int[monthStarts.length - 1];
+        int event = firstIndexAtOrAfter(times, monthStarts[0], true);
+        for (int month = 0; month < counts.length; month++) {
+            while (event < times.length && MoonPhaseFinder.roundToMinute(times[event]) < monthStarts[month + 1]) {
+                counts[month]++;
+                event++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Finds the months with at least some events of a phase, such as the months with two full moons,
+     * whose second is sometimes called a blue moon.
+     *
+     * @param phase a principal phase
+     * @param count the least number of events
+     * @param first the first month
+     * @param last the last month, included
+     * @param zone the time zone the months are in
+     * @return the months, in order
+     * @throws IllegalArgumentException if the months aren't all within the calendar
+     */
+    public List<YearMonth> findMonthsWith(MoonPhase phase, int count, YearMonth first, YearMonth last, ZoneId zone) {
+        int[] counts = countPerMonth(phase, first, last, zone);
+        List<YearMonth> months = new ArrayList<>();
+        for (int month = 0; month < counts.length; month++) {
+            if (counts[month] >= count) {
+                months.add(first.plusMonths(month));
+            }
+        }
+        return months;
+    }
+
+    /**
+     * @return how many seasons, from an equinox or solstice to the next, the calendar covers whole
+     */
+    public int getSeasonCount() {
+        return Math.max(0, seasonStarts.length - 1);
+    }
+
+    /**
+     * @param index 0 to {@link #getSeasonCount()} - 1
+     * @return the equinox or solstice the season starts with
+     */
+    public Season getSeason(int index) {
+        checkSeason(index);
+        return Season.values()[(firstSeason.ordinal() + index) % 4];
+    }
+
+    /**
+     * @param index 0 to {@link #getSeasonCount()} - 1
+     * @return the instant the season starts, in seconds since the java epoch
+     */
+    public long getSeasonStart(int index) {
+        checkSeason(index);
+        return seasonStarts[index];
+    }
+
+    /**
+     * Counts the events of a phase in each season.
+     *
+     * @param phase a principal phase
+     * @return the counts, in the order of {@link #getSeason(int)}
+     */
+    public int[] countPerSeason(MoonPhase phase) {
+        long[] times = phaseEvents(phase);
+        int[] counts = new int[getSeasonCount()];
+        int event = firstSeasonEvent(times);
+        for (int season = 0; season < counts.length; season++) {
+            while (event < times.length && times[event] < seasonStarts[season + 1]) {
+                counts[season]++;
+                event++;
+            }
+        }
+        return counts;
+    }
+
+    /**
+     * Finds the nth event of a phase in each season, such as the first full moon of spring.
+     *
+     * @param phase a principal phase
+     * @param n 0 for the first event of each season
+     * @return the events in seconds since the java epoch, in the order of {@link #getSeason(int)},
+     * {@link #NONE} for the seasons with fewer events
+     */
+    public long[] findNthInSeason(MoonPhase phase, int n) {
+        if (n < 0) {
+            throw new IllegalArgumentException("n must not be negative: " + n);
+        }
+        long[] times = phaseEvents(phase);
+        long[] found = new long[getSeasonCount()];
+        int event = firstSeasonEvent(times);
+        for (int season = 0; season < found.length; season++) {
+            // n < times.length - event rather than event + n < times.length, which overflows for a large n
+            found[season] = n < times.length - event && times[event + n] < seasonStarts[season + 1]
+                    ? times[event + n] : NONE;
+            while (event < times.length && times[event] < seasonStarts[season + 1]) {
+                event++;
+            }
+        }
+        return found;
+    }
+
+    /**
+     * Finds the seasonal blue moons: the third full moon of the seasons which have four.
+     *
+     * @return the full moons, in time order
+     */
+    public PhaseEventList findSeasonalBlueMoons() {
+        int[] counts = countPerSeason(MoonPhase.FULL);
+        long[] thirds = findNthInSeason(MoonPhase.FULL, 2);
+        PhaseEventList blueMoons = new PhaseEventList();
+        for (int season = 0; season < counts.length; season++) {
+            if (counts[season] == 4) {
+                blueMoons.add(thirds[season], MoonPhase.FULL);
+            }
+        }
+        return blueMoons;
+    }
+
+    /**
+     * Finds, for each of some instants, the nearest event of a phase, earlier or later.
+     *
+     * @param phase a principal phase
+     * @param targets instants in seconds since the java epoch, in time order
+     * @return the nearest events of the calendar, in the order of the targets, the earlier of two as
+     * near; {@link #NONE} if the calendar has no event of the phase
+     */
+    public long[] findNearest(MoonPhase phase, long[] targets) {
+        long[] times = phaseEvents(phase);
+        long[] nearest = new long[targets.length];
+        int event = 0;
+        for (int i = 0; i < targets.length; i++) {
+            if (i > 0 && targets[i] < targets[i - 1]) {
+                throw new IllegalArgumentException("targets must be in time order: " + targets[i]
+                        + " is before " + targets[i - 1]);
+            }
+            // the first event after the target, the one before it is the other candidate
+            while (event < times.length && times[event] <= targets[i]) {
+                event++;
+            }
+            if (times.length == 0) {
+                nearest[i] = NONE;
+            } else if (event == 0) {
+                nearest[i] = times[0];
+            } else if (event == times.length || targets[i] - times[event - 1] <= times[event] - targets[i]) {
+                nearest[i] = times[event - 1];
+            } else {
+                nearest[i] = times[event];
+            }
+        }
+        return nearest;
+    }
+
+    /**
+     * Finds the event of a phase nearest each equinox or solstice of a kind, such as the full moon
+     * nearest each March equinox.
+     *
+     * @param phase a principal phase
+     * @param season the equinox or solstice
+     * @return the events, one per such equinox or solstice of the calendar, in time order
+     */
+    public long[] findNearestToSeason(MoonPhase phase, Season season) {
+        int first = (season.ordinal() - firstSeason.ordinal() + 4) % 4;
+        int count = first < seasonStarts.length ? (seasonStarts.length - first + 3) / 4 : 0;
+        long[] starts = new long[count];
+        for (int i = 0; i < count; i++) {
+            starts[i] = seasonStarts[first + 4 * i];
+        }
+        return findNearest(phase, starts);
+    }
+
+    private long[] phaseEvents(MoonPhase phase) {
+        if (phase.ordinal() % 2 != 0) {
+            throw new IllegalArgumentException("not a principal phase: " + phase);
+        }
+        return phaseEvents[phase.ordinal() / 2];
+    }
+
+    /**
+     * @return the start of each month and the end of the last, in seconds since the java epoch
+     */
+    private long[] monthStarts(YearMonth first, YearMonth last, ZoneId zone) {
+        if (last.isBefore(first)) {
+            throw new IllegalArgumentException("the last month must not be before the first: " + last + " " + first);
+        }
+        int months = (int) (last.getYear() * 12L + last.getMonthValue() - first.getYear() * 12L - first.getMonthValue()) + 1;
+        long[] starts = new long[months + 1];
+        for (int month = 0; month <= months; month++) {
+            starts[month] = first.plusMonths(month).atDay(1).atStartOfDay(zone).toEpochSecond();
+        }
+        if (starts[0] < from || starts[months] > to) {
+            throw new IllegalArgumentException("the months must be within the calendar, " + Instant.ofEpochSecond(from)
+                    + " to " + Instant.ofEpochSecond(to) + ": " + first + " to " + last);
+        }
+        return starts;
+    }
+
+    private int firstSeasonEvent(long[] times) {
+        return seasonStarts.length == 0 ? times.length : firstIndexAtOrAfter(times, seasonStarts[0], false);
+    }
+
+    /**
+     * @param byMinute whether to compare the times rounded to the minute, like the months do
+     * @return the index of the first time at or after the instant, by binary search
+     */
+    private static int firstIndexAtOrAfter(long[] times, long epochSecond, boolean byMinute) {
+        int low = 0;
+        int high = times.length;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            long time = byMinute ? MoonPhaseFinder.roundToMinute(times[middle]) : times[middle];
+            if (time < epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    private void checkSeason(int index) {
+        if (index < 0 || index >= getSeasonCount()) {
+            throw new IndexOutOfBoundsException("index " + index + ", seasons " + getSeasonCount());
+        }
+    }
+
+}
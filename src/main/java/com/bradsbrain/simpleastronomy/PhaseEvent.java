@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+
+/**
+ * A moon phase and the second it starts, the element of a {@link PhaseEventList}.
+ * <p>
+ * Instances are immutable, and are only created when asked for: the list itself keeps nine bytes
+ * per event.
+ */
+public final class PhaseEvent {
+
+    private final long epochSecond;
+    private final MoonPhase phase;
+
+    public PhaseEvent(long epochSecond, MoonPhase phase) {
+        if (phase == null) {
+            throw new IllegalArgumentException("phase must not be null");
+        }
+        this.epochSecond = epochSecond;
+        this.phase = phase;
+    }
+
+    /**
+     * @return seconds since 1970-01-01T00:00Z
+     */
+    public long getEpochSecond() {
+        return epochSecond;
+    }
+
+    public MoonPhase getPhase() {
+        return phase;
+    }
+
+    /**
+     * @param zone the time zone of the result
+     * @return the instant of the event
+     */
+    public ZonedDateTime toZonedDateTime(ZoneId zone) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), zone);
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (!(other instanceof PhaseEvent)) {
+            return false;
+        }
+        PhaseEvent that = (PhaseEvent) other;
+        return epochSecond == that.epochSecond && phase == that.phase;
+    }
+
+    @Override
+    public int hashCode() {
+        return Long.hashCode(epochSecond) * 31 + phase.ordinal();
+    }
+
+    /**
+     * @return e.g. {@code FULL 2015-12-25T11:11:00Z}
+     */
+    @Override
+    public String toString() {
+        return phase + " " + Instant.ofEpochSecond(epochSecond);
+    }
+
+}
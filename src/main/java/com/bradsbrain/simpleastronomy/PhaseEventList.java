@@ -0,0 +1,240 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+
+/**
+ * A growable sequence of moon phase events in time order, kept as a {@code long[]} of seconds since
+ * the java epoch and a parallel {@code byte[]} of {@link MoonPhase} ordinals: nine bytes per event
+ * rather than the hundred or so of a {@link ZonedDateTime}.
+ * <p>
+ * Events can only be appended in time order, which {@link #merge} takes advantage of to combine
+ * sequences without sorting, and which lets the queries use binary searches.  {@link PhaseEvent}s
+ * and {@link ZonedDateTime}s are only created when asked for.  Not thread safe.
+ */
+public final class PhaseEventList {
+
+    private static final int DEFAULT_CAPACITY = 16;
+
+    private static final MoonPhase[] PHASES = MoonPhase.values();
+
+    private long[] epochSeconds;
+    private byte[] phases;
+    private int size;
+
+    public PhaseEventList() {
+        this(DEFAULT_CAPACITY);
+    }
+
+    /**
+     * @param capacity how many events fit before the arrays grow
+     */
+    public PhaseEventList(int capacity) {
+        if (capacity < 0) {
+            throw new IllegalArgumentException("capacity must not be negative: " + capacity);
+        }
+        epochSeconds = new long[capacity];
+        phases = new byte[capacity];
+    }
+
+    /**
+     * Appends an event.
+     *
+     * @param epochSecond seconds since 1970-01-01T00:00Z, no earlier than the last event
+     * @param phase the phase starting then
+     */
+    public void add(long epochSecond, MoonPhase phase) {
+        if (size > 0 && epochSecond < epochSeconds[size - 1]) {
+            throw new IllegalArgumentException("events must be added in time order: " + epochSecond
+                    + " is before " + epochSeconds[size - 1]);
+        }
+        if (size == epochSeconds.length) {
+            int capacity = Math.max(DEFAULT_CAPACITY, size + (size >> 1));
+            epochSeconds = Arrays.copyOf(epochSeconds, capacity);
+            phases = Arrays.copyOf(phases, capacity);
+        }
+        epochSeconds[size] = epochSecond;
+        phases[size] = (byte) phase.ordinal();
+        size++;
+    }
+
+    public int size() {
+        return size;
+    }
+
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * @param index 0 to {@link #size()} - 1
+     * @return seconds since 1970-01-01T00:00Z
+     */
+    public long getEpochSecond(int index) {
+        checkIndex(index);
+        return epochSeconds[index];
+    }
+
+    /**
+     * @param index 0 to {@link #size()} - 1
+     * @return the phase starting at that event
+     */
+    public MoonPhase getPhase(int index) {
+        checkIndex(index);
+        return PHASES[phases[index]];
+    }
+
+    /**
+     * @param index 0 to {@link #size()} - 1
+     * @return a new object for the event
+     */
+    public PhaseEvent get(int index) {
+        checkIndex(index);
+        return new PhaseEvent(epochSeconds[index], PHASES[phases[index]]);
+    }
+
+    /**
+     * @param index 0 to {@link #size()} - 1
+     * @param zone the time zone of the result
+     * @return the instant of the event
+     */
+    public ZonedDateTime getTime(int index, ZoneId zone) {
+        checkIndex(index);
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSeconds[index]), zone);
+    }
+
+    /**
+     * @return the index of the first event strictly after the given instant, {@link #size()} if none
+     */
+    public int indexFollowing(long epochSecond) {
+        int low = 0;
+        int high = size;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (epochSeconds[middle] <= epochSecond) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+        return low;
+    }
+
+    /**
+     * @return the index of the last event at or before the given instant, -1 if none
+     */
+    public int indexAtOrBefore(long epochSecond) {
+        return indexFollowing(epochSecond) - 1;
+    }
+
+    /**
+     * A view of the list which creates the objects as they are read.
+     *
+     * @return the events
+     */
+    public List<PhaseEvent> asList() {
+        return new AbstractList<PhaseEvent>() {
+            public PhaseEvent get(int index) {
+                return PhaseEventList.this.get(index);
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * A view of the list which creates the dates as they are read.
+     *
+     * @param zone the time zone of the dates
+     * @return the instants of the events
+     */
+    public List<ZonedDateTime> asDateList(final ZoneId zone) {
+        return new AbstractList<ZonedDateTime>() {
+            public ZonedDateTime get(int index) {
+                return getTime(index, zone);
+            }
+
+            public int size() {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Merges sequences in time order, without sorting: each step takes the earliest next event of the
+     * sequences, which for the four principal phases means looking at four candidates.
+     *
+     * @param lists sequences in time order
+     * @return a new list with all their events
+     */
+    public static PhaseEventList merge(PhaseEventList... lists) {
+        int total = 0;
+        for (PhaseEventList list : lists) {
+            total += list.size;
+        }
+        PhaseEventList merged = new PhaseEventList(total);
+        int[] next = new int[lists.length];
+        for (int i = 0; i < total; i++) {
+            int earliest = -1;
+            for (int list = 0; list < lists.length; list++) {
+                if (next[list] < lists[list].size && (earliest < 0
+                        || lists[list].epochSeconds[next[list]] < lists[earliest].epochSeconds[next[earliest]])) {
+                    earliest = list;
+                }
+            }
+            int index = next[earliest]++;
+            merged.epochSeconds[i] = lists[earliest].epochSeconds[index];
+            merged.phases[i] = lists[earliest].phases[index];
+        }
+        merged.size = total;
+        return merged;
+    }
+
+    /**
+     * @param phase a phase
+     * @return the instants of the events of that phase, in order, in a new array
+     */
+    long[] epochSecondsOf(MoonPhase phase) {
+        int count = 0;
+        for (int i = 0; i < size; i++) {
+            if (phases[i] == phase.ordinal()) {
+                count++;
+            }
+        }
+        long[] result = new long[count];
+        for (int i = 0, j = 0; j < count; i++) {
+            if (phases[i] == phase.ordinal()) {
+                result[j++] = epochSeconds[i];
+            }
+        }
+        return result;
+    }
+
+    private void checkIndex(int index) {
+        if (index < 0 || index >= size) {
+            throw new IndexOutOfBoundsException("index " + index + ", size " + size);
+        }
+    }
+
+}
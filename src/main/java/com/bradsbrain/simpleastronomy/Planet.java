@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * The planets seen with the naked eye, with their orbital elements at the epoch 1990 January 0.0
+ * from table 8 of Duffett-Smith, the same epoch as the sun and moon elements of {@link SunPosition}
+ * and {@link MoonPosition}.  See {@link PlanetPosition}.
+ */
+public enum Planet {
+    MERCURY(0.24085, 60.750646, 77.299833, 0.205633, 0.387099, 7.004540, 48.212740, 6.74, -0.42),
+    VENUS(0.615207, 88.455855, 131.430236, 0.006778, 0.723332, 3.394535, 76.589820, 16.92, -4.40),
+    MARS(1.880765, 240.739474, 335.874939, 0.093396, 1.523688, 1.849736, 49.480308, 9.36, -1.52),
+    JUPITER(11.857911, 90.638185, 14.170747, 0.048482, 5.202561, 1.303613, 100.353142, 196.74, -9.40),
+    SATURN(29.310579, 287.690033, 92.861407, 0.055581, 9.554747, 2.488980, 113.576139, 165.60, -8.88);
+
+    /**
+     * Tropical years per revolution
+     */
+    final double period;
+    /**
+     * Degrees, the mean heliocentric longitude at the epoch
+     */
+    final double longitudeAtEpoch;
+    /**
+     * Degrees, the longitude of the perihelion
+     */
+    final double longitudeOfPerihelion;
+    final double eccentricity;
+    /**
+     * Astronomical units
+     */
+    final double semiMajorAxis;
+    /**
+     * Degrees, the inclination of the orbit on the ecliptic
+     */
+    final double inclination;
+    /**
+     * Degrees, the longitude of the ascending node
+     */
+    final double longitudeOfNode;
+    /**
+     * Arcseconds, the angular diameter at 1 astronomical unit
+     */
+    final double angularDiameterAtUnitDistance;
+    /**
+     * The visual magnitude at 1 astronomical unit from the sun and the earth, fully lit
+     */
+    final double magnitudeAtUnitDistance;
+
+    Planet(double period, double longitudeAtEpoch, double longitudeOfPerihelion, double eccentricity,
+           double semiMajorAxis, double inclination, double longitudeOfNode, double angularDiameterAtUnitDistance,
+           double magnitudeAtUnitDistance) {
+        this.period = period;
+        this.longitudeAtEpoch = longitudeAtEpoch;
+        this.longitudeOfPerihelion = longitudeOfPerihelion;
+        this.eccentricity = eccentricity;
+        this.semiMajorAxis = semiMajorAxis;
+        this.inclination = inclination;
+        this.longitudeOfNode = longitudeOfNode;
+        this.angularDiameterAtUnitDistance = angularDiameterAtUnitDistance;
+        this.magnitudeAtUnitDistance = magnitudeAtUnitDistance;
+    }
+
+    /**
+     * @return whether the planet is closer to the sun than the earth, and so is never seen far from it
+     */
+    public boolean isInferior() {
+        return semiMajorAxis < 1;
+    }
+
+}
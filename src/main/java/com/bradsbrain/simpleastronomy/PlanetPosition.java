@@ -0,0 +1,251 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.ZonedDateTime;
+
+import static com.bradsbrain.simpleastronomy.BaseUtils.cosDegrees;
+import static com.bradsbrain.simpleastronomy.BaseUtils.sinDegrees;
+
+/**
+ * The position of a planet, from section 54 of Duffett-Smith: each planet, and the earth, moves on a
+ * fixed ellipse given by the elements of {@link Planet}, and the geocentric position is the difference
+ * of the two heliocentric ones.  Kepler's equation is solved rather than taking the first term of the
+ * equation of the centre, which would be 3 degrees out for Mercury.
+ * <p>
+ * The orbits aren't perturbed, so the longitudes are good to about a tenth of a degree for Mercury, Venus and
+ * Mars and to a degree or two for Jupiter and Saturn within a few decades of 1990.  Aberration and
+ * nutation are ignored, and the magnitude is only a rough guide.  {@link SkyPositions} places the sun,
+ * the moon and all the planets at once.
+ */
+public class PlanetPosition {
+
+    // the values computed by place(), in the order they are stored
+    static final int HELIOCENTRIC_LONGITUDE = 0;
+    static final int HELIOCENTRIC_LATITUDE = 1;
+    static final int HELIOCENTRIC_DISTANCE = 2;
+    static final int ECLIPTIC_LONGITUDE = 3;
+    static final int ECLIPTIC_LATITUDE = 4;
+    static final int DISTANCE = 5;
+    static final int ILLUMINATED_FRACTION = 6;
+    static final int VALUES = 7;
+
+    private final Planet planet;
+    private final double[] values = new double[VALUES];
+    private final double sunLongitude;
+    private final double rightAscension;
+    private final double declination;
+
+    /**
+     * @param planet the planet
+     * @param cal the calendar date for which to compute the planet position
+     */
+    public PlanetPosition(Planet planet, ZonedDateTime cal) {
+        if (planet == null) {
+            throw new IllegalArgumentException("planet must not be null");
+        }
+        this.planet = planet;
+        double daysSince = JulianInstant.of(cal).daysSince(SunPosition.EPOCH);
+        double sunN = SunPosition.computeNFromDaysSince(daysSince);
+        sunLongitude = SunPosition.computeGeoEclipticLongitude(sunN, SunPosition.computeMeanAnomaly(sunN));
+        place(planet, daysSince, sunLongitude, SunPosition.distance(sunLongitude), values);
+
+        double obliquity = Coordinates.meanObliquity(Coordinates.centuriesSinceJ2000(daysSince + SunPosition.EPOCH));
+        double sinObliquity = sinDegrees(obliquity);
+        double cosObliquity = cosDegrees(obliquity);
+        rightAscension = Coordinates.rightAscension(values[ECLIPTIC_LONGITUDE], values[ECLIPTIC_LATITUDE],
+                sinObliquity, cosObliquity);
+        declination = Coordinates.declination(values[ECLIPTIC_LONGITUDE], values[ECLIPTIC_LATITUDE], sinObliquity,
+                cosObliquity);
+    }
+
+    /**
+     * Places a planet given the sun, which is all the earth's part of the computation, so that it can
+     * be done once for all the planets.
+     *
+     * @param planet the planet
+     * @param daysSince days since {@link SunPosition#EPOCH}
+     * @param sunLongitude the sun's geocentric ecliptic longitude in degrees
+     * @param sunDistance the sun's distance in astronomical units
+     * @param values where to store the values, in the order of {@link #HELIOCENTRIC_LONGITUDE} to
+     *               {@link #ILLUMINATED_FRACTION}
+     */
+    static void place(Planet planet, double daysSince, double sunLongitude, double sunDistance, double[] values) {
+        // the planet's mean anomaly, its mean longitude being the sun's for a period of a year
+        double meanAnomaly = SunPosition.computeNFromDaysSince(daysSince / planet.period)
+                + planet.longitudeAtEpoch - planet.longitudeOfPerihelion;
+        double trueAnomaly = trueAnomaly(Math.toRadians(meanAnomaly), planet.eccentricity);
+        double longitude = trueAnomaly + planet.longitudeOfPerihelion;
+        double radius = planet.semiMajorAxis * (1 - planet.eccentricity * planet.eccentricity)
+                / (1 + planet.eccentricity * cosDegrees(trueAnomaly));
+
+        // onto the ecliptic
+        double fromNode = longitude - planet.longitudeOfNode;
+        double sinFromNode = sinDegrees(fromNode);
+        double sinLatitude = sinFromNode * sinDegrees(planet.inclination);
+        double latitude = Math.toDegrees(Math.asin(sinLatitude));
+        double eclipticLongitude = Math.toDegrees(Math.atan2(sinFromNode * cosDegrees(planet.inclination),
+                cosDegrees(fromNode))) + planet.longitudeOfNode;
+        double projectedRadius = radius * Math.sqrt(1 - sinLatitude * sinLatitude);
+
+        // from the earth, which is opposite the sun
+        double x = projectedRadius * cosDegrees(eclipticLongitude) + sunDistance * cosDegrees(sunLongitude);
+        double y = projectedRadius * sinDegrees(eclipticLongitude) + sunDistance * sinDegrees(sunLongitude);
+        double z = radius * sinLatitude;
+        double distance = Math.sqrt(x * x + y * y + z * z);
+
+        values[HELIOCENTRIC_LONGITUDE] = BaseUtils.adjustTo360Range(eclipticLongitude);
+        values[HELIOCENTRIC_LATITUDE] = latitude;
+        values[HELIOCENTRIC_DISTANCE] = radius;
+        values[ECLIPTIC_LONGITUDE] = BaseUtils.adjustTo360Range(Math.toDegrees(Math.atan2(y, x)));
+        values[ECLIPTIC_LATITUDE] = Math.toDegrees(Math.asin(z / distance));
+        values[DISTANCE] = distance;
+        // the phase angle is the angle between the sun and the earth seen from the planet
+        double cosPhaseAngle = (radius * radius + distance * distance - sunDistance * sunDistance)
+                / (2 * radius * distance);
+        values[ILLUMINATED_FRACTION] = 0.5 * (1 + cosPhaseAngle);
+    }
+
+    /**
+     * Solves Kepler's equation by Newton's method.
+     *
+     * @param meanAnomaly the mean anomaly in radians
+     * @param eccentricity the eccentricity of the orbit
+     * @return the true anomaly in degrees
+     */
+    static double trueAnomaly(double meanAnomaly, double eccentricity) {
+        double eccentricAnomaly = meanAnomaly;
+        for (int i = 0; i < 20; i++) {
+            double step = (eccentricAnomaly - eccentricity * Math.sin(eccentricAnomaly) - meanAnomaly)
+                    / (1 - eccentricity * Math.cos(eccentricAnomaly));
+            eccentricAnomaly -= step;
+            if (Math.abs(step) < 1e-12) {
+                break;
+            }
+        }
+        return Math.toDegrees(2 * Math.atan(Math.sqrt((1 + eccentricity) / (1 - eccentricity))
+                * Math.tan(eccentricAnomaly / 2)));
+    }
+
+    /**
+     * @param planet the planet
+     * @param distance its distance from the earth in astronomical units
+     * @return its angular diameter in degrees
+     */
+    static double angularDiameter(Planet planet, double distance) {
+        return planet.angularDiameterAtUnitDistance / distance / 3600;
+    }
+
+    /**
+     * The brightness of a planet from its distances and phase.
+     *
+     * @param planet the planet
+     * @param values the values stored by {@link #place}
+     * @return the visual magnitude
+     */
+    static double magnitude(Planet planet, double[] values) {
+        return planet.magnitudeAtUnitDistance + 5 * Math.log10(values[HELIOCENTRIC_DISTANCE] * values[DISTANCE]
+                / Math.sqrt(values[ILLUMINATED_FRACTION]));
+    }
+
+    public Planet getPlanet() {
+        return planet;
+    }
+
+    /**
+     * @return the geocentric ecliptic longitude in degrees, 0 to 360
+     */
+    public double getEclipticLongitude() {
+        return values[ECLIPTIC_LONGITUDE];
+    }
+
+    /**
+     * @return the geocentric ecliptic latitude in degrees
+     */
+    public double getEclipticLatitude() {
+        return values[ECLIPTIC_LATITUDE];
+    }
+
+    /**
+     * @return the distance between the centres of the earth and the planet, in astronomical units
+     */
+    public double getDistance() {
+        return values[DISTANCE];
+    }
+
+    /**
+     * @return the heliocentric ecliptic longitude in degrees, 0 to 360
+     */
+    public double getHeliocentricLongitude() {
+        return values[HELIOCENTRIC_LONGITUDE];
+    }
+
+    /**
+     * @return the heliocentric ecliptic latitude in degrees
+     */
+    public double getHeliocentricLatitude() {
+        return values[HELIOCENTRIC_LATITUDE];
+    }
+
+    /**
+     * @return the distance between the centres of the sun and the planet, in astronomical units
+     */
+    public double getHeliocentricDistance() {
+        return values[HELIOCENTRIC_DISTANCE];
+    }
+
+    /**
+     * @return the right ascension in degrees, 0 to 360
+     */
+    public double getRightAscension() {
+        return rightAscension;
+    }
+
+    /**
+     * @return the declination in degrees
+     */
+    public double getDeclination() {
+        return declination;
+    }
+
+    /**
+     * @return the angle between the planet and the sun seen from the earth, in degrees, 0 to 180
+     */
+    public double getElongation() {
+        return Math.toDegrees(Math.acos(cosDegrees(values[ECLIPTIC_LATITUDE])
+                * cosDegrees(values[ECLIPTIC_LONGITUDE] - sunLongitude)));
+    }
+
+    /**
+     * @return the fraction of the disk which is lit, 0 to 1
+     */
+    public double getIlluminatedFraction() {
+        return values[ILLUMINATED_FRACTION];
+    }
+
+    /**
+     * @return the angular diameter in degrees
+     */
+    public double getAngularDiameter() {
+        return angularDiameter(planet, values[DISTANCE]);
+    }
+
+    /**
+     * @return the visual magnitude, smaller for brighter
+     */
+    public double getMagnitude() {
+        return magnitude(planet, values);
+    }
+
+}
@@ -0,0 +1,113 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * How many decimals a computed value is presented with.
+ * <p>
+ * The calculations themselves always work on raw values.  Rounding is only for presentation: a
+ * rounded visible fraction goes up and down in steps, so it is no use to a search or a derivative.
+ * {@link #RAW} leaves values alone, {@link #decimals(int)} rounds them to a fixed number of decimals
+ * using a table of scales rather than {@link Math#pow}, and {@link #toScaled(double)} gives the value
+ * as a whole number of the last decimal, such as per mille for 3 decimals.
+ * <p>
+ * Instances are immutable and thread safe.
+ */
+public final class Precision {
+
+    /**
+     * The most decimals {@link #decimals(int)} accepts, a double has no more digits to round beyond
+     */
+    public static final int MAX_DECIMALS = 15;
+
+    private static final double[] SCALES = {
+            1e0, 1e1, 1e2, 1e3, 1e4, 1e5, 1e6, 1e7, 1e8, 1e9, 1e10, 1e11, 1e12, 1e13, 1e14, 1e15};
+
+    private static final Precision[] FIXED = new Precision[MAX_DECIMALS + 1];
+
+    static {
+        for (int decimals = 0; decimals <= MAX_DECIMALS; decimals++) {
+            FIXED[decimals] = new Precision(decimals);
+        }
+    }
+
+    /**
+     * Values as they are computed
+     */
+    public static final Precision RAW = new Precision(-1);
+
+    /**
+     * Three decimals, what {@link MoonPhaseFinder#getMoonVisiblePercent(java.time.ZonedDateTime)} has
+     * always given
+     */
+    public static final Precision PER_MILLE = FIXED[3];
+
+    private final int decimals;
+
+    private Precision(int decimals) {
+        this.decimals = decimals;
+    }
+
+    /**
+     * @param decimals 0 to {@value #MAX_DECIMALS}
+     * @return the precision rounding to that many decimals
+     */
+    public static Precision decimals(int decimals) {
+        if (decimals < 0 || decimals > MAX_DECIMALS) {
+            throw new IllegalArgumentException("decimals must be between 0 and " + MAX_DECIMALS + ": " + decimals);
+        }
+        return FIXED[decimals];
+    }
+
+    public boolean isRaw() {
+        return decimals < 0;
+    }
+
+    /**
+     * @return the number of decimals, -1 for {@link #RAW}
+     */
+    public int getDecimals() {
+        return decimals;
+    }
+
+    /**
+     * @param value a computed value
+     * @return the value rounded half up to this many decimals, the same value if raw
+     */
+    public double round(double value) {
+        if (decimals < 0) {
+            return value;
+        }
+        double scale = SCALES[decimals];
+        return Math.round(value * scale) / scale;
+    }
+
+    /**
+     * @param value a computed value
+     * @return the value as a whole number of the last decimal, e.g. 998 for 0.998 with 3 decimals
+     * @throws IllegalStateException if raw, which has no last decimal
+     */
+    public long toScaled(double value) {
+        if (decimals < 0) {
+            throw new IllegalStateException("a raw value has no scale");
+        }
+        return Math.round(value * SCALES[decimals]);
+    }
+
+    @Override
+    public String toString() {
+        return decimals < 0 ? "RAW" : decimals + " decimals";
+    }
+
+}
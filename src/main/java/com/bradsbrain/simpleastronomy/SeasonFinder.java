@@ -0,0 +1,237 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.Iterator;
+
+/**
+ * Finds equinoxes and solstices, the instants at which the sun's ecliptic longitude reaches 0, 90, 180
+ * and 270 degrees, with the same search as the moon phases (see {@link EventSearch}).
+ */
+public class SeasonFinder {
+
+    /**
+     * The mean tropical year, in seconds
+     */
+    static final double TROPICAL_YEAR_SECONDS = 365.242191 * 24 * 3600;
+
+    /**
+     * How fast the sun's longitude grows on average, in degrees per second
+     */
+    private static final double MEAN_LONGITUDE_PER_SECOND = 360 / TROPICAL_YEAR_SECONDS;
+
+    /**
+     * The sun runs up to about 2 degrees, or 2 days, ahead of or behind the mean sun, so an estimate
+     * from the mean motion is always well within this many seconds of the event
+     */
+    private static final long SEARCH_HALF_WINDOW = 5 * 24 * 3600;
+
+    private static final Ephemeris defaultEphemeris = EphemerisTier.LOW.getEphemeris();
+
+    /**
+     * The start of each astronomical season, named after the month it falls in
+     */
+    public enum Season {
+        MARCH_EQUINOX,
+        JUNE_SOLSTICE,
+        SEPTEMBER_EQUINOX,
+        DECEMBER_SOLSTICE;
+
+        private final MoonFinder finder = new SolarLongitudeFinder(getSolarLongitude());
+
+        /**
+         * @return the ecliptic longitude of the sun at the event, in degrees
+         */
+        public double getSolarLongitude() {
+            return 90 * ordinal();
+        }
+
+        /**
+         * @return the search predicate of the event
+         */
+        public MoonFinder getFinder() {
+            return finder;
+        }
+
+        Season next() {
+            return values()[(ordinal() + 1) % 4];
+        }
+    }
+
+    /**
+     * An equinox or solstice.
+     */
+    public static final class SeasonStart {
+        private final Season season;
+        private final ZonedDateTime time;
+
+        SeasonStart(Season season, ZonedDateTime time) {
+            this.season = season;
+            this.time = time;
+        }
+
+        public Season getSeason() {
+            return season;
+        }
+
+        /**
+         * @return when it happens, rounded to the minute
+         */
+        public ZonedDateTime getTime() {
+            return time;
+        }
+
+        @Override
+        public String toString() {
+            return season + " " + time;
+        }
+    }
+
+    public static ZonedDateTime findMarchEquinoxFollowing(ZonedDateTime cal) {
+        return findSeasonFollowing(cal, Season.MARCH_EQUINOX, defaultEphemeris);
+    }
+
+    public static ZonedDateTime findJuneSolsticeFollowing(ZonedDateTime cal) {
+        return findSeasonFollowing(cal, Season.JUNE_SOLSTICE, defaultEphemeris);
+    }
+
+    public static ZonedDateTime findSeptemberEquinoxFollowing(ZonedDateTime cal) {
+        return findSeasonFollowing(cal, Season.SEPTEMBER_EQUINOX, defaultEphemeris);
+    }
+
+    public static ZonedDateTime findDecemberSolsticeFollowing(ZonedDateTime cal) {
+        return findSeasonFollowing(cal, Season.DECEMBER_SOLSTICE, defaultEphemeris);
+    }
+
+    /**
+     * Finds the first equinox or solstice of the given kind strictly after the given date.
+     *
+     * @param cal the date to search from
+     * @param season the event to find
+     * @param ephemeris the sun theory to use
+     * @return the event, rounded to the minute, in the time zone of the input date
+     */
+    public static ZonedDateTime findSeasonFollowing(ZonedDateTime cal, Season season, Ephemeris ephemeris) {
+        return MoonPhaseFinder.toRoundedDate(findFollowing(search(ephemeris), ephemeris, cal.toEpochSecond(), season),
+                cal.getZone());
+    }
+
+    /**
+     * Every equinox and solstice after the given date, in order and without end.  After the first
+     * year each event is searched for from the same event a tropical year earlier, which is within
+     * minutes of it, so a long table costs a handful of sun positions per event.
+     *
+     * @param cal the date to start from, its time zone is used for the results
+     * @param ephemeris the sun theory to use
+     * @return an endless iterator of the events
+     */
+    public static Iterator<SeasonStart> seasonsFollowing(ZonedDateTime cal, Ephemeris ephemeris) {
+        return new SeasonIterator(cal.toEpochSecond(), cal.getZone(), ephemeris);
+    }
+
+    /**
+     * Same as {@link #seasonsFollowing(ZonedDateTime, Ephemeris)} with the default ephemeris.
+     *
+     * @param cal the date to start from, its time zone is used for the results
+     * @return an endless iterator of the events
+     */
+    public static Iterator<SeasonStart> seasonsFollowing(ZonedDateTime cal) {
+        return seasonsFollowing(cal, defaultEphemeris);
+    }
+
+    private static EventSearch search(Ephemeris ephemeris) {
+        return new EventSearch(ephemeris, EventSearch.sunLongitude(ephemeris), MEAN_LONGITUDE_PER_SECOND,
+                SEARCH_HALF_WINDOW);
+    }
+
+    /**
+     * @return the first event strictly after the given instant, in seconds since the java epoch
+     */
+    private static long findFollowing(EventSearch search, Ephemeris ephemeris, long epochSecond, Season season) {
+        double longitude = ephemeris.getSunEclipticLongitude(JulianInstant.ofEpochSecond(epochSecond));
+        double toGo = BaseUtils.adjustTo360Range(season.getSolarLongitude() - longitude);
+        long event = search.refine(epochSecond + Math.round(toGo / MEAN_LONGITUDE_PER_SECOND), season.getFinder());
+        if (event > epochSecond) {
+            return event;
+        }
+        return search.refine(event + Math.round(TROPICAL_YEAR_SECONDS), season.getFinder());
+    }
+
+    /**
+     * Also gives the events as seconds, for callers which want them all without creating dates.
+     */
+    static final class SeasonIterator implements Iterator<SeasonStart> {
+        private final EventSearch search;
+        private final ZoneId zone;
+        /**
+         * The last event found of each season, or {@link Long#MIN_VALUE}
+         */
+        private final long[] lastOfSeason = new long[4];
+        private Season season;
+        private long event;
+
+        /**
+         * @param epochSecond the instant to start from
+         * @param zone the time zone of the dates of {@link #next()}
+         * @param ephemeris the sun theory to use
+         */
+        SeasonIterator(long epochSecond, ZoneId zone, Ephemeris ephemeris) {
+            this.search = search(ephemeris);
+            this.zone = zone;
+            Arrays.fill(lastOfSeason, Long.MIN_VALUE);
+
+            double longitude = ephemeris.getSunEclipticLongitude(JulianInstant.ofEpochSecond(epochSecond));
+            season = Season.values()[(int) (longitude / 90) % 4].next();
+            event = findFollowing(search, ephemeris, epochSecond, season);
+        }
+
+        public boolean hasNext() {
+            return true;
+        }
+
+        public SeasonStart next() {
+            Season found = season;
+            return new SeasonStart(found, MoonPhaseFinder.toRoundedDate(nextEpochSecond(), zone));
+        }
+
+        /**
+         * @return the season of the event {@link #nextEpochSecond()} returns next
+         */
+        Season nextSeason() {
+            return season;
+        }
+
+        /**
+         * Same as {@link #next()} without rounding or creating objects.
+         *
+         * @return the next event, in seconds since the java epoch
+         */
+        long nextEpochSecond() {
+            long found = event;
+            lastOfSeason[season.ordinal()] = event;
+
+            season = season.next();
+            long yearBefore = lastOfSeason[season.ordinal()];
+            long estimate = yearBefore != Long.MIN_VALUE
+                    ? yearBefore + Math.round(TROPICAL_YEAR_SECONDS)
+                    : event + Math.round(TROPICAL_YEAR_SECONDS / 4);
+            event = search.refine(estimate, season.getFinder());
+            return found;
+        }
+    }
+
+}
@@ -0,0 +1,116 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * Greenwich and local mean sidereal time, in hours.
+ * <p>
+ * The static methods compute it from scratch and never allocate.  An instance remembers the
+ * Greenwich sidereal time of the last instant it was asked for, so a batch of locations at the same
+ * instant costs one evaluation.  Instances are thread safe.
+ */
+public final class SiderealTime {
+
+    private static final double HOURS_PER_DAY = 24;
+    private static final double DEGREES_PER_HOUR = 15;
+
+    private static final class Entry {
+        final long day;
+        final long nanoOfDay;
+        final double greenwichSiderealTime;
+
+        Entry(JulianInstant instant, double greenwichSiderealTime) {
+            this.day = instant.getDay();
+            this.nanoOfDay = instant.getNanoOfDay();
+            this.greenwichSiderealTime = greenwichSiderealTime;
+        }
+
+        boolean isFor(JulianInstant instant) {
+            return day == instant.getDay() && nanoOfDay == instant.getNanoOfDay();
+        }
+    }
+
+    private volatile Entry last;
+
+    /**
+     * Same as {@link #greenwichMeanSiderealTime(JulianInstant)}, reusing the last answer for the same
+     * instant.
+     *
+     * @param instant the instant, in universal time
+     * @return the sidereal time at Greenwich, 0 to 24 hours
+     */
+    public double getGreenwichSiderealTime(JulianInstant instant) {
+        Entry entry = last;
+        if (entry == null || !entry.isFor(instant)) {
+            entry = new Entry(instant, greenwichMeanSiderealTime(instant));
+            last = entry;
+        }
+        return entry.greenwichSiderealTime;
+    }
+
+    /**
+     * Same as {@link #localMeanSiderealTime(JulianInstant, double)}, reusing the Greenwich sidereal time
+     * of the last call for the same instant.
+     *
+     * @param instant the instant, in universal time
+     * @param longitude degrees east, negative for west
+     * @return the local sidereal time, 0 to 24 hours
+     */
+    public double getLocalSiderealTime(JulianInstant instant, double longitude) {
+        return toLocal(getGreenwichSiderealTime(instant), longitude);
+    }
+
+    /**
+     * The mean sidereal time at Greenwich, from the IAU 1982 expression as given in chapter 12 of
+     * <i>Astronomical Algorithms</i>.  It agrees with the UT to GST conversion of the book to a few
+     * hundredths of a second.
+     *
+     * @param instant the instant, in universal time
+     * @return the sidereal time at Greenwich, 0 to 24 hours
+     */
+    public static double greenwichMeanSiderealTime(JulianInstant instant) {
+        return fromDaysSinceJ2000(instant.daysSince(Coordinates.J2000));
+    }
+
+    /**
+     * Same as {@link #greenwichMeanSiderealTime(JulianInstant)} for a julian date.
+     *
+     * @param julianDate the instant as a julian date, in universal time
+     * @return the sidereal time at Greenwich, 0 to 24 hours
+     */
+    public static double greenwichMeanSiderealTime(double julianDate) {
+        return fromDaysSinceJ2000(julianDate - Coordinates.J2000);
+    }
+
+    /**
+     * @param instant the instant, in universal time
+     * @param longitude degrees east, negative for west
+     * @return the local sidereal time, 0 to 24 hours
+     */
+    public static double localMeanSiderealTime(JulianInstant instant, double longitude) {
+        return toLocal(greenwichMeanSiderealTime(instant), longitude);
+    }
+
+    private static double fromDaysSinceJ2000(double days) {
+        double t = days / Coordinates.DAYS_PER_CENTURY;
+        double degrees = 280.46061837 + 360.98564736629 * days + 0.000387933 * t * t - t * t * t / 38710000;
+        return BaseUtils.adjustTo360Range(degrees) / DEGREES_PER_HOUR;
+    }
+
+    private static double toLocal(double greenwichSiderealTime, double longitude) {
+        double local = greenwichSiderealTime + longitude / DEGREES_PER_HOUR;
+        return local - HOURS_PER_DAY * Math.floor(local / HOURS_PER_DAY);
+    }
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The sun, the moon and the five naked eye planets at one instant, for drawing a sky chart in one
+ * pass.  The sun's mean anomaly and longitude, which the moon's corrections and the earth's place
+ * for every planet all start from, and the obliquity of the ecliptic are computed once per instant
+ * rather than once per body as separate {@link SunPosition}, {@link MoonPosition} and
+ * {@link PlanetPosition}s would.
+ * <p>
+ * Everything is from Duffett-Smith: the sun from section 46, the moon from section 65 (so with the
+ * accuracy of the default {@link EphemerisTier#LOW}) and the planets as {@link PlanetPosition}.  The
+ * values are kept in arrays indexed by {@link Body}, and computing another instant allocates nothing.
+ * <p>
+ * An instance is not thread safe, use one per thread.
+ */
+public final class SkyPositions {
+
+    /**
+     * The bodies placed, in the order of the arrays.
+     */
+    public enum Body {
+        SUN(null),
+        MOON(null),
+        MERCURY(Planet.MERCURY),
+        VENUS(Planet.VENUS),
+        MARS(Planet.MARS),
+        JUPITER(Planet.JUPITER),
+        SATURN(Planet.SATURN);
+
+        private final Planet planet;
+
+        Body(Planet planet) {
+            this.planet = planet;
+        }
+
+        /**
+         * @return the planet, or null for the sun and the moon
+         */
+        public Planet getPlanet() {
+            return planet;
+        }
+    }
+
+    private static final Body[] BODIES = Body.values();
+    private static final int FIRST_PLANET = Body.MERCURY.ordinal();
+
+    private final double[] eclipticLongitudes = new double[BODIES.length];
+    private final double[] eclipticLatitudes = new double[BODIES.length];
+    private final double[] distances = new double[BODIES.length];
+    private final double[] rightAscensions = new double[BODIES.length];
+    private final double[] declinations = new double[BODIES.length];
+    private final double[] elongations = new double[BODIES.length];
+    private final double[] illuminatedFractions = new double[BODIES.length];
+    private final double[] magnitudes = new double[BODIES.length];
+    private final double[] planetValues = new double[PlanetPosition.VALUES];
+
+    // of the instant being computed
+    private double sinObliquity;
+    private double cosObliquity;
+
+    private boolean computed;
+
+    /**
+     * Places every body at the given instant.
+     *
+     * @param cal the instant
+     */
+    public void compute(ZonedDateTime cal) {
+        compute(JulianInstant.of(cal));
+    }
+
+    /**
+     * Same as {@link #compute(ZonedDateTime)} for an instant in seconds since the java epoch.
+     *
+     * @param epochSecond the instant
+     */
+    public void compute(long epochSecond) {
+        compute(JulianInstant.ofEpochSecond(epochSecond));
+    }
+
+    private void compute(JulianInstant instant) {
+        double daysSince = instant.daysSince(SunPosition.EPOCH);
+        double obliquity = Coordinates.meanObliquity(Coordinates.centuriesSinceJ2000(instant));
+        sinObliquity = BaseUtils.sinDegrees(obliquity);
+        cosObliquity = BaseUtils.cosDegrees(obliquity);
+
+        // the sun, once for everything else
+        double sunN = SunPosition.computeNFromDaysSince(daysSince);
+        double sunMeanAnomaly = SunPosition.computeMeanAnomaly(sunN);
+        double sunLongitude = SunPosition.computeGeoEclipticLongitude(sunN, sunMeanAnomaly);
+        double sunDistance = SunPosition.distance(sunLongitude);
+        set(Body.SUN, sunLongitude, 0, sunDistance, sunLongitude);
+        illuminatedFractions[Body.SUN.ordinal()] = 1;
+        magnitudes[Body.SUN.ordinal()] = Double.NaN;
+
+        double moonMeanLongitude = MoonPosition.computeMeanLongitude(daysSince);
+        double moonMeanAnomaly = MoonPosition.computeMeanAnomaly(daysSince, moonMeanLongitude);
+        double moonLongitude = MoonPosition.trueLongitude(moonMeanLongitude, moonMeanAnomaly, sunLongitude,
+                sunMeanAnomaly);
+        double moonDistance = MoonPosition.distance(MoonPosition.trueAnomaly(moonMeanLongitude, moonMeanAnomaly,
+                sunLongitude, sunMeanAnomaly)) / Coordinates.ASTRONOMICAL_UNIT;
+        set(Body.MOON, BaseUtils.adjustTo360Range(moonLongitude),
+                MoonPosition.eclipticLatitude(daysSince, moonLongitude, sunMeanAnomaly), moonDistance,
+                sunLongitude);
+        illuminatedFractions[Body.MOON.ordinal()] =
+                0.5 * (1 - BaseUtils.cosDegrees(elongations[Body.MOON.ordinal()]));
+        magnitudes[Body.MOON.ordinal()] = Double.NaN;
+
+        for (int i = FIRST_PLANET; i < BODIES.length; i++) {
+            Planet planet = BODIES[i].planet;
+            PlanetPosition.place(planet, daysSince, sunLongitude, sunDistance, planetValues);
+            set(BODIES[i], planetValues[PlanetPosition.ECLIPTIC_LONGITUDE],
+                    planetValues[PlanetPosition.ECLIPTIC_LATITUDE], planetValues[PlanetPosition.DISTANCE],
+                    sunLongitude);
+            illuminatedFractions[i] = planetValues[PlanetPosition.ILLUMINATED_FRACTION];
+            magnitudes[i] = PlanetPosition.magnitude(planet, planetValues);
+        }
+        computed = true;
+    }
+
+    private void set(Body body, double longitude, double latitude, double distance, double sunLongitude) {
+        int i = body.ordinal();
+        eclipticLongitudes[i] = longitude;
+        eclipticLatitudes[i] = latitude;
+        distances[i] = distance;
+        rightAscensions[i] = Coordinates.rightAscension(longitude, latitude, sinObliquity, cosObliquity);
+        declinations[i] = Coordinates.declination(longitude, latitude, sinObliquity, cosObliquity);
+        elongations[i] = Math.toDegrees(Math.acos(BaseUtils.cosDegrees(latitude)
+                * BaseUtils.cosDegrees(longitude - sunLongitude)));
+    }
+
+    private int index(Body body) {
+        if (!computed) {
+            throw new IllegalStateException("no instant computed yet");
+        }
+        return body.ordinal();
+    }
+
+    /**
+     * @param body the body
+     * @return its geocentric ecliptic longitude at the last computed instant, in degrees, 0 to 360
+     */
+    public double getEclipticLongitude(Body body) {
+        return eclipticLongitudes[index(body)];
+    }
+
+    /**
+     * @param body the body
+     * @return its geocentric ecliptic latitude at the last computed instant, in degrees
+     */
+    public double getEclipticLatitude(Body body) {
+        return eclipticLatitudes[index(body)];
+    }
+
+    /**
+     * @param body the body
+     * @return its distance from the centre of the earth at the last computed instant, in astronomical
+     * units (the moon's is about 0.0026)
+     */
+    public double getDistance(Body body) {
+        return distances[index(body)];
+    }
+
+    /**
+     * @param body the body
+     * @return its right ascension at the last computed instant, in degrees, 0 to 360
+     */
+    public double getRightAscension(Body body) {
+        return rightAscensions[index(body)];
+    }
+
+    /**
+     * @param body the body
+     * @return its declination at the last computed instant, in degrees
+     */
+    public double getDeclination(Body body) {
+        return declinations[index(body)];
+    }
+
+    /**
+     * @param body the body
+     * @return its angle from the sun seen from the earth at the last computed instant, in degrees,
+     * 0 to 180 (0 for the sun itself)
+     */
+    public double getElongation(Body body) {
+        return elongations[index(body)];
+    }
+
+    /**
+     * @param body the body
+     * @return the fraction of its disk which is lit at the last computed instant, 0 to 1 (1 for the sun)
+     */
+    public double getIlluminatedFraction(Body body) {
+        return illuminatedFractions[index(body)];
+    }
+
+    /**
+     * @param body the body
+     * @return a planet's visual magnitude at the last computed instant, NaN for the sun and the moon
+     */
+    public double getMagnitude(Body body) {
+        return magnitudes[index(body)];
+    }
+
+}
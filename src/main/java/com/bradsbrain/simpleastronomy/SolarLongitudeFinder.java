@@ -0,0 +1,46 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * Provides an equinox or solstice finding calculation for use in a binary search.  It follows the
+ * {@link MoonFinder} contract with the sun's ecliptic longitude in place of the moon angle.
+ */
+public class SolarLongitudeFinder implements MoonFinder {
+
+    private final double eventLongitude;
+
+    /**
+     * @param eventLongitude the longitude of the sun at the event, 0 for the March equinox, 90 for the
+     *                       June solstice and so on
+     */
+    public SolarLongitudeFinder(double eventLongitude) {
+        this.eventLongitude = eventLongitude;
+    }
+
+    /**
+     * @param longitude the ecliptic longitude of the sun
+     * @param unused not meaningful for the sun
+     * @return true if the event is less than half a year before the sun reached that longitude
+     */
+    public boolean isMoonBefore(double longitude, double unused) {
+        return BaseUtils.adjustTo360Range(longitude - eventLongitude) < 180;
+    }
+
+    /** {@inheritDoc} */
+    public double getEventAngle() {
+        return eventLongitude;
+    }
+
+}
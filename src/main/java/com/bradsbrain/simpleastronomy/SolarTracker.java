@@ -0,0 +1,151 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+/**
+ * The altitude and azimuth of the sun for many sites at once.
+ * <p>
+ * For each instant the sun's ecliptic longitude is converted to right ascension and declination,
+ * and the {@link SiderealTime} is computed, once for all sites.  What each site needs from its latitude
+ * and longitude is computed when it is added, so a site only costs an {@code asin} and an
+ * {@code atan2} per instant.
+ * <p>
+ * The altitude is that of the centre of the sun, without refraction.  The azimuth is measured from
+ * north towards east.
+ * <p>
+ * A tracker is not thread safe, use one per thread.
+ */
+public final class SolarTracker {
+
+    private final Ephemeris ephemeris;
+
+    private int siteCount;
+    private double[] sinLatitude = new double[16];
+    private double[] cosLatitude = new double[16];
+    private double[] sinLongitude = new double[16];
+    private double[] cosLongitude = new double[16];
+
+    // the sun at the last tracked instant
+    private double rightAscension;
+    private double declination;
+
+    /**
+     * A tracker using the default ephemeris.
+     */
+    public SolarTracker() {
+        this(EphemerisTier.LOW.getEphemeris());
+    }
+
+    /**
+     * @param ephemeris the sun theory to use
+     */
+    public SolarTracker(Ephemeris ephemeris) {
+        this.ephemeris = ephemeris;
+    }
+
+    /**
+     * @param latitude degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @return the index of the site in the arrays filled by {@link #track(long, double[], double[])}
+     */
+    public int addSite(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("latitude must be between -90 and 90: " + latitude);
+        }
+        if (siteCount == sinLatitude.length) {
+            int capacity = siteCount * 2;
+            sinLatitude = Arrays.copyOf(sinLatitude, capacity);
+            cosLatitude = Arrays.copyOf(cosLatitude, capacity);
+            sinLongitude = Arrays.copyOf(sinLongitude, capacity);
+            cosLongitude = Arrays.copyOf(cosLongitude, capacity);
+        }
+        sinLatitude[siteCount] = BaseUtils.sinDegrees(latitude);
+        cosLatitude[siteCount] = BaseUtils.cosDegrees(latitude);
+        sinLongitude[siteCount] = BaseUtils.sinDegrees(longitude);
+        cosLongitude[siteCount] = BaseUtils.cosDegrees(longitude);
+        return siteCount++;
+    }
+
+    public int getSiteCount() {
+        return siteCount;
+    }
+
+    /**
+     * Computes the sun's position for every site.
+     *
+     * @param cal the instant
+     * @param altitudes receives the altitude of each site in degrees, at least {@link #getSiteCount()} long
+     * @param azimuths receives the azimuth of each site in degrees, 0 to 360, at least {@link #getSiteCount()} long
+     */
+    public void track(ZonedDateTime cal, double[] altitudes, double[] azimuths) {
+        track(JulianInstant.of(cal), altitudes, azimuths);
+    }
+
+    /**
+     * Same as {@link #track(ZonedDateTime, double[], double[])} for seconds since the java epoch.
+     *
+     * @param epochSecond the instant in seconds since 1970-01-01T00:00Z
+     * @param altitudes receives the altitude of each site in degrees
+     * @param azimuths receives the azimuth of each site in degrees, 0 to 360
+     */
+    public void track(long epochSecond, double[] altitudes, double[] azimuths) {
+        track(JulianInstant.ofEpochSecond(epochSecond), altitudes, azimuths);
+    }
+
+    private void track(JulianInstant instant, double[] altitudes, double[] azimuths) {
+        if (altitudes.length < siteCount || azimuths.length < siteCount) {
+            throw new IllegalArgumentException("need room for " + siteCount + " sites");
+        }
+        double sunLongitude = ephemeris.getSunEclipticLongitude(instant);
+        double obliquity = Coordinates.meanObliquity(Coordinates.centuriesSinceJ2000(instant));
+        rightAscension = Coordinates.sunRightAscension(sunLongitude, BaseUtils.cosDegrees(obliquity));
+        declination = Coordinates.sunDeclination(sunLongitude, BaseUtils.sinDegrees(obliquity));
+
+        // hour angle at Greenwich, each site adds its longitude
+        double greenwichHourAngle = SiderealTime.greenwichMeanSiderealTime(instant) * 15 - rightAscension;
+        double sinGreenwichHourAngle = BaseUtils.sinDegrees(greenwichHourAngle);
+        double cosGreenwichHourAngle = BaseUtils.cosDegrees(greenwichHourAngle);
+        double sinDeclination = BaseUtils.sinDegrees(declination);
+        double cosDeclination = BaseUtils.cosDegrees(declination);
+
+        for (int i = 0; i < siteCount; i++) {
+            double sinHourAngle = sinGreenwichHourAngle * cosLongitude[i] + cosGreenwichHourAngle * sinLongitude[i];
+            double cosHourAngle = cosGreenwichHourAngle * cosLongitude[i] - sinGreenwichHourAngle * sinLongitude[i];
+
+            double sinAltitude = sinDeclination * sinLatitude[i] + cosDeclination * cosLatitude[i] * cosHourAngle;
+            altitudes[i] = Math.toDegrees(Math.asin(sinAltitude));
+            double azimuth = Math.toDegrees(Math.atan2(-cosDeclination * sinHourAngle,
+                    sinDeclination * cosLatitude[i] - cosDeclination * sinLatitude[i] * cosHourAngle));
+            azimuths[i] = azimuth < 0 ? azimuth + 360 : azimuth;
+        }
+    }
+
+    /**
+     * @return the sun's right ascension at the last tracked instant, in degrees
+     */
+    public double getRightAscension() {
+        return rightAscension;
+    }
+
+    /**
+     * @return the sun's declination at the last tracked instant, in degrees
+     */
+    public double getDeclination() {
+        return declination;
+    }
+
+}
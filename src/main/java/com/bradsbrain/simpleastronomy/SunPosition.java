@@ -19,7 +19,11 @@ import java.time.ZonedDateTime;
 
 public class SunPosition {
     // some handy constants
-    private static final double EPOCH = 2447891.5; // 1990 January 0.0
+    static final double EPOCH = 2447891.5; // 1990 January 0.0
+    /**
+     * Degrees per day travelled by the mean sun
+     */
+    static final double MEAN_DAILY_MOTION = 360 / 365.242191;
     private static final double ECLIPTIC_LONGITUDE_OF_PERIGREE = 282.768422;
     private static final double ECLIPTIC_LONGITUDE_AT_EPOCH_1990 = 279.403303;
     private static final double ECCENTRICITY_OF_ORBIT = 0.016713;
@@ -36,18 +40,80 @@ public class SunPosition {
     private double meanAnomaly = 0; // oft represented as capital M with little circle+dot
 
     public SunPosition(ZonedDateTime cal) {
-        double daysSince = BaseUtils.exactDaysSince(cal, EPOCH);
+        double N = computeN(JulianDate.makeJulianDateUsingMyModified(cal));
+
+        meanAnomaly = computeMeanAnomaly(N);
+        geoEclipticLongitude = computeGeoEclipticLongitude(N, meanAnomaly);
+    }
+
+    /**
+     * Allocation-free equivalent of {@code new SunPosition(cal).getEclipticLongitude()}.
+     *
+     * @param julianDate the input date as a julian date
+     * @return the geocentric ecliptic longitude in degrees
+     */
+    static double eclipticLongitude(double julianDate) {
+        double N = computeN(julianDate);
+        return computeGeoEclipticLongitude(N, computeMeanAnomaly(N));
+    }
+
+    /**
+     * Allocation-free equivalent of {@code new SunPosition(cal).getMeanAnomaly()}.
+     *
+     * @param julianDate the input date as a julian date
+     * @return the mean anomaly in degrees
+     */
+    static double meanAnomaly(double julianDate) {
+        return computeMeanAnomaly(computeN(julianDate));
+    }
 
-        double N = (360 / 365.242191 * daysSince) % 360;
+    /**
+     * Same as {@link #eclipticLongitude(double)} without rounding the input date.
+     *
+     * @param instant the input date
+     * @return the geocentric ecliptic longitude in degrees
+     */
+    static double eclipticLongitude(JulianInstant instant) {
+        return eclipticLongitudeFromDaysSince(instant.daysSince(EPOCH));
+    }
+
+    /**
+     * @param daysSince days since {@link #EPOCH}
+     * @return the geocentric ecliptic longitude in degrees
+     */
+    static double eclipticLongitudeFromDaysSince(double daysSince) {
+        double N = computeNFromDaysSince(daysSince);
+        return computeGeoEclipticLongitude(N, computeMeanAnomaly(N));
+    }
+
+    /**
+     * The sun's distance, from the same elliptical orbit as its longitude.
+     *
+     * @param eclipticLongitude the geocentric ecliptic longitude in degrees
+     * @return the distance between the centres of the earth and the sun, in astronomical units
+     */
+    static double distance(double eclipticLongitude) {
+        double trueAnomaly = eclipticLongitude - ECLIPTIC_LONGITUDE_OF_PERIGREE;
+        return (1 - ECCENTRICITY_OF_ORBIT * ECCENTRICITY_OF_ORBIT)
+                / (1 + ECCENTRICITY_OF_ORBIT * BaseUtils.cosDegrees(trueAnomaly));
+    }
+
+    static double computeN(double julianDate) {
+        return computeNFromDaysSince(julianDate - EPOCH);
+    }
+
+    /**
+     * @param daysSince days since {@link #EPOCH}
+     */
+    static double computeNFromDaysSince(double daysSince) {
+        double N = (MEAN_DAILY_MOTION * daysSince) % 360;
         if (N < 0) {
             N += 360;
         }
-
-        meanAnomaly = computeMeanAnomaly(N);
-        geoEclipticLongitude = computeGeoEclipticLongitude(N);
+        return N;
     }
 
-    private double computeGeoEclipticLongitude(double nValue) {
+    static double computeGeoEclipticLongitude(double nValue, double meanAnomaly) {
         double Ec = (360.0 / Math.PI) * ECCENTRICITY_OF_ORBIT * Math.sin(Math.toRadians(meanAnomaly));
         double preliminaryLongitude = nValue + Ec + ECLIPTIC_LONGITUDE_AT_EPOCH_1990;
         if (preliminaryLongitude > 360) {
@@ -56,7 +122,7 @@ public class SunPosition {
         return preliminaryLongitude;
     }
 
-    private double computeMeanAnomaly(double nValue) {
+    static double computeMeanAnomaly(double nValue) {
         double someMean = nValue + ECLIPTIC_LONGITUDE_AT_EPOCH_1990 - ECLIPTIC_LONGITUDE_OF_PERIGREE;
         return someMean < 0 ? someMean + 360 : someMean;
     }
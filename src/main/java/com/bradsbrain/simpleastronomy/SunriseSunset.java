@@ -0,0 +1,167 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.LocalDate;
+
+/**
+ * Sunrise and sunset, when the top of the sun crosses the horizon with the standard refraction.
+ * <p>
+ * The day is the local mean solar day at the site, from midnight to midnight of the mean sun, so
+ * the sunrise of a date always comes before its sunset and both move smoothly with the site.  The
+ * hour angle at which the sun reaches the horizon, computed from its declination, is turned into
+ * time and corrected for the sun's motion during the day, usually in 2 or 3 sun positions.
+ * <p>
+ * Where the sun doesn't cross the horizon during the day the result is {@link #POLAR_DAY} or
+ * {@link #POLAR_NIGHT}.  Instances are stateless and thread safe, and don't allocate.
+ *
+ * @see SunriseSunsetGrid
+ */
+public final class SunriseSunset {
+
+    /**
+     * Degrees, the altitude of the centre of the sun at sunrise and sunset: 34 arcminutes of refraction
+     * and 16 of semi-diameter below the horizon
+     */
+    public static final double SUNRISE_ALTITUDE = -0.8333;
+
+    /**
+     * Returned instead of a time when the sun stays above the horizon all day
+     */
+    public static final long POLAR_DAY = Long.MAX_VALUE;
+
+    /**
+     * Returned instead of a time when the sun stays below the horizon all day
+     */
+    public static final long POLAR_NIGHT = Long.MIN_VALUE;
+
+    private static final double SECONDS_PER_DAY = 24 * 3600;
+    private static final double UNIX_EPOCH_JULIAN_DATE = 2440587.5;
+
+    /**
+     * The iterations stop when a correction is shorter than this many seconds
+     */
+    private static final double TOLERANCE = 0.5;
+    private static final int MAX_ITERATIONS = 6;
+
+    private static final double SIN_SUNRISE_ALTITUDE = BaseUtils.sinDegrees(SUNRISE_ALTITUDE);
+
+    private final Ephemeris ephemeris;
+
+    /**
+     * Uses the default ephemeris.
+     */
+    public SunriseSunset() {
+        this(EphemerisTier.LOW.getEphemeris());
+    }
+
+    /**
+     * @param ephemeris the sun theory to use
+     */
+    public SunriseSunset(Ephemeris ephemeris) {
+        this.ephemeris = ephemeris;
+    }
+
+    /**
+     * @param date the day, which starts at local mean midnight at the site
+     * @param latitude degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @return the sunrise in seconds since 1970-01-01T00:00Z, or {@link #POLAR_DAY} or {@link #POLAR_NIGHT}
+     */
+    public long findSunrise(LocalDate date, double latitude, double longitude) {
+        checkSite(latitude, longitude);
+        return toEpochSecond(event(date.toEpochDay(), latitude, longitude, true));
+    }
+
+    /**
+     * @param date the day, which starts at local mean midnight at the site
+     * @param latitude degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @return the sunset in seconds since 1970-01-01T00:00Z, or {@link #POLAR_DAY} or {@link #POLAR_NIGHT}
+     */
+    public long findSunset(LocalDate date, double latitude, double longitude) {
+        checkSite(latitude, longitude);
+        return toEpochSecond(event(date.toEpochDay(), latitude, longitude, false));
+    }
+
+    static void checkSite(double latitude, double longitude) {
+        if (latitude < -90 || latitude > 90) {
+            throw new IllegalArgumentException("latitude must be between -90 and 90: " + latitude);
+        }
+        if (longitude < -180 || longitude > 180) {
+            throw new IllegalArgumentException("longitude must be between -180 and 180: " + longitude);
+        }
+    }
+
+    /**
+     * @param seconds an event or an infinity from {@link #event}
+     * @return the event rounded to the second, or the polar day or night
+     */
+    static long toEpochSecond(double seconds) {
+        if (seconds == Double.POSITIVE_INFINITY) {
+            return POLAR_DAY;
+        }
+        if (seconds == Double.NEGATIVE_INFINITY) {
+            return POLAR_NIGHT;
+        }
+        return Math.round(seconds);
+    }
+
+    /**
+     * The longitude isn't wrapped, a site 1 degree past 180 east has its day 4 minutes later than at
+     * 180 rather than a day earlier, which keeps a grid continuous across the date line.
+     *
+     * @param epochDay the day, counted from 1970-01-01
+     * @param latitude degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @param rising true for the sunrise, false for the sunset
+     * @return the event in seconds since 1970-01-01T00:00Z, positive infinity for a polar day and
+     * negative infinity for a polar night
+     */
+    double event(long epochDay, double latitude, double longitude, boolean rising) {
+        double sinLatitude = BaseUtils.sinDegrees(latitude);
+        double cosLatitude = BaseUtils.cosDegrees(latitude);
+        // local mean noon, the sun is within 17 minutes of the meridian
+        double seconds = epochDay * SECONDS_PER_DAY + SECONDS_PER_DAY / 2 - longitude * SECONDS_PER_DAY / 360;
+        for (int i = 0; i < MAX_ITERATIONS; i++) {
+            double julianDate = seconds / SECONDS_PER_DAY + UNIX_EPOCH_JULIAN_DATE;
+            double sunLongitude = ephemeris.getSunEclipticLongitude(julianDate);
+            double obliquity = Coordinates.meanObliquity(Coordinates.centuriesSinceJ2000(julianDate));
+            double sinDeclination = Coordinates.sinSunDeclination(sunLongitude, BaseUtils.sinDegrees(obliquity));
+            double cosDeclination = Math.sqrt(1 - sinDeclination * sinDeclination);
+            double rightAscension = Coordinates.sunRightAscension(sunLongitude, BaseUtils.cosDegrees(obliquity));
+
+            double cosHorizonHourAngle = (SIN_SUNRISE_ALTITUDE - sinLatitude * sinDeclination)
+                    / (cosLatitude * cosDeclination);
+            if (cosHorizonHourAngle > 1) {
+                return Double.NEGATIVE_INFINITY;
+            }
+            if (cosHorizonHourAngle < -1) {
+                return Double.POSITIVE_INFINITY;
+            }
+            double horizonHourAngle = Math.toDegrees(Math.acos(cosHorizonHourAngle));
+            double hourAngle = SiderealTime.greenwichMeanSiderealTime(julianDate) * 15 + longitude - rightAscension;
+            hourAngle -= 360 * Math.floor((hourAngle + 180) / 360);
+
+            // the sun's hour angle grows by 360 degrees a solar day
+            double correction = ((rising ? -horizonHourAngle : horizonHourAngle) - hourAngle) * SECONDS_PER_DAY / 360;
+            seconds += correction;
+            if (Math.abs(correction) < TOLERANCE) {
+                break;
+            }
+        }
+        return seconds;
+    }
+
+}
@@ -0,0 +1,296 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.time.LocalDate;
+import java.util.Iterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Sunrise and sunset for many sites, interpolated from a latitude and longitude grid of exact values.
+ * <p>
+ * The grid is cut into tiles of {@value #TILE_CELLS} by {@value #TILE_CELLS} cells for a day, filled
+ * the first time a site in them is asked for.  Filling a tile computes the exact sunrise and sunset
+ * at its nodes, then checks the bilinear interpolation against exact values at the centre and at the
+ * middle of the south and west edges of each cell, where its error peaks for a smooth function.  A
+ * cell is answered by interpolation only if every check is within the error allowed, so a site costs
+ * a map lookup and a few multiplications.  The other cells, mostly those next to a polar day or
+ * night where sunrise changes quickly with latitude, are answered by the exact computation.
+ * <p>
+ * At most {@code maxTiles} tiles are kept, about 3 kB each.  Past that, tiles which haven't been
+ * used since the last eviction are dropped (the clock algorithm, an approximation of least recently
+ * used which doesn't write a shared counter on every query).
+ * <p>
+ * Instances are thread safe.  Two threads missing the same tile may both fill it, one of the two is kept.
+ */
+public final class SunriseSunsetGrid {
+
+    /**
+     * Cells along each side of a tile
+     */
+    public static final int TILE_CELLS = 16;
+
+    private static final int TILE_NODES = TILE_CELLS + 1;
+    private static final long SECONDS_PER_DAY = 24 * 3600;
+
+    // in the offsets from the start of the day stored for each node
+    private static final int NODE_POLAR_DAY = Integer.MAX_VALUE;
+    private static final int NODE_POLAR_NIGHT = Integer.MIN_VALUE;
+
+    /**
+     * Where each cell is checked, as fractions of the cell north and east of its south west corner
+     */
+    private static final double[][] CHECKS = {{0.5, 0.5}, {0, 0.5}, {0.5, 0}};
+
+    /**
+     * The sunrise and sunset at the nodes of a tile for a day.
+     */
+    private static final class Tile {
+        final int[] sunrises = new int[TILE_NODES * TILE_NODES];
+        final int[] sunsets = new int[TILE_NODES * TILE_NODES];
+        // true where the cell has to be computed exactly
+        final boolean[] exact = new boolean[TILE_CELLS * TILE_CELLS];
+        // set by every query, cleared by the eviction, racy on purpose
+        boolean used = true;
+    }
+
+    private final SunriseSunset engine;
+    private final double spacing;
+    private final int maxTiles;
+    private final double maxErrorSeconds;
+
+    private final ConcurrentMap<Long, Tile> tiles = new ConcurrentHashMap<>();
+    private final ReentrantLock evicting = new ReentrantLock();
+    private final AtomicLong exactQueries = new AtomicLong();
+    private final AtomicLong tilesFilled = new AtomicLong();
+
+    /**
+     * A grid of half degree cells using the default ephemeris, allowing 10 seconds of error and
+     * keeping up to 4096 tiles (about 12 MB).
+     */
+    public SunriseSunsetGrid() {
+        this(new SunriseSunset(), 0.5, 10, 4096);
+    }
+
+    /**
+     * @param engine the exact computation
+     * @param spacing the size of a cell in degrees of latitude and of longitude, which 180 must be a
+     *                multiple of
+     * @param maxErrorSeconds the most an interpolated time may be from the exact one at the checked points
+     * @param maxTiles the most tiles kept
+     */
+    public SunriseSunsetGrid(SunriseSunset engine, double spacing, double maxErrorSeconds, int maxTiles) {
+        double cellsPerHalfTurn = 180 / spacing;
+        if (!(spacing > 0) || Math.abs(cellsPerHalfTurn - Math.rint(cellsPerHalfTurn)) > 1e-9) {
+            throw new IllegalArgumentException("spacing must divide 180 degrees: " + spacing);
+        }
+        if (!(maxErrorSeconds >= 0)) {
+            throw new IllegalArgumentException("maxErrorSeconds must not be negative: " + maxErrorSeconds);
+        }
+        if (maxTiles < 1) {
+            throw new IllegalArgumentException("maxTiles must be positive: " + maxTiles);
+        }
+        this.engine = engine;
+        this.spacing = spacing;
+        this.maxErrorSeconds = maxErrorSeconds;
+        this.maxTiles = maxTiles;
+    }
+
+    /**
+     * Same as {@link SunriseSunset#findSunrise(LocalDate, double, double)}, within the error allowed.
+     *
+     * @param date the day, which starts at local mean midnight at the site
+     * @param latitude degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @return the sunrise in seconds since 1970-01-01T00:00Z, or {@link SunriseSunset#POLAR_DAY} or
+     * {@link SunriseSunset#POLAR_NIGHT}
+     */
+    public long findSunrise(LocalDate date, double latitude, double longitude) {
+        return find(date.toEpochDay(), latitude, longitude, true);
+    }
+
+    /**
+     * Same as {@link SunriseSunset#findSunset(LocalDate, double, double)}, within the error allowed.
+     *
+     * @param date the day, which starts at local mean midnight at the site
+     * @param latitude degrees north, negative for south
+     * @param longitude degrees east, negative for west
+     * @return the sunset in seconds since 1970-01-01T00:00Z, or {@link SunriseSunset#POLAR_DAY} or
+     * {@link SunriseSunset#POLAR_NIGHT}
+     */
+    public long findSunset(LocalDate date, double latitude, double longitude) {
+        return find(date.toEpochDay(), latitude, longitude, false);
+    }
+
+    private long find(long epochDay, double latitude, double longitude, boolean rising) {
+        SunriseSunset.checkSite(latitude, longitude);
+        double row = (latitude + 90) / spacing;
+        double column = (longitude + 180) / spacing;
+        int nodeRow = (int) row;
+        int nodeColumn = (int) column;
+        int tileRow = nodeRow / TILE_CELLS;
+        int tileColumn = nodeColumn / TILE_CELLS;
+        int cellRow = nodeRow - tileRow * TILE_CELLS;
+        int cellColumn = nodeColumn - tileColumn * TILE_CELLS;
+
+        Tile tile = tile(epochDay, tileRow, tileColumn);
+        tile.used = true;
+        if (tile.exact[cellRow * TILE_CELLS + cellColumn]) {
+            exactQueries.incrementAndGet();
+            return SunriseSunset.toEpochSecond(engine.event(epochDay, latitude, longitude, rising));
+        }
+        int[] nodes = rising ? tile.sunrises : tile.sunsets;
+        int southWest = cellRow * TILE_NODES + cellColumn;
+        double seconds = interpolate(nodes[southWest], nodes[southWest + 1], nodes[southWest + TILE_NODES],
+                nodes[southWest + TILE_NODES + 1], row - nodeRow, column - nodeColumn);
+        return epochDay * SECONDS_PER_DAY + Math.round(seconds);
+    }
+
+    private static double interpolate(double southWest, double southEast, double northWest, double northEast,
+                                      double north, double east) {
+        double south = southWest + (southEast - southWest) * east;
+        return south + (northWest + (northEast - northWest) * east - south) * north;
+    }
+
+    private Tile tile(long epochDay, int tileRow, int tileColumn) {
+        Long key = (epochDay << 32) | ((long) tileRow << 16) | tileColumn;
+        Tile tile = tiles.get(key);
+        if (tile == null) {
+            tile = fill(epochDay, tileRow, tileColumn);
+            Tile raced = tiles.putIfAbsent(key, tile);
+            if (raced != null) {
+                return raced;
+            }
+            tilesFilled.incrementAndGet();
+            if (tiles.size() > maxTiles) {
+                evict();
+            }
+        }
+        return tile;
+    }
+
+    private Tile fill(long epochDay, int tileRow, int tileColumn) {
+        Tile tile = new Tile();
+        double south = -90 + tileRow * TILE_CELLS * spacing;
+        double west = -180 + tileColumn * TILE_CELLS * spacing;
+        long dayStart = epochDay * SECONDS_PER_DAY;
+        for (int i = 0; i < TILE_NODES; i++) {
+            for (int j = 0; j < TILE_NODES; j++) {
+                double latitude = south + i * spacing;
+                double longitude = west + j * spacing;
+                // past the poles there is nothing to interpolate, the cells are checked exactly below
+                boolean onEarth = latitude <= 90;
+                tile.sunrises[i * TILE_NODES + j] = onEarth
+                        ? toNode(engine.event(epochDay, latitude, longitude, true), dayStart) : NODE_POLAR_NIGHT;
+                tile.sunsets[i * TILE_NODES + j] = onEarth
+                        ? toNode(engine.event(epochDay, latitude, longitude, false), dayStart) : NODE_POLAR_NIGHT;
+            }
+        }
+        for (int i = 0; i < TILE_CELLS; i++) {
+            for (int j = 0; j < TILE_CELLS; j++) {
+                double latitude = south + i * spacing;
+                double longitude = west + j * spacing;
+                tile.exact[i * TILE_CELLS + j] = latitude + spacing > 90
+                        || !interpolates(tile.sunrises, epochDay, i, j, latitude, longitude, true)
+                        || !interpolates(tile.sunsets, epochDay, i, j, latitude, longitude, false);
+            }
+        }
+        return tile;
+    }
+
+    private static int toNode(double seconds, long dayStart) {
+        if (Double.isInfinite(seconds)) {
+            return seconds > 0 ? NODE_POLAR_DAY : NODE_POLAR_NIGHT;
+        }
+        return (int) Math.round(seconds - dayStart);
+    }
+
+    /**
+     * @return true if the cell has no polar corner and its interpolation is within the error allowed
+     * at the centre and at the middle of its south and west edges
+     */
+    private boolean interpolates(int[] nodes, long epochDay, int i, int j, double south, double west,
+                                 boolean rising) {
+        int southWest = i * TILE_NODES + j;
+        int[] corners = {nodes[southWest], nodes[southWest + 1], nodes[southWest + TILE_NODES],
+                nodes[southWest + TILE_NODES + 1]};
+        for (int corner : corners) {
+            if (corner == NODE_POLAR_DAY || corner == NODE_POLAR_NIGHT) {
+                return false;
+            }
+        }
+        for (double[] check : CHECKS) {
+            double exact = engine.event(epochDay, south + check[0] * spacing, west + check[1] * spacing, rising);
+            if (Double.isInfinite(exact)) {
+                return false;
+            }
+            double interpolated = epochDay * SECONDS_PER_DAY
+                    + interpolate(corners[0], corners[1], corners[2], corners[3], check[0], check[1]);
+            if (Math.abs(interpolated - exact) > maxErrorSeconds) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Drops the tiles not used since the last eviction, and marks the others unused, until the map is
+     * back under its limit.  A thread which finds another one evicting leaves it its tile: the size is
+     * checked again after unlocking, so a tile added just as the other one finished isn't left over.
+     */
+    private void evict() {
+        while (tiles.size() > maxTiles && evicting.tryLock()) {
+            try {
+                while (tiles.size() > maxTiles) {
+                    Iterator<Tile> iterator = tiles.values().iterator();
+                    while (iterator.hasNext() && tiles.size() > maxTiles) {
+                        Tile tile = iterator.next();
+                        if (tile.used) {
+                            tile.used = false;
+                        } else {
+                            iterator.remove();
+                        }
+                    }
+                }
+            } finally {
+                evicting.unlock();
+            }
+        }
+    }
+
+    /**
+     * @return the tiles kept now
+     */
+    public int getTileCount() {
+        return tiles.size();
+    }
+
+    /**
+     * @return the tiles filled so far, including those evicted since
+     */
+    public long getTilesFilled() {
+        return tilesFilled.get();
+    }
+
+    /**
+     * @return the queries answered by the exact computation so far
+     */
+    public long getExactQueries() {
+        return exactQueries.get();
+    }
+
+}
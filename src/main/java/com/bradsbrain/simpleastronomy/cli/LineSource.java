@@ -0,0 +1,29 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.cli;
+
+import java.io.IOException;
+
+/**
+ * Where {@link MoonPhaseCli} reads its input from, one line at a time.
+ */
+interface LineSource {
+
+    /**
+     * @return the next line without its line terminator, or null at the end of the input
+     * @throws IOException if the input can't be read
+     */
+    String nextLine() throws IOException;
+
+}
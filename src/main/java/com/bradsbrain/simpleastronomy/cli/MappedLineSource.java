@@ -0,0 +1,95 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.cli;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+
+/**
+ * Reads the lines of a file through memory mapped windows, so files of any size are read without
+ * copying them onto the heap.  Lines are expected to be ASCII, which timestamps are.
+ */
+final class MappedLineSource implements LineSource, Closeable {
+
+    static final int DEFAULT_WINDOW_BYTES = 64 * 1024 * 1024;
+
+    private final FileChannel channel;
+    private final long size;
+    private final int windowBytes;
+
+    private MappedByteBuffer window;
+    private long windowStart;
+    private byte[] line = new byte[128];
+
+    MappedLineSource(Path file) throws IOException {
+        this(file, DEFAULT_WINDOW_BYTES);
+    }
+
+    /**
+     * @param windowBytes how much of the file is mapped at a time, at least as long as the longest line
+     */
+    MappedLineSource(Path file, int windowBytes) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.size = channel.size();
+        this.windowBytes = windowBytes;
+        map(0);
+    }
+
+    public String nextLine() throws IOException {
+        if (windowStart + window.position() >= size) {
+            return null;
+        }
+        int length = 0;
+        while (true) {
+            if (!window.hasRemaining()) {
+                long next = windowStart + window.position();
+                if (next >= size) {
+                    break;
+                }
+                map(next);
+            }
+            byte b = window.get();
+            if (b == '\n') {
+                break;
+            }
+            if (length == line.length) {
+                if (length >= windowBytes) {
+                    throw new IOException("line longer than " + windowBytes + " bytes at offset " + (windowStart + window.position()));
+                }
+                line = Arrays.copyOf(line, length * 2);
+            }
+            line[length++] = b;
+        }
+        if (length > 0 && line[length - 1] == '\r') {
+            length--;
+        }
+        return new String(line, 0, length, StandardCharsets.US_ASCII);
+    }
+
+    private void map(long start) throws IOException {
+        windowStart = start;
+        window = channel.map(FileChannel.MapMode.READ_ONLY, start, Math.min(windowBytes, size - start));
+    }
+
+    public void close() throws IOException {
+        channel.close();
+    }
+
+}
@@ -0,0 +1,521 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.cli;
+
+import com.bradsbrain.simpleastronomy.Ephemeris;
+import com.bradsbrain.simpleastronomy.EphemerisTier;
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+import com.bradsbrain.simpleastronomy.Precision;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.channels.WritableByteChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.TemporalAccessor;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Converts a stream of timestamps, one per line, to the moon phase, the visible fraction and the moon
+ * angle at each of them.
+ * <pre>
+ * java -jar simple-astronomy-lib.jar [--input FILE] [--output FILE] [--format csv|binary]
+ *                                    [--workers N] [--ephemeris low|medium|high] [--zone ZONE]
+ *                                    [--decimals N|raw]
+ * </pre>
+ * A timestamp is either milliseconds since 1970-01-01T00:00Z or ISO-8601: a zoned or offset date time, an
+ * instant, or a local date time or date which is taken in the {@code --zone} (UTC by default).  Blank
+ * lines are skipped.  A file given with {@code --input} is memory mapped, otherwise stdin is read.
+ * <p>
+ * The lines are cut into chunks which the workers convert in parallel, each into its own output
+ * buffer, and the buffers are written to the output channel in input order.  CSV rows are
+ * {@code timestamp,phase,illumination,moon_angle} with the timestamp as it was read and the illumination
+ * to {@code --decimals} decimals (3 by default).  Binary records are {@value #RECORD_BYTES} bytes,
+ * little-endian, with the illumination not rounded:
+ * <pre>
+ * offset  type     value
+ *      0  int64    the instant, milliseconds since 1970-01-01T00:00Z
+ *      8  float64  the visible fraction of the moon, 0 to 1
+ *     16  float64  the moon angle, 0 to 360 degrees
+ *     24  int32    the {@link com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase} ordinal
+ *     28  int32    zero
+ * </pre>
+ * On exit the number of rows, rows per second and the bytes allocated by the conversion are reported on
+ * stderr.  A timestamp that can't be read stops the conversion with its line number.
+ */
+public final class MoonPhaseCli {
+
+    /**
+     * The size of one binary record
+     */
+    public static final int RECORD_BYTES = 32;
+
+    static final int CHUNK_ROWS = 4096;
+
+    static final int EXIT_OK = 0;
+    static final int EXIT_USAGE = 1;
+    static final int EXIT_BAD_INPUT = 2;
+
+    private static final String CSV_HEADER = "timestamp,phase,illumination,moon_angle\n";
+    private static final int CSV_ROW_BYTES = 64;
+
+    private static final List<String> OPTIONS = Arrays.asList("--input", "--output", "--format", "--workers",
+            "--ephemeris", "--zone", "--decimals");
+
+    enum Format {
+        CSV, BINARY
+    }
+
+    private final Ephemeris ephemeris;
+    private final Format format;
+    private final ZoneId zone;
+    private final int workers;
+    private final Precision precision;
+
+    MoonPhaseCli(Ephemeris ephemeris, Format format, ZoneId zone, int workers, Precision precision) {
+        this.ephemeris = ephemeris;
+        this.format = format;
+        this.zone = zone;
+        this.workers = workers;
+        this.precision = precision;
+    }
+
+    /**
+     * Runs the conversion and exits with 0 when done, 1 for bad arguments and 2 for a bad timestamp or
+     * an I/O error.
+     *
+     * @param args the options described above
+     */
+    public static void main(String[] args) {
+        System.exit(run(args, System.in, System.out, System.err));
+    }
+
+    static int run(String[] args, InputStream stdin, OutputStream stdout, PrintStream stderr) {
+        Path input = null;
+        Path output = null;
+        Format format = Format.CSV;
+        int workers = Runtime.getRuntime().availableProcessors();
+        Ephemeris ephemeris = EphemerisTier.LOW.getEphemeris();
+        ZoneId zone = ZoneId.of("UTC");
+        Precision precision = Precision.PER_MILLE;
+        try {
+            for (int i = 0; i < args.length; i++) {
+                String option = args[i];
+                if (!OPTIONS.contains(option)) {
+                    throw new IllegalArgumentException("unknown option " + option);
+                }
+                if (i + 1 == args.length) {
+                    throw new IllegalArgumentException("missing value for " + option);
+                }
+                String value = args[++i];
+                switch (option) {
+                    case "--input":
+                        input = Paths.get(value);
+                        break;
+                    case "--output":
+                        output = Paths.get(value);
+                        break;
+                    case "--format":
+                        format = Format.valueOf(value.toUpperCase(Locale.ROOT));
+                        break;
+                    case "--workers":
+                        workers = Integer.parseInt(value);
+                        if (workers < 1) {
+                            throw new IllegalArgumentException("need at least one worker: " + value);
+                        }
+                        break;
+                    case "--ephemeris":
+                        ephemeris = EphemerisTier.valueOf(value.toUpperCase(Locale.ROOT)).getEphemeris();
+                        break;
+                    case "--zone":
+                        zone = ZoneId.of(value);
+                        break;
+                    case "--decimals":
+                        precision = value.equals("raw") ? Precision.RAW : Precision.decimals(Integer.parseInt(value));
+                        break;
+                }
+            }
+        } catch (RuntimeException e) {
+            stderr.println(e.getMessage());
+            stderr.println("usage: [--input FILE] [--output FILE] [--format csv|binary] [--workers N]"
+                    + " [--ephemeris low|medium|high] [--zone ZONE] [--decimals N|raw]");
+            return EXIT_USAGE;
+        }
+
+        MoonPhaseCli cli = new MoonPhaseCli(ephemeris, format, zone, workers, precision);
+        // only what was opened here is closed, not the caller's streams
+        try (Closeable in = input != null ? new MappedLineSource(input) : null;
+             FileChannel file = output != null
+                     ? FileChannel.open(output, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                     StandardOpenOption.TRUNCATE_EXISTING)
+                     : null) {
+            LineSource lines = in != null ? (LineSource) in : readerSource(stdin);
+            WritableByteChannel out = file != null ? file : Channels.newChannel(stdout);
+            Report report = cli.convert(lines, out);
+            stdout.flush();
+            stderr.println(report);
+            return EXIT_OK;
+        } catch (BadTimestampException e) {
+            stderr.println(e.getMessage());
+            return EXIT_BAD_INPUT;
+        } catch (IOException e) {
+            stderr.println("I/O error: " + e.getMessage());
+            return EXIT_BAD_INPUT;
+        }
+    }
+
+    private static LineSource readerSource(InputStream stdin) {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(stdin, StandardCharsets.US_ASCII), 1 << 16);
+        return reader::readLine;
+    }
+
+    /**
+     * Converts every line and writes the results in input order.
+     *
+     * @return how many rows were written, how fast, and what that allocated
+     */
+    Report convert(LineSource lines, WritableByteChannel out) throws IOException {
+        long start = System.nanoTime();
+        Queue<Long> workerIds = new ConcurrentLinkedQueue<>();
+        ExecutorService pool = Executors.newFixedThreadPool(workers, workerFactory(workerIds));
+        AllocationCounter allocation = new AllocationCounter();
+        allocation.addThread(Thread.currentThread().getId(), false);
+
+        // bounded so a fast reader doesn't pull the whole input into memory ahead of the workers
+        ArrayDeque<Future<Encoded>> pending = new ArrayDeque<>();
+        int maxPending = workers * 2;
+        long rows = 0;
+        try {
+            if (format == Format.CSV) {
+                write(out, ByteBuffer.wrap(CSV_HEADER.getBytes(StandardCharsets.US_ASCII)));
+            }
+            long lineNumber = 0;
+            List<String> chunk = new ArrayList<>(CHUNK_ROWS);
+            long chunkFirstLine = 1;
+            String line;
+            while ((line = lines.nextLine()) != null) {
+                lineNumber++;
+                if (chunk.isEmpty()) {
+                    chunkFirstLine = lineNumber;
+                }
+                chunk.add(line);
+                if (chunk.size() == CHUNK_ROWS) {
+                    pending.add(submit(pool, chunk, chunkFirstLine));
+                    chunk = new ArrayList<>(CHUNK_ROWS);
+                    if (pending.size() >= maxPending) {
+                        rows += writeNext(pending, out);
+                    }
+                }
+            }
+            if (!chunk.isEmpty()) {
+                pending.add(submit(pool, chunk, chunkFirstLine));
+            }
+            while (!pending.isEmpty()) {
+                rows += writeNext(pending, out);
+            }
+            for (Long id : workerIds) {
+                allocation.addThread(id, true);
+            }
+            return new Report(rows, System.nanoTime() - start, allocation.allocatedBytes());
+        } finally {
+            for (Future<Encoded> future : pending) {
+                future.cancel(true);
+            }
+            pool.shutdownNow();
+        }
+    }
+
+    private Future<Encoded> submit(ExecutorService pool, List<String> chunk, long firstLine) {
+        return pool.submit(() -> format == Format.CSV ? toCsv(chunk, firstLine) : toBinary(chunk, firstLine));
+    }
+
+    /**
+     * Waits for the oldest chunk and writes it.
+     *
+     * @return the rows in the chunk
+     */
+    private int writeNext(ArrayDeque<Future<Encoded>> pending, WritableByteChannel out) throws IOException {
+        Encoded encoded;
+        try {
+            encoded = pending.remove().get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IOException("interrupted", e);
+        } catch (ExecutionException e) {
+            // the workers convert a row's failures to a BadTimestampException, anything else is a bug
+            // or out of memory, which still ends the run the same way
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new IOException("conversion failed: " + e.getCause(), e.getCause());
+        }
+        write(out, encoded.bytes);
+        return encoded.rows;
+    }
+
+    private static void write(WritableByteChannel out, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            out.write(buffer);
+        }
+    }
+
+    Encoded toCsv(List<String> chunk, long firstLine) throws BadTimestampException {
+        StringBuilder csv = new StringBuilder(chunk.size() * CSV_ROW_BYTES);
+        int rows = 0;
+        for (int i = 0; i < chunk.size(); i++) {
+            String timestamp = chunk.get(i).trim();
+            if (timestamp.isEmpty()) {
+                continue;
+            }
+            ZonedDateTime cal = parse(timestamp, firstLine + i);
+            try {
+                double angle = MoonPhaseFinder.getMoonAngle(cal, ephemeris);
+                MoonPhaseFinder.MoonPhase phase = MoonPhaseFinder.findMoonPhaseAt(cal, ephemeris, angle);
+                csv.append(timestamp).append(',')
+                        .append(phase).append(',')
+                        .append(MoonPhaseFinder.getMoonVisiblePercent(angle, precision)).append(',')
+                        .append(angle).append('\n');
+            } catch (RuntimeException e) {
+                throw cantConvert(timestamp, firstLine + i, e);
+            }
+            rows++;
+        }
+        return new Encoded(ByteBuffer.wrap(csv.toString().getBytes(StandardCharsets.US_ASCII)), rows);
+    }
+
+    Encoded toBinary(List<String> chunk, long firstLine) throws BadTimestampException {
+        ByteBuffer buffer = ByteBuffer.allocate(chunk.size() * RECORD_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < chunk.size(); i++) {
+            String timestamp = chunk.get(i).trim();
+            if (timestamp.isEmpty()) {
+                continue;
+            }
+            ZonedDateTime cal = parse(timestamp, firstLine + i);
+            try {
+                double angle = MoonPhaseFinder.getMoonAngle(cal, ephemeris);
+                MoonPhaseFinder.MoonPhase phase = MoonPhaseFinder.findMoonPhaseAt(cal, ephemeris, angle);
+                buffer.putLong(cal.toInstant().toEpochMilli())
+                        .putDouble(MoonPhaseFinder.getMoonVisiblePercent(angle, Precision.RAW))
+                        .putDouble(angle)
+                        .putInt(phase.ordinal())
+                        .putInt(0);
+            } catch (RuntimeException e) {
+                throw cantConvert(timestamp, firstLine + i, e);
+            }
+        }
+        buffer.flip();
+        return new Encoded(buffer, buffer.remaining() / RECORD_BYTES);
+    }
+
+    private ZonedDateTime parse(String timestamp, long lineNumber) throws BadTimestampException {
+        try {
+            return parseTimestamp(timestamp, zone);
+        } catch (DateTimeException | ArithmeticException e) {
+            // DateTimeException also covers the timestamps which parse but are outside the supported range
+            throw new BadTimestampException("line " + lineNumber + ": can't read timestamp '" + timestamp + "'");
+        }
+    }
+
+    /**
+     * For a timestamp which was read but the conversion failed on, such as one too far from today for
+     * the phase searches.
+     */
+    private static BadTimestampException cantConvert(String timestamp, long lineNumber, RuntimeException e) {
+        return new BadTimestampException("line " + lineNumber + ": can't convert timestamp '" + timestamp + "': " + e);
+    }
+
+    /**
+     * @param timestamp epoch milliseconds or ISO-8601
+     * @param zone the zone of epoch milliseconds, local date times and dates
+     * @return the timestamp, with its own zone or offset if it had one
+     */
+    static ZonedDateTime parseTimestamp(String timestamp, ZoneId zone) {
+        if (isEpochMilli(timestamp)) {
+            return ZonedDateTime.ofInstant(Instant.ofEpochMilli(Long.parseLong(timestamp)), zone);
+        }
+        if (timestamp.length() == 10) {
+            return LocalDate.parse(timestamp).atStartOfDay(zone);
+        }
+        TemporalAccessor parsed = DateTimeFormatter.ISO_DATE_TIME.parseBest(timestamp,
+                ZonedDateTime::from, LocalDateTime::from);
+        if (parsed instanceof ZonedDateTime) {
+            return (ZonedDateTime) parsed;
+        }
+        return ((LocalDateTime) parsed).atZone(zone);
+    }
+
+    private static boolean isEpochMilli(String timestamp) {
+        int start = timestamp.startsWith("-") ? 1 : 0;
+        if (timestamp.length() == start || timestamp.length() > 18) {
+            return false;
+        }
+        for (int i = start; i < timestamp.length(); i++) {
+            if (!Character.isDigit(timestamp.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static ThreadFactory workerFactory(final Queue<Long> workerIds) {
+        final AtomicInteger count = new AtomicInteger();
+        return runnable -> {
+            Thread worker = new Thread(runnable, "moon-phase-cli-" + count.incrementAndGet());
+            worker.setDaemon(true);
+            workerIds.add(worker.getId());
+            return worker;
+        };
+    }
+
+    /**
+     * The output of one chunk.
+     */
+    static final class Encoded {
+        final ByteBuffer bytes;
+        final int rows;
+
+        Encoded(ByteBuffer bytes, int rows) {
+            this.bytes = bytes;
+            this.rows = rows;
+        }
+    }
+
+    /**
+     * Thrown by a worker for a timestamp it can't read.
+     */
+    static final class BadTimestampException extends IOException {
+        private static final long serialVersionUID = 1L;
+
+        BadTimestampException(String message) {
+            super(message);
+        }
+    }
+
+    /**
+     * Sums the bytes allocated by a set of threads, where the JVM can tell (HotSpot can).
+     */
+    private static final class AllocationCounter {
+
+        private final List<Long> threadIds = new ArrayList<>();
+        private final List<Long> startBytes = new ArrayList<>();
+        private final com.sun.management.ThreadMXBean threads;
+
+        AllocationCounter() {
+            ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+            com.sun.management.ThreadMXBean sunBean = null;
+            if (bean instanceof com.sun.management.ThreadMXBean) {
+                sunBean = (com.sun.management.ThreadMXBean) bean;
+                if (!sunBean.isThreadAllocatedMemorySupported() || !sunBean.isThreadAllocatedMemoryEnabled()) {
+                    sunBean = null;
+                }
+            }
+            this.threads = sunBean;
+        }
+
+        /**
+         * @param fromStart count everything the thread allocated, for a worker started for the conversion,
+         *                  otherwise only what it allocates from now on
+         */
+        void addThread(long id, boolean fromStart) {
+            threadIds.add(id);
+            startBytes.add(fromStart || threads == null ? 0L : threads.getThreadAllocatedBytes(id));
+        }
+
+        /**
+         * @return the bytes allocated, or -1 if the JVM can't tell
+         */
+        long allocatedBytes() {
+            if (threads == null) {
+                return -1;
+            }
+            long total = 0;
+            for (int i = 0; i < threadIds.size(); i++) {
+                long bytes = threads.getThreadAllocatedBytes(threadIds.get(i));
+                if (bytes > 0) {
+                    total += bytes - startBytes.get(i);
+                }
+            }
+            return total;
+        }
+    }
+
+    /**
+     * The throughput of a conversion, printed on exit.
+     */
+    static final class Report {
+
+        private final long rows;
+        private final long elapsedNanos;
+        private final long allocatedBytes;
+
+        Report(long rows, long elapsedNanos, long allocatedBytes) {
+            this.rows = rows;
+            this.elapsedNanos = elapsedNanos;
+            this.allocatedBytes = allocatedBytes;
+        }
+
+        long getRows() {
+            return rows;
+        }
+
+        double getRowsPerSecond() {
+            return rows * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            String summary = String.format(Locale.ROOT, "%d rows in %.3f s (%.0f rows/s)",
+                    rows, elapsedNanos / 1e9, getRowsPerSecond());
+            if (allocatedBytes < 0) {
+                return summary + ", allocation rate not available";
+            }
+            return summary + String.format(Locale.ROOT, ", allocated %.1f MB (%.1f MB/s, %d bytes/row)",
+                    allocatedBytes / 1e6, allocatedBytes * 1e3 / elapsedNanos,
+                    rows == 0 ? 0 : allocatedBytes / rows);
+        }
+    }
+
+}
@@ -0,0 +1,84 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import com.bradsbrain.simpleastronomy.MoonApsides;
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+import com.bradsbrain.simpleastronomy.SeasonFinder;
+
+import java.time.ZonedDateTime;
+
+/**
+ * The events {@link PhaseEventScheduler} can notify about, each with the finder which computes it.
+ */
+public enum AstronomicalEvent {
+
+    NEW_MOON {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return MoonPhaseFinder.findNewMoonFollowing(cal);
+        }
+    },
+    FIRST_QUARTER {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return MoonPhaseFinder.findFirsQuarterFollowing(cal);
+        }
+    },
+    FULL_MOON {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return MoonPhaseFinder.findFullMoonFollowing(cal);
+        }
+    },
+    LAST_QUARTER {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return MoonPhaseFinder.findLastQuarterFollowing(cal);
+        }
+    },
+    MARCH_EQUINOX {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return SeasonFinder.findMarchEquinoxFollowing(cal);
+        }
+    },
+    JUNE_SOLSTICE {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return SeasonFinder.findJuneSolsticeFollowing(cal);
+        }
+    },
+    SEPTEMBER_EQUINOX {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return SeasonFinder.findSeptemberEquinoxFollowing(cal);
+        }
+    },
+    DECEMBER_SOLSTICE {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return SeasonFinder.findDecemberSolsticeFollowing(cal);
+        }
+    },
+    PERIGEE {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return MoonApsides.findPerigeeFollowing(cal);
+        }
+    },
+    APOGEE {
+        ZonedDateTime findFollowing(ZonedDateTime cal) {
+            return MoonApsides.findApogeeFollowing(cal);
+        }
+    };
+
+    /**
+     * @param cal the date to search from
+     * @return the first such event after the given date, rounded to the minute
+     */
+    abstract ZonedDateTime findFollowing(ZonedDateTime cal);
+
+}
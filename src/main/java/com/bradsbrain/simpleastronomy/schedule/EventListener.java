@@ -0,0 +1,32 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import java.time.ZonedDateTime;
+
+/**
+ * Called by {@link PhaseEventScheduler} when an event a subscription is waiting for comes.
+ */
+public interface EventListener {
+
+    /**
+     * Called on the scheduler's thread, so it should return quickly and hand any slow work to
+     * another thread.
+     *
+     * @param event the event
+     * @param time when it happens, in UTC, which is later than now if the subscription has a lead time
+     */
+    void onEvent(AstronomicalEvent event, ZonedDateTime time);
+
+}
@@ -0,0 +1,220 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import java.io.Closeable;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.LongSupplier;
+
+/**
+ * Calls listeners when moon phases, equinoxes, solstices, perigees and apogees come, or some time
+ * before, instead of having them poll the moon angle.
+ * <p>
+ * Each occurrence of an event is computed once with the library's finders, however many subscriptions
+ * wait for it, and the subscriptions are kept in a {@link TimerWheel} run by a single daemon thread,
+ * one tick per second by default.  Subscribing and cancelling are O(1) from any thread: they are
+ * queued, and the thread takes them into the wheel on its next tick.  Listeners are called on that
+ * thread, an exception thrown by one goes to the thread's uncaught exception handler and the others
+ * are still called.
+ */
+public final class PhaseEventScheduler implements Closeable {
+
+    public static final long DEFAULT_TICK_MILLIS = 1000;
+
+    /**
+     * Buckets in the wheel, a turn of a bit more than 17 minutes with the default tick
+     */
+    public static final int DEFAULT_WHEEL_SIZE = 1024;
+
+    /**
+     * Occurrences are kept this long after they passed, so a subscription is never asked about an
+     * occurrence already forgotten
+     */
+    private static final long FORGET_AFTER_MILLIS = 24 * 3600 * 1000;
+
+    private final LongSupplier clock;
+    private final long tickMillis;
+    private final long startMillis;
+    private final TimerWheel wheel;
+    private final UpcomingEvents upcoming;
+    private final Queue<Subscription> subscribed = new ConcurrentLinkedQueue<>();
+    private final Queue<Subscription> cancelled = new ConcurrentLinkedQueue<>();
+    private final List<Subscription> expired = new ArrayList<>();
+    private final Thread thread;
+    private volatile boolean closed;
+    private volatile int waiting;
+
+    /**
+     * Creates a scheduler on the system clock and starts its thread.
+     */
+    public PhaseEventScheduler() {
+        this(System::currentTimeMillis, DEFAULT_TICK_MILLIS, DEFAULT_WHEEL_SIZE);
+        thread.start();
+    }
+
+    /**
+     * Creates a scheduler whose thread isn't started, so a test can call {@link #advanceTo} instead.
+     *
+     * @param clock the current time in milliseconds since the java epoch
+     * @param tickMillis the resolution of the wheel
+     * @param wheelSize buckets in the wheel, a power of two
+     */
+    PhaseEventScheduler(LongSupplier clock, long tickMillis, int wheelSize) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("tick must be at least a millisecond: " + tickMillis);
+        }
+        this.clock = clock;
+        this.tickMillis = tickMillis;
+        this.startMillis = clock.getAsLong();
+        this.wheel = new TimerWheel(wheelSize);
+        this.upcoming = new UpcomingEvents(startMillis);
+        this.thread = new Thread(this::run, "phase-event-scheduler");
+        thread.setDaemon(true);
+    }
+
+    /**
+     * Same as {@link #subscribe(AstronomicalEvent, Duration, EventListener)} without a lead time.
+     *
+     * @param event the event to be told about
+     * @param listener called at each occurrence
+     * @return the subscription, to cancel it
+     */
+    public Subscription subscribe(AstronomicalEvent event, EventListener listener) {
+        return subscribe(event, Duration.ZERO, listener);
+    }
+
+    /**
+     * Calls the listener at every occurrence of the event from now on, minus the lead time.
+     *
+     * @param event the event to be told about
+     * @param lead how long before each occurrence to call the listener, zero or more
+     * @param listener called for each occurrence
+     * @return the subscription, to cancel it
+     */
+    public Subscription subscribe(AstronomicalEvent event, Duration lead, EventListener listener) {
+        if (lead.isNegative()) {
+            throw new IllegalArgumentException("lead must not be negative: " + lead);
+        }
+        if (closed) {
+            throw new IllegalStateException("the scheduler is closed");
+        }
+        Subscription subscription = new Subscription(this, event, lead.toMillis(), listener);
+        subscribed.add(subscription);
+        return subscription;
+    }
+
+    /**
+     * Stops the thread, no listener is called afterwards.
+     */
+    @Override
+    public void close() {
+        closed = true;
+        thread.interrupt();
+    }
+
+    void cancelled(Subscription subscription) {
+        cancelled.add(subscription);
+    }
+
+    /**
+     * @return how many subscriptions were waiting in the wheel after the last tick
+     */
+    int size() {
+        return waiting;
+    }
+
+    /**
+     * @return how many occurrences were computed
+     */
+    long computations() {
+        return upcoming.computations();
+    }
+
+    /**
+     * Runs every tick up to the given time, on the calling thread.
+     *
+     * @param millis milliseconds since the java epoch
+     */
+    void advanceTo(long millis) {
+        while (!closed && tickStart(wheel.currentTick()) <= millis) {
+            runTick();
+        }
+    }
+
+    private void run() {
+        try {
+            while (!closed) {
+                long wait = tickStart(wheel.currentTick()) - clock.getAsLong();
+                if (wait > 0) {
+                    Thread.sleep(wait);
+                } else {
+                    runTick();
+                }
+            }
+        } catch (InterruptedException e) {
+            // closed
+        }
+    }
+
+    private long tickStart(long tick) {
+        return startMillis + tick * tickMillis;
+    }
+
+    private void runTick() {
+        long now = tickStart(wheel.currentTick());
+        Subscription subscription;
+        while ((subscription = cancelled.poll()) != null) {
+            wheel.remove(subscription);
+        }
+        while ((subscription = subscribed.poll()) != null) {
+            if (!subscription.isCancelled()) {
+                schedule(subscription, upcoming.nextAfter(subscription.getEvent(), now + subscription.getLeadMillis()));
+            }
+        }
+
+        wheel.expire(expired);
+        for (Subscription due : expired) {
+            if (due.isCancelled()) {
+                continue;
+            }
+            try {
+                due.getListener().onEvent(due.getEvent(),
+                        ZonedDateTime.ofInstant(Instant.ofEpochMilli(due.occurrence), ZoneOffset.UTC));
+            } catch (RuntimeException e) {
+                Thread current = Thread.currentThread();
+                current.getUncaughtExceptionHandler().uncaughtException(current, e);
+            }
+            if (!due.isCancelled()) {
+                schedule(due, upcoming.nextAfter(due.getEvent(), due.occurrence));
+            }
+        }
+        expired.clear();
+        upcoming.forget(now - FORGET_AFTER_MILLIS);
+        waiting = wheel.size();
+    }
+
+    private void schedule(Subscription subscription, long occurrence) {
+        subscription.occurrence = occurrence;
+        long deadline = occurrence - subscription.getLeadMillis();
+        wheel.add(subscription, Math.floorDiv(deadline - startMillis + tickMillis - 1, tickMillis));
+    }
+
+}
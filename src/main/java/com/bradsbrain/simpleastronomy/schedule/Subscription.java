@@ -0,0 +1,82 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * A listener waiting for every occurrence of an event, until it is cancelled.
+ * <p>
+ * It is also the entry of its {@link TimerWheel} bucket, so scheduling and cancelling it allocate nothing.
+ */
+public final class Subscription {
+
+    private final PhaseEventScheduler scheduler;
+    private final AstronomicalEvent event;
+    private final long leadMillis;
+    private final EventListener listener;
+    private final AtomicBoolean cancelled = new AtomicBoolean();
+
+    /**
+     * The occurrence the subscription is waiting for, in milliseconds since the java epoch, only used
+     * by the scheduler's thread
+     */
+    long occurrence;
+
+    // the wheel bucket, only used by the scheduler's thread
+    Subscription previous;
+    Subscription next;
+    int bucket = -1;
+    long rounds;
+
+    Subscription(PhaseEventScheduler scheduler, AstronomicalEvent event, long leadMillis, EventListener listener) {
+        this.scheduler = scheduler;
+        this.event = event;
+        this.leadMillis = leadMillis;
+        this.listener = listener;
+    }
+
+    public AstronomicalEvent getEvent() {
+        return event;
+    }
+
+    /**
+     * @return how long before each occurrence the listener is called, in milliseconds
+     */
+    public long getLeadMillis() {
+        return leadMillis;
+    }
+
+    EventListener getListener() {
+        return listener;
+    }
+
+    public boolean isCancelled() {
+        return cancelled.get();
+    }
+
+    /**
+     * Stops the notifications.  A notification already being delivered may still complete.
+     *
+     * @return false if it was already cancelled
+     */
+    public boolean cancel() {
+        if (!cancelled.compareAndSet(false, true)) {
+            return false;
+        }
+        scheduler.cancelled(this);
+        return true;
+    }
+
+}
@@ -0,0 +1,117 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import java.util.List;
+
+/**
+ * A hashed timer wheel: a ring of buckets, one per tick, each holding a doubly linked list of the
+ * subscriptions due on a tick which falls in it.  Those due further than a turn of the wheel away
+ * count the turns left down each time their bucket comes round.
+ * <p>
+ * Adding and removing are O(1), and each tick only visits one bucket.  Not thread safe, it belongs
+ * to the scheduler's thread.
+ */
+final class TimerWheel {
+
+    private final Subscription[] buckets;
+    private final int mask;
+    private long currentTick;
+    private int size;
+
+    /**
+     * @param buckets the number of ticks in a turn of the wheel, a power of two
+     */
+    TimerWheel(int buckets) {
+        if (buckets < 1 || Integer.bitCount(buckets) != 1) {
+            throw new IllegalArgumentException("buckets must be a power of two: " + buckets);
+        }
+        this.buckets = new Subscription[buckets];
+        this.mask = buckets - 1;
+    }
+
+    /**
+     * @return the tick the next call to {@link #expire} handles
+     */
+    long currentTick() {
+        return currentTick;
+    }
+
+    /**
+     * @return how many subscriptions are in the wheel
+     */
+    int size() {
+        return size;
+    }
+
+    /**
+     * @param subscription a subscription not in the wheel
+     * @param deadlineTick the tick it is due on, the current tick if it is already past
+     */
+    void add(Subscription subscription, long deadlineTick) {
+        long ticks = Math.max(deadlineTick, currentTick) - currentTick;
+        int bucket = (int) ((currentTick + ticks) & mask);
+        subscription.rounds = ticks / buckets.length;
+        subscription.bucket = bucket;
+        subscription.previous = null;
+        subscription.next = buckets[bucket];
+        if (subscription.next != null) {
+            subscription.next.previous = subscription;
+        }
+        buckets[bucket] = subscription;
+        size++;
+    }
+
+    /**
+     * @param subscription a subscription, which may or may not be in the wheel
+     */
+    void remove(Subscription subscription) {
+        if (subscription.bucket < 0) {
+            return;
+        }
+        if (subscription.previous != null) {
+            subscription.previous.next = subscription.next;
+        } else {
+            buckets[subscription.bucket] = subscription.next;
+        }
+        if (subscription.next != null) {
+            subscription.next.previous = subscription.previous;
+        }
+        subscription.previous = null;
+        subscription.next = null;
+        subscription.bucket = -1;
+        size--;
+    }
+
+    /**
+     * Removes the subscriptions due on the current tick, and moves on to the next tick.
+     *
+     * @param expired where to put them
+     */
+    void expire(List<Subscription> expired) {
+        Subscription subscription = buckets[(int) (currentTick & mask)];
+        while (subscription != null) {
+            Subscription next = subscription.next;
+            if (subscription.rounds <= 0) {
+                remove(subscription);
+                expired.add(subscription);
+            } else {
+                subscription.rounds--;
+            }
+            subscription = next;
+        }
+        currentTick++;
+    }
+
+}
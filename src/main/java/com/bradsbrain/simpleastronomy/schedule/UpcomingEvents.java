@@ -0,0 +1,103 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The occurrences of each event from the start of the scheduler, computed once however many
+ * subscriptions wait for them, and forgotten once they are well past.  Only used by the scheduler's
+ * thread.
+ */
+final class UpcomingEvents {
+
+    /**
+     * The finders round to the minute, so searching again from the rounded time could find the same
+     * event
+     */
+    private static final long AFTER_ROUNDED_MILLIS = 60 * 1000;
+
+    private final long startMillis;
+    private final Map<AstronomicalEvent, List<Long>> occurrences = new EnumMap<>(AstronomicalEvent.class);
+    private long computations;
+
+    /**
+     * @param startMillis no occurrence before this is ever asked for
+     */
+    UpcomingEvents(long startMillis) {
+        this.startMillis = startMillis;
+        for (AstronomicalEvent event : AstronomicalEvent.values()) {
+            occurrences.put(event, new ArrayList<>());
+        }
+    }
+
+    /**
+     * @param event the event
+     * @param afterMillis an instant no earlier than the oldest occurrence not yet forgotten
+     * @return the first occurrence after it, in milliseconds since the java epoch
+     */
+    long nextAfter(AstronomicalEvent event, long afterMillis) {
+        List<Long> known = occurrences.get(event);
+        if (known.isEmpty()) {
+            known.add(compute(event, startMillis));
+        }
+        for (Long occurrence : known) {
+            if (occurrence > afterMillis) {
+                return occurrence;
+            }
+        }
+        long last = known.get(known.size() - 1);
+        while (last <= afterMillis) {
+            last = compute(event, last + AFTER_ROUNDED_MILLIS);
+            known.add(last);
+        }
+        return last;
+    }
+
+    /**
+     * Drops the occurrences before the given instant, except the last of each event which the next
+     * one is searched from.
+     */
+    void forget(long beforeMillis) {
+        for (List<Long> known : occurrences.values()) {
+            int past = 0;
+            while (past < known.size() - 1 && known.get(past) < beforeMillis) {
+                past++;
+            }
+            if (past > 0) {
+                known.subList(0, past).clear();
+            }
+        }
+    }
+
+    /**
+     * @return how many times a finder was called
+     */
+    long computations() {
+        return computations;
+    }
+
+    private long compute(AstronomicalEvent event, long fromMillis) {
+        computations++;
+        ZonedDateTime from = ZonedDateTime.ofInstant(Instant.ofEpochMilli(fromMillis), ZoneOffset.UTC);
+        return event.findFollowing(from).toInstant().toEpochMilli();
+    }
+
+}
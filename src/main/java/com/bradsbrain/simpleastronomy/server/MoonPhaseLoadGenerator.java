@@ -0,0 +1,203 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.server;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Measures the throughput of a {@link MoonPhaseServer} by sending batches of random times between
+ * 1900 and 2100 from several threads for a while.
+ */
+public final class MoonPhaseLoadGenerator {
+
+    private static final long FIRST_SECOND = -2208988800L;
+    private static final long LAST_SECOND = 4102444800L;
+
+    private static final String LOCAL = "local";
+
+    /**
+     * What a run of the load generator did.
+     */
+    public static final class Result {
+
+        private final long requests;
+        private final long times;
+        private final long errors;
+        private final long elapsedNanos;
+
+        Result(long requests, long times, long errors, long elapsedNanos) {
+            this.requests = requests;
+            this.times = times;
+            this.errors = errors;
+            this.elapsedNanos = elapsedNanos;
+        }
+
+        /**
+         * @return the requests which got a complete answer
+         */
+        public long getRequests() {
+            return requests;
+        }
+
+        /**
+         * @return the times answered, over all requests
+         */
+        public long getTimes() {
+            return times;
+        }
+
+        /**
+         * @return the requests which failed or got an incomplete answer
+         */
+        public long getErrors() {
+            return errors;
+        }
+
+        public double getRequestsPerSecond() {
+            return requests * 1e9 / elapsedNanos;
+        }
+
+        public double getTimesPerSecond() {
+            return times * 1e9 / elapsedNanos;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%d requests (%.0f/s), %d times (%.0f/s), %d errors",
+                    requests, getRequestsPerSecond(), times, getTimesPerSecond(), errors);
+        }
+    }
+
+    private MoonPhaseLoadGenerator() {
+    }
+
+    /**
+     * Sends POST requests until the duration is over.
+     *
+     * @param url the query to load, e.g. {@code http://localhost:8411/full-moon}
+     * @param threads how many requests are in flight at the same time
+     * @param duration how long to send requests for
+     * @param batchSize how many times are sent per request
+     * @return what was sent
+     * @throws InterruptedException if interrupted while waiting for the sending threads
+     */
+    public static Result run(final URL url, int threads, Duration duration, final int batchSize)
+            throws InterruptedException {
+        final AtomicLong requests = new AtomicLong();
+        final AtomicLong errors = new AtomicLong();
+        final long start = System.nanoTime();
+        final long end = start + duration.toNanos();
+
+        List<Thread> senders = new ArrayList<>();
+        for (int i = 0; i < threads; i++) {
+            Thread sender = new Thread(() -> {
+                while (System.nanoTime() - end < 0) {
+                    if (send(url, batchSize)) {
+                        requests.incrementAndGet();
+                    } else {
+                        errors.incrementAndGet();
+                    }
+                }
+            }, "moon-phase-load-" + i);
+            senders.add(sender);
+            sender.start();
+        }
+        for (Thread sender : senders) {
+            sender.join();
+        }
+        long elapsed = System.nanoTime() - start;
+        return new Result(requests.get(), requests.get() * batchSize, errors.get(), elapsed);
+    }
+
+    /**
+     * @return true if the request was answered with one line per time
+     */
+    private static boolean send(URL url, int batchSize) {
+        StringBuilder body = new StringBuilder(batchSize * 12);
+        for (int i = 0; i < batchSize; i++) {
+            body.append(ThreadLocalRandom.current().nextLong(FIRST_SECOND, LAST_SECOND)).append('\n');
+        }
+        try {
+            HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+            connection.setRequestMethod("POST");
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.toString().getBytes(StandardCharsets.UTF_8));
+            }
+            if (connection.getResponseCode() != 200) {
+                if (connection.getErrorStream() != null) {
+                    connection.getErrorStream().close();
+                }
+                return false;
+            }
+            int lines = 0;
+            try (BufferedReader in = new BufferedReader(
+                    new InputStreamReader(connection.getInputStream(), StandardCharsets.UTF_8))) {
+                while (in.readLine() != null) {
+                    lines++;
+                }
+            }
+            return lines == batchSize;
+        } catch (IOException e) {
+            return false;
+        }
+    }
+
+    /**
+     * Loads a server and prints the throughput.
+     *
+     * @param args the URL of the query, or {@value #LOCAL} to start a server in this process, the number of
+     *             threads, the number of seconds and the batch size
+     * @throws Exception if the local server can't be started
+     */
+    public static void main(String[] args) throws Exception {
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        Duration duration = Duration.ofSeconds(args.length > 2 ? Long.parseLong(args[2]) : 10);
+        int batchSize = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+
+        MoonPhaseServer localServer = null;
+        URL url;
+        if (args.length > 0 && !args[0].equals(LOCAL)) {
+            url = new URL(args[0]);
+        } else {
+            InetAddress loopback = InetAddress.getLoopbackAddress();
+            localServer = new MoonPhaseServer(new InetSocketAddress(loopback, 0), threads);
+            localServer.start();
+            url = new URL("http", loopback.getHostAddress(), localServer.getPort(), MoonPhaseQuery.FULL_MOON.getPath());
+        }
+        try {
+            System.out.println("Loading " + url + " from " + threads + " threads for " + duration.getSeconds()
+                    + " s with " + batchSize + " times per request");
+            System.out.println(run(url, threads, duration, batchSize));
+        } finally {
+            if (localServer != null) {
+                localServer.close();
+            }
+        }
+    }
+
+}
@@ -0,0 +1,79 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.server;
+
+import com.bradsbrain.simpleastronomy.Ephemeris;
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+
+/**
+ * The {@link MoonPhaseFinder} methods answered by {@link MoonPhaseServer}, one per path.
+ */
+enum MoonPhaseQuery {
+
+    VISIBLE_PERCENT("/visible-percent") {
+        String answer(ZonedDateTime cal, Ephemeris ephemeris) {
+            return String.valueOf(MoonPhaseFinder.getMoonVisiblePercent(cal, ephemeris));
+        }
+    },
+    PHASE("/phase") {
+        String answer(ZonedDateTime cal, Ephemeris ephemeris) {
+            return MoonPhaseFinder.findMoonPhaseAt(cal, ephemeris).name();
+        }
+    },
+    NEW_MOON("/new-moon") {
+        String answer(ZonedDateTime cal, Ephemeris ephemeris) {
+            return format(MoonPhaseFinder.findNewMoonFollowing(cal, ephemeris));
+        }
+    },
+    FIRST_QUARTER("/first-quarter") {
+        String answer(ZonedDateTime cal, Ephemeris ephemeris) {
+            return format(MoonPhaseFinder.findFirsQuarterFollowing(cal, ephemeris));
+        }
+    },
+    FULL_MOON("/full-moon") {
+        String answer(ZonedDateTime cal, Ephemeris ephemeris) {
+            return format(MoonPhaseFinder.findFullMoonFollowing(cal, ephemeris));
+        }
+    },
+    LAST_QUARTER("/last-quarter") {
+        String answer(ZonedDateTime cal, Ephemeris ephemeris) {
+            return format(MoonPhaseFinder.findLastQuarterFollowing(cal, ephemeris));
+        }
+    };
+
+    private final String path;
+
+    MoonPhaseQuery(String path) {
+        this.path = path;
+    }
+
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * @param cal the input date
+     * @param ephemeris the sun and moon theory to use
+     * @return the answer as a single line of text
+     */
+    abstract String answer(ZonedDateTime cal, Ephemeris ephemeris);
+
+    private static String format(ZonedDateTime date) {
+        return DateTimeFormatter.ISO_ZONED_DATE_TIME.format(date);
+    }
+
+}
@@ -0,0 +1,250 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.server;
+
+import com.bradsbrain.simpleastronomy.Ephemeris;
+import com.bradsbrain.simpleastronomy.EphemerisTier;
+import com.sun.net.httpserver.HttpExchange;
+import com.sun.net.httpserver.HttpServer;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStream;
+import java.io.UnsupportedEncodingException;
+import java.net.InetSocketAddress;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A small HTTP server answering moon phase queries, using only the JDK.
+ * <p>
+ * Each query has its own path:
+ * <ul>
+ * <li>{@code /visible-percent} - {@link com.bradsbrain.simpleastronomy.MoonPhaseFinder#getMoonVisiblePercent}</li>
+ * <li>{@code /phase} - {@link com.bradsbrain.simpleastronomy.MoonPhaseFinder#findMoonPhaseAt}</li>
+ * <li>{@code /new-moon}, {@code /first-quarter}, {@code /full-moon} and {@code /last-quarter} - the
+ * {@code find*Following} methods</li>
+ * </ul>
+ * A request carries a batch of times, either as repeated {@code t} parameters of a GET or one per line
+ * in the body of a POST.  A time is an ISO date-time with an offset or zone
+ * ({@code 2015-12-25T11:11:00Z}, a {@code +} in a parameter must be sent as {@code %2B}) or a number of
+ * seconds since 1970-01-01T00:00Z.  The optional {@code ephemeris} parameter picks an
+ * {@link EphemerisTier}, LOW by default.
+ * <p>
+ * The answer is plain text, one line per time in the same order.  Malformed requests get a 400 with
+ * the reason.  Requests are answered by a fixed pool of threads, which all share the lunation index
+ * behind the phase searches.
+ */
+public final class MoonPhaseServer implements Closeable {
+
+    public static final int DEFAULT_PORT = 8411;
+
+    /**
+     * The most times accepted in one request
+     */
+    public static final int MAX_BATCH = 10000;
+
+    private static final String TIME_PARAMETER = "t";
+    private static final String EPHEMERIS_PARAMETER = "ephemeris";
+
+    private final HttpServer server;
+    private final ExecutorService executor;
+
+    /**
+     * Creates a server, which doesn't accept requests until {@link #start()} is called.
+     *
+     * @param address where to listen, port 0 picks a free port
+     * @param threads how many requests are answered at the same time
+     * @throws IOException if the address can't be bound
+     */
+    public MoonPhaseServer(InetSocketAddress address, int threads) throws IOException {
+        if (threads < 1) {
+            throw new IllegalArgumentException("threads must be at least 1: " + threads);
+        }
+        this.server = HttpServer.create(address, 0);
+        this.executor = Executors.newFixedThreadPool(threads, new DaemonThreadFactory());
+        for (final MoonPhaseQuery query : MoonPhaseQuery.values()) {
+            server.createContext(query.getPath(), exchange -> handle(exchange, query));
+        }
+        server.setExecutor(executor);
+    }
+
+    public void start() {
+        server.start();
+    }
+
+    /**
+     * @return the port the server listens on
+     */
+    public int getPort() {
+        return server.getAddress().getPort();
+    }
+
+    /**
+     * Stops the server, requests being answered are dropped.
+     */
+    @Override
+    public void close() {
+        server.stop(0);
+        executor.shutdownNow();
+    }
+
+    /**
+     * Runs a server until the process is killed.
+     *
+     * @param args the port, {@value #DEFAULT_PORT} if missing, and the number of threads, one per
+     *             processor if missing
+     * @throws IOException if the port can't be bound
+     */
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        int threads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        MoonPhaseServer server = new MoonPhaseServer(new InetSocketAddress(port), threads);
+        server.start();
+        System.out.println("Answering moon phase queries on port " + server.getPort() + " with " + threads + " threads");
+    }
+
+    private static void handle(HttpExchange exchange, MoonPhaseQuery query) throws IOException {
+        try {
+            if (!exchange.getRequestURI().getPath().equals(query.getPath())) {
+                respond(exchange, 404, "unknown query: " + exchange.getRequestURI().getPath());
+                return;
+            }
+            String method = exchange.getRequestMethod();
+            if (!method.equals("GET") && !method.equals("POST")) {
+                exchange.getResponseHeaders().set("Allow", "GET, POST");
+                respond(exchange, 405, "only GET and POST are supported");
+                return;
+            }
+
+            Ephemeris ephemeris = EphemerisTier.LOW.getEphemeris();
+            List<String> times = new ArrayList<>();
+            String rawQuery = exchange.getRequestURI().getRawQuery();
+            if (rawQuery != null) {
+                for (String parameter : rawQuery.split("&")) {
+                    int equals = parameter.indexOf('=');
+                    String name = equals < 0 ? parameter : parameter.substring(0, equals);
+                    String value = equals < 0 ? "" : decode(parameter.substring(equals + 1));
+                    if (name.equals(TIME_PARAMETER)) {
+                        times.add(value);
+                    } else if (name.equals(EPHEMERIS_PARAMETER)) {
+                        ephemeris = parseEphemeris(value);
+                    }
+                }
+            }
+            if (method.equals("POST")) {
+                readLines(exchange, times);
+            }
+            if (times.size() > MAX_BATCH) {
+                respond(exchange, 413, "at most " + MAX_BATCH + " times per request");
+                return;
+            }
+
+            StringBuilder answers = new StringBuilder(times.size() * 32);
+            for (String time : times) {
+                answers.append(query.answer(parseTime(time), ephemeris)).append('\n');
+            }
+            respond(exchange, 200, answers.toString());
+        } catch (IllegalArgumentException | DateTimeException | ArithmeticException e) {
+            // DateTimeException also covers the times which parse but are outside the supported range
+            respond(exchange, 400, e.getMessage());
+        } finally {
+            exchange.close();
+        }
+    }
+
+    /**
+     * Adds the non blank lines of the request body, stopping once there are too many.
+     */
+    private static void readLines(HttpExchange exchange, List<String> times) throws IOException {
+        BufferedReader body = new BufferedReader(new InputStreamReader(exchange.getRequestBody(), StandardCharsets.UTF_8));
+        String line;
+        while ((line = body.readLine()) != null && times.size() <= MAX_BATCH) {
+            line = line.trim();
+            if (!line.isEmpty()) {
+                times.add(line);
+            }
+        }
+    }
+
+    static ZonedDateTime parseTime(String time) {
+        if (isEpochSecond(time)) {
+            return ZonedDateTime.ofInstant(Instant.ofEpochSecond(Long.parseLong(time)), ZoneOffset.UTC);
+        }
+        return ZonedDateTime.parse(time);
+    }
+
+    private static boolean isEpochSecond(String time) {
+        int start = time.startsWith("-") ? 1 : 0;
+        if (time.length() == start || time.length() > 18) {
+            return false;
+        }
+        for (int i = start; i < time.length(); i++) {
+            if (!Character.isDigit(time.charAt(i))) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Ephemeris parseEphemeris(String tier) {
+        try {
+            return EphemerisTier.valueOf(tier.toUpperCase(Locale.ROOT)).getEphemeris();
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("unknown ephemeris: " + tier);
+        }
+    }
+
+    private static String decode(String value) {
+        try {
+            return URLDecoder.decode(value, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static void respond(HttpExchange exchange, int status, String text) throws IOException {
+        byte[] body = text.getBytes(StandardCharsets.UTF_8);
+        exchange.getResponseHeaders().set("Content-Type", "text/plain; charset=utf-8");
+        exchange.sendResponseHeaders(status, body.length);
+        try (OutputStream out = exchange.getResponseBody()) {
+            out.write(body);
+        }
+    }
+
+    private static class DaemonThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "moon-phase-server-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import jdk.jfr.FlightRecorder;
+
+/**
+ * Hooks for observing the library at run time, Java 17 version, which records them as JDK Flight
+ * Recorder events.  When no recording is running the cost is a check of a flag, and Flight Recorder
+ * is left alone until something else starts it.
+ */
+final class Instrumentation {
+
+    private Instrumentation() {
+    }
+
+    static Object beginSearch() {
+        // until a recording has been started there can't be one running, and creating the first
+        // event would set up Flight Recorder, a few hundred ms on the first search of a fresh JVM
+        if (!FlightRecorder.isInitialized()) {
+            return null;
+        }
+        PhaseSearchEvent event = new PhaseSearchEvent();
+        if (!event.isEnabled()) {
+            return null;
+        }
+        event.begin();
+        return event;
+    }
+
+    static void endSearch(Object search, Ephemeris ephemeris, MoonFinder moonFinder, long estimate, long found,
+                          boolean bySecant) {
+        if (search == null) {
+            return;
+        }
+        PhaseSearchEvent event = (PhaseSearchEvent) search;
+        event.end();
+        if (event.shouldCommit()) {
+            event.ephemeris = ephemeris.getClass().getSimpleName();
+            event.moonFinder = moonFinder.getClass().getSimpleName();
+            event.estimate = estimate;
+            event.correction = found - estimate;
+            event.bySecant = bySecant;
+            event.commit();
+        }
+    }
+
+}
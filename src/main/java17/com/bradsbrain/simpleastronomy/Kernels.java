@@ -0,0 +1,43 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * The inner loops of the ephemerides, Java 17 version.
+ * <p>
+ * {@link Math#fma} is an intrinsic from Java 9 on hardware which has it, and rounds once where a
+ * multiply and an add round twice.
+ */
+final class Kernels {
+
+    private Kernels() {
+    }
+
+    static double periodicSum(byte[] d, byte[] m, byte[] mPrime, byte[] f, int[] coefficients, int terms,
+                              double elongation, double sunAnomaly, double moonAnomaly,
+                              double latitudeArgument, double eccentricity) {
+        double eccentricitySquared = eccentricity * eccentricity;
+        double sum = 0;
+        for (int i = 0; i < terms; i++) {
+            double argument = Math.fma(d[i], elongation, Math.fma(m[i], sunAnomaly,
+                    Math.fma(mPrime[i], moonAnomaly, f[i] * latitudeArgument)));
+            int multiples = Math.abs(m[i]);
+            double coefficient = multiples == 0 ? coefficients[i]
+                    : coefficients[i] * (multiples == 1 ? eccentricity : eccentricitySquared);
+            sum = Math.fma(coefficient, Math.sin(argument), sum);
+        }
+        return sum;
+    }
+
+}
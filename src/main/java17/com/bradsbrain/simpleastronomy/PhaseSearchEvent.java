@@ -0,0 +1,50 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * One search of the {@link LunationIndex} for the second of a moon event.
+ */
+@Name("com.bradsbrain.simpleastronomy.PhaseSearch")
+@Label("Moon Phase Search")
+@Category("Simple Astronomy")
+@Description("The search for the first second at which a moon event has happened")
+final class PhaseSearchEvent extends jdk.jfr.Event {
+
+    @Label("Ephemeris")
+    String ephemeris;
+
+    @Label("Moon Finder")
+    String moonFinder;
+
+    @Label("Estimate")
+    @Description("Where the search started, in seconds since 1970-01-01T00:00Z")
+    long estimate;
+
+    @Label("Correction")
+    @Description("The seconds from the estimate to the event")
+    @Timespan(Timespan.SECONDS)
+    long correction;
+
+    @Label("By Secant")
+    @Description("False if the secant search failed and a binary search was needed")
+    boolean bySecant;
+
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.function.DoubleUnaryOperator;
+
+import org.junit.jupiter.api.Test;
+
+public class BrentSolverTest {
+
+    @Test
+    public void testRoot() {
+        BrentSolver solver = new BrentSolver(1e-12, 100);
+
+        assertThat(solver.findRoot(Math::cos, 1, 2), closeTo(Math.PI / 2, 1e-12));
+        assertThat(solver.isConverged(), is(true));
+        assertThat(solver.getIterations(), lessThanOrEqualTo(8));
+        // bracketed by moving the points apart
+        assertThat(solver.findRoot(x -> x * x * x - 8, 0, 0.1), closeTo(2, 1e-12));
+        assertThat(solver.findRoot(x -> x + 1000, 5, 6), closeTo(-1000, 1e-9));
+        assertThat(solver.getValue(), closeTo(0, 1e-9));
+    }
+
+    @Test
+    public void testMinimumAndMaximum() {
+        BrentSolver solver = new BrentSolver();
+
+        assertThat(solver.findMinimum(x -> (x - 3) * (x - 3) + 1, 0, 1), closeTo(3, 1e-6));
+        assertThat(solver.getValue(), closeTo(1, 1e-12));
+        assertThat(solver.findMaximum(Math::sin, 0, 0.5), closeTo(Math.PI / 2, 1e-6));
+        assertThat(solver.getValue(), closeTo(1, 1e-12));
+        // uphill is backwards from these points
+        assertThat(solver.findMaximum(Math::sin, 3, 2.9), closeTo(Math.PI / 2, 1e-6));
+        assertThat(solver.isConverged(), is(true));
+    }
+
+    /**
+     * Interpolation is no use on a kink or a jump, the bisection and golden section steps still converge
+     */
+    @Test
+    public void testAwkwardFunctions() {
+        BrentSolver solver = new BrentSolver(1e-9, 200);
+
+        assertThat(solver.findMinimum(x -> Math.abs(x - 0.7), -5, -4), closeTo(0.7, 1e-8));
+        assertThat(solver.isConverged(), is(true));
+        assertThat(solver.findRoot(x -> x < 0.3 ? -1 : 1, 0, 1), closeTo(0.3, 1e-9));
+        assertThat(solver.isConverged(), is(true));
+    }
+
+    @Test
+    public void testIterationBound() {
+        int[] calls = new int[1];
+        DoubleUnaryOperator counted = x -> {
+            calls[0]++;
+            return Math.exp(x) - 2;
+        };
+        BrentSolver solver = new BrentSolver(1e-15, 3);
+
+        double root = solver.findRoot(counted, 0, 1);
+        assertThat(solver.isConverged(), is(false));
+        assertThat(solver.getIterations(), is(3));
+        assertThat(root, closeTo(Math.log(2), 0.01));
+        assertThat(solver.getEvaluations(), is((long) calls[0]));
+        assertThat(calls[0], is(5));
+
+        solver.findMinimum(x -> x * x, -1, -0.5);
+        assertThat(solver.getIterations(), is(3));
+        assertThat(solver.getEvaluations() - calls[0], lessThanOrEqualTo(3L + BrentSolver.MAX_EXPANSIONS + 3));
+    }
+
+    @Test
+    public void testBadInput() {
+        assertThrows(IllegalArgumentException.class, () -> new BrentSolver(0, 10));
+        assertThrows(IllegalArgumentException.class, () -> new BrentSolver(1e-6, 0));
+
+        BrentSolver solver = new BrentSolver();
+        assertThrows(IllegalArgumentException.class, () -> solver.findRoot(x -> x * x + 1, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> solver.findMinimum(x -> x, 0, 1));
+        assertThrows(IllegalArgumentException.class, () -> solver.findMaximum(Math::sin, 1, 1));
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.lang.management.ManagementFactory;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Runs the shared caches and indexes from several threads started together, and checks every answer
+ * against one computed without sharing.  {@code gradle jmhScaling} measures how the same calls scale.
+ */
+public class ConcurrencyStressTest {
+
+    private static final int THREADS = 8;
+
+    /**
+     * One thread's work, given its number.
+     */
+    private interface Task {
+        void run(int thread) throws Exception;
+    }
+
+    /**
+     * Runs the task on {@link #THREADS} threads released at once, and fails with the first failure.
+     */
+    private static void runTogether(final Task task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            final CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                final int thread = i;
+                futures.add(executor.submit(new Callable<Void>() {
+                    @Override
+                    public Void call() throws Exception {
+                        start.await();
+                        task.run(thread);
+                        return null;
+                    }
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testLunationIndexGrownFromBothEndsAtOnce() throws Exception {
+        final Ephemeris ephemeris = EphemerisTier.MEDIUM.getEphemeris();
+        final LunationIndex shared = new LunationIndex(ephemeris);
+        final LunationIndex alone = new LunationIndex(ephemeris);
+        final MoonFinder newMoonFinder = new NewMoonFinder();
+        final long start = ZonedDateTime.of(2000, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        final long step = Math.round(LunationIndex.SYNODIC_MONTH_SECONDS / 3);
+
+        // half the threads walk back from 2000 and half forward, each from a different offset, so
+        // both ends of the index are extended concurrently
+        runTogether(thread -> {
+            long direction = thread % 2 == 0 ? 1 : -1;
+            for (int i = 0; i < 300; i++) {
+                long epochSecond = start + direction * (i * step + thread * 3600L);
+                long event = shared.findEventFollowing(epochSecond, newMoonFinder, 0);
+                synchronized (alone) {
+                    assertThat(event, is(alone.findEventFollowing(epochSecond, newMoonFinder, 0)));
+                }
+            }
+        });
+        // no lunation lost or added twice by the merges
+        assertThat(shared.size(), is(alone.size()));
+    }
+
+    @Test
+    public void testSharedIndexesOfEveryTier() throws Exception {
+        final long from = ZonedDateTime.of(1990, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        final EphemerisTier[] tiers = EphemerisTier.values();
+
+        runTogether(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < 200; i++) {
+                Ephemeris ephemeris = tiers[(thread + i) % tiers.length].getEphemeris();
+                int quarter = random.nextInt(4);
+                long epochSecond = from + (long) (random.nextDouble() * 40 * 365.25 * 24 * 3600);
+                MoonFinder moonFinder = MoonPhaseFinder.principalPhaseFinder(quarter, ephemeris);
+
+                assertThat(LunationIndex.getInstance(ephemeris), is(LunationIndex.getInstance(ephemeris)));
+                long event = LunationIndex.getInstance(ephemeris).findEventFollowing(epochSecond, moonFinder,
+                        quarter / 4.0);
+                assertThat(event, is(new LunationIndex(ephemeris).findEventFollowing(epochSecond, moonFinder,
+                        quarter / 4.0)));
+            }
+        });
+    }
+
+    @Test
+    public void testSunriseSunsetGridEvictingUnderLoad() throws Exception {
+        final SunriseSunset exact = new SunriseSunset();
+        // the sites and days asked for span more 8 degree tiles than are kept, so tiles are filled
+        // and evicted all the time
+        final int maxTiles = 8;
+        final SunriseSunsetGrid grid = new SunriseSunsetGrid(exact, 0.5, 10, maxTiles);
+        final LocalDate date = LocalDate.of(2024, 3, 20);
+
+        runTogether(thread -> {
+            Random random = new Random(thread);
+            for (int i = 0; i < 1000; i++) {
+                LocalDate day = date.plusDays(random.nextInt(2));
+                double latitude = 40 + 16 * random.nextDouble();
+                double longitude = 32 * random.nextDouble();
+                long sunrise = exact.findSunrise(day, latitude, longitude);
+                long gridSunrise = grid.findSunrise(day, latitude, longitude);
+                // within the 10 seconds allowed, plus 1 for rounding
+                assertThat(Math.abs(gridSunrise - sunrise), lessThanOrEqualTo(11L));
+            }
+        });
+        // once every thread is done the last eviction has seen every tile added
+        assertThat(grid.getTileCount(), lessThanOrEqualTo(maxTiles));
+    }
+
+    @Test
+    public void testSiderealTimeInstanceSharedByThreads() throws Exception {
+        final SiderealTime shared = new SiderealTime();
+        final long from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+
+        runTogether(thread -> {
+            for (int i = 0; i < 20000; i++) {
+                // neighbouring threads ask for the same instants half of the time
+                JulianInstant instant = JulianInstant.ofEpochSecond(from + (i / 2) * 60 + (i % 2) * thread);
+                assertThat(shared.getGreenwichSiderealTime(instant),
+                        is(SiderealTime.greenwichMeanSiderealTime(instant)));
+            }
+        });
+    }
+
+    @Test
+    public void testAllocationPerCallDoesNotGrowWithThreads() throws Exception {
+        if (!(ManagementFactory.getThreadMXBean() instanceof com.sun.management.ThreadMXBean)) {
+            return;
+        }
+        final com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        if (!threads.isThreadAllocatedMemorySupported() || !threads.isThreadAllocatedMemoryEnabled()) {
+            return;
+        }
+        final long[] bytesPerCall = new long[THREADS];
+
+        // warms up as much as each of the threads below does
+        long alone = findMoonPhaseAtBytesPerCall(threads);
+        runTogether(thread -> bytesPerCall[thread] = findMoonPhaseAtBytesPerCall(threads));
+        for (int thread = 0; thread < THREADS; thread++) {
+            // the date, the index lookup and the search, nothing that depends on the other threads
+            assertThat("bytes per call on thread " + thread + " of " + THREADS + ", against " + alone + " alone",
+                    bytesPerCall[thread], lessThanOrEqualTo(alone + alone / 10 + 16));
+        }
+    }
+
+    /**
+     * @return the bytes allocated per {@link MoonPhaseFinder#findMoonPhaseAt(ZonedDateTime)} by the
+     * current thread, after warming up; plusMinutes itself allocates a ZonedDateTime and a LocalDateTime
+     */
+    private static long findMoonPhaseAtBytesPerCall(com.sun.management.ThreadMXBean threads) {
+        ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        int calls = 20000;
+        long id = Thread.currentThread().getId();
+        int sink = 0;
+        for (int i = 0; i < calls; i++) {
+            sink += MoonPhaseFinder.findMoonPhaseAt(from.minusMinutes(i)).ordinal();
+        }
+        long before = threads.getThreadAllocatedBytes(id);
+        for (int i = 0; i < calls; i++) {
+            sink += MoonPhaseFinder.findMoonPhaseAt(from.plusMinutes(i)).ordinal();
+        }
+        long bytesPerCall = (threads.getThreadAllocatedBytes(id) - before) / calls;
+        assertThat(sink > 0, is(true));
+        return bytesPerCall;
+    }
+
+}
@@ -0,0 +1,76 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+/**
+ * Counts the moon angles and the sun longitudes computed by an ephemeris, for the tests which keep
+ * the cost of a search in check.  Not thread safe.
+ */
+final class CountingEphemeris implements Ephemeris {
+
+    private final Ephemeris ephemeris;
+    private long moonAngles;
+    private long sunLongitudes;
+
+    CountingEphemeris(Ephemeris ephemeris) {
+        this.ephemeris = ephemeris;
+    }
+
+    public double getSunEclipticLongitude(double julianDate) {
+        return ephemeris.getSunEclipticLongitude(julianDate);
+    }
+
+    public double getMoonEclipticLongitude(double julianDate) {
+        return ephemeris.getMoonEclipticLongitude(julianDate);
+    }
+
+    @Override
+    public double getSunEclipticLongitude(JulianInstant instant) {
+        sunLongitudes++;
+        return ephemeris.getSunEclipticLongitude(instant);
+    }
+
+    @Override
+    public double getMoonAngle(JulianInstant instant) {
+        moonAngles++;
+        return ephemeris.getMoonAngle(instant);
+    }
+
+    @Override
+    public double getSunEclipticLongitude(long epochSecond, long nanoAdjustment) {
+        sunLongitudes++;
+        return ephemeris.getSunEclipticLongitude(epochSecond, nanoAdjustment);
+    }
+
+    @Override
+    public double getMoonAngle(long epochSecond, long nanoAdjustment) {
+        moonAngles++;
+        return ephemeris.getMoonAngle(epochSecond, nanoAdjustment);
+    }
+
+    /**
+     * @return how many moon angles were computed, from an instant or from seconds
+     */
+    long getMoonAngles() {
+        return moonAngles;
+    }
+
+    /**
+     * @return how many sun longitudes were computed, from an instant or from seconds
+     */
+    long getSunLongitudes() {
+        return sunLongitudes;
+    }
+
+}
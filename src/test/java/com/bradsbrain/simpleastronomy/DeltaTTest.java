@@ -0,0 +1,65 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Expected values are from the tables of Espenak and Meeus.
+ */
+public class DeltaTTest {
+
+    @Test
+    public void testKnownValues() {
+        assertThat(DeltaT.seconds(-500), closeTo(17190, 20));
+        assertThat(DeltaT.seconds(1000), closeTo(1574, 1));
+        assertThat(DeltaT.seconds(1600), closeTo(120, 0.01));
+        assertThat(DeltaT.seconds(1700), closeTo(8.83, 0.01));
+        assertThat(DeltaT.seconds(1900), closeTo(-2.79, 0.01));
+        assertThat(DeltaT.seconds(1950), closeTo(29.07, 0.01));
+        assertThat(DeltaT.seconds(2000), closeTo(63.86, 0.01));
+        assertThat(DeltaT.seconds(2016), closeTo(69.5, 0.1));
+        assertThat(DeltaT.seconds(2200), closeTo(442, 1));
+    }
+
+    @Test
+    public void testTableAgreesWithThePolynomials() {
+        // the pieces of the polynomials differ by up to 0.16 s where they join, at 1700
+        for (double year = DeltaT.FIRST_YEAR; year <= DeltaT.LAST_YEAR + 1; year += 0.37) {
+            assertThat("year " + year, DeltaT.seconds(year), closeTo(DeltaT.polynomial(year), 0.2));
+        }
+    }
+
+    @Test
+    public void testPiecesJoin() {
+        int[] joins = {-500, 500, 1600, 1700, 1800, 1860, 1900, 1920, 1941, 1961, 1986, 2005, 2050, 2150};
+        for (int year : joins) {
+            assertThat("year " + year, DeltaT.seconds(year - 1e-9), closeTo(DeltaT.seconds(year), 5));
+        }
+    }
+
+    @Test
+    public void testDynamicalDaysSince() {
+        JulianInstant instant = JulianInstant.ofEpochSecond(1450000000L);
+        double expected = DeltaT.isEnabled() ? DeltaT.days(instant.toJulianDate()) : 0;
+
+        assertThat(instant.dynamicalDaysSince(2451545.0) - instant.daysSince(2451545.0), closeTo(expected, 1e-9));
+        assertThat(DeltaT.days(instant.toJulianDate()) * 24 * 3600, closeTo(DeltaT.isEnabled()
+                ? DeltaT.seconds(2000 + (instant.toJulianDate() - 2451545.0) / 365.25) : 0, 1e-6));
+    }
+
+}
@@ -0,0 +1,112 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+
+import java.io.IOException;
+import java.nio.Buffer;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.DoubleBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class EphemerisBuffersTest {
+
+    private static final Ephemeris ephemeris = EphemerisTier.LOW.getEphemeris();
+
+    private static final long START = ZonedDateTime.of(2015, 12, 25, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+
+    private static final long STEP = 3600;
+
+    private static ZonedDateTime sample(int i) {
+        return ZonedDateTime.ofInstant(Instant.ofEpochSecond(START + i * STEP), ZoneOffset.UTC);
+    }
+
+    @Test
+    public void testRecordLayout() {
+        // big-endian, with room for 3 records and a bit
+        ByteBuffer out = ByteBuffer.allocate(3 * EphemerisBuffers.RECORD_BYTES + 7);
+
+        assertThat(EphemerisBuffers.writeRecords(ephemeris, START, STEP, out), is(3));
+        assertThat(out.position(), is(3 * EphemerisBuffers.RECORD_BYTES));
+        assertThat(out.order(), is(ByteOrder.BIG_ENDIAN));
+
+        // through Buffer, whose flip and position are the only ones on Java 8
+        ((Buffer) out).flip();
+        out.order(ByteOrder.LITTLE_ENDIAN);
+        for (int i = 0; i < 3; i++) {
+            assertThat(out.getLong(), is(START + i * STEP));
+            assertThat(out.getDouble(), is(MoonPhaseFinder.getMoonAngle(sample(i))));
+            assertThat(out.getDouble(), is(MoonPhaseFinder.getMoonVisiblePercent(sample(i), ephemeris, Precision.RAW)));
+            assertThat(out.getDouble(), is(ephemeris.getSunEclipticLongitude(JulianInstant.of(sample(i)))));
+        }
+    }
+
+    @Test
+    public void testColumns() {
+        DoubleBuffer angles = ByteBuffer.allocateDirect(48 * 8).order(ByteOrder.LITTLE_ENDIAN).asDoubleBuffer();
+        DoubleBuffer visible = DoubleBuffer.allocate(48);
+        DoubleBuffer sun = DoubleBuffer.allocate(50);
+        ((Buffer) sun).position(2);
+
+        assertThat(EphemerisBuffers.writeMoonAngles(ephemeris, START, STEP, angles), is(48));
+        assertThat(EphemerisBuffers.writeVisiblePercents(ephemeris, START, STEP, visible), is(48));
+        assertThat(EphemerisBuffers.writeSunLongitudes(ephemeris, START, STEP, sun), is(48));
+
+        for (int i = 0; i < 48; i++) {
+            assertThat(angles.get(i), is(MoonPhaseFinder.getMoonAngle(sample(i))));
+            assertThat(visible.get(i), is(MoonPhaseFinder.getMoonVisiblePercent(sample(i), ephemeris, Precision.RAW)));
+            assertThat(sun.get(i + 2), is(ephemeris.getSunEclipticLongitude(JulianInstant.of(sample(i)))));
+        }
+    }
+
+    @Test
+    public void testMappedFileInWindows() throws IOException {
+        Path file = Files.createTempFile("moon", ".bin");
+        int records = 100;
+        int window = 32;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long start = START;
+            for (int written = 0; written < records; ) {
+                int size = Math.min(window, records - written);
+                MappedByteBuffer mapped = channel.map(FileChannel.MapMode.READ_WRITE,
+                        (long) written * EphemerisBuffers.RECORD_BYTES, (long) size * EphemerisBuffers.RECORD_BYTES);
+                int count = EphemerisBuffers.writeRecords(ephemeris, start, STEP, mapped);
+                written += count;
+                start += count * STEP;
+            }
+        }
+
+        ByteBuffer all = ByteBuffer.wrap(Files.readAllBytes(file)).order(ByteOrder.LITTLE_ENDIAN);
+        Files.delete(file);
+        assertThat(all.capacity(), is(records * EphemerisBuffers.RECORD_BYTES));
+        ByteBuffer expected = ByteBuffer.allocate(records * EphemerisBuffers.RECORD_BYTES);
+        EphemerisBuffers.writeRecords(ephemeris, START, STEP, expected);
+        assertThat(all.array(), equalTo(expected.array()));
+        assertThat(all.getLong((records - 1) * EphemerisBuffers.RECORD_BYTES), is(START + (records - 1) * STEP));
+    }
+
+}
@@ -0,0 +1,39 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import org.junit.jupiter.api.Test;
+
+public class EphemerisTierTest {
+
+    @Test
+    public void testEachTierBuildsOneEphemeris() {
+        for (EphemerisTier tier : EphemerisTier.values()) {
+            // the lunation indexes are per ephemeris instance
+            assertThat(tier.getEphemeris(), sameInstance(tier.getEphemeris()));
+            assertThat(LunationIndex.getInstance(tier.getEphemeris()),
+                    sameInstance(LunationIndex.getInstance(tier.getEphemeris())));
+        }
+        assertThat(EphemerisTier.LOW.getEphemeris(), instanceOf(DuffettSmithEphemeris.class));
+        assertThat(EphemerisTier.MEDIUM.getEphemeris(), instanceOf(MeeusEphemeris.class));
+        assertThat(EphemerisTier.HIGH.getEphemeris(), instanceOf(MeeusEphemeris.class));
+        assertThat(EphemerisTier.MEDIUM.getEphemeris(), not(sameInstance(EphemerisTier.HIGH.getEphemeris())));
+    }
+
+}
@@ -0,0 +1,129 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class ExtremumFinderTest {
+
+    private static long secondsBetween(ZonedDateTime a, ZonedDateTime b) {
+        return Math.abs(Duration.between(a, b).getSeconds());
+    }
+
+    /**
+     * The total lunar eclipse of 2015 September 28, greatest at 2:47 UT, when the moon was almost
+     * exactly opposite the sun
+     */
+    @Test
+    public void testGreatestElongationAtALunarEclipse() {
+        Ephemeris ephemeris = EphemerisTier.HIGH.getEphemeris();
+        BrentSolver solver = new BrentSolver();
+        ZonedDateTime greatest = ExtremumFinder.findGreatestElongationFollowing(
+                ZonedDateTime.of(2015, 9, 25, 0, 0, 0, 0, ZoneOffset.UTC), ephemeris, solver);
+
+        assertThat(secondsBetween(greatest, ZonedDateTime.of(2015, 9, 28, 2, 47, 0, 0, ZoneOffset.UTC)),
+                lessThan(5 * 60L));
+        assertThat(solver.isConverged(), is(true));
+        assertThat(solver.getEvaluations(), lessThanOrEqualTo(20L));
+        double elongation = ExtremumFinder.getMoonElongation(greatest, ephemeris);
+        assertThat(elongation, greaterThan(179.5));
+        assertThat(ExtremumFinder.getMoonElongation(greatest.minusMinutes(10), ephemeris), lessThan(elongation));
+        assertThat(ExtremumFinder.getMoonElongation(greatest.plusMinutes(10), ephemeris), lessThan(elongation));
+    }
+
+    /**
+     * The rounded percentage is the same for over an hour around its peak, the elongation isn't
+     */
+    @Test
+    public void testGreatestElongationIsInsideTheRoundedPlateau() {
+        ZonedDateTime from = ZonedDateTime.of(2024, 3, 20, 0, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime greatest = ExtremumFinder.findGreatestElongationFollowing(from);
+        double peak = MoonPhaseFinder.getMoonVisiblePercent(greatest);
+
+        assertThat(MoonPhaseFinder.getMoonVisiblePercent(greatest.minusMinutes(30)), is(peak));
+        assertThat(MoonPhaseFinder.getMoonVisiblePercent(greatest.plusMinutes(30)), is(peak));
+        assertThat(secondsBetween(greatest, MoonPhaseFinder.findFullMoonFollowing(from)), lessThan(6 * 3600L));
+    }
+
+    /**
+     * An extremum often comes a few hours before its phase, a date between them gets the next one
+     */
+    @Test
+    public void testExtremaAreAfterTheDate() {
+        ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime greatest = ExtremumFinder.findGreatestElongationFollowing(from);
+        ZonedDateTime least = ExtremumFinder.findLeastElongationFollowing(from);
+        int beforeTheirPhase = 0;
+        for (int lunation = 0; lunation < 12; lunation++) {
+            ZonedDateTime justAfter = greatest.plusSeconds(1);
+            if (MoonPhaseFinder.findFullMoonFollowing(justAfter).isBefore(greatest.plusDays(1))) {
+                beforeTheirPhase++;
+            }
+            greatest = ExtremumFinder.findGreatestElongationFollowing(justAfter);
+            assertThat(Duration.between(justAfter, greatest).toDays(), greaterThan(25L));
+
+            justAfter = least.plusSeconds(1);
+            least = ExtremumFinder.findLeastElongationFollowing(justAfter);
+            assertThat(Duration.between(justAfter, least).toDays(), greaterThan(25L));
+        }
+        assertThat(beforeTheirPhase, greaterThan(0));
+    }
+
+    /**
+     * The total solar eclipse of 2017 August 21, greatest at 18:26 UT
+     */
+    @Test
+    public void testLeastElongationAtASolarEclipse() {
+        Ephemeris ephemeris = EphemerisTier.HIGH.getEphemeris();
+        ZonedDateTime least = ExtremumFinder.findLeastElongationFollowing(
+                ZonedDateTime.of(2017, 8, 15, 0, 0, 0, 0, ZoneOffset.UTC), ephemeris, new BrentSolver());
+
+        assertThat(secondsBetween(least, ZonedDateTime.of(2017, 8, 21, 18, 26, 0, 0, ZoneOffset.UTC)),
+                lessThan(5 * 60L));
+        assertThat(ExtremumFinder.getMoonElongation(least, ephemeris), lessThan(0.5));
+    }
+
+    /**
+     * 2024: -14m 14s on February 11, +3m 39s on May 14, -6m 33s on July 26 and +16m 26s on November 3,
+     * about noon in each case
+     */
+    @Test
+    public void testEquationOfTime() {
+        Ephemeris ephemeris = EphemerisTier.HIGH.getEphemeris();
+        int[][] dates = {{2, 11}, {5, 14}, {7, 26}, {11, 3}};
+        double[] minutes = {-14.23, 3.65, -6.55, 16.43};
+
+        ZonedDateTime from = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < dates.length; i++) {
+            ZonedDateTime extremum = ExtremumFinder.findEquationOfTimeExtremumFollowing(from, ephemeris,
+                    new BrentSolver());
+            ZonedDateTime expected = ZonedDateTime.of(2024, dates[i][0], dates[i][1], 12, 0, 0, 0, ZoneOffset.UTC);
+            assertThat(extremum.toString(), secondsBetween(extremum, expected), lessThan(2 * 24 * 3600L));
+            assertThat(ExtremumFinder.getEquationOfTime(extremum, ephemeris), closeTo(minutes[i], 0.05));
+            from = extremum.plusDays(1);
+        }
+    }
+
+}
@@ -0,0 +1,114 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class JulianInstantTest {
+
+    /**
+     * Page 7 of the book, says 1985 February 17.25 (6 a.m.) should be 2446113.75
+     */
+    @Test
+    public void testSampleDateInBook() {
+        JulianInstant instant = JulianInstant.of(ZonedDateTime.of(1985, 2, 17, 6, 0, 0, 0, ZoneOffset.UTC));
+
+        assertThat(instant.getDay(), is(2446113L));
+        assertThat(instant.getFraction(), is(0.75));
+        assertThat(instant.toJulianDate(), is(2446113.75));
+    }
+
+    @Test
+    public void testSameAsJulianDateForWholeSeconds() {
+        ZonedDateTime cal = ZonedDateTime.of(2015, 12, 25, 11, 11, 7, 0, ZoneOffset.UTC);
+
+        assertThat(JulianInstant.of(cal).toJulianDate(), closeTo(JulianDate.makeJulianDateUsingMyModified(cal), 1e-9));
+        assertThat(JulianInstant.ofEpochSecond(cal.toEpochSecond()), equalTo(JulianInstant.of(cal)));
+    }
+
+    @Test
+    public void testKeepsFractionsOfASecond() {
+        ZonedDateTime cal = ZonedDateTime.of(2015, 12, 25, 11, 11, 7, 0, ZoneOffset.UTC);
+        JulianInstant whole = JulianInstant.of(cal);
+        JulianInstant later = JulianInstant.of(cal.plusNanos(1));
+
+        assertThat(later, not(equalTo(whole)));
+        assertThat(later.compareTo(whole), greaterThan(0));
+        assertThat(later.getNanoOfDay() - whole.getNanoOfDay(), is(1L));
+
+        // the day count keeps well under a microsecond, a julian date double only about 40 microseconds
+        double epoch = SunPosition.EPOCH;
+        double millisecondInDays = 0.001 / 86400;
+        assertThat(JulianInstant.of(cal.plusNanos(1000000)).daysSince(epoch) - whole.daysSince(epoch),
+                closeTo(millisecondInDays, 4e-12));
+    }
+
+    @Test
+    public void testDaysSinceEpoch() {
+        JulianInstant instant = JulianInstant.of(ZonedDateTime.of(1990, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+        assertThat(instant.daysSince(SunPosition.EPOCH), is(1.0));
+        assertThat(instant.daysSince(2447893.25), is(-0.75));
+    }
+
+    @Test
+    public void testNegativeAdjustmentsAndDayBoundaries() {
+        // julian days start at noon
+        JulianInstant beforeNoon = JulianInstant.ofEpochSecond(ZonedDateTime.of(2000, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC)
+                .toEpochSecond(), -1);
+        assertThat(beforeNoon.getDay(), is(2451544L));
+        assertThat(beforeNoon.getNanoOfDay(), is(24 * 3600 * 1000000000L - 1));
+
+        JulianInstant noon = beforeNoon.plusNanos(1);
+        assertThat(noon.getDay(), is(2451545L));
+        assertThat(noon.getNanoOfDay(), is(0L));
+        assertThat(noon.plusNanos(-1), equalTo(beforeNoon));
+        assertThat(noon.plusNanos(3 * 24 * 3600 * 1000000000L).getDay(), is(2451548L));
+    }
+
+    @Test
+    public void testDaysSinceWithoutAnInstant() {
+        long noon = ZonedDateTime.of(2000, 1, 1, 12, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        long[][] times = {{noon, 0}, {noon, -1}, {noon - 1, 999999999}, {noon, 86400L * 1000000000L + 7},
+                {-5000000000L, -123456789}, {1451606400L, 500000000}};
+        for (long[] time : times) {
+            JulianInstant instant = JulianInstant.ofEpochSecond(time[0], time[1]);
+            // the same bits, so the searches find the same seconds either way
+            assertThat(JulianInstant.daysSince(time[0], time[1], 2447891.5), is(instant.daysSince(2447891.5)));
+            assertThat(JulianInstant.dynamicalDaysSince(time[0], time[1], 2451545.0),
+                    is(instant.dynamicalDaysSince(2451545.0)));
+        }
+    }
+
+    @Test
+    public void testToInstant() {
+        Instant instant = Instant.parse("1969-07-20T20:17:40.123456789Z");
+
+        assertThat(JulianInstant.of(instant).toInstant(), equalTo(instant));
+        assertThat(JulianInstant.of(instant).hashCode(), is(JulianInstant.of(instant).hashCode()));
+        assertThat(JulianInstant.of(Instant.parse("2015-12-25T11:11:00Z")).toString(), equalTo("JD 2457381 + PT23H11M"));
+    }
+
+}
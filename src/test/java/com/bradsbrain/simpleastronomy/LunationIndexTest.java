@@ -0,0 +1,183 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Test;
+
+public class LunationIndexTest {
+
+    private static final MoonFinder newMoonFinder = new NewMoonFinder();
+
+    private static final MoonFinder fullMoonFinder = new FullMoonFinder();
+
+    private static long epochSecond(int year, int month, int day) {
+        return ZonedDateTime.of(year, month, day, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+    }
+
+    @Test
+    public void growsInBothDirections() {
+        LunationIndex index = new LunationIndex();
+        long fullMoon2015 = index.findEventFollowing(epochSecond(2015, 12, 1), fullMoonFinder, 0.5);
+        int initialSize = index.size();
+
+        long newMoon1900 = index.findEventFollowing(epochSecond(1900, 1, 1), newMoonFinder, 0);
+        assertThat(index.size(), greaterThan(initialSize));
+        int sizeAfterPast = index.size();
+
+        long newMoon2100 = index.findEventFollowing(epochSecond(2100, 1, 1), newMoonFinder, 0);
+        assertThat(index.size(), greaterThan(sizeAfterPast));
+
+        // roughly 12 lunations per year, with all the years in between filled in
+        assertThat(index.size(), greaterThan(200 * 12));
+        assertThat(index.size(), lessThan(210 * 12));
+
+        assertThat(index.findEventFollowing(epochSecond(2015, 12, 1), fullMoonFinder, 0.5), is(fullMoon2015));
+        assertThat(newMoon1900, is(new LunationIndex().findEventFollowing(epochSecond(1900, 1, 1), newMoonFinder, 0)));
+        assertThat(newMoon2100, is(new LunationIndex().findEventFollowing(epochSecond(2100, 1, 1), newMoonFinder, 0)));
+    }
+
+    @Test
+    public void distantQueriesDoNotGrowTheIndex() {
+        LunationIndex index = new LunationIndex();
+        index.findEventFollowing(epochSecond(2015, 12, 1), fullMoonFinder, 0.5);
+        int initialSize = index.size();
+
+        long farFuture = epochSecond(5015, 12, 1);
+        long newMoon = index.findEventFollowing(farFuture, newMoonFinder, 0);
+
+        assertThat(index.size(), is(initialSize));
+        assertThat(newMoon, greaterThan(farFuture));
+        assertThat(newMoon - farFuture, lessThan(30 * 24 * 3600L));
+    }
+
+    @Test
+    public void eventsInLunation() {
+        LunationIndex index = new LunationIndex();
+        long midDecember = epochSecond(2015, 12, 15);
+
+        long start = index.findEventInLunation(midDecember, newMoonFinder, 0);
+        long fullMoon = index.findEventInLunation(midDecember, fullMoonFinder, 0.5);
+        long end = index.findEventInLunation(midDecember, newMoonFinder, 1);
+
+        assertThat(start, lessThan(midDecember));
+        assertThat(fullMoon, greaterThan(midDecember));
+        assertThat(end, greaterThan(fullMoon));
+        assertThat(end, equalTo(index.findEventFollowing(start, newMoonFinder, 0)));
+    }
+
+    @Test
+    public void findersWithoutAnAngleGetTheSameAnswer() {
+        MoonFinder binarySearchOnly = (angle, percent) -> fullMoonFinder.isMoonBefore(angle, percent);
+        LunationIndex index = new LunationIndex();
+        for (int month = 1; month <= 12; month++) {
+            long start = epochSecond(2031, month, 1);
+            assertThat(index.findEventFollowing(start, binarySearchOnly, 0.5),
+                    is(index.findEventFollowing(start, fullMoonFinder, 0.5)));
+        }
+    }
+
+    @Test
+    public void otherEphemeridesAreSearchedWithoutInstants() {
+        final Ephemeris low = EphemerisTier.LOW.getEphemeris();
+        final int[] instants = new int[1];
+        Ephemeris other = new Ephemeris() {
+            public double getSunEclipticLongitude(double julianDate) {
+                return low.getSunEclipticLongitude(julianDate);
+            }
+
+            public double getMoonEclipticLongitude(double julianDate) {
+                return low.getMoonEclipticLongitude(julianDate);
+            }
+
+            @Override
+            public double getMoonAngle(JulianInstant instant) {
+                instants[0]++;
+                return low.getMoonAngle(instant);
+            }
+
+            @Override
+            public double getMoonAngle(long epochSecond, long nanoAdjustment) {
+                return low.getMoonAngle(epochSecond, nanoAdjustment);
+            }
+        };
+
+        long from = epochSecond(2015, 12, 1);
+        assertThat(new LunationIndex(other).findEventFollowing(from, fullMoonFinder, 0.5),
+                is(new LunationIndex(low).findEventFollowing(from, fullMoonFinder, 0.5)));
+        assertThat(instants[0], is(0));
+    }
+
+    @Test
+    public void sharedIndexesAreBounded() {
+        // the tiers keep their shared index whatever the other tests did
+        for (EphemerisTier tier : EphemerisTier.values()) {
+            LunationIndex.getInstance(tier.getEphemeris());
+        }
+        long start = epochSecond(2015, 12, 1);
+        long fullMoon = LunationIndex.getInstance().findEventFollowing(start, fullMoonFinder, 0.5);
+        // without equals, each of these is a new ephemeris, as if created per query
+        for (int i = 0; i < 2 * LunationIndex.MAX_SHARED_INDEXES; i++) {
+            CountingEphemeris perQuery = new CountingEphemeris(EphemerisTier.LOW.getEphemeris());
+            assertThat(LunationIndex.getInstance(perQuery).findEventFollowing(start, fullMoonFinder, 0.5), is(fullMoon));
+        }
+
+        CountingEphemeris unshared = new CountingEphemeris(EphemerisTier.LOW.getEphemeris());
+        assertThat(LunationIndex.getInstance(unshared), not(sameInstance(LunationIndex.getInstance(unshared))));
+        for (EphemerisTier tier : EphemerisTier.values()) {
+            assertThat(LunationIndex.getInstance(tier.getEphemeris()),
+                    sameInstance(LunationIndex.getInstance(tier.getEphemeris())));
+        }
+    }
+
+    @Test
+    public void concurrentQueriesAgreeWithSequentialOnes() throws Exception {
+        final LunationIndex shared = new LunationIndex();
+        final LunationIndex sequential = new LunationIndex();
+        Random random = new Random(808L);
+        final long[] queries = new long[2000];
+        for (int i = 0; i < queries.length; i++) {
+            queries[i] = epochSecond(1800 + random.nextInt(400), 1 + random.nextInt(12), 1 + random.nextInt(28));
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        try {
+            List<Future<Long>> results = new ArrayList<>();
+            for (final long query : queries) {
+                results.add(executor.submit(() -> shared.findEventFollowing(query, fullMoonFinder, 0.5)));
+            }
+            for (int i = 0; i < queries.length; i++) {
+                assertThat(results.get(i).get(), is(sequential.findEventFollowing(queries[i], fullMoonFinder, 0.5)));
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,99 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Expected values are the worked examples of <i>Astronomical Algorithms</i> by Jean Meeus.
+ */
+public class MeeusEphemerisTest {
+
+    private static final Ephemeris full = new MeeusEphemeris(MeeusEphemeris.MAX_TERMS);
+
+    /**
+     * @return the julian date in universal time of a julian ephemeris date, which is what the
+     * ephemeris takes as input
+     */
+    private static double universalTime(double julianEphemerisDate) {
+        return julianEphemerisDate - DeltaT.days(julianEphemerisDate);
+    }
+
+    /**
+     * Example 47.a, 1992 April 12 at 0h TD, apparent longitude 133.167265
+     */
+    @Test
+    public void testMoonLongitude() {
+        assertThat(full.getMoonEclipticLongitude(universalTime(2448724.5)), closeTo(133.167265, 0.0005));
+    }
+
+    /**
+     * Example 25.a, 1992 October 13 at 0h TD, apparent longitude 199.90895
+     */
+    @Test
+    public void testSunLongitude() {
+        assertThat(full.getSunEclipticLongitude(universalTime(2448908.5)), closeTo(199.90895, 0.00005));
+    }
+
+    @Test
+    public void testFewerTermsAreLessAccurate() {
+        double julianDate = universalTime(2448724.5);
+        double error = 0;
+        for (int terms = MeeusEphemeris.MAX_TERMS; terms >= 0; terms -= 10) {
+            double termsError = Math.abs(new MeeusEphemeris(terms).getMoonEclipticLongitude(julianDate) - 133.167265);
+            assertThat(termsError, closeTo(error, 6.5));
+            error = termsError;
+        }
+        assertThat(new MeeusEphemeris(0).getMoonEclipticLongitude(julianDate), closeTo(133.167265, 6.5));
+    }
+
+    @Test
+    public void testTermCountIsChecked() {
+        assertThrows(IllegalArgumentException.class, () -> new MeeusEphemeris(-1));
+        assertThrows(IllegalArgumentException.class, () -> new MeeusEphemeris(MeeusEphemeris.MAX_TERMS + 1));
+    }
+
+    @Test
+    public void testEqualTermCountsAreTheSameEphemeris() {
+        assertThat(new MeeusEphemeris(30), equalTo(EphemerisTier.MEDIUM.getEphemeris()));
+        assertThat(new DuffettSmithEphemeris(), equalTo(EphemerisTier.LOW.getEphemeris()));
+    }
+
+    /**
+     * 2015-12-25 11:11 UTC according to timeanddate.com
+     */
+    @Test
+    public void testFullMoonWithEachTier() {
+        ZonedDateTime cal = ZonedDateTime.of(2015, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime expected = ZonedDateTime.of(2015, 12, 25, 11, 11, 0, 0, ZoneOffset.UTC);
+
+        for (EphemerisTier tier : EphemerisTier.values()) {
+            ZonedDateTime fullMoon = MoonPhaseFinder.findFullMoonFollowing(cal, tier.getEphemeris());
+            double minutesOff = Duration.between(expected, fullMoon).toMinutes();
+            assertThat(tier.name(), minutesOff, closeTo(0, tier == EphemerisTier.LOW ? 15 : 3));
+        }
+        assertThat(MoonPhaseFinder.findFullMoonFollowing(cal, EphemerisTier.LOW.getEphemeris()),
+                is(MoonPhaseFinder.findFullMoonFollowing(cal)));
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.PrintWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The reference moon phases of {@code phases-1900-2100.csv}, computed with the series of chapter 49 of
+ * <i>Astronomical Algorithms</i>, which the book gives as agreeing with the full ELP-2000/82 theory
+ * to a few seconds.
+ * <p>
+ * The instants of the file are in dynamical time (TD) rounded to the second.  {@link #read()} turns
+ * them into universal time, earlier by {@link DeltaT} (about a minute today), which is what the
+ * phase searches answer in, and what published tables such as NASA's use.  Run {@link #main} to write
+ * the file again.
+ */
+final class MeeusPhaseCorpus {
+
+    static final String RESOURCE = "phases-1900-2100.csv";
+
+    private static final int FIRST_YEAR = 1900;
+    private static final int LAST_YEAR = 2100;
+
+    /**
+     * One reference event.
+     */
+    static final class Event {
+        final MoonPhaseFinder.MoonPhase phase;
+        final long epochSecond;
+
+        Event(MoonPhaseFinder.MoonPhase phase, long epochSecond) {
+            this.phase = phase;
+            this.epochSecond = epochSecond;
+        }
+    }
+
+    // new and full moon corrections, in days
+    private static final double[] NEW_MOON = {
+            -0.40720, 0.17241, 0.01608, 0.01039, 0.00739, -0.00514, 0.00208, -0.00111, -0.00057, 0.00056,
+            -0.00042, 0.00042, 0.00038, -0.00024, -0.00017, -0.00007, 0.00004, 0.00004, 0.00003, 0.00003,
+            -0.00003, 0.00003, -0.00002, -0.00002, 0.00002};
+    private static final double[] FULL_MOON = {
+            -0.40614, 0.17302, 0.01614, 0.01043, 0.00734, -0.00515, 0.00209, -0.00111, -0.00057, 0.00056,
+            -0.00042, 0.00042, 0.00038, -0.00024, -0.00017, -0.00007, 0.00004, 0.00004, 0.00003, 0.00003,
+            -0.00003, 0.00003, -0.00002, -0.00002, 0.00002};
+    // the arguments of the terms as multiples of M', M, F and the node, then the power of E the term
+    // is multiplied by, which the book only gives for the larger terms
+    private static final int[][] NEW_AND_FULL_ARGUMENTS = {
+            {1, 0, 0, 0, 0}, {0, 1, 0, 0, 1}, {2, 0, 0, 0, 0}, {0, 0, 2, 0, 0}, {1, -1, 0, 0, 1},
+            {1, 1, 0, 0, 1}, {0, 2, 0, 0, 2}, {1, 0, -2, 0, 0}, {1, 0, 2, 0, 0}, {2, 1, 0, 0, 1},
+            {3, 0, 0, 0, 0}, {0, 1, 2, 0, 1}, {0, 1, -2, 0, 1}, {2, -1, 0, 0, 1}, {0, 0, 0, 1, 0},
+            {1, 2, 0, 0, 0}, {2, 0, -2, 0, 0}, {0, 3, 0, 0, 0}, {1, 1, -2, 0, 0}, {2, 0, 2, 0, 0},
+            {1, 1, 2, 0, 0}, {1, -1, 2, 0, 0}, {1, -1, -2, 0, 0}, {3, 1, 0, 0, 0}, {4, 0, 0, 0, 0}};
+    private static final double[] QUARTER = {
+            -0.62801, 0.17172, -0.01183, 0.00862, 0.00804, 0.00454, 0.00204, -0.00180, -0.00070, -0.00040,
+            -0.00034, 0.00032, 0.00032, -0.00028, 0.00027, -0.00017, -0.00005, 0.00004, -0.00004, 0.00004,
+            0.00003, 0.00003, 0.00002, 0.00002, -0.00002};
+    private static final int[][] QUARTER_ARGUMENTS = {
+            {1, 0, 0, 0, 0}, {0, 1, 0, 0, 1}, {1, 1, 0, 0, 1}, {2, 0, 0, 0, 0}, {0, 0, 2, 0, 0},
+            {1, -1, 0, 0, 1}, {0, 2, 0, 0, 2}, {1, 0, -2, 0, 0}, {1, 0, 2, 0, 0}, {3, 0, 0, 0, 0},
+            {2, -1, 0, 0, 1}, {0, 1, 2, 0, 1}, {0, 1, -2, 0, 1}, {1, 2, 0, 0, 2}, {2, 1, 0, 0, 1},
+            {0, 0, 0, 1, 0}, {1, -1, -2, 0, 0}, {2, 0, 2, 0, 0}, {1, 1, 2, 0, 0}, {1, -2, 0, 0, 0},
+            {1, 1, -2, 0, 0}, {0, 3, 0, 0, 0}, {2, 0, -2, 0, 0}, {1, -1, 2, 0, 0}, {3, 1, 0, 0, 0}};
+
+    // the planetary arguments A1 to A14, constant and rate per lunation, and their coefficients
+    private static final double[][] PLANETARY = {
+            {299.77, 0.107408}, {251.88, 0.016321}, {251.83, 26.651886}, {349.42, 36.412478},
+            {84.66, 18.206239}, {141.74, 53.303771}, {207.14, 2.453732}, {154.84, 7.306860},
+            {34.52, 27.261239}, {207.19, 0.121824}, {291.34, 1.844379}, {161.72, 24.198154},
+            {239.56, 25.513099}, {331.55, 3.592518}};
+    private static final double[] PLANETARY_COEFFICIENTS = {
+            0.000325, 0.000165, 0.000164, 0.000126, 0.000110, 0.000062, 0.000060, 0.000056,
+            0.000047, 0.000042, 0.000040, 0.000037, 0.000035, 0.000023};
+
+    private MeeusPhaseCorpus() {
+    }
+
+    /**
+     * @param k the lunation since the new moon of 2000 January 6, plus 0.25 for the first quarter, 0.5
+     *          for the full moon and 0.75 for the last quarter
+     * @return the instant of the phase as a julian ephemeris day
+     */
+    static double julianEphemerisDay(double k) {
+        double t = k / 1236.85;
+        double t2 = t * t;
+        double t3 = t2 * t;
+        double t4 = t3 * t;
+        double jde = 2451550.09766 + 29.530588861 * k + 0.00015437 * t2 - 0.000000150 * t3 + 0.00000000073 * t4;
+
+        double e = 1 - 0.002516 * t - 0.0000074 * t2;
+        double sunAnomaly = Math.toRadians(2.5534 + 29.10535670 * k - 0.0000014 * t2 - 0.00000011 * t3);
+        double moonAnomaly = Math.toRadians(201.5643 + 385.81693528 * k + 0.0107582 * t2 + 0.00001238 * t3
+                - 0.000000058 * t4);
+        double latitudeArgument = Math.toRadians(160.7108 + 390.67050284 * k - 0.0016118 * t2
+                - 0.00000227 * t3 + 0.000000011 * t4);
+        double node = Math.toRadians(124.7746 - 1.56375588 * k + 0.0020672 * t2 + 0.00000215 * t3);
+
+        double fraction = k - Math.floor(k);
+        boolean quarter = fraction == 0.25 || fraction == 0.75;
+        double[] coefficients = quarter ? QUARTER : fraction == 0 ? NEW_MOON : FULL_MOON;
+        int[][] arguments = quarter ? QUARTER_ARGUMENTS : NEW_AND_FULL_ARGUMENTS;
+        for (int i = 0; i < coefficients.length; i++) {
+            int[] multiples = arguments[i];
+            double term = coefficients[i] * Math.sin(multiples[0] * moonAnomaly + multiples[1] * sunAnomaly
+                    + multiples[2] * latitudeArgument + multiples[3] * node);
+            jde += term * Math.pow(e, multiples[4]);
+        }
+        if (quarter) {
+            double w = 0.00306 - 0.00038 * e * Math.cos(sunAnomaly) + 0.00026 * Math.cos(moonAnomaly)
+                    - 0.00002 * Math.cos(moonAnomaly - sunAnomaly) + 0.00002 * Math.cos(moonAnomaly + sunAnomaly)
+                    + 0.00002 * Math.cos(2 * latitudeArgument);
+            jde += fraction == 0.25 ? w : -w;
+        }
+        for (int i = 0; i < PLANETARY.length; i++) {
+            double argument = PLANETARY[i][0] + PLANETARY[i][1] * k - (i == 0 ? 0.009173 * t2 : 0);
+            jde += PLANETARY_COEFFICIENTS[i] * Math.sin(Math.toRadians(argument));
+        }
+        return jde;
+    }
+
+    /**
+     * @return the reference events in universal time, in time order, or in dynamical time if
+     * {@link DeltaT} is turned off
+     * @throws IOException if the resource can't be read
+     */
+    static List<Event> read() throws IOException {
+        List<Event> events = new ArrayList<>();
+        try (InputStream in = MeeusPhaseCorpus.class.getResourceAsStream(RESOURCE);
+             BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (line.startsWith("#") || line.startsWith("instant")) {
+                    continue;
+                }
+                int comma = line.indexOf(',');
+                long dynamical = Instant.parse(line.substring(0, comma)).getEpochSecond();
+                long deltaT = Math.round(DeltaT.days(JulianDate.fromEpochSecond(dynamical)) * 24 * 3600);
+                events.add(new Event(MoonPhaseFinder.MoonPhase.valueOf(line.substring(comma + 1)), dynamical - deltaT));
+            }
+        }
+        return events;
+    }
+
+    /**
+     * Writes the corpus.
+     *
+     * @param args the file to write
+     * @throws IOException if it can't be written
+     */
+    public static void main(String[] args) throws IOException {
+        MoonPhaseFinder.MoonPhase[] phases = {MoonPhaseFinder.MoonPhase.NEW, MoonPhaseFinder.MoonPhase.FIRSTQUARTER,
+                MoonPhaseFinder.MoonPhase.FULL, MoonPhaseFinder.MoonPhase.LASTQUARTER};
+        long first = Instant.parse(FIRST_YEAR + "-01-01T00:00:00Z").getEpochSecond();
+        long end = Instant.parse((LAST_YEAR + 1) + "-01-01T00:00:00Z").getEpochSecond();
+        try (PrintWriter out = new PrintWriter(Files.newBufferedWriter(Paths.get(args[0]), StandardCharsets.US_ASCII))) {
+            out.print("# moon phases " + FIRST_YEAR + "-" + LAST_YEAR + " in dynamical time, from chapter 49 of"
+                    + " Astronomical Algorithms, see MeeusPhaseCorpus\n");
+            out.print("instant,phase\n");
+            for (long lunation = Math.round((FIRST_YEAR - 2000) * 12.3685) - 1;
+                 lunation <= Math.round((LAST_YEAR + 1 - 2000) * 12.3685); lunation++) {
+                for (int quarter = 0; quarter < 4; quarter++) {
+                    double jde = julianEphemerisDay(lunation + quarter / 4.0);
+                    long epochSecond = Math.round((jde - 2440587.5) * 86400);
+                    if (epochSecond >= first && epochSecond < end) {
+                        out.print(Instant.ofEpochSecond(epochSecond) + "," + phases[quarter] + "\n");
+                    }
+                }
+            }
+        }
+    }
+
+}
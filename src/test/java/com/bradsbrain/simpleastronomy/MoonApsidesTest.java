@@ -0,0 +1,110 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bradsbrain.simpleastronomy.MoonApsides.Supermoon;
+
+public class MoonApsidesTest {
+
+    private static double hoursBetween(ZonedDateTime first, ZonedDateTime second) {
+        return Math.abs(Duration.between(first, second).getSeconds()) / 3600.0;
+    }
+
+    @Test
+    public void testFindPerigeeAndApogee() {
+        ZonedDateTime cal = ZonedDateTime.of(2016, 11, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        // published: perigee 2016-11-14 11:23 UTC, apogee 2016-11-27 20:08 UTC
+        ZonedDateTime perigee = MoonApsides.findPerigeeFollowing(cal);
+        ZonedDateTime apogee = MoonApsides.findApogeeFollowing(cal);
+        assertThat(hoursBetween(perigee, ZonedDateTime.of(2016, 11, 14, 11, 23, 0, 0, ZoneOffset.UTC)), lessThan(6.0));
+        assertThat(hoursBetween(apogee, ZonedDateTime.of(2016, 11, 27, 20, 8, 0, 0, ZoneOffset.UTC)), lessThan(8.0));
+
+        assertThat(MoonApsides.getMoonDistance(perigee), closeTo(363297, 10));
+        assertThat(MoonApsides.getMoonDistance(apogee), closeTo(405505, 10));
+    }
+
+    @Test
+    public void testApsidesAlternate() {
+        ZonedDateTime cal = ZonedDateTime.of(1900, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int i = 0; i < 500; i++) {
+            ZonedDateTime perigee = MoonApsides.findPerigeeFollowing(cal);
+            ZonedDateTime apogee = MoonApsides.findApogeeFollowing(perigee);
+            assertThat(MoonApsides.findPerigeeFollowing(apogee), is(MoonApsides.findPerigeeFollowing(perigee.plusMinutes(1))));
+            assertThat(hoursBetween(perigee, apogee) / 24, closeTo(13.8, 1.5));
+            cal = apogee;
+        }
+    }
+
+    @Test
+    public void testFindSupermoons() {
+        List<Supermoon> supermoons = MoonApsides.findSupermoons(ZonedDateTime.of(2015, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                ZonedDateTime.of(2019, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC), 24);
+
+        List<Integer> days = new ArrayList<>();
+        for (Supermoon supermoon : supermoons) {
+            days.add(supermoon.getFullMoon().getYear() * 10000 + supermoon.getFullMoon().getMonthValue() * 100
+                    + supermoon.getFullMoon().getDayOfMonth());
+            assertThat(hoursBetween(supermoon.getFullMoon(), supermoon.getPerigee()), lessThan(24.0));
+            assertThat(supermoon.getDistance(), lessThan(364000.0));
+        }
+        assertThat(days, contains(20150928, 20161114, 20180102));
+    }
+
+    @Test
+    public void testSupermoonsAgreeWithAPerigeeSearchPerFullMoon() {
+        ZonedDateTime from = ZonedDateTime.of(1950, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        ZonedDateTime to = ZonedDateTime.of(2050, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        double hours = 36;
+
+        List<ZonedDateTime> expected = new ArrayList<>();
+        ZonedDateTime fullMoon = MoonPhaseFinder.findFullMoonFollowing(from.minusSeconds(1));
+        while (fullMoon.isBefore(to)) {
+            ZonedDateTime perigee = MoonApsides.findPerigeeFollowing(fullMoon.minusHours(40));
+            if (hoursBetween(fullMoon, perigee) <= hours) {
+                expected.add(fullMoon);
+            }
+            fullMoon = MoonPhaseFinder.findFullMoonFollowing(fullMoon.plusMinutes(1));
+        }
+
+        List<ZonedDateTime> found = new ArrayList<>();
+        for (Supermoon supermoon : MoonApsides.findSupermoons(from, to, hours)) {
+            found.add(supermoon.getFullMoon());
+        }
+        assertThat(found, is(expected));
+    }
+
+    @Test
+    public void testWindowMustBeLessThanHalfAnAnomalisticMonth() {
+        ZonedDateTime cal = ZonedDateTime.of(2016, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        assertThrows(IllegalArgumentException.class, () -> MoonApsides.findSupermoons(cal, cal.plusYears(1), -1));
+        assertThrows(IllegalArgumentException.class, () -> MoonApsides.findSupermoons(cal, cal.plusYears(1), 400));
+    }
+
+}
@@ -0,0 +1,74 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class MoonIlluminationSeriesTest {
+
+    private static final ZonedDateTime start = ZonedDateTime.of(2015, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    @Test
+    public void everyMinuteMatchesTheSingleDateCalculation() {
+        MoonIlluminationSeries.generate(start, Duration.ofMinutes(1), 3 * 24 * 60, (epochSecond, visiblePercent) -> {
+            ZonedDateTime sample = ZonedDateTime.ofInstant(Instant.ofEpochSecond(epochSecond), ZoneOffset.UTC);
+            assertThat(visiblePercent, closeTo(MoonPhaseFinder.getMoonVisiblePercent(sample), 0.001));
+        });
+    }
+
+    @Test
+    public void everyHourForTwoYearsMatchesTheSingleDateCalculation() {
+        MoonIlluminationSeries series = new MoonIlluminationSeries(start, Duration.ofHours(1));
+        for (int i = 0; i < 2 * 365 * 24; i++) {
+            ZonedDateTime sample = start.plusHours(i);
+            assertThat(series.nextEpochSecond(), is(sample.toEpochSecond()));
+            assertThat(series.nextVisiblePercent(), closeTo(MoonPhaseFinder.getMoonVisiblePercent(sample), 0.001));
+        }
+    }
+
+    @Test
+    public void rawSeriesIsNotRounded() {
+        MoonIlluminationSeries series = new MoonIlluminationSeries(start, Duration.ofHours(1), Precision.RAW);
+        for (int i = 0; i < 30 * 24; i++) {
+            ZonedDateTime sample = start.plusHours(i);
+            series.nextEpochSecond();
+            assertThat(series.nextVisiblePercent(), closeTo(MoonPhaseFinder.getMoonVisiblePercent(sample,
+                    EphemerisTier.LOW.getEphemeris(), Precision.RAW), 1e-9));
+        }
+    }
+
+    @Test
+    public void streamHasOneValuePerSample() {
+        double[] samples = MoonIlluminationSeries.stream(start, Duration.ofHours(6), 120).toArray();
+
+        assertThat(samples.length, is(120));
+        assertThat(samples[100], closeTo(MoonPhaseFinder.getMoonVisiblePercent(start.plusHours(600)), 0.001));
+    }
+
+    @Test
+    public void stepMustBeWholeSeconds() {
+        assertThrows(IllegalArgumentException.class, () -> new MoonIlluminationSeries(start, Duration.ofMillis(1500)));
+        assertThrows(IllegalArgumentException.class, () -> new MoonIlluminationSeries(start, Duration.ZERO));
+    }
+}
@@ -0,0 +1,157 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.instanceOf;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayDeque;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+
+import org.junit.jupiter.api.Test;
+
+public class MoonPhaseFinderAsyncTest {
+
+    private static final ZonedDateTime DECEMBER = ZonedDateTime.of(2015, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    /**
+     * Runs the queued tasks only when asked to
+     */
+    private static class ManualExecutor implements Executor {
+        final Queue<Runnable> tasks = new ArrayDeque<>();
+
+        public void execute(Runnable task) {
+            tasks.add(task);
+        }
+
+        void runQueued() {
+            for (int queued = tasks.size(); queued > 0; queued--) {
+                tasks.remove().run();
+            }
+        }
+
+        void runAll() {
+            while (!tasks.isEmpty()) {
+                tasks.remove().run();
+            }
+        }
+    }
+
+    @Test
+    public void testSameAnswersAsMoonPhaseFinder() {
+        MoonPhaseFinderAsync async = new MoonPhaseFinderAsync(Runnable::run);
+
+        assertThat(async.findNewMoonFollowing(DECEMBER).join(), equalTo(MoonPhaseFinder.findNewMoonFollowing(DECEMBER)));
+        assertThat(async.findFirsQuarterFollowing(DECEMBER).join(), equalTo(MoonPhaseFinder.findFirsQuarterFollowing(DECEMBER)));
+        assertThat(async.findFullMoonFollowing(DECEMBER).join(), equalTo(MoonPhaseFinder.findFullMoonFollowing(DECEMBER)));
+        assertThat(async.findLastQuarterFollowing(DECEMBER).join(), equalTo(MoonPhaseFinder.findLastQuarterFollowing(DECEMBER)));
+        assertThat(async.findMoonPhaseAt(DECEMBER).join(), equalTo(MoonPhaseFinder.findMoonPhaseAt(DECEMBER)));
+        assertThat(async.getMoonVisiblePercent(DECEMBER).join(), equalTo(MoonPhaseFinder.getMoonVisiblePercent(DECEMBER)));
+        assertThat(async.inFlightCount(), is(0));
+    }
+
+    @Test
+    public void testQueriesForTheSameEventAreComputedOnce() {
+        ManualExecutor executor = new ManualExecutor();
+        MoonPhaseFinderAsync async = new MoonPhaseFinderAsync(executor);
+
+        CompletableFuture<ZonedDateTime> first = async.findFullMoonFollowing(DECEMBER);
+        CompletableFuture<ZonedDateTime> second = async.findFullMoonFollowing(DECEMBER);
+        // another instant before the same full moon, or the same instant in another zone
+        CompletableFuture<ZonedDateTime> later = async.findFullMoonFollowing(DECEMBER.plusDays(5).plusNanos(1));
+        CompletableFuture<ZonedDateTime> inParis = async.findFullMoonFollowing(DECEMBER.withZoneSameInstant(ZoneId.of("Europe/Paris")));
+        CompletableFuture<ZonedDateTime> newMoon = async.findNewMoonFollowing(DECEMBER);
+        CompletableFuture<MoonPhase> phase = async.findMoonPhaseAt(DECEMBER);
+        CompletableFuture<MoonPhase> samePhase = async.findMoonPhaseAt(DECEMBER);
+        // a lunation lookup for each event query, and one phase computation
+        assertThat(executor.tasks.size(), is(6));
+
+        executor.runQueued();
+        // one search of the lunation's full moon and one of its new moon, whoever asked
+        assertThat(executor.tasks.size(), is(2));
+        assertThat(async.inFlightCount(), is(2));
+
+        // cancelling one caller's future leaves the others alone
+        second.cancel(false);
+        executor.runAll();
+
+        assertThat(first.join(), equalTo(ZonedDateTime.of(2015, 12, 25, 11, 11, 0, 0, ZoneOffset.UTC)));
+        assertThat(later.join(), equalTo(first.join()));
+        assertThat(inParis.join().toInstant(), equalTo(first.join().toInstant()));
+        assertThat(inParis.join().getZone(), equalTo(ZoneId.of("Europe/Paris")));
+        assertThat(newMoon.join(), equalTo(MoonPhaseFinder.findNewMoonFollowing(DECEMBER)));
+        assertThat(samePhase.join(), equalTo(phase.join()));
+        assertThat(async.inFlightCount(), is(0));
+
+        // once finished the query is computed again
+        async.findMoonPhaseAt(DECEMBER);
+        assertThat(executor.tasks.size(), is(1));
+    }
+
+    @Test
+    public void testEventJustPassedIsNotShared() {
+        MoonPhaseFinderAsync async = new MoonPhaseFinderAsync(Runnable::run);
+        ZonedDateTime fullMoon = MoonPhaseFinder.findFullMoonFollowing(DECEMBER);
+
+        // the same lunation, on either side of its full moon
+        assertThat(async.findFullMoonFollowing(fullMoon.minusHours(1)).join(), equalTo(fullMoon));
+        assertThat(async.findFullMoonFollowing(fullMoon.plusHours(1)).join(),
+                equalTo(MoonPhaseFinder.findFullMoonFollowing(fullMoon.plusHours(1))));
+        assertThat(async.findNewMoonFollowing(fullMoon).join(), equalTo(MoonPhaseFinder.findNewMoonFollowing(fullMoon)));
+    }
+
+    @Test
+    public void testFailuresReachTheCaller() {
+        MoonPhaseFinderAsync rejecting = new MoonPhaseFinderAsync(task -> {
+            throw new RejectedExecutionException("full");
+        });
+        ExecutionException rejected = assertThrows(ExecutionException.class,
+                () -> rejecting.findFullMoonFollowing(DECEMBER).get());
+        assertThat(rejected.getCause(), instanceOf(RejectedExecutionException.class));
+        assertThat(rejecting.inFlightCount(), is(0));
+
+        Ephemeris broken = new Ephemeris() {
+            public double getSunEclipticLongitude(double julianDate) {
+                throw new IllegalStateException("no sun");
+            }
+
+            public double getMoonEclipticLongitude(double julianDate) {
+                return 0;
+            }
+        };
+        MoonPhaseFinderAsync failing = new MoonPhaseFinderAsync(Runnable::run, broken);
+        ExecutionException failed = assertThrows(ExecutionException.class, () -> failing.findMoonPhaseAt(DECEMBER).get());
+        assertThat(failed.getCause(), instanceOf(IllegalStateException.class));
+        assertThat(failing.inFlightCount(), is(0));
+    }
+
+    @Test
+    public void testDefaultExecutor() {
+        assertThat(new MoonPhaseFinderAsync().findFullMoonFollowing(DECEMBER).join(),
+                equalTo(MoonPhaseFinder.findFullMoonFollowing(DECEMBER)));
+    }
+
+}
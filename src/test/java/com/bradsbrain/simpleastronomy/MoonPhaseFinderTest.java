@@ -19,12 +19,16 @@ import static com.bradsbrain.simpleastronomy.BaseUtils.formatDateAsShortDateLoca
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
 import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
 
+import java.time.ZoneId;
 import java.time.ZoneOffset;
 import java.time.ZonedDateTime;
 
 import org.junit.jupiter.api.Test;
 
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+
 public class MoonPhaseFinderTest {
 
     @Test
@@ -70,4 +74,39 @@ public class MoonPhaseFinderTest {
 
         assertThat(formatDateAsShortDateLocalTime(moonEventDate, ZoneOffset.UTC), equalTo("2015-12-18"));
     }
+
+    @Test
+    public void testFindMoonPhaseAtDuringDecember2015() {
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 3, 12, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.LASTQUARTER));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 7, 12, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.WANINGCRESCENT));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 11, 1, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.NEW));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 14, 12, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.WAXINGCRESCENT));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 18, 23, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.FIRSTQUARTER));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 21, 12, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.WAXINGGIBBOUS));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 25, 0, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.FULL));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 28, 12, 0, 0, 0, ZoneOffset.UTC)), is(MoonPhase.WANINGGIBBOUS));
+    }
+
+    @Test
+    public void testFindMoonPhaseAtUsesTheCalendarDayOfTheInputTimeZone() {
+        // full moon was 2015-12-25 11:11 UTC, which is Christmas evening in Melbourne but already Boxing Day at +13:00
+        ZoneId melbourne = ZoneId.of("Australia/Melbourne");
+        ZoneId plusThirteen = ZoneOffset.ofHours(13);
+
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 25, 9, 0, 0, 0, melbourne)), is(MoonPhase.FULL));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 26, 9, 0, 0, 0, melbourne)), is(MoonPhase.WANINGGIBBOUS));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 25, 9, 0, 0, 0, plusThirteen)), is(MoonPhase.WAXINGGIBBOUS));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(ZonedDateTime.of(2015, 12, 26, 9, 0, 0, 0, plusThirteen)), is(MoonPhase.FULL));
+    }
+
+    @Test
+    public void testFindNewMoonFollowingNearTheVernalEquinox() {
+        // the moon and sun longitudes both wrap around 360 here, which used to confuse the search
+        ZonedDateTime cal = ZonedDateTime.of(2031, 3, 21, 19, 43, 55, 0, ZoneOffset.UTC);
+
+        ZonedDateTime moonEventDate = MoonPhaseFinder.findNewMoonFollowing(cal);
+
+        assertThat(formatDateAsShortDateLocalTime(moonEventDate, ZoneOffset.UTC), equalTo("2031-03-23"));
+        assertThat(MoonPhaseFinder.getMoonAngle(moonEventDate.plusHours(1)), closeTo(0.5, 0.5));
+    }
 }
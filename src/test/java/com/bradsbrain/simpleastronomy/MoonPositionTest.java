@@ -22,6 +22,9 @@ import java.time.ZonedDateTime;
 
 import static org.hamcrest.MatcherAssert.assertThat;
 import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
 
 
 public class MoonPositionTest {
@@ -35,4 +38,30 @@ public class MoonPositionTest {
         assertThat(moonPosition.getTrueLongitude(), closeTo(336.967472, 0.025)); // is this close enough?
     }
 
+    @Test
+    public void testLongitudeAndAnomalyAtTheSameInstant() {
+        ZonedDateTime c = ZonedDateTime.of(2024, 5, 17, 9, 30, 12, 750_000_000, ZoneOffset.UTC);
+        JulianInstant instant = JulianInstant.of(c);
+
+        MoonPosition moonPosition = new MoonPosition(c);
+
+        assertThat(moonPosition.getTrueLongitude(), is(MoonPosition.trueLongitude(instant)));
+        assertThat(moonPosition.getTrueAnomaly(), is(MoonPosition.trueAnomaly(instant)));
+    }
+
+    @Test
+    public void testDistanceAndAngularDiameter() {
+        for (int day = 0; day < 60; day++) {
+            MoonPosition moonPosition = new MoonPosition(ZonedDateTime.of(2016, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC).plusDays(day));
+
+            // perigee and apogee of an ellipse of eccentricity 0.0549
+            assertThat(moonPosition.getDistance(), greaterThan(363297.0));
+            assertThat(moonPosition.getDistance(), lessThan(405505.0));
+            assertThat(moonPosition.getAngularDiameter() * moonPosition.getDistance(), closeTo(0.5181 * 384401, 0.001));
+        }
+        MoonPosition atPerigee = new MoonPosition(ZonedDateTime.of(2016, 11, 14, 8, 48, 0, 0, ZoneOffset.UTC));
+        assertThat(BaseUtils.adjustTo360Range(atPerigee.getTrueAnomaly() + 180), closeTo(180, 0.1));
+        assertThat(atPerigee.getAngularDiameter(), closeTo(0.548, 0.001));
+    }
+
 }
@@ -0,0 +1,169 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class MoonTrackerTest {
+
+    /**
+     * Examples 47.a and 48.a of <i>Astronomical Algorithms</i>, 1992 April 12 at 0h dynamical time: right
+     * ascension 134.68847, declination 13.76837, distance 368410 km, illuminated fraction 0.6786 and
+     * bright limb at 285.0 degrees, all geocentric.  The distance of Duffett-Smith is 5000 km short.
+     */
+    @Test
+    public void testBookExample() {
+        MoonTracker tracker = new MoonTracker(EphemerisTier.HIGH.getEphemeris());
+        long dynamical = ZonedDateTime.of(1992, 4, 12, 0, 0, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        long universal = dynamical - Math.round(DeltaT.seconds(1992.28));
+        tracker.track(universal, new double[0], new double[0], new double[0], new double[0]);
+
+        assertThat(tracker.getRightAscension(), closeTo(134.68847, 0.1));
+        assertThat(tracker.getDeclination(), closeTo(13.76837, 0.1));
+        assertThat(tracker.getDistance(), closeTo(368410, 8000));
+        assertThat(tracker.getHorizontalParallax(), closeTo(0.99199, 0.02));
+
+        // seen from under the moon the geocentric phase is unchanged
+        double greenwichSiderealTime = SiderealTime.greenwichMeanSiderealTime(JulianInstant.ofEpochSecond(universal)) * 15;
+        int site = tracker.addSite(tracker.getDeclination(), tracker.getRightAscension() - greenwichSiderealTime);
+        double[] altitudes = new double[1];
+        double[] azimuths = new double[1];
+        double[] illuminated = new double[1];
+        double[] brightLimb = new double[1];
+        tracker.track(universal, altitudes, azimuths, illuminated, brightLimb);
+
+        assertThat(altitudes[site], closeTo(90, 0.2));
+        assertThat(illuminated[site], closeTo(0.6786, 0.002));
+        assertThat(brightLimb[site], closeTo(285.0, 1));
+    }
+
+    /**
+     * Example 11.a, Palomar Observatory at 33 21' 22" north and 1706 metres
+     */
+    @Test
+    public void testSiteConstants() {
+        MoonTracker tracker = new MoonTracker();
+        int palomar = tracker.addSite(33 + 21 / 60.0 + 22 / 3600.0, -116.8625, 1706);
+        int pole = tracker.addSite(90, 0);
+
+        assertThat(tracker.getRhoSinGeocentricLatitude(palomar), closeTo(0.546861, 0.000001));
+        assertThat(tracker.getRhoCosGeocentricLatitude(palomar), closeTo(0.836339, 0.000001));
+        assertThat(tracker.getGeocentricLatitude(palomar), closeTo(33.18, 0.01));
+        assertThat(tracker.getGeocentricLatitude(pole), closeTo(90, 1e-9));
+        assertThat(tracker.getRhoSinGeocentricLatitude(pole), closeTo(0.99664719, 1e-9));
+    }
+
+    /**
+     * Parallax lowers the moon by the horizontal parallax times the cosine of its altitude, 57
+     * arcminutes at the horizon and nothing at the zenith
+     */
+    @Test
+    public void testParallaxLowersTheMoon() {
+        MoonTracker tracker = new MoonTracker();
+        double[] latitudes = {51.4769, -33.8688, 0, 64.1466};
+        double[] longitudes = {0, 151.2093, -78.4678, -21.9426};
+        for (int i = 0; i < latitudes.length; i++) {
+            tracker.addSite(latitudes[i], longitudes[i]);
+        }
+        double[] altitudes = new double[4];
+        double[] azimuths = new double[4];
+        double[] illuminated = new double[4];
+        double[] brightLimb = new double[4];
+
+        ZonedDateTime start = ZonedDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int hour = 0; hour < 24 * 30; hour += 7) {
+            ZonedDateTime cal = start.plusHours(hour);
+            tracker.track(cal, altitudes, azimuths, illuminated, brightLimb);
+            double sinDeclination = BaseUtils.sinDegrees(tracker.getDeclination());
+            double cosDeclination = BaseUtils.cosDegrees(tracker.getDeclination());
+            for (int i = 0; i < latitudes.length; i++) {
+                double hourAngle = SiderealTime.localMeanSiderealTime(JulianInstant.of(cal), longitudes[i]) * 15
+                        - tracker.getRightAscension();
+                double geocentric = Math.toDegrees(Math.asin(sinDeclination * BaseUtils.sinDegrees(latitudes[i])
+                        + cosDeclination * BaseUtils.cosDegrees(latitudes[i]) * BaseUtils.cosDegrees(hourAngle)));
+                double parallax = tracker.getHorizontalParallax() * BaseUtils.cosDegrees(altitudes[i]);
+                assertThat(cal + " site " + i, geocentric - altitudes[i], closeTo(parallax, 0.01));
+            }
+        }
+    }
+
+    /**
+     * The bright limb faces the sun, west of the moon while it waxes and east while it wanes, and
+     * the fraction follows the phase
+     */
+    @Test
+    public void testBrightLimbAndFractionFollowThePhase() {
+        MoonTracker tracker = new MoonTracker();
+        tracker.addSite(40.7128, -74.0060, 10);
+        double[] altitudes = new double[1];
+        double[] azimuths = new double[1];
+        double[] illuminated = new double[1];
+        double[] brightLimb = new double[1];
+
+        ZonedDateTime start = ZonedDateTime.of(2015, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        for (int hour = 0; hour < 24 * 60; hour += 5) {
+            ZonedDateTime cal = start.plusHours(hour);
+            tracker.track(cal, altitudes, azimuths, illuminated, brightLimb);
+            double angle = MoonPhaseFinder.getMoonAngle(cal);
+            assertThat(cal.toString(), illuminated[0],
+                    closeTo(MoonPhaseFinder.getMoonVisiblePercent(cal, EphemerisTier.LOW.getEphemeris(), Precision.RAW), 0.02));
+            if (angle > 10 && angle < 170) {
+                assertThat(cal.toString(), brightLimb[0], greaterThan(180.0));
+            } else if (angle > 190 && angle < 350) {
+                assertThat(cal.toString(), brightLimb[0], lessThan(180.0));
+            }
+        }
+    }
+
+    @Test
+    public void testBatchMatchesSingleSites() {
+        MoonTracker batch = new MoonTracker();
+        long epochSecond = ZonedDateTime.of(2024, 10, 3, 7, 13, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        for (int i = 0; i < 100; i++) {
+            assertThat(batch.addSite(-80 + 1.6 * i, -179 + 3.5 * i, 30 * i), is(i));
+        }
+        double[][] results = new double[4][100];
+        batch.track(epochSecond, results[0], results[1], results[2], results[3]);
+
+        for (int i = 0; i < 100; i++) {
+            MoonTracker single = new MoonTracker();
+            single.addSite(-80 + 1.6 * i, -179 + 3.5 * i, 30 * i);
+            double[][] result = new double[4][1];
+            single.track(epochSecond, result[0], result[1], result[2], result[3]);
+            for (int j = 0; j < 4; j++) {
+                assertThat(results[j][i], is(result[j][0]));
+            }
+        }
+    }
+
+    @Test
+    public void testBadInput() {
+        MoonTracker tracker = new MoonTracker();
+        assertThrows(IllegalArgumentException.class, () -> tracker.addSite(-90.5, 0));
+        tracker.addSite(10, 10);
+        double[] one = new double[1];
+        assertThrows(IllegalArgumentException.class, () -> tracker.track(0, one, one, one, new double[0]));
+    }
+
+}
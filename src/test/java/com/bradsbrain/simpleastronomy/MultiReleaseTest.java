@@ -0,0 +1,121 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.not;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.sameInstance;
+
+import java.net.URL;
+import java.util.concurrent.ForkJoinPool;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the right version of each class is loaded, from the classes of the build (always the Java 8
+ * ones) or from the multi-release jar on the runtime running the tests, see the testJava tasks.
+ */
+public class MultiReleaseTest {
+
+    private static final Pattern VERSIONED = Pattern.compile("!/META-INF/versions/(\\d+)/");
+
+    /**
+     * @return the feature release of the running JVM, 8 for 1.8
+     */
+    private static int runtimeVersion() {
+        String version = System.getProperty("java.specification.version");
+        return Integer.parseInt(version.startsWith("1.") ? version.substring(2) : version);
+    }
+
+    /**
+     * @return the release the class was loaded for, 8 for the unversioned classes
+     */
+    private static int loadedVersion(Class<?> type) {
+        URL url = type.getResource(type.getSimpleName() + ".class");
+        Matcher versioned = VERSIONED.matcher(url.toString());
+        return versioned.find() ? Integer.parseInt(versioned.group(1)) : 8;
+    }
+
+    /**
+     * @return the release whose version of a class should be loaded, given the releases it has versions for
+     */
+    private static int expectedVersion(int... overrides) {
+        if (!"jar".equals(Kernels.class.getResource("Kernels.class").getProtocol())) {
+            return 8;
+        }
+        int expected = 8;
+        for (int release : overrides) {
+            if (runtimeVersion() >= release) {
+                expected = release;
+            }
+        }
+        return expected;
+    }
+
+    @Test
+    public void testVersionsLoaded() {
+        assertThat(loadedVersion(Kernels.class), is(expectedVersion(17)));
+        assertThat(loadedVersion(Instrumentation.class), is(expectedVersion(17)));
+        assertThat(loadedVersion(AsyncExecutors.class), is(expectedVersion(21)));
+        assertThat(loadedVersion(MeeusEphemeris.class), is(8));
+    }
+
+    @Test
+    public void testDefaultExecutor() {
+        if (expectedVersion(21) == 21) {
+            assertThat(AsyncExecutors.defaultExecutor(), not(sameInstance(ForkJoinPool.commonPool())));
+        } else {
+            assertThat(AsyncExecutors.defaultExecutor(), sameInstance(ForkJoinPool.commonPool()));
+        }
+    }
+
+    @Test
+    public void testPeriodicSumAgreesWithTheTermByTermSum() {
+        byte[] d = {0, 2, 2, 0, 0, 1};
+        byte[] m = {0, 0, 0, 0, 1, -2};
+        byte[] mPrime = {1, -1, 0, 2, 0, 3};
+        byte[] f = {0, 0, 0, 0, 0, -2};
+        int[] coefficients = {6288774, 1274027, 658314, 213618, -185116, 299};
+        double eccentricity = 0.99;
+        for (int i = 0; i < 100; i++) {
+            double elongation = i * 0.37;
+            double sunAnomaly = i * 1.13;
+            double moonAnomaly = i * 0.71;
+            double latitudeArgument = i * 2.09;
+
+            double expected = 0;
+            for (int term = 0; term < d.length; term++) {
+                expected += coefficients[term] * Math.pow(eccentricity, Math.abs(m[term]))
+                        * Math.sin(d[term] * elongation + m[term] * sunAnomaly + mPrime[term] * moonAnomaly
+                        + f[term] * latitudeArgument);
+            }
+            assertThat(Kernels.periodicSum(d, m, mPrime, f, coefficients, d.length, elongation, sunAnomaly,
+                    moonAnomaly, latitudeArgument, eccentricity), closeTo(expected, 1e-6));
+        }
+        assertThat(Kernels.periodicSum(d, m, mPrime, f, coefficients, 0, 1, 2, 3, 4, eccentricity), is(0.0));
+    }
+
+    @Test
+    public void testSearchInstrumentationWithoutARecording() {
+        Object search = Instrumentation.beginSearch();
+        assertThat(search, nullValue());
+        Instrumentation.endSearch(search, EphemerisTier.LOW.getEphemeris(), new NewMoonFinder(), 0, 10, true);
+    }
+
+}
@@ -0,0 +1,138 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+import com.bradsbrain.simpleastronomy.SeasonFinder.Season;
+
+public class PhaseCalendarTest {
+
+    private static final PhaseCalendar CALENDAR = new PhaseCalendar(
+            ZonedDateTime.of(2009, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2031, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+
+    @Test
+    public void testMonthsWithTwoFullMoons() {
+        // the published calendar blue moons of 2010-2030, in UTC
+        assertThat(CALENDAR.findMonthsWith(MoonPhase.FULL, 2, YearMonth.of(2010, 1), YearMonth.of(2030, 12),
+                ZoneOffset.UTC), contains(YearMonth.of(2012, 8), YearMonth.of(2015, 7), YearMonth.of(2018, 1),
+                YearMonth.of(2018, 3), YearMonth.of(2020, 10), YearMonth.of(2023, 8), YearMonth.of(2026, 5),
+                YearMonth.of(2028, 12)));
+    }
+
+    @Test
+    public void testFebruariesWithoutFullMoon() {
+        PhaseCalendar twoCenturies = new PhaseCalendar(ZonedDateTime.of(1899, 12, 1, 0, 0, 0, 0, ZoneOffset.UTC),
+                ZonedDateTime.of(2101, 2, 1, 0, 0, 0, 0, ZoneOffset.UTC));
+        YearMonth first = YearMonth.of(1900, 1);
+        int[] counts = twoCenturies.countPerMonth(MoonPhase.FULL, first, YearMonth.of(2100, 12), ZoneOffset.UTC);
+        List<YearMonth> empty = new ArrayList<>();
+        for (int month = 0; month < counts.length; month++) {
+            if (counts[month] == 0) {
+                empty.add(first.plusMonths(month));
+            }
+        }
+        // every month without a full moon is a February
+        assertThat(empty, contains(YearMonth.of(1915, 2), YearMonth.of(1934, 2), YearMonth.of(1961, 2),
+                YearMonth.of(1999, 2), YearMonth.of(2018, 2), YearMonth.of(2037, 2), YearMonth.of(2067, 2),
+                YearMonth.of(2094, 2)));
+        assertThat(twoCenturies.findMonthsWith(MoonPhase.FULL, 2, first, YearMonth.of(2100, 12), ZoneOffset.UTC)
+                .size(), is(82));
+    }
+
+    @Test
+    public void testMonthsDependOnTheTimeZone() {
+        // the full moon of 2018 January 31 at 13:27 UTC is on February 1 in New Zealand
+        assertThat(CALENDAR.countPerMonth(MoonPhase.FULL, YearMonth.of(2018, 1), YearMonth.of(2018, 3),
+                ZoneOffset.UTC), is(new int[]{2, 0, 2}));
+        assertThat(CALENDAR.countPerMonth(MoonPhase.FULL, YearMonth.of(2018, 1), YearMonth.of(2018, 3),
+                ZoneId.of("Pacific/Auckland")), is(new int[]{1, 1, 1}));
+    }
+
+    @Test
+    public void testSeasons() {
+        assertThat(CALENDAR.getSeason(0), is(Season.DECEMBER_SOLSTICE));
+        assertThat(CALENDAR.getSeason(1), is(Season.MARCH_EQUINOX));
+        assertThat(CALENDAR.getSeasonCount(), is(84));
+
+        int[] perSeason = CALENDAR.countPerSeason(MoonPhase.FULL);
+        long[] firsts = CALENDAR.findNthInSeason(MoonPhase.FULL, 0);
+        long[] fourths = CALENDAR.findNthInSeason(MoonPhase.FULL, 3);
+        for (int season = 0; season < perSeason.length; season++) {
+            assertThat(perSeason[season] == 3 || perSeason[season] == 4, is(true));
+            assertThat(fourths[season] == PhaseCalendar.NONE, is(perSeason[season] == 3));
+            ZonedDateTime start = ZonedDateTime.ofInstant(Instant.ofEpochSecond(CALENDAR.getSeasonStart(season)),
+                    ZoneOffset.UTC);
+            assertThat(MoonPhaseFinder.roundToMinute(firsts[season]),
+                    is(MoonPhaseFinder.findFullMoonFollowing(start).toEpochSecond()));
+        }
+        assertThat(CALENDAR.findNthInSeason(MoonPhase.FULL, 4)[0], is(PhaseCalendar.NONE));
+        assertThat(CALENDAR.findNthInSeason(MoonPhase.FULL, Integer.MAX_VALUE)[0], is(PhaseCalendar.NONE));
+    }
+
+    @Test
+    public void testSeasonalBlueMoons() {
+        PhaseEventList blueMoons = CALENDAR.findSeasonalBlueMoons();
+        List<String> days = new ArrayList<>();
+        for (int i = 0; i < blueMoons.size(); i++) {
+            days.add(blueMoons.getTime(i, ZoneOffset.UTC).toLocalDate().toString());
+        }
+        assertThat(days, contains("2010-11-21", "2013-08-21", "2016-05-21", "2019-05-18", "2021-08-22",
+                "2024-08-19", "2027-05-20", "2029-08-24"));
+    }
+
+    @Test
+    public void testFullMoonNearestTheMarchEquinox() {
+        long[] nearest = CALENDAR.findNearestToSeason(MoonPhase.FULL, Season.MARCH_EQUINOX);
+        assertThat(nearest.length, is(21));
+        // 2023 March 7, 2024 March 25 and 2025 March 14
+        assertThat(dayOf(nearest[13]), is("2023-03-07"));
+        assertThat(dayOf(nearest[14]), is("2024-03-25"));
+        assertThat(dayOf(nearest[15]), is("2025-03-14"));
+    }
+
+    @Test
+    public void testInvalidArguments() {
+        YearMonth january = YearMonth.of(2020, 1);
+        assertThrows(IllegalArgumentException.class,
+                () -> CALENDAR.countPerMonth(MoonPhase.WAXINGGIBBOUS, january, january, ZoneOffset.UTC));
+        assertThrows(IllegalArgumentException.class,
+                () -> CALENDAR.countPerMonth(MoonPhase.FULL, january, YearMonth.of(2031, 2), ZoneOffset.UTC));
+        assertThrows(IllegalArgumentException.class,
+                () -> CALENDAR.countPerMonth(MoonPhase.FULL, january, YearMonth.of(2019, 12), ZoneOffset.UTC));
+        assertThrows(IllegalArgumentException.class, () -> CALENDAR.findNthInSeason(MoonPhase.FULL, -1));
+        assertThrows(IllegalArgumentException.class, () -> CALENDAR.findNearest(MoonPhase.NEW, new long[]{2, 1}));
+        assertThrows(IndexOutOfBoundsException.class, () -> CALENDAR.getSeason(CALENDAR.getSeasonCount()));
+    }
+
+    private static String dayOf(long epochSecond) {
+        return Instant.ofEpochSecond(epochSecond).atZone(ZoneOffset.UTC).toLocalDate().toString();
+    }
+
+}
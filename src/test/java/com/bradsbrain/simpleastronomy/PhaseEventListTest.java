@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder.MoonPhase;
+
+public class PhaseEventListTest {
+
+    private static PhaseEventList listOf(MoonPhase phase, long... epochSeconds) {
+        PhaseEventList list = new PhaseEventList(0);
+        for (long epochSecond : epochSeconds) {
+            list.add(epochSecond, phase);
+        }
+        return list;
+    }
+
+    @Test
+    public void testAddAndRead() {
+        PhaseEventList list = new PhaseEventList(1);
+        for (int i = 0; i < 100; i++) {
+            list.add(1000L * i, MoonPhase.values()[i % 8]);
+        }
+
+        assertThat(list.size(), is(100));
+        assertThat(list.getEpochSecond(42), is(42000L));
+        assertThat(list.getPhase(43), is(MoonPhase.WAXINGGIBBOUS));
+        assertThat(list.get(43), is(new PhaseEvent(43000, MoonPhase.WAXINGGIBBOUS)));
+        assertThat(list.getTime(1, ZoneOffset.UTC), is(ZonedDateTime.of(1970, 1, 1, 0, 16, 40, 0, ZoneOffset.UTC)));
+        assertThat(list.asList().get(95).getPhase(), is(MoonPhase.WANINGCRESCENT));
+        assertThat(list.asDateList(ZoneId.of("America/Chicago")).get(0).getHour(), is(18));
+
+        assertThrows(IndexOutOfBoundsException.class, () -> list.getEpochSecond(100));
+        assertThrows(IndexOutOfBoundsException.class, () -> list.get(-1));
+        assertThrows(IllegalArgumentException.class, () -> list.add(98999, MoonPhase.NEW));
+    }
+
+    @Test
+    public void testBinarySearches() {
+        PhaseEventList list = listOf(MoonPhase.FULL, 10, 20, 20, 30);
+
+        assertThat(list.indexFollowing(5), is(0));
+        assertThat(list.indexFollowing(10), is(1));
+        assertThat(list.indexFollowing(20), is(3));
+        assertThat(list.indexFollowing(30), is(4));
+        assertThat(list.indexAtOrBefore(5), is(-1));
+        assertThat(list.indexAtOrBefore(25), is(2));
+        assertThat(new PhaseEventList().indexFollowing(0), is(0));
+    }
+
+    @Test
+    public void testMerge() {
+        PhaseEventList merged = PhaseEventList.merge(listOf(MoonPhase.NEW, 0, 40, 80),
+                listOf(MoonPhase.FULL, 20, 60), new PhaseEventList(), listOf(MoonPhase.FIRSTQUARTER, 10, 50, 90));
+
+        assertThat(merged.asList(), contains(new PhaseEvent(0, MoonPhase.NEW), new PhaseEvent(10, MoonPhase.FIRSTQUARTER),
+                new PhaseEvent(20, MoonPhase.FULL), new PhaseEvent(40, MoonPhase.NEW),
+                new PhaseEvent(50, MoonPhase.FIRSTQUARTER), new PhaseEvent(60, MoonPhase.FULL),
+                new PhaseEvent(80, MoonPhase.NEW), new PhaseEvent(90, MoonPhase.FIRSTQUARTER)));
+        assertThat(PhaseEventList.merge().size(), is(0));
+    }
+
+    @Test
+    public void testFindPrincipalPhases() {
+        ZonedDateTime from = ZonedDateTime.of(2016, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        PhaseEventList phases = MoonPhaseFinder.findPrincipalPhases(from, from.plusYears(1));
+
+        assertThat(phases.size(), is(50));
+        MoonPhase[] order = {MoonPhase.NEW, MoonPhase.FIRSTQUARTER, MoonPhase.FULL, MoonPhase.LASTQUARTER};
+        ZonedDateTime searchFrom = from;
+        List<ZonedDateTime> dates = phases.asDateList(ZoneOffset.UTC);
+        for (int i = 0; i < phases.size(); i++) {
+            MoonPhase phase = phases.getPhase(i);
+            ZonedDateTime expected;
+            switch (phase) {
+                case NEW:
+                    expected = MoonPhaseFinder.findNewMoonFollowing(searchFrom);
+                    break;
+                case FIRSTQUARTER:
+                    expected = MoonPhaseFinder.findFirsQuarterFollowing(searchFrom);
+                    break;
+                case FULL:
+                    expected = MoonPhaseFinder.findFullMoonFollowing(searchFrom);
+                    break;
+                default:
+                    expected = MoonPhaseFinder.findLastQuarterFollowing(searchFrom);
+                    break;
+            }
+            // the find methods round to the minute
+            long rounded = MoonPhaseFinder.roundToMinute(phases.getEpochSecond(i));
+            assertThat(rounded, is(expected.toEpochSecond()));
+            assertThat(dates.get(i).toEpochSecond(), is(phases.getEpochSecond(i)));
+            if (i > 0) {
+                int previous = Arrays.asList(order).indexOf(phases.getPhase(i - 1));
+                assertThat(phase, is(order[(previous + 1) % 4]));
+            }
+            searchFrom = dates.get(i);
+        }
+    }
+
+}
@@ -0,0 +1,208 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+
+/**
+ * Finds every moon phase of {@link MeeusPhaseCorpus} with each ephemeris tier and each search strategy,
+ * and compares the error and the cost with {@code phase-regression-baseline.csv}.
+ * <p>
+ * The errors and the ephemeris evaluations per event hardly depend on the machine, so they may only
+ * grow by a second or by 5%.  The time per event depends on the machine, its load and any coverage
+ * agent, so it is only reported, unless the {@value #TIME_FACTOR_PROPERTY} system property gives the
+ * factor it may grow by, for a run on a quiet machine comparable to the one the baseline was made on.
+ * When a change makes things better, copy the report printed by the test into the baseline.
+ */
+public class PhaseRegressionTest {
+
+    private static final String BASELINE = "phase-regression-baseline.csv";
+    private static final String TIME_FACTOR_PROPERTY = "phase.regression.timeFactor";
+
+    private static final long SEARCH_FROM_SECONDS = 3 * 24 * 3600;
+
+    /**
+     * How the lunation index refines an estimate, see {@link LunationIndex}
+     */
+    enum Strategy {
+        SECANT, BISECTION;
+
+        MoonFinder apply(final MoonFinder moonFinder) {
+            if (this == SECANT) {
+                return moonFinder;
+            }
+            // without an event angle the index can only bisect
+            return moonFinder::isMoonBefore;
+        }
+    }
+
+    /**
+     * One row of the report and of the baseline.
+     */
+    static final class Result {
+        final String key;
+        final double maxErrorSeconds;
+        final double meanErrorSeconds;
+        final double evaluationsPerEvent;
+        final double nanosPerEvent;
+
+        Result(String key, double maxErrorSeconds, double meanErrorSeconds, double evaluationsPerEvent,
+               double nanosPerEvent) {
+            this.key = key;
+            this.maxErrorSeconds = maxErrorSeconds;
+            this.meanErrorSeconds = meanErrorSeconds;
+            this.evaluationsPerEvent = evaluationsPerEvent;
+            this.nanosPerEvent = nanosPerEvent;
+        }
+
+        static Result parse(String line) {
+            String[] fields = line.split(",");
+            return new Result(fields[0] + "," + fields[1], Double.parseDouble(fields[2]),
+                    Double.parseDouble(fields[3]), Double.parseDouble(fields[4]), Double.parseDouble(fields[5]));
+        }
+
+        @Override
+        public String toString() {
+            return String.format(Locale.ROOT, "%s,%.0f,%.2f,%.2f,%.0f",
+                    key, maxErrorSeconds, meanErrorSeconds, evaluationsPerEvent, nanosPerEvent);
+        }
+    }
+
+    /**
+     * Finds every event of the corpus with a fresh index, twice, and keeps the faster time.
+     */
+    static Result measure(List<MeeusPhaseCorpus.Event> corpus, Strategy strategy, EphemerisTier tier) {
+        MoonFinder[] finders = new MoonFinder[4];
+        for (int quarter = 0; quarter < 4; quarter++) {
+            finders[quarter] = strategy.apply(MoonPhaseFinder.principalPhaseFinder(quarter, tier.getEphemeris()));
+        }
+        long bestNanos = Long.MAX_VALUE;
+        long evaluations = 0;
+        double maxError = 0;
+        double totalError = 0;
+        for (int run = 0; run < 2; run++) {
+            CountingEphemeris ephemeris = new CountingEphemeris(tier.getEphemeris());
+            LunationIndex index = new LunationIndex(ephemeris);
+            maxError = 0;
+            totalError = 0;
+            long start = System.nanoTime();
+            for (MeeusPhaseCorpus.Event event : corpus) {
+                int quarter = quarterOf(event.phase);
+                long found = index.findEventFollowing(event.epochSecond - SEARCH_FROM_SECONDS, finders[quarter],
+                        quarter / 4.0);
+                double error = Math.abs(found - event.epochSecond);
+                maxError = Math.max(maxError, error);
+                totalError += error;
+            }
+            bestNanos = Math.min(bestNanos, System.nanoTime() - start);
+            evaluations = ephemeris.getMoonAngles();
+        }
+        return new Result(strategy.name().toLowerCase(Locale.ROOT) + "," + tier, maxError,
+                totalError / corpus.size(), evaluations / (double) corpus.size(), bestNanos / (double) corpus.size());
+    }
+
+    private static int quarterOf(MoonPhaseFinder.MoonPhase phase) {
+        switch (phase) {
+            case NEW:
+                return 0;
+            case FIRSTQUARTER:
+                return 1;
+            case FULL:
+                return 2;
+            case LASTQUARTER:
+                return 3;
+            default:
+                throw new IllegalArgumentException("not a principal phase: " + phase);
+        }
+    }
+
+    private static Map<String, Result> readBaseline() throws IOException {
+        Map<String, Result> baseline = new LinkedHashMap<>();
+        try (InputStream in = PhaseRegressionTest.class.getResourceAsStream(BASELINE);
+             BufferedReader lines = new BufferedReader(new InputStreamReader(in, StandardCharsets.US_ASCII))) {
+            String line;
+            while ((line = lines.readLine()) != null) {
+                if (!line.startsWith("#") && !line.isEmpty()) {
+                    Result result = Result.parse(line);
+                    baseline.put(result.key, result);
+                }
+            }
+        }
+        return baseline;
+    }
+
+    @Test
+    public void testCorpusMatchesTheBookExamples() throws IOException {
+        // example 49.a, the new moon of 1977 February 18 at 3h37m42s TD
+        assertThat(MeeusPhaseCorpus.julianEphemerisDay(-283), closeTo(2443192.65118, 0.00001));
+        // example 49.b, the last quarter of 2044 January 21 at 23h48m17s TD
+        assertThat(MeeusPhaseCorpus.julianEphemerisDay(544.75), closeTo(2467636.49186, 0.00001));
+
+        List<MeeusPhaseCorpus.Event> corpus = MeeusPhaseCorpus.read();
+        assertThat(corpus.size(), is(9945));
+        for (int i = 1; i < corpus.size(); i++) {
+            assertThat(quarterOf(corpus.get(i).phase), is((quarterOf(corpus.get(i - 1).phase) + 1) % 4));
+        }
+    }
+
+    @Test
+    public void testNoRegressionInAccuracyOrCost() throws IOException {
+        List<MeeusPhaseCorpus.Event> corpus = MeeusPhaseCorpus.read();
+        Map<String, Result> baseline = readBaseline();
+        String timeFactor = System.getProperty(TIME_FACTOR_PROPERTY);
+
+        List<Result> results = new ArrayList<>();
+        for (Strategy strategy : Strategy.values()) {
+            for (EphemerisTier tier : EphemerisTier.values()) {
+                results.add(measure(corpus, strategy, tier));
+            }
+        }
+        System.out.println("# strategy,ephemeris,max error s,mean error s,evaluations per event,ns per event");
+        for (Result result : results) {
+            System.out.println(result);
+        }
+
+        assertThat(results.size(), is(baseline.size()));
+        for (Result result : results) {
+            Result expected = baseline.get(result.key);
+            assertThat(result.key + " max error", result.maxErrorSeconds,
+                    lessThanOrEqualTo(expected.maxErrorSeconds + 1));
+            assertThat(result.key + " mean error", result.meanErrorSeconds,
+                    lessThanOrEqualTo(expected.meanErrorSeconds + 1));
+            assertThat(result.key + " evaluations", result.evaluationsPerEvent,
+                    lessThanOrEqualTo(expected.evaluationsPerEvent * 1.05));
+            if (timeFactor != null) {
+                assertThat(result.key + " time", result.nanosPerEvent,
+                        lessThanOrEqualTo(expected.nanosPerEvent * Double.parseDouble(timeFactor)));
+            }
+        }
+    }
+
+}
@@ -0,0 +1,106 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class PlanetPositionTest {
+
+    private static PlanetPosition at(Planet planet, String time) {
+        return new PlanetPosition(planet, ZonedDateTime.parse(time));
+    }
+
+    @Test
+    public void testVenusAgainstTheFullTheory() {
+        // example 33.a of Astronomical Algorithms, from the full VSOP87 theory: 313.08102, -2.08474
+        // and 0.910947 AU, with aberration and nutation which this leaves out (about 20 arcseconds)
+        PlanetPosition venus = at(Planet.VENUS, "1992-12-20T00:00:00Z");
+        assertThat(venus.getEclipticLongitude(), closeTo(313.081, 0.02));
+        assertThat(venus.getEclipticLatitude(), closeTo(-2.085, 0.01));
+        assertThat(venus.getDistance(), closeTo(0.910947, 0.001));
+        assertThat(venus.getHeliocentricDistance(), closeTo(0.72, 0.01));
+        assertThat(venus.getPlanet(), is(Planet.VENUS));
+    }
+
+    @Test
+    public void testMarsAtItsClosestIn2003() {
+        // 0.3727 AU on 2003 August 27, two days before opposition
+        PlanetPosition mars = at(Planet.MARS, "2003-08-27T10:00:00Z");
+        assertThat(mars.getDistance(), closeTo(0.3727, 0.002));
+        assertThat(mars.getIlluminatedFraction(), greaterThan(0.99));
+        // about 25 arcseconds, a magnitude of -2.9
+        assertThat(mars.getAngularDiameter() * 3600, closeTo(25.1, 0.3));
+        assertThat(mars.getMagnitude(), closeTo(-2.9, 0.2));
+
+        // opposite the sun at the opposition, 2003 August 28 at 17:58
+        String opposition = "2003-08-28T17:58:00Z";
+        double fromSun = at(Planet.MARS, opposition).getEclipticLongitude()
+                - new SunPosition(ZonedDateTime.parse(opposition)).getEclipticLongitude();
+        assertThat(BaseUtils.adjustTo360Range(fromSun), closeTo(180, 0.3));
+    }
+
+    @Test
+    public void testGreatestElongations() {
+        // Venus 46.1 degrees east on 2020 March 24, Mercury 18.2 degrees east on 2020 February 10
+        assertThat(at(Planet.VENUS, "2020-03-24T00:00:00Z").getElongation(), closeTo(46.1, 0.3));
+        assertThat(at(Planet.MERCURY, "2020-02-10T12:00:00Z").getElongation(), closeTo(18.2, 0.3));
+        // half lit, near enough
+        assertThat(at(Planet.VENUS, "2020-03-24T00:00:00Z").getIlluminatedFraction(), closeTo(0.5, 0.03));
+
+        assertThat(Planet.MERCURY.isInferior(), is(true));
+        assertThat(Planet.VENUS.isInferior(), is(true));
+        assertThat(Planet.MARS.isInferior(), is(false));
+    }
+
+    @Test
+    public void testGreatConjunctionOf2020() {
+        // Jupiter and Saturn a tenth of a degree apart on 2020 December 21, at longitude 300.3;
+        // Saturn is the furthest from the unperturbed orbit
+        PlanetPosition jupiter = at(Planet.JUPITER, "2020-12-21T18:00:00Z");
+        PlanetPosition saturn = at(Planet.SATURN, "2020-12-21T18:00:00Z");
+        assertThat(jupiter.getEclipticLongitude(), closeTo(300.3, 0.5));
+        assertThat(saturn.getEclipticLongitude(), closeTo(300.3, 2));
+        assertThat(Math.abs(jupiter.getDeclination() - saturn.getDeclination()), lessThan(1.0));
+        assertThat(jupiter.getRightAscension(), closeTo(saturn.getRightAscension(), 2));
+    }
+
+    @Test
+    public void testTrueAnomalySolvesKeplersEquation() {
+        for (double e : new double[]{0, 0.0068, 0.2056, 0.9}) {
+            for (int m = -360; m <= 360; m += 15) {
+                double trueAnomaly = Math.toRadians(PlanetPosition.trueAnomaly(Math.toRadians(m), e));
+                // back to the mean anomaly through the eccentric anomaly
+                double eccentric = 2 * Math.atan(Math.sqrt((1 - e) / (1 + e)) * Math.tan(trueAnomaly / 2));
+                double meanAnomaly = Math.toDegrees(eccentric - e * Math.sin(eccentric));
+                assertThat(BaseUtils.adjustTo360Range(meanAnomaly - m + 180) - 180, closeTo(0, 1e-9));
+            }
+        }
+    }
+
+    @Test
+    public void testPlanetRequired() {
+        assertThrows(IllegalArgumentException.class,
+                () -> new PlanetPosition(null, ZonedDateTime.parse("2020-01-01T00:00:00Z")));
+    }
+
+}
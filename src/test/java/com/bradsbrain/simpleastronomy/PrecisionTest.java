@@ -0,0 +1,86 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class PrecisionTest {
+
+    @Test
+    public void testSameRoundingAsThePowerOfTen() {
+        Random random = new Random(38L);
+        for (int i = 0; i < 10000; i++) {
+            double value = (random.nextDouble() - 0.5) * Math.pow(10, random.nextInt(8));
+            for (int decimals = 0; decimals <= Precision.MAX_DECIMALS; decimals++) {
+                double digits = Math.pow(10, decimals);
+                assertThat(Precision.decimals(decimals).round(value), is(Math.round(value * digits) / digits));
+                assertThat(BaseUtils.useLessPrecision(value, decimals), is(Math.round(value * digits) / digits));
+            }
+        }
+        // outside of the table
+        assertThat(BaseUtils.useLessPrecision(1234.5, -2), is(1200.0));
+    }
+
+    @Test
+    public void testRawAndScaled() {
+        assertThat(Precision.RAW.isRaw(), is(true));
+        assertThat(Precision.RAW.round(0.12345678), is(0.12345678));
+        assertThat(Precision.PER_MILLE.getDecimals(), is(3));
+        assertThat(Precision.PER_MILLE.toScaled(0.9975), is(998L));
+        assertThat(Precision.decimals(1).toScaled(-0.26), is(-3L));
+
+        assertThrows(IllegalStateException.class, () -> Precision.RAW.toScaled(0.5));
+        assertThrows(IllegalArgumentException.class, () -> Precision.decimals(-1));
+        assertThrows(IllegalArgumentException.class, () -> Precision.decimals(Precision.MAX_DECIMALS + 1));
+    }
+
+    @Test
+    public void testVisiblePercentPrecisions() {
+        Ephemeris ephemeris = EphemerisTier.LOW.getEphemeris();
+        ZonedDateTime waxing = ZonedDateTime.of(2015, 12, 20, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        double raw = MoonPhaseFinder.getMoonVisiblePercent(waxing, ephemeris, Precision.RAW);
+        assertThat(MoonPhaseFinder.getMoonVisiblePercent(waxing, ephemeris, Precision.PER_MILLE),
+                is(MoonPhaseFinder.getMoonVisiblePercent(waxing)));
+        assertThat(MoonPhaseFinder.getMoonVisiblePercent(waxing, ephemeris, Precision.PER_MILLE),
+                is(BaseUtils.useLessPrecision(raw, 3)));
+        assertThat(MoonPhaseFinder.getMoonVisiblePerMille(waxing, ephemeris), is((int) Math.round(raw * 1000)));
+
+        // the same from an angle the caller already has
+        double angle = MoonPhaseFinder.getMoonAngle(waxing, ephemeris);
+        assertThat(MoonPhaseFinder.getMoonVisiblePercent(angle, Precision.RAW), is(raw));
+        assertThat(MoonPhaseFinder.getMoonVisiblePercent(angle, Precision.PER_MILLE),
+                is(MoonPhaseFinder.getMoonVisiblePercent(waxing)));
+        assertThat(MoonPhaseFinder.findMoonPhaseAt(waxing, ephemeris, angle),
+                is(MoonPhaseFinder.findMoonPhaseAt(waxing, ephemeris)));
+
+        // raw values keep growing while the moon waxes, minute by minute
+        double previous = raw;
+        for (int minute = 1; minute <= 60; minute++) {
+            double next = MoonPhaseFinder.getMoonVisiblePercent(waxing.plusMinutes(minute), ephemeris, Precision.RAW);
+            assertThat(next, greaterThan(previous));
+            previous = next;
+        }
+    }
+
+}
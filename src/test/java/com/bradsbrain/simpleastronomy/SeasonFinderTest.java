@@ -0,0 +1,124 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Iterator;
+
+import org.junit.jupiter.api.Test;
+
+import com.bradsbrain.simpleastronomy.SeasonFinder.Season;
+import com.bradsbrain.simpleastronomy.SeasonFinder.SeasonStart;
+
+public class SeasonFinderTest {
+
+    private static final ZonedDateTime START_OF_2016 = ZonedDateTime.of(2016, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    // the 2016 equinoxes and solstices published by the US Naval Observatory, in UTC
+    private static final ZonedDateTime[] PUBLISHED_2016 = {
+            ZonedDateTime.of(2016, 3, 20, 4, 30, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2016, 6, 20, 22, 34, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2016, 9, 22, 14, 21, 0, 0, ZoneOffset.UTC),
+            ZonedDateTime.of(2016, 12, 21, 10, 44, 0, 0, ZoneOffset.UTC)};
+
+    private static double minutesBetween(ZonedDateTime first, ZonedDateTime second) {
+        return Math.abs(Duration.between(first, second).getSeconds()) / 60.0;
+    }
+
+    @Test
+    public void testFindSeasonsFollowing() {
+        assertThat(minutesBetween(SeasonFinder.findMarchEquinoxFollowing(START_OF_2016), PUBLISHED_2016[0]),
+                lessThan(60.0));
+        assertThat(minutesBetween(SeasonFinder.findJuneSolsticeFollowing(START_OF_2016), PUBLISHED_2016[1]),
+                lessThan(60.0));
+        assertThat(minutesBetween(SeasonFinder.findSeptemberEquinoxFollowing(START_OF_2016), PUBLISHED_2016[2]),
+                lessThan(60.0));
+        assertThat(minutesBetween(SeasonFinder.findDecemberSolsticeFollowing(START_OF_2016), PUBLISHED_2016[3]),
+                lessThan(60.0));
+
+        for (Season season : Season.values()) {
+            ZonedDateTime found = SeasonFinder.findSeasonFollowing(START_OF_2016, season,
+                    EphemerisTier.HIGH.getEphemeris());
+            assertThat(season.toString(), minutesBetween(found, PUBLISHED_2016[season.ordinal()]), lessThan(15.0));
+        }
+    }
+
+    @Test
+    public void testEventIsStrictlyFollowing() {
+        ZonedDateTime equinox = SeasonFinder.findMarchEquinoxFollowing(START_OF_2016);
+        ZonedDateTime next = SeasonFinder.findMarchEquinoxFollowing(equinox.plusMinutes(1));
+
+        assertThat(next.getYear(), is(2017));
+        assertThat(Duration.between(equinox, next).getSeconds() / 86400.0, closeTo(365.24, 0.1));
+    }
+
+    @Test
+    public void testSolarLongitudeFinder() {
+        MoonFinder finder = Season.JUNE_SOLSTICE.getFinder();
+
+        assertThat(finder.getEventAngle(), is(90.0));
+        assertThat(finder.isMoonBefore(89.9, 0), is(false));
+        assertThat(finder.isMoonBefore(90, 0), is(true));
+        assertThat(finder.isMoonBefore(269.9, 0), is(true));
+        assertThat(finder.isMoonBefore(270, 0), is(false));
+        assertThat(Season.MARCH_EQUINOX.getFinder().isMoonBefore(359.9, 0), is(false));
+        assertThat(Season.MARCH_EQUINOX.getFinder().isMoonBefore(0.1, 0), is(true));
+    }
+
+    @Test
+    public void testFiveHundredYearTable() {
+        Ephemeris ephemeris = EphemerisTier.MEDIUM.getEphemeris();
+        ZonedDateTime start = ZonedDateTime.of(1800, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+        Iterator<SeasonStart> seasons = SeasonFinder.seasonsFollowing(start, ephemeris);
+
+        SeasonStart previous = null;
+        for (int i = 0; i < 500 * 4; i++) {
+            SeasonStart season = seasons.next();
+            assertThat(season.getSeason(), is(Season.values()[i % 4]));
+            assertThat(season.getTime().getYear(), is(1800 + i / 4));
+            if (previous != null) {
+                long days = Duration.between(previous.getTime(), season.getTime()).toDays();
+                assertThat(days, greaterThan(87L));
+                assertThat(days, lessThan(95L));
+            }
+            if (i % 97 == 0) {
+                // the same search from a single query lands on the same second
+                assertThat(SeasonFinder.findSeasonFollowing(season.getTime().minusDays(10), season.getSeason(),
+                        ephemeris), equalTo(season.getTime()));
+            }
+            previous = season;
+        }
+        assertThat(previous.getTime().getYear(), is(2299));
+    }
+
+    @Test
+    public void testFewEvaluationsPerEvent() {
+        CountingEphemeris ephemeris = new CountingEphemeris(EphemerisTier.LOW.getEphemeris());
+        Iterator<SeasonStart> seasons = SeasonFinder.seasonsFollowing(START_OF_2016, ephemeris);
+        for (int i = 0; i < 2000; i++) {
+            seasons.next();
+        }
+        assertThat(ephemeris.getSunLongitudes() / 2000.0, lessThan(8.0));
+    }
+
+}
@@ -0,0 +1,83 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class SiderealTimeTest {
+
+    private static final double SECOND = 1 / 3600.0;
+
+    private static double hours(int hours, int minutes, double seconds) {
+        return hours + minutes / 60.0 + seconds / 3600;
+    }
+
+    /**
+     * Section 12 of the book, 1980 April 22 at 14h 36m 51.67s UT is 4h 40m 5.23s GST
+     */
+    @Test
+    public void testGreenwichSiderealTimeInBook() {
+        JulianInstant instant = JulianInstant.of(ZonedDateTime.of(1980, 4, 22, 14, 36, 51, 670000000, ZoneOffset.UTC));
+
+        assertThat(SiderealTime.greenwichMeanSiderealTime(instant), closeTo(hours(4, 40, 5.23), 0.05 * SECOND));
+        assertThat(SiderealTime.greenwichMeanSiderealTime(instant.toJulianDate()), closeTo(hours(4, 40, 5.23), 0.05 * SECOND));
+    }
+
+    /**
+     * Section 14 of the book, at the same instant and longitude 64 W the local sidereal time is 0h 24m 5.23s
+     */
+    @Test
+    public void testLocalSiderealTimeInBook() {
+        JulianInstant instant = JulianInstant.of(ZonedDateTime.of(1980, 4, 22, 14, 36, 51, 670000000, ZoneOffset.UTC));
+
+        assertThat(SiderealTime.localMeanSiderealTime(instant, -64), closeTo(hours(0, 24, 5.23), 0.05 * SECOND));
+        // going past midnight the other way round
+        assertThat(SiderealTime.localMeanSiderealTime(instant, 120), closeTo(hours(12, 40, 5.23), 0.05 * SECOND));
+    }
+
+    /**
+     * Examples 12.a and 12.b of <i>Astronomical Algorithms</i>, 1987 April 10 at 0h UT is 13h 10m 46.3668s
+     * and at 19h 21m UT is 8h 34m 57.0896s
+     */
+    @Test
+    public void testGreenwichSiderealTimeInMeeus() {
+        JulianInstant midnight = JulianInstant.of(ZonedDateTime.of(1987, 4, 10, 0, 0, 0, 0, ZoneOffset.UTC));
+        JulianInstant evening = JulianInstant.of(ZonedDateTime.of(1987, 4, 10, 19, 21, 0, 0, ZoneOffset.UTC));
+
+        assertThat(SiderealTime.greenwichMeanSiderealTime(midnight), closeTo(hours(13, 10, 46.3668), 0.001 * SECOND));
+        assertThat(SiderealTime.greenwichMeanSiderealTime(evening), closeTo(hours(8, 34, 57.0896), 0.001 * SECOND));
+    }
+
+    @Test
+    public void testCachedValuesMatch() {
+        SiderealTime siderealTime = new SiderealTime();
+        JulianInstant first = JulianInstant.ofEpochSecond(1700000000L);
+        JulianInstant second = first.plusNanos(1000000);
+
+        for (int longitude = -180; longitude <= 180; longitude += 15) {
+            assertThat(siderealTime.getLocalSiderealTime(first, longitude),
+                    is(SiderealTime.localMeanSiderealTime(first, longitude)));
+        }
+        assertThat(siderealTime.getGreenwichSiderealTime(second), is(SiderealTime.greenwichMeanSiderealTime(second)));
+        assertThat(siderealTime.getGreenwichSiderealTime(first), is(SiderealTime.greenwichMeanSiderealTime(first)));
+    }
+
+}
@@ -0,0 +1,80 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class SkyPositionsTest {
+
+    @Test
+    public void testSameAsEachBodyAlone() {
+        ZonedDateTime cal = ZonedDateTime.parse("2024-04-08T18:00:00Z");
+        SkyPositions sky = new SkyPositions();
+        sky.compute(cal);
+
+        for (SkyPositions.Body body : SkyPositions.Body.values()) {
+            Planet planet = body.getPlanet();
+            if (planet == null) {
+                continue;
+            }
+            PlanetPosition alone = new PlanetPosition(planet, cal);
+            assertThat(body + " longitude", sky.getEclipticLongitude(body), is(alone.getEclipticLongitude()));
+            assertThat(body + " latitude", sky.getEclipticLatitude(body), is(alone.getEclipticLatitude()));
+            assertThat(body + " distance", sky.getDistance(body), is(alone.getDistance()));
+            assertThat(body + " right ascension", sky.getRightAscension(body), is(alone.getRightAscension()));
+            assertThat(body + " declination", sky.getDeclination(body), is(alone.getDeclination()));
+            assertThat(body + " elongation", sky.getElongation(body), closeTo(alone.getElongation(), 1e-9));
+            assertThat(body + " fraction", sky.getIlluminatedFraction(body), is(alone.getIlluminatedFraction()));
+            assertThat(body + " magnitude", sky.getMagnitude(body), is(alone.getMagnitude()));
+        }
+
+        SunPosition sun = new SunPosition(cal);
+        assertThat(sky.getEclipticLongitude(SkyPositions.Body.SUN), closeTo(sun.getEclipticLongitude(), 1e-6));
+        assertThat(sky.getElongation(SkyPositions.Body.SUN), is(0.0));
+        assertThat(sky.getDistance(SkyPositions.Body.SUN), closeTo(1.0, 0.017));
+
+        MoonTracker tracker = new MoonTracker();
+        tracker.track(cal, new double[0], new double[0], new double[0], new double[0]);
+        assertThat(sky.getRightAscension(SkyPositions.Body.MOON), closeTo(tracker.getRightAscension(), 1e-6));
+        assertThat(sky.getDeclination(SkyPositions.Body.MOON), closeTo(tracker.getDeclination(), 1e-6));
+        assertThat(sky.getDistance(SkyPositions.Body.MOON) * Coordinates.ASTRONOMICAL_UNIT,
+                closeTo(tracker.getDistance(), 1e-3));
+        assertThat(SkyPositions.Body.MOON.getPlanet(), nullValue());
+    }
+
+    @Test
+    public void testTotalSolarEclipseOf2024() {
+        // the moon in front of the sun: the same place in the sky and a new moon
+        SkyPositions sky = new SkyPositions();
+        sky.compute(ZonedDateTime.parse("2024-04-08T18:18:00Z").toEpochSecond());
+        assertThat(sky.getElongation(SkyPositions.Body.MOON), closeTo(0, 1));
+        assertThat(sky.getIlluminatedFraction(SkyPositions.Body.MOON), closeTo(0, 0.001));
+        assertThat(sky.getIlluminatedFraction(SkyPositions.Body.SUN), is(1.0));
+    }
+
+    @Test
+    public void testNothingBeforeTheFirstInstant() {
+        SkyPositions sky = new SkyPositions();
+        assertThrows(IllegalStateException.class, () -> sky.getEclipticLongitude(SkyPositions.Body.MARS));
+    }
+
+}
@@ -0,0 +1,131 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class SolarTrackerTest {
+
+    /**
+     * Example 25.a of <i>Astronomical Algorithms</i>, 1992 October 13 at 0h: right ascension
+     * 198.38083, declination -7.78507
+     */
+    @Test
+    public void testEquatorialCoordinates() {
+        SolarTracker tracker = new SolarTracker(EphemerisTier.HIGH.getEphemeris());
+        tracker.track(ZonedDateTime.of(1992, 10, 13, 0, 0, 0, 0, ZoneOffset.UTC), new double[0], new double[0]);
+
+        assertThat(tracker.getRightAscension(), closeTo(198.38083, 0.001));
+        assertThat(tracker.getDeclination(), closeTo(-7.78507, 0.001));
+    }
+
+    /**
+     * Seen from the north pole the sun is as high as its declination, 23.44 degrees at the June
+     * solstice (2015-06-21 16:38 UTC) and 0 at the March equinox (2015-03-20 22:45 UTC)
+     */
+    @Test
+    public void testAltitudeAtThePole() {
+        SolarTracker tracker = new SolarTracker();
+        tracker.addSite(90, 0);
+        double[] altitudes = new double[1];
+        double[] azimuths = new double[1];
+
+        tracker.track(ZonedDateTime.of(2015, 6, 21, 16, 38, 0, 0, ZoneOffset.UTC), altitudes, azimuths);
+        assertThat(altitudes[0], closeTo(23.44, 0.01));
+
+        tracker.track(ZonedDateTime.of(2015, 3, 20, 22, 45, 0, 0, ZoneOffset.UTC), altitudes, azimuths);
+        assertThat(altitudes[0], closeTo(0, 0.02));
+    }
+
+    /**
+     * At the March equinox the sun crosses the meridian around 12:07 local mean time, due south in
+     * Greenwich and due north in Sydney, at 90 degrees minus the latitude
+     */
+    @Test
+    public void testLocalNoonAtEquinox() {
+        SolarTracker tracker = new SolarTracker();
+        int greenwich = tracker.addSite(51.4769, 0);
+        int sydney = tracker.addSite(-33.8688, 151.2093);
+        double[] altitudes = new double[2];
+        double[] azimuths = new double[2];
+
+        tracker.track(ZonedDateTime.of(2015, 3, 20, 12, 7, 30, 0, ZoneOffset.UTC), altitudes, azimuths);
+        assertThat(azimuths[greenwich], closeTo(180, 0.5));
+        assertThat(altitudes[greenwich], closeTo(90 - 51.4769, 0.5));
+
+        // 151.2093 degrees east is 10h 04m 50s ahead of Greenwich
+        tracker.track(ZonedDateTime.of(2015, 3, 20, 2, 2, 40, 0, ZoneOffset.UTC), altitudes, azimuths);
+        assertThat(Math.min(azimuths[sydney], 360 - azimuths[sydney]), closeTo(0, 0.5));
+        assertThat(altitudes[sydney], closeTo(90 - 33.8688, 0.5));
+    }
+
+    /**
+     * On the equator at the equinox the sun rises due east and sets due west, and moves 15 degrees
+     * an hour.  Local noon is around 12:07 UTC at longitude 0.
+     */
+    @Test
+    public void testMorningAndEvening() {
+        SolarTracker tracker = new SolarTracker();
+        tracker.addSite(0, 0);
+        double[] altitudes = new double[1];
+        double[] azimuths = new double[1];
+
+        tracker.track(ZonedDateTime.of(2015, 3, 21, 9, 0, 0, 0, ZoneOffset.UTC), altitudes, azimuths);
+        assertThat(altitudes[0], closeTo(90 - 15 * (3 + 7 / 60.0), 0.5));
+        assertThat(azimuths[0], closeTo(90, 1));
+
+        tracker.track(ZonedDateTime.of(2015, 3, 21, 18, 0, 0, 0, ZoneOffset.UTC), altitudes, azimuths);
+        assertThat(altitudes[0], closeTo(90 - 15 * (5 + 53 / 60.0), 0.5));
+        assertThat(azimuths[0], closeTo(270, 1));
+    }
+
+    @Test
+    public void testBatchMatchesSingleSites() {
+        SolarTracker batch = new SolarTracker();
+        long epochSecond = ZonedDateTime.of(2024, 10, 3, 7, 13, 0, 0, ZoneOffset.UTC).toEpochSecond();
+        for (int i = 0; i < 100; i++) {
+            assertThat(batch.addSite(-80 + 1.6 * i, -179 + 3.5 * i), is(i));
+        }
+        double[] altitudes = new double[100];
+        double[] azimuths = new double[100];
+        batch.track(epochSecond, altitudes, azimuths);
+
+        for (int i = 0; i < 100; i++) {
+            SolarTracker single = new SolarTracker();
+            single.addSite(-80 + 1.6 * i, -179 + 3.5 * i);
+            double[] altitude = new double[1];
+            double[] azimuth = new double[1];
+            single.track(epochSecond, altitude, azimuth);
+            assertThat(altitudes[i], is(altitude[0]));
+            assertThat(azimuths[i], is(azimuth[0]));
+        }
+    }
+
+    @Test
+    public void testBadInput() {
+        SolarTracker tracker = new SolarTracker();
+        assertThrows(IllegalArgumentException.class, () -> tracker.addSite(91, 0));
+        tracker.addSite(10, 10);
+        assertThrows(IllegalArgumentException.class, () -> tracker.track(0, new double[0], new double[1]));
+    }
+
+}
@@ -0,0 +1,109 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.util.Random;
+
+import org.junit.jupiter.api.Test;
+
+public class SunriseSunsetGridTest {
+
+    private static boolean isPolar(long time) {
+        return time == SunriseSunset.POLAR_DAY || time == SunriseSunset.POLAR_NIGHT;
+    }
+
+    @Test
+    public void testWithinTheErrorAllowedEverywhere() {
+        SunriseSunset exact = new SunriseSunset();
+        SunriseSunsetGrid grid = new SunriseSunsetGrid(exact, 1, 5, 10000);
+        Random random = new Random(46);
+        LocalDate[] dates = {LocalDate.of(2024, 6, 21), LocalDate.of(2024, 9, 22), LocalDate.of(2024, 12, 21)};
+
+        for (int i = 0; i < 20000; i++) {
+            LocalDate date = dates[i % dates.length];
+            double latitude = -90 + 180 * random.nextDouble();
+            double longitude = -180 + 360 * random.nextDouble();
+            long sunrise = exact.findSunrise(date, latitude, longitude);
+            long sunset = exact.findSunset(date, latitude, longitude);
+            long gridSunrise = grid.findSunrise(date, latitude, longitude);
+            long gridSunset = grid.findSunset(date, latitude, longitude);
+            if (isPolar(sunrise) || isPolar(gridSunrise)) {
+                assertThat(gridSunrise, is(sunrise));
+                assertThat(gridSunset, is(sunset));
+            } else {
+                // the interpolation is within 5 seconds, plus 1 for rounding
+                assertThat(Math.abs(gridSunrise - sunrise), lessThanOrEqualTo(6L));
+                assertThat(Math.abs(gridSunset - sunset), lessThanOrEqualTo(6L));
+            }
+        }
+        // the cells near the polar days and nights, and at high latitudes where 1 degree cells are
+        // too coarse for 5 seconds
+        assertThat(grid.getExactQueries(), greaterThan(0L));
+        assertThat(grid.getExactQueries(), lessThanOrEqualTo(40000L / 3));
+    }
+
+    @Test
+    public void testEdgesOfTheGrid() {
+        SunriseSunset exact = new SunriseSunset();
+        SunriseSunsetGrid grid = new SunriseSunsetGrid();
+        LocalDate date = LocalDate.of(2024, 3, 1);
+        double[][] sites = {{90, 0}, {-90, 180}, {0, 180}, {0, -180}, {45, 179.99}, {-45, -180}};
+
+        for (double[] site : sites) {
+            long sunrise = exact.findSunrise(date, site[0], site[1]);
+            long gridSunrise = grid.findSunrise(date, site[0], site[1]);
+            if (isPolar(sunrise)) {
+                assertThat(gridSunrise, is(sunrise));
+            } else {
+                assertThat(Math.abs(gridSunrise - sunrise), lessThanOrEqualTo(11L));
+            }
+        }
+    }
+
+    @Test
+    public void testTilesAreFilledOnceAndEvicted() {
+        SunriseSunsetGrid grid = new SunriseSunsetGrid(new SunriseSunset(), 0.5, 10, 4);
+        LocalDate date = LocalDate.of(2024, 5, 5);
+        // a tile is 8 degrees square
+        for (int i = 0; i < 100; i++) {
+            grid.findSunrise(date, 40 + i * 0.01, -72 + i * 0.02);
+        }
+        assertThat(grid.getTilesFilled(), is(1L));
+
+        for (int day = 0; day < 10; day++) {
+            grid.findSunset(date.plusDays(day), 40, -72);
+            assertThat(grid.getTileCount(), lessThanOrEqualTo(4));
+        }
+        assertThat(grid.getTilesFilled(), is(10L));
+    }
+
+    @Test
+    public void testBadInput() {
+        SunriseSunset exact = new SunriseSunset();
+        assertThrows(IllegalArgumentException.class, () -> new SunriseSunsetGrid(exact, 0.7, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> new SunriseSunsetGrid(exact, 0, 10, 10));
+        assertThrows(IllegalArgumentException.class, () -> new SunriseSunsetGrid(exact, 1, -1, 10));
+        assertThrows(IllegalArgumentException.class, () -> new SunriseSunsetGrid(exact, 1, 10, 0));
+        assertThrows(IllegalArgumentException.class,
+                () -> new SunriseSunsetGrid().findSunrise(LocalDate.of(2024, 1, 1), -91, 0));
+    }
+
+}
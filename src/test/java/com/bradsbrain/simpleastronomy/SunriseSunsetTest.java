@@ -0,0 +1,90 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.closeTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThan;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class SunriseSunsetTest {
+
+    private static double epochSecond(String utc) {
+        return ZonedDateTime.parse(utc).withZoneSameInstant(ZoneOffset.UTC).toEpochSecond();
+    }
+
+    /**
+     * Times from the NOAA solar calculator, which agree with almanacs to a minute
+     */
+    @Test
+    public void testKnownTimes() {
+        SunriseSunset sun = new SunriseSunset();
+        LocalDate midsummer = LocalDate.of(2024, 6, 21);
+
+        // London
+        assertThat((double) sun.findSunrise(midsummer, 51.5074, -0.1278), closeTo(epochSecond("2024-06-21T03:43:09Z"), 60));
+        assertThat((double) sun.findSunset(midsummer, 51.5074, -0.1278), closeTo(epochSecond("2024-06-21T20:21:41Z"), 60));
+        // Sydney, where the day starts the evening before in UTC
+        assertThat((double) sun.findSunrise(midsummer, -33.8688, 151.2093), closeTo(epochSecond("2024-06-20T21:00:00Z"), 60));
+        assertThat((double) sun.findSunset(midsummer, -33.8688, 151.2093), closeTo(epochSecond("2024-06-21T06:53:55Z"), 60));
+        // New York
+        LocalDate january = LocalDate.of(2024, 1, 15);
+        assertThat((double) sun.findSunrise(january, 40.7128, -74.0060), closeTo(epochSecond("2024-01-15T12:18:08Z"), 60));
+        assertThat((double) sun.findSunset(january, 40.7128, -74.0060), closeTo(epochSecond("2024-01-15T21:52:53Z"), 60));
+        // Reykjavik, where the sun sets after midnight UTC
+        assertThat((double) sun.findSunset(midsummer, 64.1466, -21.9426), closeTo(epochSecond("2024-06-22T00:04:00Z"), 60));
+    }
+
+    /**
+     * At the equator a day lasts 12 hours and 7 minutes all year, the 7 minutes from the refraction
+     * and the size of the sun
+     */
+    @Test
+    public void testDayLengthAtTheEquator() {
+        SunriseSunset sun = new SunriseSunset();
+        for (LocalDate date = LocalDate.of(2024, 1, 1); date.getYear() == 2024; date = date.plusDays(7)) {
+            long dayLength = sun.findSunset(date, 0, 30) - sun.findSunrise(date, 0, 30);
+            assertThat(date.toString(), (double) dayLength, closeTo(12 * 3600 + 7 * 60, 90));
+        }
+    }
+
+    @Test
+    public void testPolarDayAndNight() {
+        SunriseSunset sun = new SunriseSunset();
+        // Tromso
+        assertThat(sun.findSunrise(LocalDate.of(2024, 6, 21), 69.6492, 18.9553), is(SunriseSunset.POLAR_DAY));
+        assertThat(sun.findSunset(LocalDate.of(2024, 6, 21), 69.6492, 18.9553), is(SunriseSunset.POLAR_DAY));
+        assertThat(sun.findSunrise(LocalDate.of(2024, 12, 21), 69.6492, 18.9553), is(SunriseSunset.POLAR_NIGHT));
+        assertThat(sun.findSunrise(LocalDate.of(2024, 6, 21), -90, 0), is(SunriseSunset.POLAR_NIGHT));
+        // the refraction keeps the sun up for a day at the arctic circle
+        assertThat(sun.findSunrise(LocalDate.of(2024, 6, 21), 66.5, 0), is(SunriseSunset.POLAR_DAY));
+        assertThat(sun.findSunrise(LocalDate.of(2024, 3, 21), 69.6492, 18.9553), lessThan(SunriseSunset.POLAR_DAY));
+    }
+
+    @Test
+    public void testBadInput() {
+        SunriseSunset sun = new SunriseSunset();
+        LocalDate date = LocalDate.of(2024, 1, 1);
+        assertThrows(IllegalArgumentException.class, () -> sun.findSunrise(date, 90.5, 0));
+        assertThrows(IllegalArgumentException.class, () -> sun.findSunset(date, 0, -181));
+    }
+
+}
@@ -0,0 +1,212 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.cli;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.containsString;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.nullValue;
+import static org.hamcrest.Matchers.startsWith;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bradsbrain.simpleastronomy.Ephemeris;
+import com.bradsbrain.simpleastronomy.EphemerisTier;
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+import com.bradsbrain.simpleastronomy.Precision;
+
+import java.io.ByteArrayInputStream;
+import java.io.BufferedReader;
+import java.io.ByteArrayOutputStream;
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.PrintStream;
+import java.io.StringReader;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.Channels;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.Test;
+
+public class MoonPhaseCliTest {
+
+    private static final long START_MILLI = ZonedDateTime.of(2015, 12, 25, 0, 0, 0, 0, ZoneOffset.UTC)
+            .toInstant().toEpochMilli();
+
+    private final ByteArrayOutputStream stdout = new ByteArrayOutputStream();
+    private final ByteArrayOutputStream stderr = new ByteArrayOutputStream();
+
+    private int run(String input, String... args) {
+        return MoonPhaseCli.run(args, new ByteArrayInputStream(input.getBytes(StandardCharsets.US_ASCII)),
+                stdout, new PrintStream(stderr, true));
+    }
+
+    /**
+     * More than two chunks of hourly timestamps.
+     */
+    private static String hourly() {
+        StringBuilder input = new StringBuilder();
+        for (int i = 0; i < 2 * MoonPhaseCli.CHUNK_ROWS + 100; i++) {
+            input.append(START_MILLI + i * 3600000L).append('\n');
+        }
+        return input.toString();
+    }
+
+    @Test
+    public void testCsvIsInInputOrderWhateverTheWorkers() {
+        String input = hourly();
+        assertThat(run(input, "--workers", "1"), is(MoonPhaseCli.EXIT_OK));
+        String single = new String(stdout.toByteArray(), StandardCharsets.US_ASCII);
+        stdout.reset();
+        assertThat(run(input, "--workers", "3"), is(MoonPhaseCli.EXIT_OK));
+        String parallel = new String(stdout.toByteArray(), StandardCharsets.US_ASCII);
+
+        assertThat(parallel, equalTo(single));
+        String[] rows = single.split("\n");
+        assertThat(rows.length, is(2 * MoonPhaseCli.CHUNK_ROWS + 101));
+        assertThat(rows[0], is("timestamp,phase,illumination,moon_angle"));
+
+        ZonedDateTime last = ZonedDateTime.of(2015, 12, 25, 0, 0, 0, 0, ZoneOffset.UTC)
+                .plusHours(2 * MoonPhaseCli.CHUNK_ROWS + 99);
+        assertThat(rows[rows.length - 1], is((START_MILLI + (2 * MoonPhaseCli.CHUNK_ROWS + 99) * 3600000L)
+                + "," + MoonPhaseFinder.findMoonPhaseAt(last)
+                + "," + MoonPhaseFinder.getMoonVisiblePercent(last)
+                + "," + MoonPhaseFinder.getMoonAngle(last)));
+        assertThat(new String(stderr.toByteArray(), StandardCharsets.UTF_8),
+                containsString((2 * MoonPhaseCli.CHUNK_ROWS + 100) + " rows in "));
+    }
+
+    @Test
+    public void testBinaryFromMappedFile() throws IOException {
+        Path dir = Files.createTempDirectory("moon-phase-cli");
+        Path in = dir.resolve("times.txt");
+        Path out = dir.resolve("phases.bin");
+        Files.write(in, ("2015-12-25T11:11:00Z\r\n\r\n" + START_MILLI + "\n2016-01-24T01:46-06:00[America/Chicago]\n")
+                .getBytes(StandardCharsets.US_ASCII));
+
+        assertThat(run("", "--input", in.toString(), "--output", out.toString(), "--format", "binary",
+                "--ephemeris", "high"), is(MoonPhaseCli.EXIT_OK));
+
+        ZonedDateTime[] expected = {
+                ZonedDateTime.of(2015, 12, 25, 11, 11, 0, 0, ZoneOffset.UTC),
+                ZonedDateTime.of(2015, 12, 25, 0, 0, 0, 0, ZoneId.of("UTC")),
+                ZonedDateTime.of(2016, 1, 24, 1, 46, 0, 0, ZoneId.of("America/Chicago")),
+        };
+        ByteBuffer records = ByteBuffer.wrap(Files.readAllBytes(out)).order(ByteOrder.LITTLE_ENDIAN);
+        assertThat(records.remaining(), is(expected.length * MoonPhaseCli.RECORD_BYTES));
+        for (ZonedDateTime cal : expected) {
+            assertThat(records.getLong(), is(cal.toInstant().toEpochMilli()));
+            assertThat(records.getDouble(), is(MoonPhaseFinder.getMoonVisiblePercent(cal,
+                    EphemerisTier.HIGH.getEphemeris(), Precision.RAW)));
+            records.getDouble();
+            assertThat(records.getInt(),
+                    is(MoonPhaseFinder.findMoonPhaseAt(cal, EphemerisTier.HIGH.getEphemeris()).ordinal()));
+            assertThat(records.getInt(), is(0));
+        }
+    }
+
+    @Test
+    public void testMappedLinesAcrossWindows() throws IOException {
+        Path in = Files.createTempFile("moon-phase-cli", ".txt");
+        Files.write(in, "first line\r\nsecond\n\nthe last one, no newline".getBytes(StandardCharsets.US_ASCII));
+
+        try (MappedLineSource lines = new MappedLineSource(in, 8)) {
+            assertThat(lines.nextLine(), is("first line"));
+            assertThat(lines.nextLine(), is("second"));
+            assertThat(lines.nextLine(), is(""));
+            assertThat(lines.nextLine(), is("the last one, no newline"));
+            assertThat(lines.nextLine(), nullValue());
+        }
+    }
+
+    @Test
+    public void testTimestampFormats() {
+        ZoneId tokyo = ZoneId.of("Asia/Tokyo");
+        assertThat(MoonPhaseCli.parseTimestamp("1451042460000", tokyo),
+                is(ZonedDateTime.of(2015, 12, 25, 20, 21, 0, 0, tokyo)));
+        assertThat(MoonPhaseCli.parseTimestamp("2015-12-25T11:11Z", tokyo),
+                is(ZonedDateTime.of(2015, 12, 25, 11, 11, 0, 0, ZoneOffset.UTC)));
+        assertThat(MoonPhaseCli.parseTimestamp("2015-12-25T11:11:00+01:00", tokyo),
+                is(ZonedDateTime.of(2015, 12, 25, 11, 11, 0, 0, ZoneOffset.ofHours(1))));
+        assertThat(MoonPhaseCli.parseTimestamp("2015-12-25T11:11:00.5", tokyo),
+                is(ZonedDateTime.of(2015, 12, 25, 11, 11, 0, 500000000, tokyo)));
+        assertThat(MoonPhaseCli.parseTimestamp("2015-12-25", tokyo),
+                is(ZonedDateTime.of(2015, 12, 25, 0, 0, 0, 0, tokyo)));
+    }
+
+    @Test
+    public void testBadInput() {
+        assertThat(run("2015-12-25\n2015-12-26\nyesterday\n"), is(MoonPhaseCli.EXIT_BAD_INPUT));
+        assertThat(new String(stderr.toByteArray(), StandardCharsets.UTF_8),
+                startsWith("line 3: can't read timestamp 'yesterday'"));
+
+        stderr.reset();
+        assertThat(run("", "--format", "xml"), is(MoonPhaseCli.EXIT_USAGE));
+        assertThat(run("", "--workers", "0"), is(MoonPhaseCli.EXIT_USAGE));
+        assertThat(run("", "--workers"), is(MoonPhaseCli.EXIT_USAGE));
+        assertThat(run("", "--decimals", "16"), is(MoonPhaseCli.EXIT_USAGE));
+        assertThat(new String(stderr.toByteArray(), StandardCharsets.UTF_8), containsString("usage: "));
+        assertThat(new String(stderr.toByteArray(), StandardCharsets.UTF_8),
+                containsString("missing value for --workers"));
+
+        stderr.reset();
+        assertThat(run("", "--workers", "2", "--verbose"), is(MoonPhaseCli.EXIT_USAGE));
+        assertThat(new String(stderr.toByteArray(), StandardCharsets.UTF_8), startsWith("unknown option --verbose"));
+    }
+
+    @Test
+    public void testCallerStreamsStayOpen() {
+        final boolean[] closed = new boolean[1];
+        OutputStream caller = new FilterOutputStream(stdout) {
+            @Override
+            public void close() {
+                closed[0] = true;
+            }
+        };
+        InputStream stdin = new ByteArrayInputStream("2015-12-25\n".getBytes(StandardCharsets.US_ASCII));
+        assertThat(MoonPhaseCli.run(new String[0], stdin, caller, new PrintStream(stderr, true)),
+                is(MoonPhaseCli.EXIT_OK));
+        assertThat(closed[0], is(false));
+        assertThat(new String(stdout.toByteArray(), StandardCharsets.US_ASCII), containsString("2015-12-25"));
+    }
+
+    @Test
+    public void testConversionFailure() {
+        Ephemeris broken = new Ephemeris() {
+            public double getSunEclipticLongitude(double julianDate) {
+                throw new IllegalStateException("no theory");
+            }
+
+            public double getMoonEclipticLongitude(double julianDate) {
+                throw new IllegalStateException("no theory");
+            }
+        };
+        MoonPhaseCli cli = new MoonPhaseCli(broken, MoonPhaseCli.Format.BINARY, ZoneOffset.UTC, 2, Precision.RAW);
+        BufferedReader lines = new BufferedReader(new StringReader("\n2015-12-26\n"));
+
+        MoonPhaseCli.BadTimestampException failure = assertThrows(MoonPhaseCli.BadTimestampException.class,
+                () -> cli.convert(lines::readLine, Channels.newChannel(stdout)));
+        assertThat(failure.getMessage(), startsWith("line 2: can't convert timestamp '2015-12-26'"));
+        assertThat(failure.getMessage(), containsString("no theory"));
+    }
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.lessThanOrEqualTo;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+import com.bradsbrain.simpleastronomy.SeasonFinder;
+
+import java.time.Duration;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.junit.jupiter.api.Test;
+
+public class PhaseEventSchedulerTest {
+
+    private static final ZonedDateTime START = ZonedDateTime.of(2016, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    private static final long MINUTE = 60 * 1000;
+
+    private final AtomicLong now = new AtomicLong(millis(START));
+
+    private static long millis(ZonedDateTime cal) {
+        return cal.toInstant().toEpochMilli();
+    }
+
+    /**
+     * A scheduler on the test's clock, ticking once a minute
+     */
+    private PhaseEventScheduler scheduler() {
+        return new PhaseEventScheduler(now::get, MINUTE, 64);
+    }
+
+    private void advanceTo(PhaseEventScheduler scheduler, ZonedDateTime cal) {
+        now.set(millis(cal));
+        scheduler.advanceTo(now.get());
+    }
+
+    @Test
+    public void testCallsListenersAtEachOccurrence() {
+        PhaseEventScheduler scheduler = scheduler();
+        List<ZonedDateTime> fullMoons = new ArrayList<>();
+        List<Long> calledAt = new ArrayList<>();
+        scheduler.subscribe(AstronomicalEvent.FULL_MOON, (event, time) -> {
+            assertThat(event, is(AstronomicalEvent.FULL_MOON));
+            fullMoons.add(time);
+            calledAt.add(now.get());
+        });
+        List<ZonedDateTime> equinoxes = new ArrayList<>();
+        scheduler.subscribe(AstronomicalEvent.MARCH_EQUINOX, (event, time) -> equinoxes.add(time));
+
+        // one tick at a time, so the clock tells when each listener was called
+        for (long tick = millis(START); tick <= millis(START.plusMonths(4)); tick += MINUTE) {
+            now.set(tick);
+            scheduler.advanceTo(tick);
+        }
+
+        ZonedDateTime first = MoonPhaseFinder.findFullMoonFollowing(START);
+        ZonedDateTime second = MoonPhaseFinder.findFullMoonFollowing(first.plusMinutes(1));
+        ZonedDateTime third = MoonPhaseFinder.findFullMoonFollowing(second.plusMinutes(1));
+        ZonedDateTime fourth = MoonPhaseFinder.findFullMoonFollowing(third.plusMinutes(1));
+        assertThat(fullMoons, contains(first, second, third, fourth));
+        for (int i = 0; i < fullMoons.size(); i++) {
+            assertThat(calledAt.get(i), is(millis(fullMoons.get(i))));
+        }
+        assertThat(equinoxes, contains(SeasonFinder.findMarchEquinoxFollowing(START)));
+    }
+
+    @Test
+    public void testLeadTime() {
+        PhaseEventScheduler scheduler = scheduler();
+        List<Long> early = new ArrayList<>();
+        scheduler.subscribe(AstronomicalEvent.NEW_MOON, Duration.ofHours(3),
+                (event, time) -> early.add(millis(time) - now.get()));
+
+        for (long tick = millis(START); tick <= millis(START.plusMonths(3)); tick += MINUTE) {
+            now.set(tick);
+            scheduler.advanceTo(tick);
+        }
+        assertThat(early.size(), is(3));
+        for (long millis : early) {
+            assertThat(millis, is(3 * 60 * MINUTE));
+        }
+    }
+
+    @Test
+    public void testOneComputationPerOccurrence() {
+        PhaseEventScheduler scheduler = scheduler();
+        AtomicInteger calls = new AtomicInteger();
+        for (int i = 0; i < 10000; i++) {
+            scheduler.subscribe(AstronomicalEvent.values()[i % 4], Duration.ofMinutes(i % 120),
+                    (event, time) -> calls.incrementAndGet());
+        }
+        advanceTo(scheduler, START.plusYears(1));
+
+        // about 49 phases in a year, each computed once, plus the next one of each kind
+        assertThat(calls.get() / 10000, is(12));
+        assertThat(scheduler.computations(), lessThanOrEqualTo(54L));
+        assertThat(scheduler.size(), is(10000));
+    }
+
+    @Test
+    public void testCancel() {
+        PhaseEventScheduler scheduler = scheduler();
+        List<AstronomicalEvent> called = new ArrayList<>();
+        Subscription beforeTaken = scheduler.subscribe(AstronomicalEvent.NEW_MOON, (event, time) -> called.add(event));
+        assertThat(beforeTaken.cancel(), is(true));
+        assertThat(beforeTaken.cancel(), is(false));
+        Subscription waiting = scheduler.subscribe(AstronomicalEvent.PERIGEE, (event, time) -> called.add(event));
+        Subscription kept = scheduler.subscribe(AstronomicalEvent.APOGEE, (event, time) -> called.add(event));
+        advanceTo(scheduler, START.plusMinutes(5));
+        assertThat(scheduler.size(), is(2));
+
+        waiting.cancel();
+        advanceTo(scheduler, START.plusDays(40));
+        assertThat(scheduler.size(), is(1));
+        assertThat(kept.isCancelled(), is(false));
+        assertThat(called.isEmpty(), is(false));
+        for (AstronomicalEvent event : called) {
+            assertThat(event, is(AstronomicalEvent.APOGEE));
+        }
+    }
+
+    @Test
+    public void testFailingListenerDoesNotStopTheOthers() {
+        PhaseEventScheduler scheduler = scheduler();
+        List<Throwable> failures = new ArrayList<>();
+        Thread.UncaughtExceptionHandler handler = Thread.currentThread().getUncaughtExceptionHandler();
+        Thread.currentThread().setUncaughtExceptionHandler((thread, e) -> failures.add(e));
+        try {
+            AtomicInteger calls = new AtomicInteger();
+            scheduler.subscribe(AstronomicalEvent.FIRST_QUARTER, (event, time) -> {
+                throw new IllegalStateException("failing listener");
+            });
+            scheduler.subscribe(AstronomicalEvent.FIRST_QUARTER, (event, time) -> calls.incrementAndGet());
+            advanceTo(scheduler, START.plusMonths(2));
+
+            assertThat(calls.get(), is(2));
+            assertThat(failures.size(), is(2));
+        } finally {
+            Thread.currentThread().setUncaughtExceptionHandler(handler);
+        }
+    }
+
+    @Test
+    public void testSubscriptionArguments() {
+        PhaseEventScheduler scheduler = scheduler();
+        assertThrows(IllegalArgumentException.class, () -> scheduler.subscribe(AstronomicalEvent.FULL_MOON,
+                Duration.ofMinutes(-1), (event, time) -> { }));
+        scheduler.close();
+        assertThrows(IllegalStateException.class, () -> scheduler.subscribe(AstronomicalEvent.FULL_MOON,
+                (event, time) -> { }));
+    }
+
+    @Test
+    public void testThreadTakesSubscriptions() throws InterruptedException {
+        try (PhaseEventScheduler scheduler = new PhaseEventScheduler()) {
+            Subscription subscription = scheduler.subscribe(AstronomicalEvent.NEW_MOON, (event, time) -> { });
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+            while (scheduler.size() == 0 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(scheduler.size(), is(1));
+            subscription.cancel();
+            while (scheduler.size() == 1 && System.nanoTime() < deadline) {
+                Thread.sleep(10);
+            }
+            assertThat(scheduler.size(), is(0));
+        }
+    }
+
+}
@@ -0,0 +1,97 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.schedule;
+
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.contains;
+import static org.hamcrest.Matchers.empty;
+import static org.hamcrest.Matchers.is;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+public class TimerWheelTest {
+
+    private static Subscription subscription() {
+        return new Subscription(null, AstronomicalEvent.NEW_MOON, 0, (event, time) -> { });
+    }
+
+    /**
+     * @return the tick on which each subscription expired
+     */
+    private static List<Long> run(TimerWheel wheel, int ticks) {
+        List<Long> expiredOn = new ArrayList<>();
+        List<Subscription> expired = new ArrayList<>();
+        for (int i = 0; i < ticks; i++) {
+            long tick = wheel.currentTick();
+            wheel.expire(expired);
+            for (int j = 0; j < expired.size(); j++) {
+                expiredOn.add(tick);
+            }
+            expired.clear();
+        }
+        return expiredOn;
+    }
+
+    @Test
+    public void testExpiresOnTheDeadlineTick() {
+        TimerWheel wheel = new TimerWheel(8);
+        wheel.add(subscription(), 3);
+        wheel.add(subscription(), 8);
+        wheel.add(subscription(), 11);
+        wheel.add(subscription(), 27);
+        assertThat(wheel.size(), is(4));
+
+        assertThat(run(wheel, 30), contains(3L, 8L, 11L, 27L));
+        assertThat(wheel.size(), is(0));
+    }
+
+    @Test
+    public void testPastDeadlinesExpireOnTheNextTick() {
+        TimerWheel wheel = new TimerWheel(4);
+        run(wheel, 5);
+        wheel.add(subscription(), 2);
+
+        assertThat(run(wheel, 2), contains(5L));
+    }
+
+    @Test
+    public void testRemove() {
+        TimerWheel wheel = new TimerWheel(4);
+        Subscription first = subscription();
+        Subscription middle = subscription();
+        Subscription last = subscription();
+        wheel.add(first, 1);
+        wheel.add(middle, 5);
+        wheel.add(last, 9);
+
+        wheel.remove(middle);
+        wheel.remove(middle);
+        assertThat(wheel.size(), is(2));
+        wheel.remove(last);
+        wheel.remove(first);
+        assertThat(wheel.size(), is(0));
+        assertThat(run(wheel, 12), is(empty()));
+    }
+
+    @Test
+    public void testSizeMustBeAPowerOfTwo() {
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel(0));
+        assertThrows(IllegalArgumentException.class, () -> new TimerWheel(1000));
+    }
+
+}
@@ -0,0 +1,145 @@
+/*
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ *   http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package com.bradsbrain.simpleastronomy.server;
+
+import static java.time.format.DateTimeFormatter.ISO_ZONED_DATE_TIME;
+import static org.hamcrest.MatcherAssert.assertThat;
+import static org.hamcrest.Matchers.equalTo;
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.is;
+import static org.hamcrest.Matchers.startsWith;
+
+import com.bradsbrain.simpleastronomy.EphemerisTier;
+import com.bradsbrain.simpleastronomy.MoonPhaseFinder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.net.HttpURLConnection;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.URL;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.ZonedDateTime;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+public class MoonPhaseServerTest {
+
+    private MoonPhaseServer server;
+
+    @BeforeEach
+    public void startServer() throws IOException {
+        server = new MoonPhaseServer(new InetSocketAddress(InetAddress.getLoopbackAddress(), 0), 2);
+        server.start();
+    }
+
+    @AfterEach
+    public void stopServer() {
+        server.close();
+    }
+
+    @Test
+    public void testGetWithOneTime() throws IOException {
+        Response response = request("GET", "/phase?t=2015-12-25T11:11:00Z", null);
+        assertThat(response.status, is(200));
+        assertThat(response.body, equalTo("FULL\n"));
+    }
+
+    @Test
+    public void testBatchesAnswerInOrder() throws IOException {
+        String body = "2015-12-01T00:00:00Z\n\n1451606400\n2015-12-01T00:00:00+11:00[Australia/Melbourne]\n";
+        Response response = request("POST", "/full-moon", body);
+        assertThat(response.status, is(200));
+        assertThat(response.body, equalTo("2015-12-25T11:11:00Z\n2016-01-24T01:54:00Z\n"
+                + "2015-12-25T22:11:00+11:00[Australia/Melbourne]\n"));
+    }
+
+    @Test
+    public void testEveryQueryMatchesTheLibrary() throws IOException {
+        ZonedDateTime cal = ZonedDateTime.parse("2031-03-21T08:30:00Z");
+        String expected = MoonPhaseFinder.getMoonVisiblePercent(cal, EphemerisTier.HIGH.getEphemeris()) + "\n";
+        assertThat(request("GET", "/visible-percent?ephemeris=high&t=2031-03-21T08:30:00Z", null).body, equalTo(expected));
+        assertThat(request("GET", "/new-moon?t=2031-03-21T08:30:00Z", null).body,
+                equalTo(ISO_ZONED_DATE_TIME.format(MoonPhaseFinder.findNewMoonFollowing(cal)) + "\n"));
+        assertThat(request("GET", "/first-quarter?t=2031-03-21T08:30:00Z", null).body,
+                equalTo(ISO_ZONED_DATE_TIME.format(MoonPhaseFinder.findFirsQuarterFollowing(cal)) + "\n"));
+        assertThat(request("GET", "/last-quarter?t=2031-03-21T08:30:00Z", null).body,
+                equalTo(ISO_ZONED_DATE_TIME.format(MoonPhaseFinder.findLastQuarterFollowing(cal)) + "\n"));
+    }
+
+    @Test
+    public void testBadRequests() throws IOException {
+        Response badTime = request("POST", "/phase", "2015-12-25T11:11:00Z\nyesterday\n");
+        assertThat(badTime.status, is(400));
+        assertThat(badTime.body, startsWith("Text 'yesterday' could not be parsed"));
+
+        assertThat(request("GET", "/phase?ephemeris=perfect&t=0", null).status, is(400));
+        // an epoch second beyond the range of Instant
+        assertThat(request("GET", "/full-moon?t=999999999999999999", null).status, is(400));
+        assertThat(request("POST", "/phase", "-999999999999999999\n").status, is(400));
+        assertThat(request("DELETE", "/phase", null).status, is(405));
+        assertThat(request("GET", "/phases", null).status, is(404));
+
+        StringBuilder tooMany = new StringBuilder();
+        for (int i = 0; i <= MoonPhaseServer.MAX_BATCH; i++) {
+            tooMany.append(i).append('\n');
+        }
+        assertThat(request("POST", "/phase", tooMany.toString()).status, is(413));
+    }
+
+    @Test
+    public void testLoadGenerator() throws Exception {
+        URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), "/phase");
+        MoonPhaseLoadGenerator.Result result = MoonPhaseLoadGenerator.run(url, 2, Duration.ofMillis(300), 20);
+        assertThat(result.getRequests(), greaterThan(0L));
+        assertThat(result.getTimes(), is(result.getRequests() * 20));
+        assertThat(result.getErrors(), is(0L));
+        assertThat(result.getTimesPerSecond(), greaterThan(result.getRequestsPerSecond()));
+    }
+
+    private Response request(String method, String pathAndQuery, String body) throws IOException {
+        URL url = new URL("http", InetAddress.getLoopbackAddress().getHostAddress(), server.getPort(), pathAndQuery);
+        HttpURLConnection connection = (HttpURLConnection) url.openConnection();
+        connection.setRequestMethod(method);
+        if (body != null) {
+            connection.setDoOutput(true);
+            try (OutputStream out = connection.getOutputStream()) {
+                out.write(body.getBytes(StandardCharsets.UTF_8));
+            }
+        }
+        Response response = new Response();
+        response.status = connection.getResponseCode();
+        try (InputStream in = response.status == 200 ? connection.getInputStream() : connection.getErrorStream()) {
+            ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+            byte[] buffer = new byte[4096];
+            int read;
+            while (in != null && (read = in.read(buffer)) > 0) {
+                bytes.write(buffer, 0, read);
+            }
+            response.body = new String(bytes.toByteArray(), StandardCharsets.UTF_8);
+        }
+        return response;
+    }
+
+    private static class Response {
+        int status;
+        String body;
+    }
+
+}